@@ -4,51 +4,74 @@ package com.example.calendar.controller;
 import com.example.calendar.dto.*;
 import com.example.calendar.model.User;
 import com.example.calendar.repository.UserRepository;
+import com.example.calendar.security.PasswordHasher;
 import com.example.calendar.security.TokenStore;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
 import org.springframework.http.*;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import java.security.Principal;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/auth")
-@RequiredArgsConstructor
 public class AuthController {
 
     private final UserRepository userRepo;
-    private final PasswordEncoder encoder;
     private final TokenStore tokenStore;
+    private final PasswordHasher passwordHasher;
+    // Database writes and token creation after a hash, so the hashing pool only hashes
+    private final Executor completionExecutor;
 
+    public AuthController(UserRepository userRepo, TokenStore tokenStore, PasswordHasher passwordHasher,
+                          @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+                          Executor completionExecutor) {
+        this.userRepo = userRepo;
+        this.tokenStore = tokenStore;
+        this.passwordHasher = passwordHasher;
+        this.completionExecutor = completionExecutor;
+    }
+
+    // Hashing runs on the PasswordHasher pool; these endpoints complete asynchronously
     @PostMapping("/register")
-    public ResponseEntity<?> register(@RequestBody RegisterDTO dto) {
+    public CompletableFuture<ResponseEntity<?>> register(@RequestBody RegisterDTO dto) {
         if (userRepo.existsByEmail(dto.getEmail())) {
-            return ResponseEntity
+            return CompletableFuture.completedFuture(ResponseEntity
                     .status(HttpStatus.CONFLICT)
-                    .body("Email already in use");
+                    .body("Email already in use"));
         }
-        User u = User.builder()
-                .email(dto.getEmail())
-                .passwordHash(encoder.encode(dto.getPassword()))
-                .build();
-        userRepo.save(u);
-        return ResponseEntity.ok("User registered");
+        return passwordHasher.encode(dto.getPassword()).thenApplyAsync(hash -> {
+            User u = User.builder()
+                    .email(dto.getEmail())
+                    .passwordHash(hash)
+                    .build();
+            userRepo.save(u);
+            return ResponseEntity.ok("User registered");
+        }, completionExecutor);
     }
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginDTO dto) {
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody LoginDTO dto) {
         var opt = userRepo.findByEmail(dto.getEmail());
-        if (opt.isPresent()
-                && encoder.matches(dto.getPassword(), opt.get().getPasswordHash())) {
-
+        if (opt.isEmpty()) {
+            return CompletableFuture.completedFuture(invalidCredentials());
+        }
+        User user = opt.get();
+        return passwordHasher.matches(dto.getPassword(), user.getPasswordHash()).thenApplyAsync(matches -> {
+            if (!matches) {
+                return invalidCredentials();
+            }
+            if (passwordHasher.needsUpgrade(user.getPasswordHash())) {
+                upgradeHash(user, dto.getPassword());
+            }
             // now generate a true random token and remember it
-            String jwt = tokenStore.create(opt.get().getEmail());
+            String jwt = tokenStore.create(user.getId(), user.getEmail());
             return ResponseEntity.ok(new LoginResponse(jwt));
-        }
-        return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                .body("Invalid credentials");
+        }, completionExecutor);
     }
 
     @PostMapping("/logout")
@@ -69,27 +92,61 @@ public class AuthController {
     }
 
     @PutMapping("/password")
-    public ResponseEntity<?> changePassword(
+    public CompletableFuture<ResponseEntity<?>> changePassword(
             Principal principal,
             @RequestBody ChangePasswordDTO dto
     ) {
         if (principal == null) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body("User not authenticated");
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body("User not authenticated"));
         }
         String email = principal.getName();
         var opt = userRepo.findByEmail(email);
         if (opt.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body("User not found");
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body("User not found"));
         }
         User u = opt.get();
-        if (!encoder.matches(dto.getOldPassword(), u.getPasswordHash())) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body("Invalid current password");
+        return passwordHasher.matches(dto.getOldPassword(), u.getPasswordHash()).thenCompose(matches -> {
+            if (!matches) {
+                return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                        .body("Invalid current password"));
+            }
+            return passwordHasher.encode(dto.getNewPassword()).thenApplyAsync(hash -> {
+                u.setPasswordHash(hash);
+                userRepo.save(u);
+                return ResponseEntity.ok("Password changed");
+            }, completionExecutor);
+        });
+    }
+
+    /**
+     * The hashing queue is full: fail fast rather than tie up the request
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<String> hashingBusy() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body("Server busy, please retry");
+    }
+
+    private ResponseEntity<?> invalidCredentials() {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body("Invalid credentials");
+    }
+
+    /**
+     * Rehash with the current settings in the background. If hashing is busy the hash stays
+     * as it is until a later login.
+     */
+    private void upgradeHash(User user, String password) {
+        String oldHash = user.getPasswordHash();
+        try {
+            passwordHasher.encode(password)
+                    .thenAcceptAsync(newHash -> userRepo.replacePasswordHash(user.getId(), oldHash, newHash),
+                            completionExecutor);
+        } catch (RejectedExecutionException e) {
+            // Not needed for this login
         }
-        u.setPasswordHash(encoder.encode(dto.getNewPassword()));
-        userRepo.save(u);
-        return ResponseEntity.ok("Password changed");
     }
 }
@@ -1,17 +1,36 @@
 package com.example.calendar.controller;
 
 import com.example.calendar.dto.CreateEventDTO;
+import com.example.calendar.dto.EventChanges;
 import com.example.calendar.dto.EventDTO;
+import com.example.calendar.dto.EventPage;
+import com.example.calendar.dto.EventSeriesPage;
+import com.example.calendar.security.AuthenticatedUser;
+import com.example.calendar.security.RateLimitFilter;
+import com.example.calendar.service.EventSeriesEncoder;
 import com.example.calendar.service.EventService;
+import com.example.calendar.service.OccurrenceId;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.*;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.security.Principal;
 import java.time.LocalDateTime;
+import java.util.HexFormat;
 import java.util.List;
 
 @RestController
@@ -20,7 +39,12 @@ import java.util.List;
 @Validated
 public class EventController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final String LAYOUT_ROWS = "rows";
+    static final String LAYOUT_SERIES = "series";
+
     private final EventService eventService;
+    private final ObjectMapper objectMapper;
 
     /**
      * Create a new event for the logged-in user.
@@ -50,6 +74,12 @@ public class EventController {
      * Fetch all events for the logged-in user between the given start and end datetimes.
      * Required by the calendar UI to display only the visible range.
      * Optionally filter by tag ID.
+     * Results are paged: when more events follow, the X-Next-Cursor header holds the cursor
+     * parameter for the next page. The weak ETag changes with the user's calendar version, so an
+     * unchanged calendar is answered with 304.
+     * With layout=series the page is sent in the columnar {@link EventSeriesPage} form instead of
+     * one object per event. Either layout is also available as CBOR (Accept: application/cbor) or
+     * Smile (application/x-jackson-smile).
      */
     @GetMapping
     public ResponseEntity<?> getEventsInRange(
@@ -61,7 +91,77 @@ public class EventController {
             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
             LocalDateTime end,
             @RequestParam(value = "tagId", required = false)
-            Long tagId
+            Long tagId,
+            @RequestParam(value = "cursor", required = false)
+            String cursor,
+            @RequestParam(value = "limit", required = false)
+            Integer limit,
+            @RequestParam(value = "layout", defaultValue = LAYOUT_ROWS)
+            String layout,
+            WebRequest webRequest
+    ) {
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body("User not authenticated");
+        }
+
+        try {
+            if (!LAYOUT_ROWS.equals(layout) && !LAYOUT_SERIES.equals(layout)) {
+                throw new IllegalArgumentException("Unknown layout: " + layout);
+            }
+            // The token's user ID spares the user lookup on this hot path
+            AuthenticatedUser user = AuthenticatedUser.from(principal);
+            Long userId = user != null ? user.getId() : null;
+
+            // Read before the events: a change in between only makes the next request miss
+            long version = eventService.getCalendarVersion(userId, principal.getName());
+            String eTag = rangeETag(version, principal.getName(), start, end, tagId, cursor, limit, layout);
+            if (webRequest.checkNotModified(eTag)) {
+                // 304 without reading or expanding any events
+                return null;
+            }
+
+            EventPage page = eventService.getEventPage(userId, principal.getName(), start, end, tagId, cursor, limit);
+            List<EventDTO> events = page.getEvents();
+            RateLimitFilter.recordExpandedOccurrences(
+                    (int) events.stream().filter(e -> OccurrenceId.isOccurrenceId(e.getId())).count());
+            // Browsers keep the body and revalidate it with If-None-Match on every fetch;
+            // JSON, CBOR and Smile bodies share the ETag, so caches must tell them apart
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .eTag(eTag)
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .varyBy(HttpHeaders.ACCEPT);
+            if (page.getNextCursor() != null) {
+                response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+            }
+            if (LAYOUT_SERIES.equals(layout)) {
+                return response.body(EventSeriesEncoder.encode(page));
+            }
+            return response.body(events);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("An error occurred while fetching events");
+        }
+    }
+
+    /**
+     * Same range read for Accept: application/x-ndjson, written as one JSON event per line while
+     * the events are produced, so exports of large ranges are not held in memory. Not paged.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<?> streamEventsInRange(
+            Principal principal,
+            @RequestParam("start")
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            LocalDateTime start,
+            @RequestParam("end")
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            LocalDateTime end,
+            @RequestParam(value = "tagId", required = false)
+            Long tagId,
+            HttpServletResponse response
     ) {
         if (principal == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
@@ -69,8 +169,62 @@ public class EventController {
         }
 
         try {
-            List<EventDTO> events = eventService.getEventsForUserInRange(
-                    principal.getName(), start, end, tagId);
+            AuthenticatedUser user = AuthenticatedUser.from(principal);
+            Long userId = user != null ? user.getId() : null;
+            ObjectWriter writer = objectMapper.writerFor(EventDTO.class);
+            int[] occurrences = {0};
+            response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+            OutputStream out = response.getOutputStream();
+            eventService.streamEventsInRange(userId, principal.getName(), start, end, tagId, event -> {
+                if (OccurrenceId.isOccurrenceId(event.getId())) {
+                    occurrences[0]++;
+                }
+                try {
+                    out.write(writer.writeValueAsBytes(event));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            out.flush();
+            RateLimitFilter.recordExpandedOccurrences(occurrences[0]);
+            // Already written
+            return null;
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (Exception e) {
+            if (response.isCommitted()) {
+                // Too late for a status; the client sees the stream end early
+                throw new IllegalStateException("Streaming events failed", e);
+            }
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("An error occurred while fetching events");
+        }
+    }
+
+    /**
+     * The next events of the logged-in user starting at or after from (default: now), for
+     * dashboards and reminders that only need the first few.
+     */
+    @GetMapping("/upcoming")
+    public ResponseEntity<?> getUpcomingEvents(
+            Principal principal,
+            @RequestParam(value = "limit", defaultValue = "10")
+            int limit,
+            @RequestParam(value = "from", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            LocalDateTime from
+    ) {
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body("User not authenticated");
+        }
+
+        try {
+            AuthenticatedUser user = AuthenticatedUser.from(principal);
+            Long userId = user != null ? user.getId() : null;
+            List<EventDTO> events = eventService.getUpcomingEvents(userId, principal.getName(),
+                    from != null ? from : LocalDateTime.now(), limit);
             return ResponseEntity.ok(events);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
@@ -80,6 +234,83 @@ public class EventController {
         }
     }
 
+    /**
+     * Events of the logged-in user created, updated or deleted since the sync token returned by
+     * the previous call. Without since, or when the token predates the retained change log, the
+     * response is a full resync holding all events.
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<?> getChanges(
+            Principal principal,
+            @RequestParam(value = "since", required = false) String since
+    ) {
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body("User not authenticated");
+        }
+
+        try {
+            AuthenticatedUser user = AuthenticatedUser.from(principal);
+            Long userId = user != null ? user.getId() : null;
+            EventChanges changes = eventService.getChangesSince(userId, principal.getName(), since);
+            return ResponseEntity.ok(changes);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("An error occurred while fetching changes");
+        }
+    }
+
+    /**
+     * Server-sent events with the logged-in user's changes as they are committed, from any device.
+     * "changes" frames hold notices (event ID, kind, time span) coalesced over a short interval;
+     * a "resync" frame means notices were dropped and the client should sync via /changes.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamChanges(Principal principal) {
+        // An emitter return type leaves no room for an error body
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        try {
+            AuthenticatedUser user = AuthenticatedUser.from(principal);
+            Long userId = user != null ? user.getId() : null;
+            return ResponseEntity.ok(eventService.subscribeToChanges(userId, principal.getName()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+
+    /**
+     * Reminders of an event of the logged-in user, in minutes before its start. Fired reminders
+     * arrive as "reminder" frames on /stream.
+     */
+    @GetMapping("/{id}/reminders")
+    public ResponseEntity<?> getReminders(@PathVariable Long id, Principal principal) {
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body("User not authenticated");
+        }
+
+        try {
+            return ResponseEntity.ok(eventService.getReminderMinutes(id, principal.getName()));
+        } catch (IllegalArgumentException e) {
+            String message = e.getMessage();
+            if (message.contains("Event not found")) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(message);
+            } else if (message.contains("Access denied")) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body(message);
+            } else {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(message);
+            }
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("An error occurred while fetching reminders");
+        }
+    }
+
     /**
      * Update an existing event for the logged-in user.
      * Supports scope parameter for recurring events: instance, series
@@ -146,4 +377,19 @@ public class EventController {
                     .body("An error occurred while deleting the event");
         }
     }
+
+    /**
+     * Weak ETag of a range read: the calendar version plus a digest of everything else the
+     * response depends on
+     */
+    private static String rangeETag(long version, String email, LocalDateTime start, LocalDateTime end,
+                                    Long tagId, String cursor, Integer limit, String layout) {
+        String request = email + "|" + start + "|" + end + "|" + tagId + "|" + cursor + "|" + limit + "|" + layout;
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(request.getBytes(StandardCharsets.UTF_8));
+            return "W/\"" + version + "-" + HexFormat.of().formatHex(digest, 0, 8) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 }
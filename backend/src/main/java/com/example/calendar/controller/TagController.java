@@ -2,6 +2,7 @@ package com.example.calendar.controller;
 
 import com.example.calendar.dto.CreateTagDTO;
 import com.example.calendar.dto.TagDTO;
+import com.example.calendar.security.AuthenticatedUser;
 import com.example.calendar.service.TagService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -30,7 +31,10 @@ public class TagController {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
         try {
-            List<TagDTO> tags = tagService.getAllTags(principal.getName());
+            AuthenticatedUser user = AuthenticatedUser.from(principal);
+            List<TagDTO> tags = user != null && user.getId() != null
+                    ? tagService.getAllTags(user.getId())
+                    : tagService.getAllTags(principal.getName());
             return ResponseEntity.ok(tags);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
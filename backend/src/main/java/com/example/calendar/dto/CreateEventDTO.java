@@ -39,8 +39,23 @@ public class CreateEventDTO {
     // Tag IDs to associate with this event
     private List<Long> tagIds;
 
+    // Reminders in minutes before the start; null on update keeps the event's reminders
+    private List<Integer> reminderMinutes;
+
+    public CreateEventDTO(String title, String description, LocalDateTime startDateTime, LocalDateTime endDateTime,
+                          String recurrenceRule, LocalDateTime recurrenceEndDate, Integer recurrenceCount,
+                          List<Long> tagIds) {
+        this(title, description, startDateTime, endDateTime, recurrenceRule, recurrenceEndDate, recurrenceCount,
+                tagIds, null);
+    }
+
     // Custom getter to return defensive copy and avoid EI_EXPOSE_REP
     public List<Long> getTagIds() {
         return tagIds == null ? new ArrayList<>() : new ArrayList<>(tagIds);
     }
+
+    // Custom getter to return defensive copy and avoid EI_EXPOSE_REP
+    public List<Integer> getReminderMinutes() {
+        return reminderMinutes == null ? null : new ArrayList<>(reminderMinutes);
+    }
 }
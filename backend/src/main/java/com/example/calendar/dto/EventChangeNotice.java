@@ -0,0 +1,25 @@
+package com.example.calendar.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Live notification that an event changed or was deleted, pushed on /api/events/stream. The span
+ * is what the event covers now, or covered before its deletion; end is null for an open-ended
+ * series. Clients fetch the details with /api/events/changes.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+@EqualsAndHashCode
+public class EventChangeNotice {
+
+    public enum Kind { CHANGED, DELETED }
+
+    private Long eventId;
+    private Kind kind;
+    private LocalDateTime start;
+    private LocalDateTime end;
+    private long version;
+}
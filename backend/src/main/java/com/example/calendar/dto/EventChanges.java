@@ -0,0 +1,19 @@
+package com.example.calendar.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Events changed and deleted since a sync token, and the token to pass next time. On a full
+ * resync events holds all of the user's events and the client replaces what it has.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class EventChanges {
+    private boolean fullResync;
+    private List<EventDTO> events;
+    private List<Long> deletedEventIds;
+    private String syncToken;
+}
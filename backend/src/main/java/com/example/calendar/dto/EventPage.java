@@ -0,0 +1,16 @@
+package com.example.calendar.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * One page of a range read; nextCursor is null on the last page
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class EventPage {
+    private List<EventDTO> events;
+    private String nextCursor;
+}
@@ -0,0 +1,72 @@
+package com.example.calendar.dto;
+
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A page of a range read in columnar form (layout=series): what the events of a series share is
+ * sent once per series, and each occurrence only as the offset of its start. Holds the same
+ * events as the row layout; nextCursor is null on the last page.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class EventSeriesPage {
+
+    /**
+     * Events sharing everything but their start. For expanded occurrences, id is the recurring
+     * master and seriesStartDate its first day; each occurrence's ID is the occurrence ID of the
+     * master and the days from seriesStartDate to its start, and it is its own original start.
+     * Otherwise the block holds the single event id.
+     */
+    @Getter
+    @AllArgsConstructor
+    @ToString
+    public static class Series {
+        private Long id;
+        private boolean occurrences;
+        private LocalDate seriesStartDate;
+        private String title;
+        private String description;
+        private String recurrenceRule;
+        private LocalDateTime recurrenceEndDate;
+        private Integer recurrenceCount;
+        private Long parentEventId;
+        private LocalDateTime originalStartDateTime;
+        private String excludedDates;
+        private List<Long> tagIds;
+        // Every event of the block ends this many seconds after its start
+        private long durationSeconds;
+        // Seconds: the first start from the page origin, every other one from the previous start
+        private long[] startOffsets;
+
+        // Custom getters to return defensive copies and avoid EI_EXPOSE_REP
+        public List<Long> getTagIds() {
+            return tagIds == null ? new ArrayList<>() : new ArrayList<>(tagIds);
+        }
+
+        public long[] getStartOffsets() {
+            return startOffsets == null ? new long[0] : startOffsets.clone();
+        }
+    }
+
+    private String userEmail;
+    private LocalDateTime origin;
+    // Every tag the series refer to
+    private List<TagDTO> tags;
+    private List<Series> series;
+    private String nextCursor;
+
+    // Custom getters to return defensive copies and avoid EI_EXPOSE_REP
+    public List<TagDTO> getTags() {
+        return tags == null ? new ArrayList<>() : new ArrayList<>(tags);
+    }
+
+    public List<Series> getSeries() {
+        return series == null ? new ArrayList<>() : new ArrayList<>(series);
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.calendar.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A reminder that fired, pushed as a "reminder" frame on /api/events/stream: the event, the start
+ * of the occurrence it is for, and how many minutes before that start it was set.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+@EqualsAndHashCode
+public class ReminderNotice {
+    private Long eventId;
+    private String title;
+    private LocalDateTime occurrenceStart;
+    private int minutesBefore;
+}
@@ -0,0 +1,48 @@
+package com.example.calendar.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * A bearer token held in the database, used when calendar.auth.token-mode=persistent.
+ * Only the SHA-256 hash of the token is stored.
+ */
+@Entity
+@Table(name = "auth_tokens")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class AuthToken implements Persistable<String> {
+    @Id
+    @Column(length = 64)
+    private String tokenHash;
+
+    private Long userId;
+
+    @Column(nullable = false)
+    private String email;
+
+    // Epoch milliseconds
+    @Column(nullable = false)
+    private long expiresAt;
+
+    // Rows are only ever inserted or deleted, so saving never needs to check for an existing row
+    @Transient
+    @Builder.Default
+    private boolean newRow = true;
+
+    @Override
+    public String getId() {
+        return tokenHash;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newRow;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        newRow = false;
+    }
+}
@@ -2,6 +2,8 @@ package com.example.calendar.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
@@ -47,9 +49,18 @@ public class Event {
     @Column
     private LocalDateTime originalStartDateTime; // Original start time for this occurrence
 
-    // For handling exclusions in recurring events
-    @Column(columnDefinition = "TEXT")
-    private String excludedDates; // Comma-separated list of excluded dates in ISO format
+    // Latest end of any occurrence (own end for non-recurring events), null for open-ended or unknown
+    @Column
+    private LocalDateTime seriesEndDateTime;
+
+    // Start times of occurrences removed from a recurring series (deleted or overridden).
+    // Loaded with one query for all events of the same result set.
+    @ElementCollection(fetch = FetchType.LAZY)
+    @CollectionTable(name = "event_exclusions", joinColumns = @JoinColumn(name = "event_id"))
+    @Column(name = "excluded_start_date_time", nullable = false)
+    @Fetch(FetchMode.SUBSELECT)
+    @Builder.Default
+    private Set<LocalDateTime> excludedDates = new HashSet<>();
 
     // Many-to-many relationship with tags
     @ManyToMany(cascade = {CascadeType.PERSIST, CascadeType.MERGE}, fetch = FetchType.LAZY)
@@ -65,4 +76,17 @@ public class Event {
     public Set<Tag> getTags() {
         return tags == null ? new HashSet<>() : new HashSet<>(tags);
     }
+
+    // Custom getter to return defensive copy and avoid EI_EXPOSE_REP
+    public Set<LocalDateTime> getExcludedDates() {
+        return excludedDates == null ? new HashSet<>() : new HashSet<>(excludedDates);
+    }
+
+    // Adds to the managed collection so only the new row is inserted
+    public void addExcludedDate(LocalDateTime occurrenceStart) {
+        if (excludedDates == null) {
+            excludedDates = new HashSet<>();
+        }
+        excludedDates.add(occurrenceStart);
+    }
 }
@@ -0,0 +1,32 @@
+package com.example.calendar.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * An event of the user created, updated or deleted at a calendar version. The event ID is kept
+ * without a foreign key, so the row outlives a deleted event as its tombstone.
+ */
+@Entity
+@Table(name = "event_changes")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class EventChange {
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private long version;
+
+    @Column(nullable = false)
+    private Long eventId;
+
+    @Column(nullable = false)
+    private boolean deleted;
+
+    // Epoch milliseconds
+    @Column(nullable = false)
+    private long changedAt;
+}
@@ -0,0 +1,28 @@
+package com.example.calendar.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A reminder some minutes before the start of an event, or of every occurrence of a recurring
+ * series. nextFireAt is the next trigger time that has not fired yet, null once there is none.
+ */
+@Entity
+@Table(name = "event_reminders")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class EventReminder {
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "event_id", nullable = false)
+    private Event event;
+
+    @Column(nullable = false)
+    private int minutesBefore;
+
+    @Column
+    private LocalDateTime nextFireAt;
+}
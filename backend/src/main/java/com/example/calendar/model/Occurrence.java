@@ -0,0 +1,58 @@
+package com.example.calendar.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * One materialized occurrence of a recurring master event. Only maintained when the
+ * materialized occurrence mode is enabled.
+ */
+@Entity
+@Table(name = "occurrences")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class Occurrence implements Persistable<Long> {
+    // The occurrence ID handed out to clients (see OccurrenceId)
+    @Id
+    private Long occurrenceKey;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "master_event_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Event masterEvent;
+
+    @Column(nullable = false)
+    private LocalDateTime startDateTime;
+
+    @Column(nullable = false)
+    private LocalDateTime endDateTime;
+
+    // Rows are only ever inserted or bulk-deleted, so saving never needs to check for an existing row
+    @Transient
+    @Builder.Default
+    private boolean newRow = true;
+
+    @Override
+    public Long getId() {
+        return occurrenceKey;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newRow;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        newRow = false;
+    }
+}
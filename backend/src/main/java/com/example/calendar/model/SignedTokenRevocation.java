@@ -0,0 +1,27 @@
+package com.example.calendar.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * A logout of a signed token. Nodes poll past the last sequence they saw to learn of logouts
+ * handled elsewhere.
+ */
+@Entity
+@Table(name = "signed_token_revocations")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class SignedTokenRevocation {
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long seq;
+
+    @Column(length = 64, nullable = false)
+    private String tokenId;
+
+    // Epoch milliseconds
+    @Column(nullable = false)
+    private long expiresAt;
+
+    // Epoch milliseconds
+    @Column(nullable = false)
+    private long revokedAt;
+}
@@ -0,0 +1,23 @@
+package com.example.calendar.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * A logout of a persistent token. The sequence tells other nodes which revocations they have
+ * not applied to their caches yet.
+ */
+@Entity
+@Table(name = "auth_token_revocations")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class TokenRevocation {
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long seq;
+
+    @Column(length = 64, nullable = false)
+    private String tokenHash;
+
+    // Epoch milliseconds
+    @Column(nullable = false)
+    private long revokedAt;
+}
@@ -19,4 +19,16 @@ public class User {
 
     @Column(nullable = false)
     private String passwordHash;
+
+    // Only ever changed by UserRepository.bumpCalendarVersion, so saving a user cannot roll it back
+    @Column(insertable = false, updatable = false)
+    private Long calendarVersion;
+
+    // Highest calendar version whose change log entries may have been compacted away
+    @Column(insertable = false, updatable = false)
+    private Long changeLogFloor;
+
+    public User(Long id, String email, String passwordHash) {
+        this(id, email, passwordHash, null, null);
+    }
 }
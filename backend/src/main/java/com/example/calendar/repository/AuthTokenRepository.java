@@ -0,0 +1,14 @@
+package com.example.calendar.repository;
+
+import com.example.calendar.model.AuthToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface AuthTokenRepository extends JpaRepository<AuthToken, String> {
+
+    @Modifying
+    @Query("DELETE FROM AuthToken t WHERE t.expiresAt <= :now")
+    int deleteExpired(@Param("now") long now);
+}
@@ -0,0 +1,32 @@
+package com.example.calendar.repository;
+
+import com.example.calendar.model.EventChange;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface EventChangeRepository extends JpaRepository<EventChange, Long> {
+
+    /**
+     * The user's changes at versions in (after, upTo], oldest first
+     */
+    @Query("SELECT c FROM EventChange c WHERE c.userId = :userId AND c.version > :after AND c.version <= :upTo "
+            + "ORDER BY c.version ASC, c.id ASC")
+    List<EventChange> findChanges(@Param("userId") Long userId, @Param("after") long after,
+                                  @Param("upTo") long upTo);
+
+    /**
+     * Delete changes of an event that a later change of the same event supersedes
+     */
+    @Modifying
+    @Query("DELETE FROM EventChange c WHERE EXISTS (SELECT 1 FROM EventChange d WHERE d.userId = c.userId "
+            + "AND d.eventId = c.eventId AND d.version > c.version)")
+    int deleteSuperseded();
+
+    @Modifying
+    @Query("DELETE FROM EventChange c WHERE c.changedAt < :before")
+    int deleteChangedBefore(@Param("before") long before);
+}
@@ -0,0 +1,44 @@
+package com.example.calendar.repository;
+
+import com.example.calendar.model.EventReminder;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface EventReminderRepository extends JpaRepository<EventReminder, Long> {
+
+    @Query("SELECT r FROM EventReminder r WHERE r.event.id = :eventId ORDER BY r.minutesBefore ASC")
+    List<EventReminder> findByEventId(@Param("eventId") Long eventId);
+
+    @Modifying
+    @Query("DELETE FROM EventReminder r WHERE r.event.id = :eventId")
+    int deleteByEventId(@Param("eventId") Long eventId);
+
+    /**
+     * Reminders next firing in [from, until), read by a range scan of the next_fire_at index
+     */
+    @Query("SELECT r FROM EventReminder r WHERE r.nextFireAt >= :from AND r.nextFireAt < :until")
+    List<EventReminder> findFiringBetween(@Param("from") LocalDateTime from, @Param("until") LocalDateTime until);
+
+    /**
+     * Reminders next firing before until, including ones missed while no node was running
+     */
+    @Query("SELECT r FROM EventReminder r WHERE r.nextFireAt < :until")
+    List<EventReminder> findFiringBefore(@Param("until") LocalDateTime until);
+
+    @Query("SELECT r FROM EventReminder r JOIN FETCH r.event WHERE r.id = :id")
+    Optional<EventReminder> findWithEventById(@Param("id") Long id);
+
+    /**
+     * Move a reminder from one trigger time to the next; matches nothing if it was fired or
+     * rescheduled since due was read
+     */
+    @Modifying
+    @Query("UPDATE EventReminder r SET r.nextFireAt = :next WHERE r.id = :id AND r.nextFireAt = :due")
+    int advance(@Param("id") Long id, @Param("due") LocalDateTime due, @Param("next") LocalDateTime next);
+}
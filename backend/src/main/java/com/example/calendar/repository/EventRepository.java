@@ -2,20 +2,122 @@ package com.example.calendar.repository;
 
 import com.example.calendar.model.Event;
 import com.example.calendar.model.User;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface EventRepository extends JpaRepository<Event, Long> {
     List<Event> findByUser(User user);
+    @EntityGraph(attributePaths = "tags")
     List<Event> findByUserOrderByStartDateTimeAsc(User user);
+    List<Event> findByUserAndRecurrenceRuleIsNotNull(User user);
     List<Event> findByUserAndStartDateTimeBetweenOrderByStartDateTimeAsc(User user, LocalDateTime start, LocalDateTime end);
     List<Event> findByUserEmailAndStartDateTimeBetween(String email, LocalDateTime start, LocalDateTime end);
     void deleteByParentEvent(Event parentEvent);
 
+    List<Event> findByParentEvent(Event parentEvent);
+
+    /**
+     * All of the user's events, recurring masters unexpanded, with their tags
+     */
+    @EntityGraph(attributePaths = "tags")
+    @Query("SELECT e FROM Event e WHERE e.user.id = :userId ORDER BY e.startDateTime ASC, e.id ASC")
+    List<Event> findAllByUserId(@Param("userId") Long userId);
+
+    /**
+     * Events that can contribute to the range [start, end): one-off events and instance overrides
+     * overlapping the range, and recurring masters whose series can still reach it.
+     * Relies on seriesEndDateTime, which is null for open-ended series. Tags are fetched in the
+     * same statement, and the user is matched by foreign key, so the users table is not read.
+     */
+    @EntityGraph(attributePaths = "tags")
+    @Query("SELECT e FROM Event e WHERE e.user.id = :userId AND e.startDateTime < :end "
+            + "AND (e.seriesEndDateTime IS NULL OR e.seriesEndDateTime > :start) "
+            + "ORDER BY e.startDateTime ASC, e.id ASC")
+    List<Event> findByUserIdOverlappingRangeOrderByStartDateTimeAsc(
+        @Param("userId") Long userId,
+        @Param("start") LocalDateTime start,
+        @Param("end") LocalDateTime end
+    );
+
+    /**
+     * One-off events and instance overrides overlapping [start, end), without recurring masters.
+     * Used when the masters' occurrences are read from the materialized occurrences table.
+     */
+    @EntityGraph(attributePaths = "tags")
+    @Query("SELECT e FROM Event e WHERE e.user.id = :userId AND e.startDateTime < :end AND e.endDateTime > :start "
+            + "AND (e.parentEvent IS NOT NULL OR e.recurrenceRule IS NULL OR e.recurrenceRule = '') "
+            + "ORDER BY e.startDateTime ASC, e.id ASC")
+    List<Event> findSingleEventsByUserIdOverlappingRangeOrderByStartDateTimeAsc(
+        @Param("userId") Long userId,
+        @Param("start") LocalDateTime start,
+        @Param("end") LocalDateTime end
+    );
+
+    /**
+     * One-off events and instance overrides overlapping [start, end), read as the caller consumes
+     * them. Ordered by ID within a start time, so merged range reads have a total order.
+     */
+    @EntityGraph(attributePaths = "tags")
+    @Query("SELECT e FROM Event e WHERE e.user.id = :userId AND e.startDateTime < :end AND e.endDateTime > :start "
+            + "AND (e.parentEvent IS NOT NULL OR e.recurrenceRule IS NULL OR e.recurrenceRule = '') "
+            + "ORDER BY e.startDateTime ASC, e.id ASC")
+    Stream<Event> streamSingleEventsByUserIdOverlappingRange(
+        @Param("userId") Long userId,
+        @Param("start") LocalDateTime start,
+        @Param("end") LocalDateTime end
+    );
+
+    /**
+     * Recurring masters of the user whose series can still reach [start, end)
+     */
+    @EntityGraph(attributePaths = "tags")
+    @Query("SELECT e FROM Event e WHERE e.user.id = :userId AND e.parentEvent IS NULL AND e.recurrenceRule <> '' "
+            + "AND e.startDateTime < :end "
+            + "AND (e.seriesEndDateTime IS NULL OR e.seriesEndDateTime > :start)")
+    List<Event> findRecurringMastersByUserIdOverlappingRange(
+        @Param("userId") Long userId,
+        @Param("start") LocalDateTime start,
+        @Param("end") LocalDateTime end
+    );
+
+    /**
+     * IDs of the user's first one-off events and instance overrides starting in [from, until),
+     * read by a seek on the (user_id, start_date_time) index that stops after limit rows
+     */
+    @Query("SELECT e.id FROM Event e WHERE e.user.id = :userId AND e.startDateTime >= :from "
+            + "AND e.startDateTime < :until "
+            + "AND (e.parentEvent IS NOT NULL OR e.recurrenceRule IS NULL OR e.recurrenceRule = '') "
+            + "ORDER BY e.startDateTime ASC, e.id ASC")
+    List<Long> findUpcomingSingleEventIds(
+        @Param("userId") Long userId,
+        @Param("from") LocalDateTime from,
+        @Param("until") LocalDateTime until,
+        Limit limit
+    );
+
+    /**
+     * The given events with their tags, in (start time, ID) order
+     */
+    @EntityGraph(attributePaths = "tags")
+    @Query("SELECT e FROM Event e WHERE e.id IN :ids ORDER BY e.startDateTime ASC, e.id ASC")
+    List<Event> findByIdInOrderByStartDateTimeAsc(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Recurring masters with occurrences that can still end after the given instant
+     */
+    @Query("SELECT e FROM Event e WHERE e.parentEvent IS NULL AND e.recurrenceRule <> '' "
+            + "AND (e.seriesEndDateTime IS NULL OR e.seriesEndDateTime > :instant)")
+    List<Event> findRecurringMastersActiveAfter(@Param("instant") LocalDateTime instant);
+
+    @EntityGraph(attributePaths = "tags")
     @Query("SELECT DISTINCT e FROM Event e JOIN e.tags t WHERE e.user = :user AND e.startDateTime BETWEEN :start AND :end AND t.id = :tagId ORDER BY e.startDateTime ASC")
     List<Event> findByUserAndStartDateTimeBetweenAndTagIdOrderByStartDateTimeAsc(
         @Param("user") User user, 
@@ -23,4 +125,13 @@ public interface EventRepository extends JpaRepository<Event, Long> {
         @Param("end") LocalDateTime end, 
         @Param("tagId") Long tagId
     );
+
+    @EntityGraph(attributePaths = "tags")
+    @Query("SELECT DISTINCT e FROM Event e JOIN e.tags t WHERE e.user.id = :userId AND e.startDateTime BETWEEN :start AND :end AND t.id = :tagId ORDER BY e.startDateTime ASC, e.id ASC")
+    List<Event> findByUserIdAndStartDateTimeBetweenAndTagIdOrderByStartDateTimeAsc(
+        @Param("userId") Long userId,
+        @Param("start") LocalDateTime start,
+        @Param("end") LocalDateTime end,
+        @Param("tagId") Long tagId
+    );
 }
@@ -0,0 +1,43 @@
+package com.example.calendar.repository;
+
+import com.example.calendar.model.Event;
+import com.example.calendar.model.Occurrence;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OccurrenceRepository extends JpaRepository<Occurrence, Long> {
+
+    /**
+     * Materialized occurrences overlapping [start, end), with their masters and the masters' tags
+     */
+    @EntityGraph(attributePaths = {"masterEvent", "masterEvent.tags"})
+    @Query("SELECT o FROM Occurrence o WHERE o.user.id = :userId AND o.startDateTime < :end "
+            + "AND o.endDateTime > :start ORDER BY o.startDateTime ASC, o.occurrenceKey ASC")
+    List<Occurrence> findByUserIdOverlappingRangeOrderByStartDateTimeAsc(
+        @Param("userId") Long userId,
+        @Param("start") LocalDateTime start,
+        @Param("end") LocalDateTime end
+    );
+
+    @Modifying
+    @Query("DELETE FROM Occurrence o WHERE o.masterEvent = :masterEvent")
+    void deleteByMasterEvent(@Param("masterEvent") Event masterEvent);
+
+    @Modifying
+    @Query("DELETE FROM Occurrence o WHERE o.occurrenceKey = :occurrenceKey")
+    void deleteByOccurrenceKey(@Param("occurrenceKey") Long occurrenceKey);
+
+    @Modifying
+    @Query("DELETE FROM Occurrence o WHERE o.endDateTime <= :end")
+    void deleteEndingBefore(@Param("end") LocalDateTime end);
+
+    @Modifying
+    @Query("DELETE FROM Occurrence o WHERE o.startDateTime >= :start")
+    void deleteStartingFrom(@Param("start") LocalDateTime start);
+}
@@ -0,0 +1,26 @@
+package com.example.calendar.repository;
+
+import com.example.calendar.model.SignedTokenRevocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface SignedTokenRevocationRepository extends JpaRepository<SignedTokenRevocation, Long> {
+
+    /**
+     * Unexpired revocations past the given sequence, or recorded since the given time
+     */
+    @Query("SELECT r FROM SignedTokenRevocation r WHERE (r.seq > :seq OR r.revokedAt >= :since) "
+            + "AND r.expiresAt > :now ORDER BY r.seq ASC")
+    List<SignedTokenRevocation> findUnexpiredAfter(@Param("seq") long seq, @Param("since") long since,
+                                                   @Param("now") long now);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM SignedTokenRevocation r WHERE r.expiresAt <= :now")
+    int deleteExpired(@Param("now") long now);
+}
@@ -1,8 +1,11 @@
 package com.example.calendar.repository;
 
+import com.example.calendar.model.Event;
 import com.example.calendar.model.Tag;
 import com.example.calendar.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,6 +15,10 @@ import java.util.Optional;
 public interface TagRepository extends JpaRepository<Tag, Long> {
     List<Tag> findByUserEmail(String email);
     List<Tag> findByUser(User user);
+    List<Tag> findByUserId(Long userId);
     Optional<Tag> findByUserAndName(User user, String name);
     boolean existsByUserAndName(User user, String name);
+
+    @Query("SELECT e FROM Event e JOIN e.tags t WHERE t.id = :tagId")
+    List<Event> findEventsByTagId(@Param("tagId") Long tagId);
 }
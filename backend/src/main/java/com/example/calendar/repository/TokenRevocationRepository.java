@@ -0,0 +1,21 @@
+package com.example.calendar.repository;
+
+import com.example.calendar.model.TokenRevocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface TokenRevocationRepository extends JpaRepository<TokenRevocation, Long> {
+
+    List<TokenRevocation> findBySeqGreaterThanOrRevokedAtGreaterThanEqualOrderBySeqAsc(Long seq, long revokedAt);
+
+    @Query("SELECT COALESCE(MAX(r.seq), 0) FROM TokenRevocation r")
+    long findLatestSeq();
+
+    @Modifying
+    @Query("DELETE FROM TokenRevocation r WHERE r.revokedAt < :before")
+    int deleteRevokedBefore(@Param("before") long before);
+}
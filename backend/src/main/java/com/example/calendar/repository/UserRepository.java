@@ -4,9 +4,49 @@ package com.example.calendar.repository;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import com.example.calendar.model.User;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
+
+    /**
+     * Replace the password hash only if it is still the one that was read, so a rehash cannot
+     * undo a password change made in the meantime. Returns the number of rows updated.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.passwordHash = :newHash WHERE u.id = :id AND u.passwordHash = :oldHash")
+    int replacePasswordHash(@Param("id") Long id, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
+
+    /**
+     * Advance the user's calendar version; called in the transaction of every change to the
+     * user's events or tags
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.calendarVersion = u.calendarVersion + 1 WHERE u.email = :email")
+    int bumpCalendarVersion(@Param("email") String email);
+
+    @Query("SELECT u.calendarVersion FROM User u WHERE u.id = :id")
+    Optional<Long> findCalendarVersionById(@Param("id") Long id);
+
+    @Query("SELECT u.calendarVersion FROM User u WHERE u.email = :email")
+    Optional<Long> findCalendarVersionByEmail(@Param("email") String email);
+
+    @Query("SELECT u.changeLogFloor FROM User u WHERE u.id = :id")
+    Optional<Long> findChangeLogFloorById(@Param("id") Long id);
+
+    /**
+     * Raise the change log floor of every user with changes older than before to the newest of
+     * them, ahead of deleting those changes
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.changeLogFloor = (SELECT MAX(c.version) FROM EventChange c "
+            + "WHERE c.userId = u.id AND c.changedAt < :before) "
+            + "WHERE EXISTS (SELECT 1 FROM EventChange c WHERE c.userId = u.id AND c.changedAt < :before)")
+    int raiseChangeLogFloors(@Param("before") long before);
 }
@@ -0,0 +1,44 @@
+package com.example.calendar.security;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import org.springframework.security.core.Authentication;
+
+import java.security.Principal;
+
+/**
+ * Principal put into the SecurityContext for a bearer token. It carries the user ID next to the
+ * email, so read paths can query by ID without looking the user up first. getName() is the email,
+ * as it was for the plain principal. The ID is null for tokens issued without one.
+ */
+@Getter
+@RequiredArgsConstructor
+@EqualsAndHashCode
+@ToString
+public final class AuthenticatedUser implements Principal {
+
+    private final Long id;
+    private final String email;
+
+    @Override
+    public String getName() {
+        return email;
+    }
+
+    /**
+     * The authenticated user behind a controller's Principal argument, or null when the principal
+     * is of another kind
+     */
+    public static AuthenticatedUser from(Principal principal) {
+        if (principal instanceof AuthenticatedUser user) {
+            return user;
+        }
+        if (principal instanceof Authentication authentication
+                && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user;
+        }
+        return null;
+    }
+}
@@ -29,10 +29,10 @@ public class FakeJwtAuthenticationFilter extends OncePerRequestFilter {
         String auth = request.getHeader("Authorization");
         if (auth != null && auth.startsWith("Bearer ")) {
             String token = auth.substring(7);
-            String email = tokenStore.getEmail(token);
-            if (email != null) {
+            AuthenticatedUser user = tokenStore.resolve(token);
+            if (user != null) {
                 Authentication authObj = new UsernamePasswordAuthenticationToken(
-                        email,
+                        user,
                         null,
                         List.of(new SimpleGrantedAuthority("ROLE_USER"))
                 );
@@ -0,0 +1,105 @@
+package com.example.calendar.security;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs password hashing on a small pool sized to the CPUs instead of on request threads, so a
+ * login storm cannot pin every worker on BCrypt. At most queue-capacity requests wait for a
+ * thread; beyond that hashing is refused at once with a {@link RejectedExecutionException}.
+ */
+@Component
+public class PasswordHasher implements MeterBinder {
+
+    private final PasswordEncoder encoder;
+    private final Executor executor;
+    private final ThreadPoolExecutor pool;
+    private final LongAdder rejections = new LongAdder();
+
+    @Autowired
+    public PasswordHasher(PasswordEncoder encoder,
+                          @Value("${calendar.auth.hashing.threads:0}") int threads,
+                          @Value("${calendar.auth.hashing.queue-capacity:100}") int queueCapacity) {
+        this.encoder = encoder;
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                task -> {
+                    Thread thread = new Thread(task, "password-hashing-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor = pool;
+    }
+
+    /** Hash on the given executor, e.g. the calling thread in tests */
+    public PasswordHasher(PasswordEncoder encoder, Executor executor) {
+        this.encoder = encoder;
+        this.executor = executor;
+        this.pool = null;
+    }
+
+    public CompletableFuture<String> encode(String rawPassword) {
+        return submit(() -> encoder.encode(rawPassword));
+    }
+
+    public CompletableFuture<Boolean> matches(String rawPassword, String passwordHash) {
+        return submit(() -> encoder.matches(rawPassword, passwordHash));
+    }
+
+    /**
+     * Whether the hash was made with weaker settings than new hashes get (e.g. a lower BCrypt
+     * cost), so it should be replaced after the next successful login. Does not hash.
+     */
+    public boolean needsUpgrade(String passwordHash) {
+        return encoder.upgradeEncoding(passwordHash);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (pool != null) {
+            BlockingQueue<Runnable> queue = pool.getQueue();
+            Gauge.builder("calendar.auth.hashing.queued", queue, BlockingQueue::size)
+                    .description("Password hashing requests waiting for a thread")
+                    .register(registry);
+        }
+        FunctionCounter.builder("calendar.auth.hashing.rejections", rejections, LongAdder::sum)
+                .description("Password hashing requests refused because the queue was full")
+                .register(registry);
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            rejections.increment();
+            throw e;
+        }
+    }
+}
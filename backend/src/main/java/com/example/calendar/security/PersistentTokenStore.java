@@ -0,0 +1,243 @@
+package com.example.calendar.security;
+
+import com.example.calendar.model.AuthToken;
+import com.example.calendar.model.TokenRevocation;
+import com.example.calendar.repository.AuthTokenRepository;
+import com.example.calendar.repository.TokenRevocationRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bearer tokens kept in the auth_tokens table (calendar.auth.token-mode=persistent), so every node
+ * accepts them and logout revokes them everywhere. Tokens expire token-ttl after login.
+ *
+ * Each node answers lookups from a near cache: known tokens for cache-ttl, unknown ones for
+ * negative-cache-ttl. A logout deletes the row and appends to auth_token_revocations; every node
+ * polls that table past the last sequence it saw and drops the revoked tokens from its cache, so a
+ * revoked token is accepted elsewhere for at most one poll interval. A logout can commit after one
+ * with a higher sequence was already read, so each poll also re-reads the last REREAD_WINDOW.
+ */
+@Component
+public class PersistentTokenStore implements MeterBinder {
+
+    // Longer than a logout's insert can take to commit, plus the clock skew between nodes
+    static final Duration REREAD_WINDOW = Duration.ofMinutes(1);
+
+    private static final class Cached {
+        // null for a token that is unknown or revoked
+        final AuthenticatedUser user;
+        final long expiresAt;
+        final long cachedUntil;
+
+        Cached(AuthenticatedUser user, long expiresAt, long cachedUntil) {
+            this.user = user;
+            this.expiresAt = expiresAt;
+            this.cachedUntil = cachedUntil;
+        }
+    }
+
+    private final AuthTokenRepository tokens;
+    private final TokenRevocationRepository revocations;
+    private final boolean enabled;
+    private final long ttlMillis;
+    private final long cacheTtlMillis;
+    private final long negativeCacheTtlMillis;
+    private final long revocationRetentionMillis;
+    private final int maxCachedTokens;
+    private final Clock clock;
+
+    // token hash → user, or a negative entry
+    private final Map<String, Cached> nearCache = new ConcurrentHashMap<>();
+    // Highest sequence of a revocation applied to the cache; -1 until the first poll
+    private volatile long lastRevocationSeq = -1;
+    // Bumped by every poll that dropped entries
+    private volatile long revocationPolls;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    @Autowired
+    public PersistentTokenStore(AuthTokenRepository tokens,
+                                TokenRevocationRepository revocations,
+                                @Value("${calendar.auth.token-mode:opaque}") String tokenMode,
+                                @Value("${calendar.auth.token-ttl:PT12H}") Duration ttl,
+                                @Value("${calendar.auth.persistent.cache-ttl:PT30S}") Duration cacheTtl,
+                                @Value("${calendar.auth.persistent.negative-cache-ttl:PT5S}") Duration negativeCacheTtl,
+                                @Value("${calendar.auth.persistent.revocation-retention:PT10M}") Duration revocationRetention,
+                                @Value("${calendar.auth.persistent.max-cached-tokens:100000}") int maxCachedTokens) {
+        this(tokens, revocations, "persistent".equalsIgnoreCase(tokenMode), ttl, cacheTtl, negativeCacheTtl,
+                revocationRetention, maxCachedTokens, Clock.systemUTC());
+    }
+
+    PersistentTokenStore(AuthTokenRepository tokens, TokenRevocationRepository revocations, boolean enabled,
+                         Duration ttl, Duration cacheTtl, Duration negativeCacheTtl, Duration revocationRetention,
+                         int maxCachedTokens, Clock clock) {
+        this.tokens = tokens;
+        this.revocations = revocations;
+        this.enabled = enabled;
+        this.ttlMillis = ttl.toMillis();
+        this.cacheTtlMillis = cacheTtl.toMillis();
+        this.negativeCacheTtlMillis = negativeCacheTtl.toMillis();
+        // A revocation must outlive any cache entry it has to remove
+        this.revocationRetentionMillis = Math.max(revocationRetention.toMillis(), 2 * cacheTtlMillis);
+        this.maxCachedTokens = maxCachedTokens;
+        this.clock = clock;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Store a fresh token for this user */
+    @Transactional
+    public String create(Long userId, String email) {
+        String token = UUID.randomUUID().toString();
+        String hash = hash(token);
+        long now = clock.millis();
+        AuthenticatedUser user = new AuthenticatedUser(userId, email);
+        tokens.save(AuthToken.builder()
+                .tokenHash(hash)
+                .userId(userId)
+                .email(email)
+                .expiresAt(now + ttlMillis)
+                .build());
+        cache(hash, new Cached(user, now + ttlMillis, now + cacheTtlMillis));
+        return token;
+    }
+
+    /**
+     * The user this token was issued to, or null if it is unknown, revoked or expired. Not
+     * transactional, so a near-cache hit never takes a connection; a miss is one repository read.
+     */
+    public AuthenticatedUser resolve(String token) {
+        String hash = hash(token);
+        long now = clock.millis();
+        Cached cached = nearCache.get(hash);
+        if (cached == null || cached.cachedUntil <= now) {
+            misses.increment();
+            long pollsBefore = revocationPolls;
+            cached = tokens.findById(hash)
+                    .filter(row -> row.getExpiresAt() > now)
+                    .map(row -> new Cached(new AuthenticatedUser(row.getUserId(), row.getEmail()),
+                            row.getExpiresAt(), Math.min(now + cacheTtlMillis, row.getExpiresAt())))
+                    .orElseGet(() -> new Cached(null, 0, now + negativeCacheTtlMillis));
+            // A poll during the read may already have dropped this token; do not cache over it
+            if (revocationPolls == pollsBefore) {
+                cache(hash, cached);
+            }
+        } else {
+            hits.increment();
+        }
+        return cached.user != null && cached.expiresAt > now ? cached.user : null;
+    }
+
+    /** Delete the token and tell the other nodes to drop it from their caches */
+    @Transactional
+    public void invalidate(String token) {
+        String hash = hash(token);
+        long now = clock.millis();
+        cache(hash, new Cached(null, 0, now + cacheTtlMillis));
+        if (tokens.existsById(hash)) {
+            tokens.deleteById(hash);
+            revocations.save(TokenRevocation.builder().tokenHash(hash).revokedAt(now).build());
+        }
+    }
+
+    /**
+     * Apply revocations made on any node since the last poll. The first poll starts from the
+     * latest revocation and drops whatever was cached before it.
+     */
+    @Scheduled(fixedDelayString = "${calendar.auth.persistent.revocation-poll:PT2S}")
+    @Transactional(readOnly = true)
+    public void pollRevocations() {
+        if (!enabled) {
+            return;
+        }
+        if (lastRevocationSeq < 0) {
+            lastRevocationSeq = revocations.findLatestSeq();
+            nearCache.clear();
+            return;
+        }
+        List<TokenRevocation> recent = revocations.findBySeqGreaterThanOrRevokedAtGreaterThanEqualOrderBySeqAsc(
+                lastRevocationSeq, clock.millis() - REREAD_WINDOW.toMillis());
+        if (recent.isEmpty()) {
+            return;
+        }
+        revocationPolls++;
+        for (TokenRevocation revocation : recent) {
+            nearCache.remove(revocation.getTokenHash());
+            lastRevocationSeq = Math.max(lastRevocationSeq, revocation.getSeq());
+        }
+    }
+
+    /** Delete expired tokens and revocations no cache can still hold */
+    @Scheduled(fixedDelayString = "${calendar.auth.persistent.purge-interval:PT10M}")
+    @Transactional
+    public void purgeExpired() {
+        if (!enabled) {
+            return;
+        }
+        long now = clock.millis();
+        tokens.deleteExpired(now);
+        revocations.deleteRevokedBefore(now - revocationRetentionMillis);
+        nearCache.values().removeIf(cached -> cached.cachedUntil <= now);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("calendar.auth.token-cache.requests", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .description("Persistent token lookups answered by the near cache")
+                .register(registry);
+        FunctionCounter.builder("calendar.auth.token-cache.requests", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .description("Persistent token lookups answered by the database")
+                .register(registry);
+    }
+
+    int cachedTokens() {
+        return nearCache.size();
+    }
+
+    /**
+     * Put an entry in the near cache. When it is full, stale entries are dropped first and,
+     * failing that, the whole cache.
+     */
+    private void cache(String hash, Cached cached) {
+        if (nearCache.size() >= maxCachedTokens && !nearCache.containsKey(hash)) {
+            long now = clock.millis();
+            nearCache.values().removeIf(entry -> entry.cachedUntil <= now);
+            if (nearCache.size() >= maxCachedTokens) {
+                nearCache.clear();
+            }
+        }
+        nearCache.put(hash, cached);
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
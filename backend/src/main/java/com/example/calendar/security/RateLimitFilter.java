@@ -0,0 +1,104 @@
+package com.example.calendar.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Admission control after authentication: requests of an authenticated user take tokens from
+ * that user's bucket, unauthenticated /api/auth requests from their IP's bucket. A range read
+ * costs more the wider its range, and is charged again afterwards for the recurring occurrences it
+ * expanded. Throttled requests get 429 with Retry-After.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String OCCURRENCES_ATTRIBUTE = RateLimitFilter.class.getName() + ".occurrences";
+
+    private final RateLimiter rateLimiter;
+
+    public RateLimitFilter(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    /**
+     * Report how many occurrences of recurring series the current request expanded, for the
+     * charge made after it completes
+     */
+    public static void recordExpandedOccurrences(int occurrences) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(OCCURRENCES_ATTRIBUTE, occurrences, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+        if (!rateLimiter.isEnabled()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        String user = auth != null && auth.isAuthenticated() ? auth.getName() : null;
+        Duration wait;
+        if (user != null) {
+            wait = rateLimiter.tryAcquireForUser(user, cost(request));
+        } else if (request.getRequestURI().startsWith("/api/auth/")) {
+            wait = rateLimiter.tryAcquireForIp(request.getRemoteAddr(), 1);
+        } else {
+            wait = Duration.ZERO;
+        }
+
+        if (!wait.isZero()) {
+            long seconds = Math.max(1, (wait.toMillis() + 999) / 1000);
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+            response.setContentType("text/plain");
+            response.getWriter().write("Too many requests");
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+
+        if (request.getAttribute(OCCURRENCES_ATTRIBUTE) instanceof Integer occurrences && user != null) {
+            rateLimiter.chargeUser(user, rateLimiter.expansionCost(occurrences));
+        }
+    }
+
+    /**
+     * Tokens a request takes up front: range reads by the width of their range, others one
+     */
+    private int cost(HttpServletRequest request) {
+        if (!"GET".equals(request.getMethod()) || !"/api/events".equals(request.getRequestURI())) {
+            return 1;
+        }
+        String start = request.getParameter("start");
+        String end = request.getParameter("end");
+        if (start == null || end == null) {
+            return 1;
+        }
+        try {
+            return rateLimiter.rangeCost(Duration.between(LocalDateTime.parse(start), LocalDateTime.parse(end)));
+        } catch (DateTimeParseException e) {
+            // Rejected by the controller
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.calendar.security;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token buckets per authenticated user and per client IP. Each bucket is a single AtomicLong
+ * holding the time at which it will be full again (the generic cell rate algorithm), so taking
+ * tokens is one compare-and-set and a full bucket needs no state at all: idle buckets are dropped
+ * by a periodic sweep.
+ *
+ * The map holds at most max-buckets entries. Once it is full, clients without a bucket share one
+ * overflow bucket per kind until a sweep frees room, and the sweep runs at most once per
+ * sweep-interval, so a flood of new keys cannot grow the map or trigger a scan per request.
+ */
+@Component
+public class RateLimiter implements MeterBinder {
+
+    /**
+     * Refill rate and burst size of one kind of bucket
+     */
+    static final class Limit {
+        final long nanosPerToken;
+        final long burstNanos;
+        final int capacity;
+
+        Limit(int capacity, double tokensPerSecond) {
+            this.capacity = capacity;
+            this.nanosPerToken = (long) (TimeUnit.SECONDS.toNanos(1) / tokensPerSecond);
+            this.burstNanos = nanosPerToken * capacity;
+        }
+    }
+
+    private final boolean enabled;
+    private final Limit userLimit;
+    private final Limit authLimit;
+    private final int rangeUnitDays;
+    private final int expansionUnit;
+    private final int maxBuckets;
+    private final long sweepIntervalNanos;
+    private final Clock clock;
+
+    // key → nanos at which the bucket is full again
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong userOverflow = new AtomicLong(Long.MIN_VALUE);
+    private final AtomicLong ipOverflow = new AtomicLong(Long.MIN_VALUE);
+    // Earliest time at which a full map may trigger another sweep
+    private final AtomicLong nextSweepAt = new AtomicLong(Long.MIN_VALUE);
+    private final LongAdder rejections = new LongAdder();
+
+    @Autowired
+    public RateLimiter(@Value("${calendar.rate-limit.enabled:true}") boolean enabled,
+                       @Value("${calendar.rate-limit.user-capacity:120}") int userCapacity,
+                       @Value("${calendar.rate-limit.user-refill-per-second:20}") double userRefill,
+                       @Value("${calendar.rate-limit.auth-capacity:20}") int authCapacity,
+                       @Value("${calendar.rate-limit.auth-refill-per-second:2}") double authRefill,
+                       @Value("${calendar.rate-limit.range-unit-days:31}") int rangeUnitDays,
+                       @Value("${calendar.rate-limit.expansion-unit:500}") int expansionUnit,
+                       @Value("${calendar.rate-limit.max-buckets:100000}") int maxBuckets,
+                       @Value("${calendar.rate-limit.sweep-interval:PT1M}") Duration sweepInterval) {
+        this(enabled, new Limit(userCapacity, userRefill), new Limit(authCapacity, authRefill), rangeUnitDays,
+                expansionUnit, maxBuckets, sweepInterval, Clock.systemUTC());
+    }
+
+    RateLimiter(boolean enabled, Limit userLimit, Limit authLimit, int rangeUnitDays, int expansionUnit,
+                int maxBuckets, Duration sweepInterval, Clock clock) {
+        this.enabled = enabled;
+        this.userLimit = userLimit;
+        this.authLimit = authLimit;
+        this.rangeUnitDays = rangeUnitDays;
+        this.expansionUnit = expansionUnit;
+        this.maxBuckets = maxBuckets;
+        this.sweepIntervalNanos = sweepInterval.toNanos();
+        this.clock = clock;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Cost of a range read: one token plus one per range-unit-days of range width */
+    public int rangeCost(Duration width) {
+        return 1 + (int) Math.min(Integer.MAX_VALUE - 1, Math.max(0, width.toDays()) / rangeUnitDays);
+    }
+
+    /** Extra cost of a read that returned this many occurrences of recurring series */
+    public int expansionCost(int occurrences) {
+        return occurrences / expansionUnit;
+    }
+
+    /**
+     * Take cost tokens from the user's bucket. Returns 0 if they were taken, otherwise how long
+     * to wait before the request would be admitted.
+     */
+    public Duration tryAcquireForUser(String user, int cost) {
+        return tryAcquire(bucket("user:" + user, userOverflow), userLimit, cost);
+    }
+
+    /** Same as {@link #tryAcquireForUser} for an unauthenticated client's IP */
+    public Duration tryAcquireForIp(String ip, int cost) {
+        return tryAcquire(bucket("ip:" + ip, ipOverflow), authLimit, cost);
+    }
+
+    /**
+     * Take tokens for work found to be expensive only after the request was admitted. The bucket
+     * may go into debt of up to one bucket, which the user's next requests wait out.
+     */
+    public void chargeUser(String user, int cost) {
+        if (!enabled || cost <= 0) {
+            return;
+        }
+        AtomicLong bucket = bucket("user:" + user, userOverflow);
+        long now = now();
+        long increment = Math.min(cost, userLimit.capacity) * userLimit.nanosPerToken;
+        bucket.accumulateAndGet(increment, (fullAt, added) -> Math.max(fullAt, now) + added);
+    }
+
+    /**
+     * Drop buckets that have refilled completely; they are indistinguishable from new ones
+     */
+    @Scheduled(fixedDelayString = "${calendar.rate-limit.sweep-interval:PT1M}")
+    public void sweep() {
+        long now = now();
+        nextSweepAt.set(now + sweepIntervalNanos);
+        buckets.values().removeIf(bucket -> bucket.get() <= now);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("calendar.rate-limit.rejections", rejections, LongAdder::sum)
+                .description("Requests refused with 429 by the rate limiter")
+                .register(registry);
+    }
+
+    int bucketCount() {
+        return buckets.size();
+    }
+
+    private Duration tryAcquire(AtomicLong bucket, Limit limit, int cost) {
+        if (!enabled) {
+            return Duration.ZERO;
+        }
+        // A request costing more than the whole bucket could never be admitted
+        long increment = Math.min(Math.max(cost, 1), limit.capacity) * limit.nanosPerToken;
+        long now = now();
+        while (true) {
+            long fullAt = bucket.get();
+            long newFullAt = Math.max(fullAt, now) + increment;
+            long excess = newFullAt - now - limit.burstNanos;
+            if (excess > 0) {
+                rejections.increment();
+                return Duration.ofNanos(excess);
+            }
+            if (bucket.compareAndSet(fullAt, newFullAt)) {
+                return Duration.ZERO;
+            }
+        }
+    }
+
+    private AtomicLong bucket(String key, AtomicLong overflow) {
+        if (!enabled) {
+            return overflow;
+        }
+        AtomicLong bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= maxBuckets) {
+            long now = now();
+            long next = nextSweepAt.get();
+            if (now >= next && nextSweepAt.compareAndSet(next, now + sweepIntervalNanos)) {
+                sweep();
+            }
+            if (buckets.size() >= maxBuckets) {
+                return overflow;
+            }
+        }
+        return buckets.computeIfAbsent(key, k -> new AtomicLong(Long.MIN_VALUE));
+    }
+
+    private long now() {
+        return TimeUnit.MILLISECONDS.toNanos(clock.millis());
+    }
+}
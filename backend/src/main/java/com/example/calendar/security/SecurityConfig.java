@@ -1,7 +1,9 @@
 // src/main/java/com/example/calendar/security/SecurityConfig.java
 package com.example.calendar.security;
 
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.*;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -16,10 +18,18 @@ import java.util.List;
 @RequiredArgsConstructor
 public class SecurityConfig {
     private final TokenStore tokenStore;
+    private final RateLimiter rateLimiter;
 
+    @Value("${calendar.auth.bcrypt-strength:10}")
+    private int bcryptStrength = 10;
+
+    /**
+     * Raising calendar.auth.bcrypt-strength applies to new hashes; stored hashes with a lower cost
+     * are upgraded on the user's next login
+     */
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(10);
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
 
     @Bean
@@ -33,8 +43,12 @@ public class SecurityConfig {
                         org.springframework.security.web.authentication
                                 .UsernamePasswordAuthenticationFilter.class
                 )
+                // Admission control needs to know who is calling
+                .addFilterAfter(new RateLimitFilter(rateLimiter), FakeJwtAuthenticationFilter.class)
                 .authorizeHttpRequests(a -> a
                         .requestMatchers("/api/auth/**", "/h2-console/**").permitAll()
+                        // Completion of an already authorized async request, e.g. the change stream
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .anyRequest().authenticated()
                 )
                 .headers(h -> h.frameOptions(f -> f.disable()))
@@ -50,6 +64,7 @@ public class SecurityConfig {
         cfg.setAllowedOrigins(List.of("http://localhost:5173"));
         cfg.setAllowedMethods(List.of("GET","POST","PUT","DELETE","OPTIONS"));
         cfg.setAllowedHeaders(List.of("*"));
+        cfg.setExposedHeaders(List.of("X-Next-Cursor"));
         cfg.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource src = new UrlBasedCorsConfigurationSource();
@@ -0,0 +1,134 @@
+package com.example.calendar.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Issues and verifies HS256-signed, expiring tokens (calendar.auth.token-mode=signed).
+ * Verification needs only the signing key, so any node sharing calendar.auth.signing-key
+ * accepts tokens issued by any other.
+ */
+@Component
+public class SignedTokenCodec {
+
+    private static final String USER_ID_CLAIM = "uid";
+
+    /**
+     * Claims of a token whose signature and expiry have been checked
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static final class VerifiedToken {
+        private final String email;
+        /** null for tokens issued without a user ID */
+        private final Long userId;
+        private final String tokenId;
+        private final Instant expiresAt;
+    }
+
+    private final boolean enabled;
+    private final Duration ttl;
+    private final Clock clock;
+    private final SecretKey key;
+    private final JwtParser parser;
+
+    @Autowired
+    public SignedTokenCodec(@Value("${calendar.auth.token-mode:opaque}") String tokenMode,
+                            @Value("${calendar.auth.signing-key:}") String signingKey,
+                            @Value("${calendar.auth.token-ttl:PT12H}") Duration ttl) {
+        this("signed".equalsIgnoreCase(tokenMode), signingKey, ttl, Clock.systemUTC());
+    }
+
+    SignedTokenCodec(boolean enabled, String signingKey, Duration ttl, Clock clock) {
+        this.enabled = enabled;
+        this.ttl = ttl;
+        this.clock = clock;
+        this.key = Keys.hmacShaKeyFor(keyBytes(signingKey));
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .setClock(() -> Date.from(clock.instant()))
+                .build();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Whether the token has the shape of a signed token rather than an opaque one
+     */
+    public static boolean isSignedToken(String token) {
+        int firstDot = token.indexOf('.');
+        return firstDot > 0 && token.indexOf('.', firstDot + 1) > firstDot;
+    }
+
+    /** Issue a fresh token for this email */
+    public String issue(String email) {
+        return issue(null, email);
+    }
+
+    /** Issue a fresh token for this user; the ID travels in the uid claim */
+    public String issue(Long userId, String email) {
+        Instant now = clock.instant();
+        JwtBuilder builder = Jwts.builder()
+                .setSubject(email)
+                .setId(UUID.randomUUID().toString())
+                .setIssuedAt(Date.from(now))
+                .setExpiration(Date.from(now.plus(ttl)));
+        if (userId != null) {
+            builder.claim(USER_ID_CLAIM, userId);
+        }
+        return builder.signWith(key, SignatureAlgorithm.HS256).compact();
+    }
+
+    /** Claims of the token, or null if it is malformed, tampered with or expired */
+    public VerifiedToken verify(String token) {
+        try {
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            if (claims.getSubject() == null || claims.getId() == null || claims.getExpiration() == null) {
+                return null;
+            }
+            Number userId = claims.get(USER_ID_CLAIM, Number.class);
+            return new VerifiedToken(claims.getSubject(), userId != null ? userId.longValue() : null,
+                    claims.getId(), claims.getExpiration().toInstant());
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Base64 key from configuration, or a random key for this process when none is configured
+     * (tokens then do not survive a restart and are not accepted by other nodes)
+     */
+    private static byte[] keyBytes(String signingKey) {
+        if (signingKey == null || signingKey.isBlank()) {
+            byte[] random = new byte[32];
+            new SecureRandom().nextBytes(random);
+            return random;
+        }
+        byte[] decoded = Base64.getDecoder().decode(signingKey.trim());
+        if (decoded.length < 32) {
+            throw new IllegalArgumentException("calendar.auth.signing-key must be at least 256 bits");
+        }
+        return decoded;
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.calendar.security;
+
+import com.example.calendar.model.SignedTokenRevocation;
+import com.example.calendar.repository.SignedTokenRevocationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * IDs of signed tokens revoked by logout. An entry is only needed until the token would have
+ * expired anyway, so the list holds no more than the logouts of one token lifetime.
+ *
+ * In signed mode each logout is also written to the signed_token_revocations table. Every node
+ * polls that table past the last sequence it saw, starting from zero on startup, so a token
+ * logged out on one node is rejected by the others within one poll interval and after restarts.
+ * A logout can commit after one with a higher sequence was already read, so each poll also
+ * re-reads the rows recorded within the last REREAD_WINDOW.
+ */
+@Component
+public class TokenRevocationList {
+
+    // Longer than a logout's insert can take to commit, plus the clock skew between nodes
+    static final Duration REREAD_WINDOW = Duration.ofMinutes(1);
+
+    // token ID → expiry in epoch milliseconds
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private final SignedTokenRevocationRepository revocations;
+    private final boolean shared;
+    private final Clock clock;
+
+    // Sequence of the last revocation read from the table
+    private volatile long lastSeq;
+
+    @Autowired
+    public TokenRevocationList(SignedTokenRevocationRepository revocations,
+                               @Value("${calendar.auth.token-mode:opaque}") String tokenMode) {
+        this(revocations, "signed".equalsIgnoreCase(tokenMode), Clock.systemUTC());
+    }
+
+    TokenRevocationList(SignedTokenRevocationRepository revocations, boolean shared, Clock clock) {
+        this.revocations = revocations;
+        this.shared = shared;
+        this.clock = clock;
+    }
+
+    /** Reject the token until it expires: on this node at once, on the others after their next poll */
+    public void revoke(String tokenId, Instant expiresAt) {
+        if (!expiresAt.isAfter(clock.instant())) {
+            return;
+        }
+        revoked.put(tokenId, expiresAt.toEpochMilli());
+        if (shared) {
+            revocations.save(SignedTokenRevocation.builder()
+                    .tokenId(tokenId)
+                    .expiresAt(expiresAt.toEpochMilli())
+                    .revokedAt(clock.millis())
+                    .build());
+        }
+    }
+
+    public boolean isRevoked(String tokenId) {
+        return revoked.containsKey(tokenId);
+    }
+
+    /** Apply revocations made on any node since the last poll */
+    @Scheduled(fixedDelayString = "${calendar.auth.revocation-poll:PT2S}")
+    public void pollRevocations() {
+        if (!shared) {
+            return;
+        }
+        long now = clock.millis();
+        for (SignedTokenRevocation revocation
+                : revocations.findUnexpiredAfter(lastSeq, now - REREAD_WINDOW.toMillis(), now)) {
+            revoked.put(revocation.getTokenId(), revocation.getExpiresAt());
+            lastSeq = Math.max(lastSeq, revocation.getSeq());
+        }
+    }
+
+    /** Drop entries whose tokens have expired */
+    @Scheduled(fixedDelayString = "${calendar.auth.revocation-purge-interval:PT1M}")
+    public void purgeExpired() {
+        long now = clock.millis();
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+        if (shared) {
+            revocations.deleteExpired(now);
+        }
+    }
+
+    int size() {
+        return revoked.size();
+    }
+}
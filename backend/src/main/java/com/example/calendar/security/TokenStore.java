@@ -1,30 +1,187 @@
-// src/main/java/com/example/calendar/security/TokenStore.java
 package com.example.calendar.security;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Issues and resolves bearer tokens. By default tokens are random UUIDs remembered in memory;
+ * with calendar.auth.token-mode=signed they are self-contained signed tokens that need no shared
+ * state, and logout puts the token ID on the {@link TokenRevocationList}. With
+ * calendar.auth.token-mode=persistent they live in the database, see {@link PersistentTokenStore}.
+ *
+ * Opaque tokens expire after token-ttl without use; using a token in the second half of its
+ * lifetime renews it. Each email keeps at most max-tokens-per-user live tokens (the oldest is
+ * dropped) and the store at most max-tokens (the soonest to expire is dropped). Expired tokens are
+ * reclaimed by a timer wheel with one bucket per sweep interval, so a sweep only looks at the tokens
+ * due in the elapsed buckets. Lookups never lock.
+ */
 @Component
-public class TokenStore {
-    // token → email
-    private final Map<String,String> store = new ConcurrentHashMap<>();
+public class TokenStore implements MeterBinder {
 
-    /** Create and remember a fresh token for this email */
+    private static final class Entry {
+        final AuthenticatedUser user;
+        volatile long expiresAt;
+
+        Entry(AuthenticatedUser user, long expiresAt) {
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    // token → user and expiry
+    private final Map<String, Entry> store = new ConcurrentHashMap<>();
+    // email → live tokens in creation order, guarded by itself
+    private final Map<String, Set<String>> tokensByEmail = new HashMap<>();
+    private final SignedTokenCodec signedTokens;
+    private final TokenRevocationList revocationList;
+    private final PersistentTokenStore persistentTokens;
+
+    private final long ttlMillis;
+    private final int maxTokensPerUser;
+    private final int maxTokens;
+    private final Clock clock;
+
+    // Timer wheel: bucket (tick % length) holds the tokens due in that tick
+    private final Queue<String>[] wheel;
+    private final long tickMillis;
+    private volatile long nextTick;
+
+    private final LongAdder expiredEvictions = new LongAdder();
+    private final LongAdder userLimitEvictions = new LongAdder();
+    private final LongAdder capacityEvictions = new LongAdder();
+
+    /** Opaque tokens only, with the default limits */
+    public TokenStore() {
+        this(null, null, null, Duration.ofHours(12), 10, 100_000, Duration.ofMinutes(1), Clock.systemUTC());
+    }
+
+    @Autowired
+    public TokenStore(SignedTokenCodec signedTokens,
+                      TokenRevocationList revocationList,
+                      PersistentTokenStore persistentTokens,
+                      @Value("${calendar.auth.token-ttl:PT12H}") Duration ttl,
+                      @Value("${calendar.auth.max-tokens-per-user:10}") int maxTokensPerUser,
+                      @Value("${calendar.auth.max-tokens:100000}") int maxTokens,
+                      @Value("${calendar.auth.sweep-interval:PT1M}") Duration sweepInterval) {
+        this(signedTokens, revocationList, persistentTokens, ttl, maxTokensPerUser, maxTokens, sweepInterval,
+                Clock.systemUTC());
+    }
+
+    TokenStore(SignedTokenCodec signedTokens, TokenRevocationList revocationList, Duration ttl,
+               int maxTokensPerUser, int maxTokens, Duration sweepInterval, Clock clock) {
+        this(signedTokens, revocationList, null, ttl, maxTokensPerUser, maxTokens, sweepInterval, clock);
+    }
+
+    @SuppressWarnings("unchecked")
+    TokenStore(SignedTokenCodec signedTokens, TokenRevocationList revocationList,
+               PersistentTokenStore persistentTokens, Duration ttl, int maxTokensPerUser, int maxTokens,
+               Duration sweepInterval, Clock clock) {
+        this.signedTokens = signedTokens;
+        this.revocationList = revocationList;
+        this.persistentTokens = persistentTokens;
+        this.ttlMillis = ttl.toMillis();
+        this.maxTokensPerUser = maxTokensPerUser;
+        this.maxTokens = maxTokens;
+        this.clock = clock;
+        this.tickMillis = Math.max(1, sweepInterval.toMillis());
+        this.wheel = (Queue<String>[]) new Queue<?>[(int) Math.min(4096, ttlMillis / tickMillis + 2)];
+        for (int i = 0; i < wheel.length; i++) {
+            wheel[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.nextTick = clock.millis() / tickMillis;
+    }
+
+    /** Create and remember a fresh token for this email, without a user ID */
     public String create(String email) {
+        return create(null, email);
+    }
+
+    /** Create and remember a fresh token for this user */
+    public String create(Long userId, String email) {
+        if (persistentMode()) {
+            return persistentTokens.create(userId, email);
+        }
+        if (signedMode()) {
+            return signedTokens.issue(userId, email);
+        }
         String token = UUID.randomUUID().toString();
-        store.put(token, email);
+        Entry entry = new Entry(new AuthenticatedUser(userId, email), clock.millis() + ttlMillis);
+        store.put(token, entry);
+        schedule(token, entry.expiresAt);
+
+        synchronized (tokensByEmail) {
+            Set<String> tokens = tokensByEmail.computeIfAbsent(email, e -> new LinkedHashSet<>());
+            tokens.add(token);
+            Iterator<String> oldest = tokens.iterator();
+            while (tokens.size() > maxTokensPerUser) {
+                String evicted = oldest.next();
+                oldest.remove();
+                if (store.remove(evicted) != null) {
+                    userLimitEvictions.increment();
+                }
+            }
+            while (store.size() > maxTokens && evictSoonestExpiring()) {
+                capacityEvictions.increment();
+            }
+        }
         return token;
     }
 
     /** Look up which email corresponds to this token (or null) */
     public String getEmail(String token) {
+        AuthenticatedUser user = resolve(token);
+        return user != null ? user.getEmail() : null;
+    }
+
+    /** Look up the user this token was issued to (or null) */
+    public AuthenticatedUser resolve(String token) {
         if (token == null) {
             return null;
         }
-        return store.get(token);
+        if (persistentMode()) {
+            return persistentTokens.resolve(token);
+        }
+        if (signedMode() && SignedTokenCodec.isSignedToken(token)) {
+            SignedTokenCodec.VerifiedToken verified = signedTokens.verify(token);
+            if (verified == null || revocationList.isRevoked(verified.getTokenId())) {
+                return null;
+            }
+            return new AuthenticatedUser(verified.getUserId(), verified.getEmail());
+        }
+
+        Entry entry = store.get(token);
+        if (entry == null) {
+            return null;
+        }
+        long now = clock.millis();
+        long expiresAt = entry.expiresAt;
+        if (expiresAt <= now) {
+            return null;
+        }
+        // Sliding renewal; the wheel finds the new expiry when the old bucket comes round
+        if (expiresAt - now < ttlMillis / 2) {
+            entry.expiresAt = now + ttlMillis;
+        }
+        return entry.user;
     }
 
     /** Invalidate a token on logout */
@@ -32,6 +189,128 @@ public class TokenStore {
         if (token == null) {
             return;
         }
-        store.remove(token);
+        if (persistentMode()) {
+            persistentTokens.invalidate(token);
+            return;
+        }
+        if (signedMode() && SignedTokenCodec.isSignedToken(token)) {
+            SignedTokenCodec.VerifiedToken verified = signedTokens.verify(token);
+            if (verified != null) {
+                revocationList.revoke(verified.getTokenId(), verified.getExpiresAt());
+            }
+            return;
+        }
+        Entry removed = store.remove(token);
+        if (removed != null) {
+            forget(removed.user.getEmail(), token);
+        }
+    }
+
+    /**
+     * Advance the wheel to now, removing expired tokens and re-filing renewed ones
+     */
+    @Scheduled(fixedDelayString = "${calendar.auth.sweep-interval:PT1M}")
+    public void sweep() {
+        long now = clock.millis();
+        long currentTick = now / tickMillis;
+        // A sweeper that fell behind by more than a revolution still only needs each bucket once
+        long from = Math.max(nextTick, currentTick - wheel.length + 1);
+
+        for (long tick = from; tick <= currentTick; tick++) {
+            nextTick = tick + 1;
+            Queue<String> bucket = wheel[(int) (tick % wheel.length)];
+            for (int pending = bucket.size(); pending > 0; pending--) {
+                String token = bucket.poll();
+                if (token == null) {
+                    break;
+                }
+                Entry entry = store.get(token);
+                if (entry == null) {
+                    continue;
+                }
+                if (entry.expiresAt <= now) {
+                    if (store.remove(token, entry)) {
+                        expiredEvictions.increment();
+                        forget(entry.user.getEmail(), token);
+                    }
+                } else {
+                    schedule(token, entry.expiresAt);
+                }
+            }
+        }
+    }
+
+    /** Number of opaque tokens currently held */
+    public int liveTokens() {
+        return store.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("calendar.auth.tokens.live", this, TokenStore::liveTokens)
+                .description("Opaque bearer tokens currently held")
+                .register(registry);
+        bindEvictions(registry, "expired", expiredEvictions);
+        bindEvictions(registry, "user-limit", userLimitEvictions);
+        bindEvictions(registry, "capacity", capacityEvictions);
+    }
+
+    private void bindEvictions(MeterRegistry registry, String reason, LongAdder counter) {
+        FunctionCounter.builder("calendar.auth.tokens.evictions", counter, LongAdder::sum)
+                .tag("reason", reason)
+                .description("Opaque bearer tokens removed without logout")
+                .register(registry);
+    }
+
+    private void schedule(String token, long expiresAt) {
+        long tick = Math.max(expiresAt / tickMillis, nextTick);
+        wheel[(int) (tick % wheel.length)].add(token);
+    }
+
+    /**
+     * Remove a live token from the earliest tick that has one; false if there is none.
+     * Buckets are shared between revolutions, so tokens due in a later revolution are passed over.
+     */
+    private boolean evictSoonestExpiring() {
+        long start = nextTick;
+        for (long tick = start; tick < start + wheel.length; tick++) {
+            Iterator<String> bucket = wheel[(int) (tick % wheel.length)].iterator();
+            while (bucket.hasNext()) {
+                String token = bucket.next();
+                Entry entry = store.get(token);
+                if (entry == null) {
+                    bucket.remove();
+                } else if (entry.expiresAt / tickMillis <= tick && store.remove(token, entry)) {
+                    bucket.remove();
+                    forgetLocked(entry.user.getEmail(), token);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void forget(String email, String token) {
+        synchronized (tokensByEmail) {
+            forgetLocked(email, token);
+        }
+    }
+
+    private void forgetLocked(String email, String token) {
+        Set<String> tokens = tokensByEmail.get(email);
+        if (tokens != null) {
+            tokens.remove(token);
+            if (tokens.isEmpty()) {
+                tokensByEmail.remove(email);
+            }
+        }
+    }
+
+    private boolean persistentMode() {
+        return persistentTokens != null && persistentTokens.isEnabled();
+    }
+
+    private boolean signedMode() {
+        return signedTokens != null && signedTokens.isEnabled();
     }
 }
@@ -0,0 +1,249 @@
+package com.example.calendar.service;
+
+import com.example.calendar.dto.EventChangeNotice;
+import com.example.calendar.dto.ReminderNotice;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process publish/subscribe of committed event changes to each user's open SSE connections.
+ * Connections are async requests, so idle ones hold no thread. Publishing only queues notices:
+ * each connection has a bounded buffer in which repeated changes of one event coalesce, and one
+ * feed thread flushes the buffers every flush-interval, so a burst of writes becomes a single
+ * frame and a slow client never blocks a writer. A connection whose buffer overflows is sent a
+ * resync frame instead, and idle connections get heartbeat comments. Fired reminders are queued
+ * the same way and sent as one "reminder" frame each.
+ */
+@Component
+public class CalendarChangeFeed implements MeterBinder {
+
+    static final String CHANGES_EVENT = "changes";
+    static final String RESYNC_EVENT = "resync";
+    static final String REMINDER_EVENT = "reminder";
+
+    /** One open connection and the notices not yet sent to it */
+    static final class Subscription {
+        final SseEmitter emitter;
+        // eventId → latest notice, in order of latest change
+        private final Map<Long, EventChangeNotice> pending = new LinkedHashMap<>();
+        private boolean overflowed;
+        private final Deque<ReminderNotice> reminders = new ArrayDeque<>();
+
+        Subscription(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        synchronized void offer(Collection<EventChangeNotice> notices, int capacity) {
+            if (overflowed) {
+                return;
+            }
+            for (EventChangeNotice notice : notices) {
+                pending.remove(notice.getEventId());
+                pending.put(notice.getEventId(), notice);
+            }
+            if (pending.size() > capacity) {
+                pending.clear();
+                overflowed = true;
+            }
+        }
+
+        /** Reminders are not coalesced; beyond capacity the oldest is dropped */
+        synchronized void offerReminder(ReminderNotice notice, int capacity) {
+            if (reminders.size() >= capacity) {
+                reminders.pollFirst();
+            }
+            reminders.addLast(notice);
+        }
+
+        /** Frames to send, empty if there is nothing to send */
+        synchronized List<SseEmitter.SseEventBuilder> drain() {
+            List<SseEmitter.SseEventBuilder> frames = new ArrayList<>(reminders.size() + 1);
+            if (overflowed) {
+                overflowed = false;
+                frames.add(SseEmitter.event().name(RESYNC_EVENT).data("{}"));
+            } else if (!pending.isEmpty()) {
+                List<EventChangeNotice> notices = new ArrayList<>(pending.values());
+                pending.clear();
+                frames.add(SseEmitter.event().name(CHANGES_EVENT).data(notices));
+            }
+            for (ReminderNotice reminder : reminders) {
+                frames.add(SseEmitter.event().name(REMINDER_EVENT).data(reminder));
+            }
+            reminders.clear();
+            return frames;
+        }
+    }
+
+    private final long timeoutMillis;
+    private final int bufferCapacity;
+    private final int maxConnectionsPerUser;
+    private final ScheduledExecutorService scheduler;
+
+    private final Map<Long, Deque<Subscription>> subscriptions = new ConcurrentHashMap<>();
+
+    @Autowired
+    public CalendarChangeFeed(@Value("${calendar.stream.timeout:PT30M}") Duration timeout,
+                              @Value("${calendar.stream.buffer-capacity:256}") int bufferCapacity,
+                              @Value("${calendar.stream.max-connections-per-user:10}") int maxConnectionsPerUser,
+                              @Value("${calendar.stream.flush-interval:PT0.2S}") Duration flushInterval,
+                              @Value("${calendar.stream.heartbeat-interval:PT25S}") Duration heartbeatInterval) {
+        this.timeoutMillis = timeout.toMillis();
+        this.bufferCapacity = bufferCapacity;
+        this.maxConnectionsPerUser = maxConnectionsPerUser;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "calendar-change-feed");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flush, flushInterval.toMillis(), flushInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::heartbeat, heartbeatInterval.toMillis(),
+                heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /** Without the feed thread; tests call {@link #flush} and {@link #heartbeat} */
+    CalendarChangeFeed(Duration timeout, int bufferCapacity, int maxConnectionsPerUser) {
+        this.timeoutMillis = timeout.toMillis();
+        this.bufferCapacity = bufferCapacity;
+        this.maxConnectionsPerUser = maxConnectionsPerUser;
+        this.scheduler = null;
+    }
+
+    /**
+     * Open a connection for the user. Beyond max-connections-per-user the user's oldest
+     * connection is closed.
+     */
+    public SseEmitter subscribe(Long userId) {
+        SseEmitter emitter = newEmitter(timeoutMillis);
+        Subscription subscription = new Subscription(emitter);
+        // Added inside compute, so a concurrent unsubscribe cannot drop the deque in between
+        Deque<Subscription> userSubscriptions = subscriptions.compute(userId, (id, existing) -> {
+            Deque<Subscription> deque = existing != null ? existing : new ConcurrentLinkedDeque<>();
+            deque.addLast(subscription);
+            return deque;
+        });
+        Runnable remove = () -> unsubscribe(userId, subscription);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(error -> remove.run());
+
+        while (userSubscriptions.size() > maxConnectionsPerUser) {
+            Subscription oldest = userSubscriptions.pollFirst();
+            if (oldest != null) {
+                oldest.emitter.complete();
+            }
+        }
+        // Commits the response, so the client knows the stream is open
+        send(userId, subscription, SseEmitter.event().comment("connected"));
+        return emitter;
+    }
+
+    /** Queue notices of a committed change for the user's connections */
+    public void publish(Long userId, Collection<EventChangeNotice> notices) {
+        Deque<Subscription> userSubscriptions = subscriptions.get(userId);
+        if (userSubscriptions == null || notices.isEmpty()) {
+            return;
+        }
+        for (Subscription subscription : userSubscriptions) {
+            subscription.offer(notices, bufferCapacity);
+        }
+    }
+
+    /** Queue a fired reminder for the user's connections; users without one miss it */
+    public void publishReminder(Long userId, ReminderNotice notice) {
+        Deque<Subscription> userSubscriptions = subscriptions.get(userId);
+        if (userSubscriptions == null) {
+            return;
+        }
+        for (Subscription subscription : userSubscriptions) {
+            subscription.offerReminder(notice, bufferCapacity);
+        }
+    }
+
+    /** Send each connection what it has pending: changes as one frame, then its reminders */
+    void flush() {
+        subscriptions.forEach((userId, userSubscriptions) -> {
+            for (Subscription subscription : userSubscriptions) {
+                for (SseEmitter.SseEventBuilder frame : subscription.drain()) {
+                    if (!send(userId, subscription, frame)) {
+                        break;
+                    }
+                }
+            }
+        });
+    }
+
+    /** Keep idle connections from being closed by proxies, and find the dead ones */
+    void heartbeat() {
+        subscriptions.forEach((userId, userSubscriptions) -> {
+            for (Subscription subscription : userSubscriptions) {
+                send(userId, subscription, SseEmitter.event().comment("heartbeat"));
+            }
+        });
+    }
+
+    SseEmitter newEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    int connectionCount() {
+        return subscriptions.values().stream().mapToInt(Deque::size).sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        subscriptions.values().forEach(userSubscriptions ->
+                userSubscriptions.forEach(subscription -> subscription.emitter.complete()));
+        subscriptions.clear();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("calendar.stream.connections", this, CalendarChangeFeed::connectionCount)
+                .description("Open change feed connections")
+                .register(registry);
+    }
+
+    private boolean send(Long userId, Subscription subscription, SseEmitter.SseEventBuilder frame) {
+        try {
+            subscription.emitter.send(frame);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // Client gone or emitter already completed
+            unsubscribe(userId, subscription);
+            subscription.emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    private void unsubscribe(Long userId, Subscription subscription) {
+        subscriptions.computeIfPresent(userId, (id, userSubscriptions) -> {
+            userSubscriptions.remove(subscription);
+            return userSubscriptions.isEmpty() ? null : userSubscriptions;
+        });
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.calendar.service;
+
+import com.example.calendar.dto.EventChangeNotice;
+import com.example.calendar.model.Event;
+import com.example.calendar.model.EventChange;
+import com.example.calendar.repository.EventChangeRepository;
+import com.example.calendar.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Log of the events each user created, updated and deleted, keyed by the calendar version of the
+ * change, for delta sync. Entries are written in the transaction of the change, after it bumped
+ * the version; the bump locks the user's row, so versions commit in order. A periodic compaction
+ * drops entries superseded by a later change of the same event, and entries older than the
+ * retention after raising the user's change log floor past them. Once the transaction commits,
+ * the changes are also published to the user's live {@link CalendarChangeFeed} connections.
+ */
+@Component
+public class EventChangeLog {
+
+    private final EventChangeRepository changes;
+    private final UserRepository users;
+    private final CalendarChangeFeed feed;
+    private final long retentionMillis;
+    private final Clock clock;
+
+    @Autowired
+    public EventChangeLog(EventChangeRepository changes,
+                          UserRepository users,
+                          CalendarChangeFeed feed,
+                          @Value("${calendar.changes.retention:P30D}") Duration retention) {
+        this(changes, users, feed, retention, Clock.systemUTC());
+    }
+
+    EventChangeLog(EventChangeRepository changes, UserRepository users, CalendarChangeFeed feed,
+                   Duration retention, Clock clock) {
+        this.changes = changes;
+        this.users = users;
+        this.feed = feed;
+        this.retentionMillis = retention.toMillis();
+        this.clock = clock;
+    }
+
+    /**
+     * Record the user's changed and deleted events at the calendar version the current
+     * transaction bumped to
+     */
+    public void record(Long userId, Collection<Event> changedEvents, Collection<Event> deletedEvents) {
+        if (changedEvents.isEmpty() && deletedEvents.isEmpty()) {
+            return;
+        }
+        long version = users.findCalendarVersionById(userId)
+                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+        long now = clock.millis();
+        List<EventChange> entries = new ArrayList<>(changedEvents.size() + deletedEvents.size());
+        List<EventChangeNotice> notices = new ArrayList<>(entries.size());
+        for (Event event : changedEvents) {
+            entries.add(entry(userId, version, event.getId(), false, now));
+            notices.add(notice(event, EventChangeNotice.Kind.CHANGED, version));
+        }
+        for (Event event : deletedEvents) {
+            entries.add(entry(userId, version, event.getId(), true, now));
+            notices.add(notice(event, EventChangeNotice.Kind.DELETED, version));
+        }
+        changes.saveAll(entries);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    feed.publish(userId, notices);
+                }
+            });
+        } else {
+            feed.publish(userId, notices);
+        }
+    }
+
+    /** Drop superseded entries, and entries older than the retention */
+    @Scheduled(fixedDelayString = "${calendar.changes.compact-interval:PT1H}")
+    @Transactional
+    public void compact() {
+        changes.deleteSuperseded();
+        long before = clock.millis() - retentionMillis;
+        users.raiseChangeLogFloors(before);
+        changes.deleteChangedBefore(before);
+    }
+
+    /** Opaque sync token for a calendar version */
+    static String syncToken(long version) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(("v" + version).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Calendar version of a sync token */
+    static long parseSyncToken(String token) {
+        try {
+            String text = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            long version = text.startsWith("v") ? Long.parseLong(text.substring(1)) : -1;
+            if (version < 0) {
+                throw new IllegalArgumentException("Invalid sync token");
+            }
+            return version;
+        } catch (IllegalArgumentException e) {
+            // Also malformed Base64 and NumberFormatException
+            throw new IllegalArgumentException("Invalid sync token");
+        }
+    }
+
+    private static EventChangeNotice notice(Event event, EventChangeNotice.Kind kind, long version) {
+        // seriesEndDateTime is the event's own end for one-off events, null for open-ended series
+        boolean recurring = event.getRecurrenceRule() != null && !event.getRecurrenceRule().isEmpty();
+        LocalDateTime end = event.getSeriesEndDateTime() != null || recurring
+                ? event.getSeriesEndDateTime()
+                : event.getEndDateTime();
+        return new EventChangeNotice(event.getId(), kind, event.getStartDateTime(), end, version);
+    }
+
+    private static EventChange entry(Long userId, long version, Long eventId, boolean deleted, long now) {
+        return EventChange.builder()
+                .userId(userId)
+                .version(version)
+                .eventId(eventId)
+                .deleted(deleted)
+                .changedAt(now)
+                .build();
+    }
+}
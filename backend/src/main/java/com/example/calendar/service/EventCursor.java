@@ -0,0 +1,59 @@
+package com.example.calendar.service;
+
+import com.example.calendar.dto.EventDTO;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Comparator;
+
+/**
+ * Keyset position in a range read ordered by (startDateTime, id): the last event of the previous
+ * page. Handed to clients as an opaque URL-safe token.
+ */
+public final class EventCursor {
+
+    /** Order of paged range reads; the ID breaks ties between events starting together */
+    public static final Comparator<EventDTO> ORDER =
+            Comparator.comparing(EventDTO::getStartDateTime).thenComparing(EventDTO::getId);
+
+    private final LocalDateTime startDateTime;
+    private final long id;
+
+    private EventCursor(LocalDateTime startDateTime, long id) {
+        this.startDateTime = startDateTime;
+        this.id = id;
+    }
+
+    /** Position just after the given event */
+    public static EventCursor after(EventDTO event) {
+        return new EventCursor(event.getStartDateTime(), event.getId());
+    }
+
+    public static EventCursor decode(String token) {
+        try {
+            String text = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = text.indexOf('|');
+            return new EventCursor(LocalDateTime.parse(text.substring(0, separator)),
+                    Long.parseLong(text.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public String encode() {
+        String text = startDateTime + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDateTime getStartDateTime() {
+        return startDateTime;
+    }
+
+    /** Whether the event comes after this position */
+    public boolean precedes(EventDTO event) {
+        int byStart = event.getStartDateTime().compareTo(startDateTime);
+        return byStart > 0 || byStart == 0 && event.getId() > id;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.calendar.service;
+
+import com.example.calendar.dto.EventDTO;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable interval index over one user's events and expanded occurrences within a window.
+ * Entries are sorted by start; maxEnds[i] is the latest end among entries 0..i, so both ends of
+ * the candidate slice for a range are found by binary search and only overlapping entries
+ * (plus the rare long event that starts early) are scanned.
+ */
+final class EventIntervalIndex {
+
+    private final LocalDateTime windowStart;
+    private final LocalDateTime windowEnd;
+    private final EventDTO[] events;
+    private final long[] starts;
+    private final long[] maxEnds;
+
+    /**
+     * @param events every event overlapping the window, sorted by start
+     */
+    EventIntervalIndex(List<EventDTO> events, LocalDateTime windowStart, LocalDateTime windowEnd) {
+        this.windowStart = windowStart;
+        this.windowEnd = windowEnd;
+        this.events = events.toArray(new EventDTO[0]);
+        this.starts = new long[this.events.length];
+        this.maxEnds = new long[this.events.length];
+
+        long maxEnd = Long.MIN_VALUE;
+        for (int i = 0; i < this.events.length; i++) {
+            starts[i] = toSeconds(this.events[i].getStartDateTime());
+            maxEnd = Math.max(maxEnd, toSeconds(this.events[i].getEndDateTime()));
+            maxEnds[i] = maxEnd;
+        }
+    }
+
+    /**
+     * Whether every event overlapping [start, end) is in the index
+     */
+    boolean covers(LocalDateTime start, LocalDateTime end) {
+        return !start.isBefore(windowStart) && !end.isAfter(windowEnd);
+    }
+
+    int size() {
+        return events.length;
+    }
+
+    /**
+     * Events overlapping [start, end), in start order
+     */
+    List<EventDTO> find(LocalDateTime start, LocalDateTime end) {
+        long rangeStart = toSeconds(start);
+        int from = firstIndexAbove(maxEnds, rangeStart);
+        int to = firstIndexAtOrAbove(starts, toSeconds(end));
+
+        List<EventDTO> result = new ArrayList<>(Math.max(0, to - from));
+        for (int i = from; i < to; i++) {
+            if (toSeconds(events[i].getEndDateTime()) > rangeStart) {
+                result.add(events[i]);
+            }
+        }
+        return result;
+    }
+
+    private static int firstIndexAbove(long[] sorted, long value) {
+        return firstIndexAtOrAbove(sorted, value == Long.MAX_VALUE ? value : value + 1);
+    }
+
+    private static int firstIndexAtOrAbove(long[] sorted, long value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static long toSeconds(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+}
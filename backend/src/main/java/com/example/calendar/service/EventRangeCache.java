@@ -0,0 +1,148 @@
+package com.example.calendar.service;
+
+import com.example.calendar.dto.EventDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Optional per-user cache of {@link EventIntervalIndex}es (calendar.range-cache.enabled) that
+ * answers range reads around today without touching the database. An index covers a window of
+ * past-days before and future-days after today and is rebuilt lazily after the user's events
+ * change or the window moves on.
+ *
+ * Memory is bounded by the total number of indexed events across users (max-entries);
+ * the least recently read users are evicted first.
+ */
+@Service
+public class EventRangeCache {
+
+    /**
+     * Loads every event of a user overlapping [start, end), sorted by start
+     */
+    @FunctionalInterface
+    public interface Loader {
+        List<EventDTO> load(String userEmail, LocalDateTime start, LocalDateTime end);
+    }
+
+    private final boolean enabled;
+    private final int pastDays;
+    private final int futureDays;
+    private final long maxEntries;
+    private final Clock clock;
+
+    // Access-ordered, so iteration starts at the least recently read user
+    private final Map<String, EventIntervalIndex> indexes = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalEntries;
+    // Bumped by every invalidation; an index loaded across an invalidation is not stored
+    private long generation;
+
+    @Autowired
+    public EventRangeCache(@Value("${calendar.range-cache.enabled:false}") boolean enabled,
+                           @Value("${calendar.range-cache.past-days:90}") int pastDays,
+                           @Value("${calendar.range-cache.future-days:365}") int futureDays,
+                           @Value("${calendar.range-cache.max-entries:200000}") long maxEntries) {
+        this(enabled, pastDays, futureDays, maxEntries, Clock.systemDefaultZone());
+    }
+
+    EventRangeCache(boolean enabled, int pastDays, int futureDays, long maxEntries, Clock clock) {
+        this.enabled = enabled;
+        this.pastDays = pastDays;
+        this.futureDays = futureDays;
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+    }
+
+    /**
+     * Events of the user overlapping [start, end) from the user's index, building it with the
+     * loader if needed. Empty if the cache is disabled or the range is outside the window,
+     * in which case the caller should query the database itself.
+     */
+    public Optional<List<EventDTO>> find(String userEmail, LocalDateTime start, LocalDateTime end, Loader loader) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        EventIntervalIndex index = get(userEmail);
+        if (index == null || !index.covers(start, end)) {
+            LocalDate today = LocalDate.now(clock);
+            LocalDateTime windowStart = today.minusDays(pastDays).atStartOfDay();
+            LocalDateTime windowEnd = today.plusDays(futureDays + 1L).atStartOfDay();
+            if (start.isBefore(windowStart) || end.isAfter(windowEnd)) {
+                return Optional.empty();
+            }
+
+            long loadGeneration = currentGeneration();
+            index = new EventIntervalIndex(loader.load(userEmail, windowStart, windowEnd), windowStart, windowEnd);
+            put(userEmail, index, loadGeneration);
+        }
+        return Optional.of(index.find(start, end));
+    }
+
+    /**
+     * Drop the user's index now and again once the surrounding transaction has committed,
+     * so a read racing with the write cannot keep the old state
+     */
+    public void invalidate(String userEmail) {
+        if (!enabled) {
+            return;
+        }
+        remove(userEmail);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remove(userEmail);
+                }
+            });
+        }
+    }
+
+    synchronized long totalEntries() {
+        return totalEntries;
+    }
+
+    private synchronized EventIntervalIndex get(String userEmail) {
+        return indexes.get(userEmail);
+    }
+
+    private synchronized long currentGeneration() {
+        return generation;
+    }
+
+    private synchronized void put(String userEmail, EventIntervalIndex index, long loadGeneration) {
+        if (loadGeneration != generation || index.size() > maxEntries) {
+            return;
+        }
+        EventIntervalIndex previous = indexes.put(userEmail, index);
+        if (previous != null) {
+            totalEntries -= previous.size();
+        }
+        totalEntries += index.size();
+
+        Iterator<EventIntervalIndex> leastRecentlyRead = indexes.values().iterator();
+        while (totalEntries > maxEntries) {
+            totalEntries -= leastRecentlyRead.next().size();
+            leastRecentlyRead.remove();
+        }
+    }
+
+    private synchronized void remove(String userEmail) {
+        generation++;
+        EventIntervalIndex removed = indexes.remove(userEmail);
+        if (removed != null) {
+            totalEntries -= removed.size();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.calendar.service;
+
+import com.example.calendar.dto.EventDTO;
+import com.example.calendar.dto.EventPage;
+import com.example.calendar.dto.EventSeriesPage;
+import com.example.calendar.dto.TagDTO;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Turns a page of events into the columnar {@link EventSeriesPage}: expanded occurrences of the
+ * same recurring master (and duration) become one block, every other event a block of its own.
+ */
+public final class EventSeriesEncoder {
+
+    /** Occurrences of a master with an unusual duration get a block of their own */
+    private record SeriesKey(Long masterEventId, long durationSeconds) {
+    }
+
+    private static final class Block {
+        final EventDTO first;
+        final boolean occurrences;
+        final long durationSeconds;
+        final List<LocalDateTime> starts = new ArrayList<>();
+
+        Block(EventDTO first, boolean occurrences, long durationSeconds) {
+            this.first = first;
+            this.occurrences = occurrences;
+            this.durationSeconds = durationSeconds;
+        }
+    }
+
+    private EventSeriesEncoder() {
+    }
+
+    public static EventSeriesPage encode(EventPage page) {
+        List<EventDTO> events = page.getEvents();
+        if (events.isEmpty()) {
+            return new EventSeriesPage(null, null, List.of(), List.of(), page.getNextCursor());
+        }
+
+        LocalDateTime origin = events.stream()
+                .map(EventDTO::getStartDateTime)
+                .min(Comparator.naturalOrder())
+                .orElseThrow();
+        Map<Object, Block> blocks = new LinkedHashMap<>();
+        Map<Long, TagDTO> tags = new LinkedHashMap<>();
+        for (EventDTO event : events) {
+            event.getTags().forEach(tag -> tags.putIfAbsent(tag.getId(), tag));
+            long durationSeconds = Duration.between(event.getStartDateTime(), event.getEndDateTime()).getSeconds();
+            boolean occurrence = OccurrenceId.isOccurrenceId(event.getId()) && event.getParentEventId() != null;
+            Object key = occurrence ? new SeriesKey(event.getParentEventId(), durationSeconds) : event.getId();
+            blocks.computeIfAbsent(key, k -> new Block(event, occurrence, durationSeconds))
+                    .starts.add(event.getStartDateTime());
+        }
+
+        List<EventSeriesPage.Series> series = new ArrayList<>(blocks.size());
+        for (Block block : blocks.values()) {
+            series.add(toSeries(block, origin));
+        }
+        return new EventSeriesPage(events.get(0).getUserEmail(), origin, new ArrayList<>(tags.values()), series,
+                page.getNextCursor());
+    }
+
+    private static EventSeriesPage.Series toSeries(Block block, LocalDateTime origin) {
+        EventDTO first = block.first;
+        block.starts.sort(Comparator.naturalOrder());
+        long[] startOffsets = new long[block.starts.size()];
+        LocalDateTime previous = origin;
+        for (int i = 0; i < startOffsets.length; i++) {
+            LocalDateTime start = block.starts.get(i);
+            startOffsets[i] = Duration.between(previous, start).getSeconds();
+            previous = start;
+        }
+        List<Long> tagIds = first.getTags().stream().map(TagDTO::getId).toList();
+        if (block.occurrences) {
+            // Whatever the occurrence implies itself is left out
+            return new EventSeriesPage.Series(first.getParentEventId(), true,
+                    first.getStartDateTime().toLocalDate().minusDays(OccurrenceId.dayOffset(first.getId())),
+                    first.getTitle(), first.getDescription(), first.getRecurrenceRule(),
+                    first.getRecurrenceEndDate(), first.getRecurrenceCount(), null, null,
+                    first.getExcludedDates(), tagIds, block.durationSeconds, startOffsets);
+        }
+        return new EventSeriesPage.Series(first.getId(), false, null, first.getTitle(), first.getDescription(),
+                first.getRecurrenceRule(), first.getRecurrenceEndDate(), first.getRecurrenceCount(),
+                first.getParentEventId(), first.getOriginalStartDateTime(), first.getExcludedDates(), tagIds,
+                block.durationSeconds, startOffsets);
+    }
+}
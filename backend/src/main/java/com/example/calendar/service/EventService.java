@@ -1,25 +1,43 @@
 package com.example.calendar.service;
 
 import com.example.calendar.dto.CreateEventDTO;
+import com.example.calendar.dto.EventChanges;
 import com.example.calendar.dto.EventDTO;
+import com.example.calendar.dto.EventPage;
 import com.example.calendar.dto.TagDTO;
 import com.example.calendar.model.Event;
+import com.example.calendar.model.EventChange;
+import com.example.calendar.model.Occurrence;
 import com.example.calendar.model.Tag;
 import com.example.calendar.model.User;
+import com.example.calendar.repository.EventChangeRepository;
 import com.example.calendar.repository.EventRepository;
 import com.example.calendar.repository.TagRepository;
 import com.example.calendar.repository.UserRepository;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.DateTimeException;
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -28,6 +46,25 @@ public class EventService {
     private final EventRepository eventRepository;
     private final UserRepository userRepository;
     private final TagRepository tagRepository;
+    private final OccurrenceMaterializer occurrenceMaterializer;
+    private final EventRangeCache eventRangeCache;
+    private final EntityManager entityManager;
+    private final EventChangeLog eventChangeLog;
+    private final EventChangeRepository eventChangeRepository;
+    private final CalendarChangeFeed calendarChangeFeed;
+    private final ReminderScheduler reminderScheduler;
+
+    @Value("${calendar.events.max-window-days:366}")
+    private int maxWindowDays = 366;
+
+    @Value("${calendar.events.max-page-size:1000}")
+    private int maxPageSize = 1000;
+
+    @Value("${calendar.events.max-stream-window-days:3660}")
+    private int maxStreamWindowDays = 3660;
+
+    @Value("${calendar.events.upcoming-horizon-days:3660}")
+    private int upcomingHorizonDays = 3660;
 
     @Transactional
     public EventDTO createEvent(CreateEventDTO dto, String userEmail) {
@@ -65,54 +102,328 @@ public class EventService {
             event.setTags(new HashSet<>(tags));
         }
 
+        event.setSeriesEndDateTime(computeSeriesEnd(event));
         Event savedEvent = eventRepository.save(event);
+        occurrenceMaterializer.rematerialize(savedEvent);
+        if (dto.getReminderMinutes() != null) {
+            reminderScheduler.setReminders(savedEvent, dto.getReminderMinutes());
+        }
+        eventRangeCache.invalidate(userEmail);
+        userRepository.bumpCalendarVersion(userEmail);
+        eventChangeLog.record(user.getId(), List.of(savedEvent), List.of());
         return convertToDTO(savedEvent);
     }
 
+    /**
+     * The user's calendar version, which every change to their events or tags advances
+     */
+    public long getCalendarVersion(Long userId, String userEmail) {
+        Optional<Long> version = userId != null
+                ? userRepository.findCalendarVersionById(userId)
+                : userRepository.findCalendarVersionByEmail(userEmail);
+        return version.orElseThrow(() -> new IllegalArgumentException("User not found"));
+    }
+
     public List<EventDTO> getEventsForUserInRange(String userEmail, LocalDateTime start, LocalDateTime end) {
         return getEventsForUserInRange(userEmail, start, end, null);
     }
 
     public List<EventDTO> getEventsForUserInRange(String userEmail, LocalDateTime start, LocalDateTime end, Long tagId) {
-        Optional<User> userOpt = userRepository.findByEmail(userEmail);
-        if (userOpt.isEmpty()) {
-            throw new IllegalArgumentException("User not found");
+        return getEventsForUserInRange(null, userEmail, start, end, tagId);
+    }
+
+    /**
+     * Range read for an authenticated user whose ID is already known, so the users table is not
+     * read. A null userId is looked up by email.
+     */
+    public List<EventDTO> getEventsForUserInRange(Long userId, String userEmail, LocalDateTime start,
+                                                  LocalDateTime end, Long tagId) {
+        if (tagId == null) {
+            Optional<List<EventDTO>> cached = findCached(userId, userEmail, start, end);
+            if (cached.isPresent()) {
+                return cached.get();
+            }
         }
+        return loadEventsInRange(userId, userEmail, start, end, tagId);
+    }
 
-        User user = userOpt.get();
+    /**
+     * The next limit events starting at or after from, up to upcoming-horizon-days ahead. One-off
+     * events come from an index seek that reads at most limit rows, each recurring series
+     * contributes from its next occurrence on, and the merge stops once limit events are settled,
+     * so the cost follows limit and the number of series rather than the horizon.
+     */
+    public List<EventDTO> getUpcomingEvents(Long userId, String userEmail, LocalDateTime from, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        int count = Math.min(limit, maxPageSize);
+        if (userId == null) {
+            userId = userRepository.findByEmail(userEmail)
+                    .orElseThrow(() -> new IllegalArgumentException("User not found"))
+                    .getId();
+        }
+        LocalDateTime until = from.plusDays(upcomingHorizonDays);
+
+        List<Long> singleIds = eventRepository.findUpcomingSingleEventIds(userId, from, until, Limit.of(count));
+        List<Event> singles = singleIds.isEmpty()
+                ? List.of()
+                : eventRepository.findByIdInOrderByStartDateTimeAsc(singleIds);
+        List<Event> masters = eventRepository.findRecurringMastersByUserIdOverlappingRange(userId, from, until);
+
+        List<Iterator<EventDTO>> sources = new ArrayList<>(masters.size() + 1);
+        sources.add(singles.stream().map(event -> convertToDTO(event, userEmail, convertTags(event))).iterator());
+        for (Event master : masters) {
+            sources.add(occurrenceIterator(master, userEmail, from, until));
+        }
+        return new MergingIterator<>(sources, EventCursor.ORDER).stream()
+                // The series' iterators also yield an occurrence already under way at from
+                .filter(event -> !event.getStartDateTime().isBefore(from))
+                .limit(count)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Events created, updated or deleted since the sync token, unexpanded: recurring masters carry
+     * their exclusions, overrides their parent. Without a token, or with one older than the
+     * retained change log, all of the user's events are returned as a full resync.
+     */
+    @Transactional(readOnly = true)
+    public EventChanges getChangesSince(Long userId, String userEmail, String syncToken) {
+        Long since = syncToken != null ? EventChangeLog.parseSyncToken(syncToken) : null;
+        if (userId == null) {
+            userId = userRepository.findByEmail(userEmail)
+                    .orElseThrow(() -> new IllegalArgumentException("User not found"))
+                    .getId();
+        }
+        // Read before the log, so changes committed meanwhile are left for the next sync
+        long version = getCalendarVersion(userId, userEmail);
+        if (since == null || since > version) {
+            return fullResync(userId, version);
+        }
+
+        // Last change of each event wins
+        Map<Long, Boolean> deletedById = new LinkedHashMap<>();
+        if (since < version) {
+            for (EventChange change : eventChangeRepository.findChanges(userId, since, version)) {
+                deletedById.remove(change.getEventId());
+                deletedById.put(change.getEventId(), change.isDeleted());
+            }
+        }
+        // Read after the log: a compaction that removed entries we needed has raised the floor
+        long floor = userRepository.findChangeLogFloorById(userId).orElse(0L);
+        if (since < floor) {
+            return fullResync(userId, version);
+        }
+
+        List<Long> changedIds = new ArrayList<>();
+        Set<Long> deletedIds = new LinkedHashSet<>();
+        deletedById.forEach((eventId, deleted) -> (deleted ? deletedIds : changedIds).add(eventId));
+        List<EventDTO> events = new ArrayList<>(changedIds.size());
+        if (!changedIds.isEmpty()) {
+            Set<Long> missing = new LinkedHashSet<>(changedIds);
+            for (Event event : eventRepository.findByIdInOrderByStartDateTimeAsc(changedIds)) {
+                missing.remove(event.getId());
+                events.add(convertToDTO(event));
+            }
+            // Deleted by a transaction that committed after the version was read
+            deletedIds.addAll(missing);
+        }
+        return new EventChanges(false, events, new ArrayList<>(deletedIds), EventChangeLog.syncToken(version));
+    }
+
+    private EventChanges fullResync(Long userId, long version) {
+        List<EventDTO> events = eventRepository.findAllByUserId(userId).stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+        return new EventChanges(true, events, List.of(), EventChangeLog.syncToken(version));
+    }
+
+    /**
+     * Open a live feed of the user's committed changes
+     */
+    public SseEmitter subscribeToChanges(Long userId, String userEmail) {
+        if (userId == null) {
+            userId = userRepository.findByEmail(userEmail)
+                    .orElseThrow(() -> new IllegalArgumentException("User not found"))
+                    .getId();
+        }
+        return calendarChangeFeed.subscribe(userId);
+    }
+
+    private Optional<List<EventDTO>> findCached(Long userId, String userEmail, LocalDateTime start,
+                                                LocalDateTime end) {
+        return eventRangeCache.find(userEmail, start, end,
+                (email, windowStart, windowEnd) -> loadEventsInRange(userId, email, windowStart, windowEnd, null));
+    }
+
+    /**
+     * One page of a range read, ordered by start time and ID. The range may span at most
+     * max-window-days and a page holds at most max-page-size events; the next page starts after
+     * the cursor returned with this one.
+     */
+    public EventPage getEventPage(Long userId, String userEmail, LocalDateTime start, LocalDateTime end,
+                                  Long tagId, String cursor, Integer limit) {
+        if (Duration.between(start, end).compareTo(Duration.ofDays(maxWindowDays)) > 0) {
+            throw new IllegalArgumentException("Date range must not exceed " + maxWindowDays + " days");
+        }
+        if (limit != null && limit < 1) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        int pageSize = limit == null ? maxPageSize : Math.min(limit, maxPageSize);
+        EventCursor after = cursor == null ? null : EventCursor.decode(cursor);
+
+        // Everything after the cursor starts at or after it, so earlier events need not be loaded
+        LocalDateTime loadStart = after != null && after.getStartDateTime().isAfter(start)
+                ? after.getStartDateTime()
+                : start;
+        // Cached ranges are re-sorted; otherwise the merge stops reading once the page is full
+        Optional<List<EventDTO>> cached = tagId == null
+                ? findCached(userId, userEmail, loadStart, end)
+                : Optional.empty();
+        Stream<EventDTO> candidates = cached.isPresent()
+                ? cached.get().stream().sorted(EventCursor.ORDER)
+                : mergeEventsInRange(userId, userEmail, loadStart, end, tagId);
+        List<EventDTO> events = candidates
+                .filter(event -> after == null || after.precedes(event))
+                .limit(pageSize + 1L)
+                .collect(Collectors.toList());
+        if (events.size() <= pageSize) {
+            return new EventPage(events, null);
+        }
+        List<EventDTO> page = events.subList(0, pageSize);
+        return new EventPage(page, EventCursor.after(page.get(pageSize - 1)).encode());
+    }
+
+    /**
+     * Range read that hands each event to the sink in start time order as soon as it is produced
+     * instead of collecting them. One-off events stream from the database, every recurring series
+     * is expanded lazily, and a k-way merge interleaves them, so memory does not grow with the
+     * size of the range. The range may span at most max-stream-window-days.
+     */
+    @Transactional(readOnly = true)
+    public void streamEventsInRange(Long userId, String userEmail, LocalDateTime start, LocalDateTime end,
+                                    Long tagId, Consumer<EventDTO> sink) {
+        if (Duration.between(start, end).compareTo(Duration.ofDays(maxStreamWindowDays)) > 0) {
+            throw new IllegalArgumentException("Date range must not exceed " + maxStreamWindowDays + " days");
+        }
+        if (userId == null) {
+            userId = userRepository.findByEmail(userEmail)
+                    .orElseThrow(() -> new IllegalArgumentException("User not found"))
+                    .getId();
+        }
+
+        Stream<Event> singles;
+        List<Event> masters;
+        if (tagId != null) {
+            List<Event> tagged = eventRepository.findByUserIdAndStartDateTimeBetweenAndTagIdOrderByStartDateTimeAsc(
+                    userId, start, end, tagId);
+            masters = tagged.stream().filter(this::isRecurringMaster).toList();
+            singles = tagged.stream()
+                    .filter(event -> !isRecurringMaster(event))
+                    .filter(event -> event.getStartDateTime().isBefore(end) && event.getEndDateTime().isAfter(start));
+        } else {
+            masters = eventRepository.findRecurringMastersByUserIdOverlappingRange(userId, start, end);
+            singles = eventRepository.streamSingleEventsByUserIdOverlappingRange(userId, start, end);
+        }
+
+        try (singles) {
+            List<Iterator<EventDTO>> sources = new ArrayList<>(masters.size() + 1);
+            sources.add(singles.map(event -> {
+                // One-off events and overrides have no exclusions; reading the lazy collection
+                // would cost a query per streamed row
+                EventDTO dto = convertToDTO(event, userEmail, convertTags(event), null);
+                // Converted rows are not needed again; keep the persistence context from growing
+                entityManager.detach(event);
+                return dto;
+            }).iterator());
+            for (Event master : masters) {
+                sources.add(occurrenceIterator(master, userEmail, start, end));
+            }
+            new MergingIterator<>(sources, EventCursor.ORDER).forEachRemaining(sink);
+        }
+    }
+
+    private boolean isRecurringMaster(Event event) {
+        return event.getParentEvent() == null
+                && event.getRecurrenceRule() != null && !event.getRecurrenceRule().isEmpty();
+    }
+
+    private List<EventDTO> loadEventsInRange(Long userId, String userEmail, LocalDateTime start, LocalDateTime end,
+                                             Long tagId) {
+        return mergeEventsInRange(userId, userEmail, start, end, tagId).collect(Collectors.toList());
+    }
+
+    /**
+     * Events of the range in (start time, ID) order, produced lazily. Every source is already in
+     * that order, so they are merged rather than collected and sorted, and a caller that stops
+     * early leaves the rest of the range unexpanded and unconverted.
+     */
+    private Stream<EventDTO> mergeEventsInRange(Long userId, String userEmail, LocalDateTime start,
+                                                LocalDateTime end, Long tagId) {
+        if (userId == null) {
+            Optional<User> userOpt = userRepository.findByEmail(userEmail);
+            if (userOpt.isEmpty()) {
+                throw new IllegalArgumentException("User not found");
+            }
+            userId = userOpt.get().getId();
+        }
+
+        if (tagId == null && occurrenceMaterializer.covers(start, end)) {
+            return getMaterializedEventsInRange(userId, userEmail, start, end);
+        }
 
         List<Event> allEvents;
         if (tagId != null) {
             // Filter by tag using the repository query
-            allEvents = eventRepository.findByUserAndStartDateTimeBetweenAndTagIdOrderByStartDateTimeAsc(user, start, end, tagId);
+            allEvents = eventRepository.findByUserIdAndStartDateTimeBetweenAndTagIdOrderByStartDateTimeAsc(
+                    userId, start, end, tagId);
         } else {
-            // Get all events for the user (we need to check recurring events that might start before the range)
-            allEvents = eventRepository.findByUserOrderByStartDateTimeAsc(user);
+            // Only load events that can reach the range, including recurring events that start before it
+            allEvents = eventRepository.findByUserIdOverlappingRangeOrderByStartDateTimeAsc(userId, start, end);
         }
 
-        List<EventDTO> result = new ArrayList<>();
-
+        // One source for one-off events and instance overrides, one per recurring series
+        List<Iterator<EventDTO>> sources = new ArrayList<>();
+        sources.add(allEvents.stream()
+                .filter(event -> !isRecurringMaster(event))
+                .filter(event -> event.getStartDateTime().isBefore(end) && event.getEndDateTime().isAfter(start))
+                .map(event -> convertToDTO(event, userEmail, convertTags(event)))
+                .iterator());
         for (Event event : allEvents) {
-            if (event.getParentEvent() != null) {
-                // This is an instance override, include it if it falls within the range
-                if (event.getStartDateTime().isBefore(end) && event.getEndDateTime().isAfter(start)) {
-                    result.add(convertToDTO(event));
-                }
-            } else if (event.getRecurrenceRule() != null && !event.getRecurrenceRule().isEmpty()) {
-                // This is a recurring event - expand it
-                List<EventDTO> occurrences = expandRecurringEvent(event, start, end);
-                result.addAll(occurrences);
-            } else {
-                // Regular event - include if it falls within the range
-                if (event.getStartDateTime().isBefore(end) && event.getEndDateTime().isAfter(start)) {
-                    result.add(convertToDTO(event));
-                }
+            if (isRecurringMaster(event)) {
+                sources.add(occurrenceIterator(event, userEmail, start, end));
             }
         }
+        return new MergingIterator<>(sources, EventCursor.ORDER).stream();
+    }
 
-        return result.stream()
-                .sorted((a, b) -> a.getStartDateTime().compareTo(b.getStartDateTime()))
-                .collect(Collectors.toList());
+    /**
+     * Range read served from the materialized occurrences table: one-off events and instance
+     * overrides come from the events table, occurrences of recurring masters from one range scan
+     */
+    private Stream<EventDTO> getMaterializedEventsInRange(Long userId, String userEmail, LocalDateTime start,
+                                                          LocalDateTime end) {
+        Iterator<EventDTO> singles = eventRepository
+                .findSingleEventsByUserIdOverlappingRangeOrderByStartDateTimeAsc(userId, start, end).stream()
+                .map(event -> convertToDTO(event, userEmail, convertTags(event)))
+                .iterator();
+
+        // Occurrences of the same master share its tags and exclusions; convert them once per master
+        Map<Long, List<TagDTO>> tagsByMaster = new HashMap<>();
+        Map<Long, Optional<String>> excludedDatesByMaster = new HashMap<>();
+        Iterator<EventDTO> occurrences = occurrenceMaterializer.findInRange(userId, start, end).stream()
+                .map(occurrence -> {
+                    Event master = occurrence.getMasterEvent();
+                    List<TagDTO> tagDTOs = tagsByMaster.computeIfAbsent(master.getId(), id -> convertTags(master));
+                    String excludedDatesText = excludedDatesByMaster.computeIfAbsent(master.getId(),
+                            id -> Optional.ofNullable(formatExcludedDates(master.getExcludedDates()))).orElse(null);
+                    return convertOccurrenceToDTO(master, userEmail, occurrence.getStartDateTime(),
+                            occurrence.getEndDateTime(), excludedDatesText, tagDTOs);
+                })
+                .iterator();
+
+        return new MergingIterator<>(List.of(singles, occurrences), EventCursor.ORDER).stream();
     }
 
     public List<EventDTO> getUserEvents(String userEmail) {
@@ -147,50 +458,61 @@ public class EventService {
         User user = userOpt.get();
 
         // Determine if this is a master event ID or an occurrence ID
-        OccurrenceInfo occurrenceInfo = parseOccurrenceId(id);
-        Event masterEvent;
-        LocalDateTime occurrenceDateTime = null;
-
-        if (occurrenceInfo != null) {
-            // This is an occurrence ID, find the master event
-            Optional<Event> eventOpt = eventRepository.findById(occurrenceInfo.masterEventId);
-            if (eventOpt.isEmpty()) {
-                throw new IllegalArgumentException("Master event not found");
-            }
-            masterEvent = eventOpt.get();
-            occurrenceDateTime = occurrenceInfo.occurrenceDateTime;
-        } else {
-            // This is a master event ID
-            Optional<Event> eventOpt = eventRepository.findById(id);
-            if (eventOpt.isEmpty()) {
-                throw new IllegalArgumentException("Event not found");
-            }
-            masterEvent = eventOpt.get();
-        }
+        OccurrenceInfo occurrenceInfo = resolveEventId(id, user);
+        Event masterEvent = occurrenceInfo.masterEvent;
+        LocalDateTime occurrenceDateTime = occurrenceInfo.occurrenceDateTime;
 
         // Verify ownership
         if (!masterEvent.getUser().getId().equals(user.getId())) {
             throw new IllegalArgumentException("Access denied: You can only update your own events");
         }
+        eventRangeCache.invalidate(userEmail);
+        userRepository.bumpCalendarVersion(userEmail);
 
         // Handle different scopes for recurring events
         if ("instance".equals(scope) && occurrenceDateTime != null) {
             // Update only this specific occurrence by creating an instance override
             Event instanceOverride = createInstanceOverride(masterEvent, occurrenceDateTime, dto, user);
+            if (dto.getReminderMinutes() != null) {
+                reminderScheduler.setReminders(instanceOverride, dto.getReminderMinutes());
+            } else {
+                reminderScheduler.copyReminders(masterEvent, instanceOverride);
+            }
+            eventChangeLog.record(user.getId(), List.of(masterEvent, instanceOverride), List.of());
             return convertToDTO(instanceOverride);
         } else if ("series".equals(scope) || occurrenceDateTime == null) {
             // Update the entire series (master event)
             updateEventFields(masterEvent, dto);
             Event updatedEvent = eventRepository.save(masterEvent);
+            occurrenceMaterializer.rematerialize(updatedEvent);
+            reminderScheduler.setReminders(updatedEvent, dto.getReminderMinutes());
+            eventChangeLog.record(user.getId(), List.of(updatedEvent), List.of());
             return convertToDTO(updatedEvent);
         } else {
             // Default behavior - if it's an occurrence, update the series
             updateEventFields(masterEvent, dto);
             Event updatedEvent = eventRepository.save(masterEvent);
+            occurrenceMaterializer.rematerialize(updatedEvent);
+            reminderScheduler.setReminders(updatedEvent, dto.getReminderMinutes());
+            eventChangeLog.record(user.getId(), List.of(updatedEvent), List.of());
             return convertToDTO(updatedEvent);
         }
     }
 
+    /**
+     * Reminders of the user's event, in minutes before its start; for an occurrence ID, those of its series
+     */
+    @Transactional(readOnly = true)
+    public List<Integer> getReminderMinutes(Long id, String userEmail) {
+        User user = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+        Event event = resolveEventId(id, user).masterEvent;
+        if (!event.getUser().getId().equals(user.getId())) {
+            throw new IllegalArgumentException("Access denied: You can only access your own events");
+        }
+        return reminderScheduler.getReminderMinutes(event.getId());
+    }
+
     private void updateEventFields(Event event, CreateEventDTO dto) {
         event.setTitle(dto.getTitle());
         event.setDescription(dto.getDescription());
@@ -199,6 +521,7 @@ public class EventService {
         event.setRecurrenceRule(dto.getRecurrenceRule());
         event.setRecurrenceEndDate(dto.getRecurrenceEndDate());
         event.setRecurrenceCount(dto.getRecurrenceCount());
+        event.setSeriesEndDateTime(computeSeriesEnd(event));
 
         // Handle tag updates
         if (dto.getTagIds() != null && !dto.getTagIds().isEmpty()) {
@@ -228,45 +551,28 @@ public class EventService {
         User user = userOpt.get();
 
         // Determine if this is a master event ID or an occurrence ID
-        OccurrenceInfo occurrenceInfo = parseOccurrenceId(id);
-        Event masterEvent;
-        LocalDateTime occurrenceDateTime = null;
-
-        if (occurrenceInfo != null) {
-            // This is an occurrence ID, find the master event
-            Optional<Event> eventOpt = eventRepository.findById(occurrenceInfo.masterEventId);
-            if (eventOpt.isEmpty()) {
-                throw new IllegalArgumentException("Master event not found");
-            }
-            masterEvent = eventOpt.get();
-            occurrenceDateTime = occurrenceInfo.occurrenceDateTime;
-        } else {
-            // This is a master event ID or instance override
-            Optional<Event> eventOpt = eventRepository.findById(id);
-            if (eventOpt.isEmpty()) {
-                throw new IllegalArgumentException("Event not found");
-            }
-            masterEvent = eventOpt.get();
-        }
+        OccurrenceInfo occurrenceInfo = resolveEventId(id, user);
+        Event masterEvent = occurrenceInfo.masterEvent;
+        LocalDateTime occurrenceDateTime = occurrenceInfo.occurrenceDateTime;
 
         // Verify ownership
         if (!masterEvent.getUser().getId().equals(user.getId())) {
             throw new IllegalArgumentException("Access denied: You can only delete your own events");
         }
+        eventRangeCache.invalidate(userEmail);
+        userRepository.bumpCalendarVersion(userEmail);
 
         // Handle different scopes for recurring events
+        List<Event> changed = List.of();
+        List<Event> deleted = List.of(masterEvent);
         if ("instance".equals(scope)) {
             if (occurrenceDateTime != null) {
                 // Delete a specific occurrence by adding it to excluded dates
-                String currentExclusions = masterEvent.getExcludedDates();
-                String newExclusion = occurrenceDateTime.toString();
-
-                if (currentExclusions == null || currentExclusions.isEmpty()) {
-                    masterEvent.setExcludedDates(newExclusion);
-                } else {
-                    masterEvent.setExcludedDates(currentExclusions + "," + newExclusion);
-                }
+                masterEvent.addExcludedDate(occurrenceDateTime);
                 eventRepository.save(masterEvent);
+                occurrenceMaterializer.exclude(masterEvent, occurrenceDateTime);
+                changed = deleted;
+                deleted = List.of();
             } else {
                 // This is a master event or instance override
                 if (masterEvent.getParentEvent() != null) {
@@ -274,227 +580,255 @@ public class EventService {
                     eventRepository.delete(masterEvent);
                 } else if (masterEvent.getRecurrenceRule() != null && !masterEvent.getRecurrenceRule().isEmpty()) {
                     // This is a recurring master event, add the first occurrence to excluded dates
-                    String currentExclusions = masterEvent.getExcludedDates();
-                    String newExclusion = masterEvent.getStartDateTime().toString();
-
-                    if (currentExclusions == null || currentExclusions.isEmpty()) {
-                        masterEvent.setExcludedDates(newExclusion);
-                    } else {
-                        masterEvent.setExcludedDates(currentExclusions + "," + newExclusion);
-                    }
+                    masterEvent.addExcludedDate(masterEvent.getStartDateTime());
                     eventRepository.save(masterEvent);
+                    occurrenceMaterializer.exclude(masterEvent, masterEvent.getStartDateTime());
+                    changed = deleted;
+                    deleted = List.of();
                 } else {
                     // This is a single event, just delete it
                     eventRepository.delete(masterEvent);
                 }
             }
         } else if ("series".equals(scope)) {
-            // Delete the entire series
+            deleted = new ArrayList<>(deleted);
+            deleted.addAll(eventRepository.findByParentEvent(masterEvent));
+            // Delete the entire series (materialized occurrences are removed by the database cascade)
             eventRepository.delete(masterEvent);
             // Also delete any instance overrides
             eventRepository.deleteByParentEvent(masterEvent);
         } else {
             // Default to instance behavior
             if (occurrenceDateTime != null) {
-                String currentExclusions = masterEvent.getExcludedDates();
-                String newExclusion = occurrenceDateTime.toString();
-
-                if (currentExclusions == null || currentExclusions.isEmpty()) {
-                    masterEvent.setExcludedDates(newExclusion);
-                } else {
-                    masterEvent.setExcludedDates(currentExclusions + "," + newExclusion);
-                }
+                masterEvent.addExcludedDate(occurrenceDateTime);
                 eventRepository.save(masterEvent);
+                occurrenceMaterializer.exclude(masterEvent, occurrenceDateTime);
+                changed = deleted;
+                deleted = List.of();
             } else {
                 eventRepository.delete(masterEvent);
             }
         }
+        eventChangeLog.record(user.getId(), changed, deleted);
     }
 
     private EventDTO convertToDTO(Event event) {
-        // Convert tags to TagDTOs
-        List<TagDTO> tagDTOs = event.getTags().stream()
-                .map(tag -> TagDTO.builder()
-                        .id(tag.getId())
-                        .name(tag.getName())
-                        .build())
-                .collect(Collectors.toList());
+        return convertToDTO(event, event.getUser().getEmail(), convertTags(event));
+    }
+
+    /**
+     * Range reads pass the owner's email in, so converting does not initialize the lazy user
+     */
+    private EventDTO convertToDTO(Event event, String userEmail, List<TagDTO> tagDTOs) {
+        return convertToDTO(event, userEmail, tagDTOs, formatExcludedDates(event.getExcludedDates()));
+    }
 
+    private EventDTO convertToDTO(Event event, String userEmail, List<TagDTO> tagDTOs, String excludedDatesText) {
         return EventDTO.builder()
                 .id(event.getId())
                 .title(event.getTitle())
                 .description(event.getDescription())
                 .startDateTime(event.getStartDateTime())
                 .endDateTime(event.getEndDateTime())
-                .userEmail(event.getUser().getEmail())
+                .userEmail(userEmail)
                 .recurrenceRule(event.getRecurrenceRule())
                 .recurrenceEndDate(event.getRecurrenceEndDate())
                 .recurrenceCount(event.getRecurrenceCount())
                 .parentEventId(event.getParentEvent() != null ? event.getParentEvent().getId() : null)
                 .originalStartDateTime(event.getOriginalStartDateTime())
-                .excludedDates(event.getExcludedDates())
+                .excludedDates(excludedDatesText)
                 .tags(tagDTOs)
                 .build();
     }
 
     /**
-     * Expands a recurring event into individual occurrences within the specified date range
+     * Comma-separated, sorted ISO start times as exposed by the API, or null if there are none
      */
-    private List<EventDTO> expandRecurringEvent(Event event, LocalDateTime rangeStart, LocalDateTime rangeEnd) {
-        List<EventDTO> occurrences = new ArrayList<>();
-
-        if (event.getRecurrenceRule() == null || event.getRecurrenceRule().isEmpty()) {
-            return occurrences;
-        }
-
-        LocalDateTime eventStart = event.getStartDateTime();
-        LocalDateTime eventEnd = event.getEndDateTime();
-        long eventDuration = ChronoUnit.MINUTES.between(eventStart, eventEnd);
-
-        // Parse the recurrence rule
-        RecurrenceInfo recInfo = parseRecurrenceRule(event.getRecurrenceRule());
-        if (recInfo == null) {
-            return occurrences;
-        }
-
-        LocalDateTime currentOccurrence = eventStart;
-        int occurrenceCount = 0;
-
-        // Parse excluded dates
-        List<String> excludedDatesList = new ArrayList<>();
-        if (event.getExcludedDates() != null && !event.getExcludedDates().isEmpty()) {
-            excludedDatesList = List.of(event.getExcludedDates().split(","));
+    private String formatExcludedDates(Set<LocalDateTime> excludedDates) {
+        if (excludedDates.isEmpty()) {
+            return null;
         }
+        return excludedDates.stream()
+                .sorted()
+                .map(LocalDateTime::toString)
+                .collect(Collectors.joining(","));
+    }
 
-        while (currentOccurrence.isBefore(rangeEnd)) {
-            // Check if we've reached the recurrence end conditions
-            if (event.getRecurrenceEndDate() != null && currentOccurrence.isAfter(event.getRecurrenceEndDate())) {
-                break;
-            }
-            if (event.getRecurrenceCount() != null && occurrenceCount >= event.getRecurrenceCount()) {
-                break;
-            }
+    /**
+     * Convert an event's tags to TagDTOs. The list is immutable so it can be shared
+     * between all occurrences of a series.
+     */
+    private List<TagDTO> convertTags(Event event) {
+        return event.getTags().stream()
+                .map(tag -> TagDTO.builder()
+                        .id(tag.getId())
+                        .name(tag.getName())
+                        .build())
+                .toList();
+    }
 
-            // Check if this occurrence is excluded
-            String currentOccurrenceStr = currentOccurrence.toString();
-            boolean isExcluded = excludedDatesList.contains(currentOccurrenceStr);
-
-            // Check if this occurrence falls within our requested range and is not excluded
-            LocalDateTime occurrenceEnd = currentOccurrence.plusMinutes(eventDuration);
-            if (currentOccurrence.isBefore(rangeEnd) && occurrenceEnd.isAfter(rangeStart) && !isExcluded) {
-                // Generate unique occurrence ID by combining master event ID with occurrence timestamp
-                Long occurrenceId = generateOccurrenceId(event.getId(), currentOccurrence);
-
-                // Convert tags to TagDTOs (inherit from master event)
-                List<TagDTO> tagDTOs = event.getTags().stream()
-                        .map(tag -> TagDTO.builder()
-                                .id(tag.getId())
-                                .name(tag.getName())
-                                .build())
-                        .collect(Collectors.toList());
-
-                EventDTO occurrence = EventDTO.builder()
-                        .id(occurrenceId)
-                        .title(event.getTitle())
-                        .description(event.getDescription())
-                        .startDateTime(currentOccurrence)
-                        .endDateTime(occurrenceEnd)
-                        .userEmail(event.getUser().getEmail())
-                        .recurrenceRule(event.getRecurrenceRule())
-                        .recurrenceEndDate(event.getRecurrenceEndDate())
-                        .recurrenceCount(event.getRecurrenceCount())
-                        .parentEventId(event.getId())
-                        .originalStartDateTime(currentOccurrence)
-                        .excludedDates(event.getExcludedDates())
-                        .tags(tagDTOs)
-                        .build();
-                occurrences.add(occurrence);
+    /**
+     * Lazily expanded occurrences of a recurring master within the range, in start time order
+     */
+    private Iterator<EventDTO> occurrenceIterator(Event event, String userEmail, LocalDateTime rangeStart,
+                                                  LocalDateTime rangeEnd) {
+        Iterator<LocalDateTime> starts = RecurrenceExpander.occurrenceIterator(event, rangeStart, rangeEnd);
+        Duration duration = Duration.between(event.getStartDateTime(), event.getEndDateTime());
+        String excludedDatesText = formatExcludedDates(event.getExcludedDates());
+        List<TagDTO> tagDTOs = convertTags(event);
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return starts.hasNext();
             }
 
-            // Calculate next occurrence
-            currentOccurrence = getNextOccurrence(currentOccurrence, recInfo);
-            occurrenceCount++;
-
-            // Safety check to prevent infinite loops
-            if (occurrenceCount > 1000) {
-                break;
+            @Override
+            public EventDTO next() {
+                LocalDateTime occurrenceStart = starts.next();
+                return convertOccurrenceToDTO(event, userEmail, occurrenceStart, occurrenceStart.plus(duration),
+                        excludedDatesText, tagDTOs);
             }
-        }
-
-        return occurrences;
+        };
     }
 
     /**
-     * Generate a unique occurrence ID by combining the master event ID with the occurrence timestamp
-     * This creates a deterministic ID that can be used to identify specific occurrences
+     * Build the DTO for one occurrence of a recurring master. Its ID encodes the master event ID
+     * and the occurrence's day offset.
      */
-    private Long generateOccurrenceId(Long masterEventId, LocalDateTime occurrenceDateTime) {
-        // Use a hash of the master event ID and occurrence timestamp to create a unique ID
-        // This ensures the same occurrence always gets the same ID
-        String combined = masterEventId + "_" + occurrenceDateTime.toString();
-        int hashCode = combined.hashCode();
-        // Avoid Math.abs() on hashCode to prevent overflow issues with Integer.MIN_VALUE
-        return (long) (hashCode & 0x7FFFFFFF);
+    private EventDTO convertOccurrenceToDTO(Event event, String userEmail, LocalDateTime occurrenceStart,
+                                           LocalDateTime occurrenceEnd, String excludedDatesText,
+                                           List<TagDTO> tagDTOs) {
+        return EventDTO.builder()
+                .id(OccurrenceId.of(event, occurrenceStart))
+                .title(event.getTitle())
+                .description(event.getDescription())
+                .startDateTime(occurrenceStart)
+                .endDateTime(occurrenceEnd)
+                .userEmail(userEmail)
+                .recurrenceRule(event.getRecurrenceRule())
+                .recurrenceEndDate(event.getRecurrenceEndDate())
+                .recurrenceCount(event.getRecurrenceCount())
+                .parentEventId(event.getId())
+                .originalStartDateTime(occurrenceStart)
+                .excludedDates(excludedDatesText)
+                .tags(tagDTOs)
+                .build();
     }
 
     /**
-     * Simple recurrence info holder
+     * Latest end of any occurrence of the event, or null if the series has no end.
+     * Stored with the event so range queries can skip series that ended before the range.
      */
-    private static class RecurrenceInfo {
-        String frequency; // DAILY, WEEKLY, MONTHLY
-        int interval = 1; // Every N days/weeks/months
+    private LocalDateTime computeSeriesEnd(Event event) {
+        RecurrenceRule rule = event.getParentEvent() == null
+                ? RecurrenceRule.compile(event.getRecurrenceRule())
+                : null;
+        if (rule == null) {
+            return event.getEndDateTime();
+        }
+
+        LocalDateTime eventStart = event.getStartDateTime();
+        long lastIndex = Long.MAX_VALUE;
+        if (event.getRecurrenceCount() != null) {
+            lastIndex = event.getRecurrenceCount() - 1L;
+        }
+        if (event.getRecurrenceEndDate() != null) {
+            long firstIndexAfterEnd = RecurrenceExpander.firstOccurrenceIndexEndingAfter(
+                    eventStart, 0, rule, event.getRecurrenceEndDate());
+            lastIndex = Math.min(lastIndex, firstIndexAfterEnd - 1);
+        }
+
+        if (lastIndex == Long.MAX_VALUE) {
+            return null;
+        }
+        if (lastIndex < 0) {
+            // The series has no occurrences at all
+            return eventStart;
+        }
+        Duration duration = Duration.between(eventStart, event.getEndDateTime());
+        try {
+            LocalDateTime lastStart = RecurrenceExpander.occurrenceAt(eventStart, rule, lastIndex);
+            return lastStart == null ? null : lastStart.plus(duration);
+        } catch (DateTimeException e) {
+            // Last occurrence lies beyond the supported date range; treat the series as open-ended
+            return null;
+        }
     }
 
     /**
-     * Holder for occurrence information parsed from occurrence ID
+     * Holder for the event an incoming ID refers to. occurrenceDateTime is null
+     * when the ID is a regular (master or instance override) event ID.
      */
     private static class OccurrenceInfo {
-        Long masterEventId;
+        Event masterEvent;
         LocalDateTime occurrenceDateTime;
 
-        OccurrenceInfo(Long masterEventId, LocalDateTime occurrenceDateTime) {
-            this.masterEventId = masterEventId;
+        OccurrenceInfo(Event masterEvent, LocalDateTime occurrenceDateTime) {
+            this.masterEvent = masterEvent;
             this.occurrenceDateTime = occurrenceDateTime;
         }
     }
 
     /**
-     * Parse an occurrence ID to extract the master event ID and occurrence datetime
-     * Returns null if the ID is a regular master event ID
+     * Resolve an event ID coming from the client to the stored event and, for occurrence IDs,
+     * the occurrence datetime. Occurrence IDs are decoded directly and accepted only if the
+     * series really has a non-excluded occurrence starting there; the old hashed IDs are only
+     * matched against the user's own series as a fallback.
      */
-    private OccurrenceInfo parseOccurrenceId(Long id) {
-        // Try to find all events and check if any occurrence would generate this ID
-        List<Event> allEvents = eventRepository.findAll();
+    private OccurrenceInfo resolveEventId(Long id, User user) {
+        if (OccurrenceId.isOccurrenceId(id)) {
+            Event masterEvent = eventRepository.findById(OccurrenceId.masterEventId(id))
+                    .orElseThrow(() -> new IllegalArgumentException("Master event not found"));
+            LocalDateTime occurrenceDateTime = masterEvent.getStartDateTime()
+                    .plusDays(OccurrenceId.dayOffset(id));
+            if (!isRecurringMaster(masterEvent) || !RecurrenceExpander.occurrenceStarts(
+                    masterEvent, occurrenceDateTime, occurrenceDateTime.plusNanos(1)).contains(occurrenceDateTime)) {
+                throw new IllegalArgumentException("Event not found");
+            }
+            return new OccurrenceInfo(masterEvent, occurrenceDateTime);
+        }
 
-        for (Event event : allEvents) {
-            if (event.getRecurrenceRule() != null && !event.getRecurrenceRule().isEmpty()) {
-                // Check if this ID could be generated from this event's occurrences
-                LocalDateTime eventStart = event.getStartDateTime();
-                RecurrenceInfo recInfo = parseRecurrenceRule(event.getRecurrenceRule());
-                if (recInfo == null) continue;
-
-                LocalDateTime currentOccurrence = eventStart;
-                int occurrenceCount = 0;
-
-                // Check up to 1000 occurrences to find a match
-                while (occurrenceCount < 1000) {
-                    Long generatedId = generateOccurrenceId(event.getId(), currentOccurrence);
-                    if (generatedId.equals(id)) {
-                        return new OccurrenceInfo(event.getId(), currentOccurrence);
-                    }
-
-                    currentOccurrence = getNextOccurrence(currentOccurrence, recInfo);
-                    occurrenceCount++;
-
-                    // Stop if we've gone too far into the future
-                    if (currentOccurrence.isAfter(LocalDateTime.now().plusYears(2))) {
-                        break;
-                    }
+        Optional<Event> eventOpt = eventRepository.findById(id);
+        if (eventOpt.isPresent()) {
+            return new OccurrenceInfo(eventOpt.get(), null);
+        }
+
+        OccurrenceInfo legacy = parseLegacyOccurrenceId(id, user);
+        if (legacy == null) {
+            throw new IllegalArgumentException("Event not found");
+        }
+        return legacy;
+    }
+
+    /**
+     * Match an occurrence ID from the old hashed scheme against the user's recurring events.
+     * Walks the same occurrences the old expansion could have produced (at most 1000 per series,
+     * no further than two years ahead). Returns null if nothing matches.
+     */
+    private OccurrenceInfo parseLegacyOccurrenceId(Long id, User user) {
+        if (!OccurrenceId.isLegacyCandidate(id)) {
+            return null;
+        }
+
+        LocalDateTime horizon = LocalDateTime.now().plusYears(2);
+        for (Event event : eventRepository.findByUserAndRecurrenceRuleIsNotNull(user)) {
+            RecurrenceRule rule = RecurrenceRule.compile(event.getRecurrenceRule());
+            if (rule == null) {
+                continue;
+            }
+
+            LocalDateTime currentOccurrence = event.getStartDateTime();
+            int occurrenceCount = 0;
+            while (occurrenceCount < 1000 && !currentOccurrence.isAfter(horizon)) {
+                if (OccurrenceId.legacyId(event.getId(), currentOccurrence) == id) {
+                    return new OccurrenceInfo(event, currentOccurrence);
                 }
+                currentOccurrence = getNextOccurrence(currentOccurrence, rule);
+                occurrenceCount++;
             }
         }
 
-        return null; // This is a regular master event ID
+        return null;
     }
 
     /**
@@ -502,15 +836,9 @@ public class EventService {
      */
     private Event createInstanceOverride(Event masterEvent, LocalDateTime occurrenceDateTime, CreateEventDTO dto, User user) {
         // First, add the original occurrence to excluded dates
-        String currentExclusions = masterEvent.getExcludedDates();
-        String newExclusion = occurrenceDateTime.toString();
-
-        if (currentExclusions == null || currentExclusions.isEmpty()) {
-            masterEvent.setExcludedDates(newExclusion);
-        } else {
-            masterEvent.setExcludedDates(currentExclusions + "," + newExclusion);
-        }
+        masterEvent.addExcludedDate(occurrenceDateTime);
         eventRepository.save(masterEvent);
+        occurrenceMaterializer.exclude(masterEvent, occurrenceDateTime);
 
         // Create a new event for this specific occurrence
         Event instanceOverride = Event.builder()
@@ -524,58 +852,27 @@ public class EventService {
                 .recurrenceRule(null) // Instance overrides are not recurring
                 .recurrenceEndDate(null)
                 .recurrenceCount(null)
-                .excludedDates(null)
                 .build();
+        instanceOverride.setSeriesEndDateTime(computeSeriesEnd(instanceOverride));
 
         return eventRepository.save(instanceOverride);
     }
 
     /**
-     * Parse a simple RRULE string (supports FREQ=DAILY/WEEKLY/MONTHLY with optional INTERVAL)
+     * Calculate the next occurrence based on recurrence info.
+     * Only used to replay the old step-by-step expansion when matching legacy occurrence IDs.
      */
-    private RecurrenceInfo parseRecurrenceRule(String rrule) {
-        if (rrule == null || rrule.isEmpty()) {
-            return null;
-        }
-
-        RecurrenceInfo info = new RecurrenceInfo();
-        String[] parts = rrule.split(";");
-
-        for (String part : parts) {
-            String[] keyValue = part.split("=");
-            if (keyValue.length == 2) {
-                String key = keyValue[0].trim();
-                String value = keyValue[1].trim();
-
-                switch (key) {
-                    case "FREQ":
-                        info.frequency = value;
-                        break;
-                    case "INTERVAL":
-                        try {
-                            info.interval = Integer.parseInt(value);
-                        } catch (NumberFormatException e) {
-                            info.interval = 1;
-                        }
-                        break;
-                }
-            }
+    private LocalDateTime getNextOccurrence(LocalDateTime current, RecurrenceRule rule) {
+        if (rule.frequency == null) {
+            return current.plusDays(1);
         }
-
-        return info;
-    }
-
-    /**
-     * Calculate the next occurrence based on recurrence info
-     */
-    private LocalDateTime getNextOccurrence(LocalDateTime current, RecurrenceInfo recInfo) {
-        switch (recInfo.frequency) {
+        switch (rule.frequency) {
             case "DAILY":
-                return current.plusDays(recInfo.interval);
+                return current.plusDays(rule.interval);
             case "WEEKLY":
-                return current.plusWeeks(recInfo.interval);
+                return current.plusWeeks(rule.interval);
             case "MONTHLY":
-                return current.plusMonths(recInfo.interval);
+                return current.plusMonths(rule.interval);
             default:
                 return current.plusDays(1); // Default to daily
         }
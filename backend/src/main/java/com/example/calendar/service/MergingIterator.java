@@ -0,0 +1,66 @@
+package com.example.calendar.service;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * K-way merge of iterators that are each sorted by the same order. A priority queue holds the
+ * current head of every source, so n elements from k sources come out in order in O(n log k)
+ * while only k of them are held at a time. Consumers that stop early, such as a stream with a
+ * limit, never pull the remaining elements from the sources.
+ */
+final class MergingIterator<T> implements Iterator<T> {
+
+    private static final class Head<T> {
+        final Iterator<? extends T> source;
+        T value;
+
+        Head(Iterator<? extends T> source) {
+            this.source = source;
+            this.value = source.next();
+        }
+    }
+
+    private final PriorityQueue<Head<T>> heads;
+
+    MergingIterator(List<? extends Iterator<? extends T>> sources, Comparator<? super T> order) {
+        this.heads = new PriorityQueue<>(Math.max(1, sources.size()),
+                (a, b) -> order.compare(a.value, b.value));
+        for (Iterator<? extends T> source : sources) {
+            if (source.hasNext()) {
+                heads.add(new Head<>(source));
+            }
+        }
+    }
+
+    /** The merged elements as a sequential, ordered stream */
+    Stream<T> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED), false);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !heads.isEmpty();
+    }
+
+    @Override
+    public T next() {
+        Head<T> head = heads.poll();
+        if (head == null) {
+            throw new NoSuchElementException();
+        }
+        T value = head.value;
+        if (head.source.hasNext()) {
+            head.value = head.source.next();
+            heads.add(head);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.calendar.service;
+
+import com.example.calendar.model.Event;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Reversible IDs for expanded occurrences of recurring events.
+ *
+ * Layout (fits in 53 bits so the value survives a round trip through JavaScript numbers):
+ * bit 52 is a marker that keeps occurrence IDs out of the auto-increment event ID range,
+ * bits 21-51 hold the master event ID and bits 0-20 hold the occurrence's day offset
+ * from the series start date.
+ */
+public final class OccurrenceId {
+
+    private static final int OFFSET_BITS = 21;
+    private static final long OFFSET_MASK = (1L << OFFSET_BITS) - 1;
+    private static final long MAX_MASTER_ID = (1L << 31) - 1;
+    private static final long MARKER = 1L << 52;
+    private static final long MAX_ID = (1L << 53) - 1;
+
+    private OccurrenceId() {
+    }
+
+    /**
+     * Encode a master event ID and the day offset of one of its occurrences
+     */
+    public static long encode(long masterEventId, long dayOffset) {
+        if (masterEventId <= 0 || masterEventId > MAX_MASTER_ID) {
+            throw new IllegalArgumentException("Master event ID out of range: " + masterEventId);
+        }
+        if (dayOffset < 0 || dayOffset > OFFSET_MASK) {
+            throw new IllegalArgumentException("Occurrence offset out of range: " + dayOffset);
+        }
+        return MARKER | (masterEventId << OFFSET_BITS) | dayOffset;
+    }
+
+    /**
+     * The ID of the occurrence of a recurring master starting at the given time
+     */
+    public static long of(Event masterEvent, LocalDateTime occurrenceDateTime) {
+        long dayOffset = ChronoUnit.DAYS.between(
+                masterEvent.getStartDateTime().toLocalDate(), occurrenceDateTime.toLocalDate());
+        return encode(masterEvent.getId(), dayOffset);
+    }
+
+    /**
+     * Whether the given ID was produced by {@link #encode(long, long)}
+     */
+    public static boolean isOccurrenceId(Long id) {
+        return id != null && id >= MARKER && id <= MAX_ID;
+    }
+
+    public static long masterEventId(long occurrenceId) {
+        return (occurrenceId & ~MARKER) >>> OFFSET_BITS;
+    }
+
+    public static long dayOffset(long occurrenceId) {
+        return occurrenceId & OFFSET_MASK;
+    }
+
+    /**
+     * Whether the given ID could have been produced by {@link #legacyId(Long, LocalDateTime)}
+     */
+    public static boolean isLegacyCandidate(Long id) {
+        return id != null && id >= 0 && id <= Integer.MAX_VALUE;
+    }
+
+    /**
+     * The old hashed occurrence ID. Not reversible; only kept so that IDs handed out
+     * before the current scheme can still be matched against a user's series.
+     */
+    public static long legacyId(Long masterEventId, LocalDateTime occurrenceDateTime) {
+        String combined = masterEventId + "_" + occurrenceDateTime.toString();
+        return combined.hashCode() & 0x7FFFFFFF;
+    }
+}
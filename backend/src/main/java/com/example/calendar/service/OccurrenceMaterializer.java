@@ -0,0 +1,240 @@
+package com.example.calendar.service;
+
+import com.example.calendar.model.Event;
+import com.example.calendar.model.Occurrence;
+import com.example.calendar.repository.EventRepository;
+import com.example.calendar.repository.OccurrenceRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Optional write-time expansion of recurring events into the occurrences table
+ * (calendar.occurrences.materialized). Occurrences overlapping a window from past-days before
+ * today up to horizon-days after it are stored, and a daily job moves both ends forward; range
+ * reads inside the window are served from the table instead of expanding series on every
+ * request, reads reaching outside it fall back to expansion.
+ *
+ * The window is kept in memory and the table is rebuilt on startup, so rows left over from
+ * a run with the mode disabled are never trusted. The horizon only moves once the rows behind
+ * it are committed; the floor moves before rows are dropped, since shrinking coverage is safe.
+ *
+ * The startup rebuild runs after the server accepts requests. Writers arriving before it has
+ * committed take a lock the rebuild needs, and hold it until their own transaction completes:
+ * a write finishing before the rebuild starts is read back by it, one waiting behind it finds
+ * the table usable and writes its rows.
+ */
+@Service
+public class OccurrenceMaterializer {
+
+    private final OccurrenceRepository occurrenceRepository;
+    private final EventRepository eventRepository;
+    private final boolean enabled;
+    private final int horizonDays;
+    private final int pastDays;
+    private final EntityManager entityManager;
+    private final Clock clock;
+
+    // Occurrences starting before the horizon and ending after the floor are stored;
+    // the horizon is null while the table is not usable
+    private volatile LocalDateTime horizon;
+    private volatile LocalDateTime floor;
+    // Write side held by the startup rebuild, read side by writers while the table is not usable
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+
+    @Autowired
+    public OccurrenceMaterializer(OccurrenceRepository occurrenceRepository,
+                                  EventRepository eventRepository,
+                                  EntityManager entityManager,
+                                  @Value("${calendar.occurrences.materialized:false}") boolean enabled,
+                                  @Value("${calendar.occurrences.horizon-days:365}") int horizonDays,
+                                  @Value("${calendar.occurrences.past-days:90}") int pastDays) {
+        this(occurrenceRepository, eventRepository, entityManager, enabled, horizonDays, pastDays,
+                Clock.systemDefaultZone());
+    }
+
+    OccurrenceMaterializer(OccurrenceRepository occurrenceRepository, EventRepository eventRepository,
+                           EntityManager entityManager, boolean enabled, int horizonDays, int pastDays,
+                           Clock clock) {
+        this.occurrenceRepository = occurrenceRepository;
+        this.eventRepository = eventRepository;
+        this.entityManager = entityManager;
+        this.enabled = enabled;
+        this.horizonDays = horizonDays;
+        this.pastDays = pastDays;
+        this.clock = clock;
+    }
+
+    /**
+     * Whether every occurrence overlapping [rangeStart, rangeEnd) is in the occurrences table
+     */
+    public boolean covers(LocalDateTime rangeStart, LocalDateTime rangeEnd) {
+        LocalDateTime currentFloor = floor;
+        LocalDateTime currentHorizon = horizon;
+        return currentHorizon != null && currentFloor != null
+                && !rangeStart.isBefore(currentFloor) && !rangeEnd.isAfter(currentHorizon);
+    }
+
+    public List<Occurrence> findInRange(Long userId, LocalDateTime start, LocalDateTime end) {
+        return occurrenceRepository.findByUserIdOverlappingRangeOrderByStartDateTimeAsc(userId, start, end);
+    }
+
+    /**
+     * Replace the stored occurrences of an event after it was created or its series was changed
+     */
+    @Transactional
+    public void rematerialize(Event event) {
+        if (!awaitRebuild()) {
+            return;
+        }
+        occurrenceRepository.deleteByMasterEvent(event);
+        if (event.getParentEvent() == null) {
+            insert(event, floor, targetHorizon(), true);
+        }
+    }
+
+    /**
+     * Drop a single occurrence that was deleted or replaced by an instance override
+     */
+    @Transactional
+    public void exclude(Event masterEvent, LocalDateTime occurrenceStart) {
+        if (!awaitRebuild()) {
+            return;
+        }
+        occurrenceRepository.deleteByOccurrenceKey(OccurrenceId.of(masterEvent, occurrenceStart));
+    }
+
+    /**
+     * Rebuild the table on startup and move the window forward once a day afterwards
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${calendar.occurrences.extend-cron:0 15 0 * * *}")
+    @Transactional
+    public void extendHorizon() {
+        if (!enabled) {
+            return;
+        }
+
+        LocalDateTime target = targetHorizon();
+        LocalDateTime targetFloor = LocalDate.now(clock).minusDays(pastDays).atStartOfDay();
+        LocalDateTime current = horizon;
+        if (current == null) {
+            holdUntilCompletion(rebuildLock.writeLock());
+            floor = targetFloor;
+            occurrenceRepository.deleteAllInBatch();
+            for (Event master : eventRepository.findRecurringMastersActiveAfter(targetFloor)) {
+                insert(master, targetFloor, target, true);
+            }
+        } else if (target.isAfter(current)) {
+            // Reads starting before the new floor fall back to expansion from now on, so the
+            // rows behind it can go even if this run rolls back
+            floor = targetFloor;
+            occurrenceRepository.deleteEndingBefore(targetFloor);
+            // Series written since the last run were already stored up to their own target;
+            // drop everything past the old horizon so the extension can be inserted uniformly
+            occurrenceRepository.deleteStartingFrom(current);
+            for (Event master : eventRepository.findRecurringMastersActiveAfter(current)) {
+                insert(master, current, target, false);
+            }
+        } else {
+            return;
+        }
+        publishHorizon(target);
+    }
+
+    /**
+     * Whether a write has to update the table. Until the first rebuild has committed, the caller
+     * waits for a running one and keeps the next from starting before its transaction completes.
+     */
+    private boolean awaitRebuild() {
+        if (!enabled) {
+            return false;
+        }
+        if (horizon != null) {
+            return true;
+        }
+        holdUntilCompletion(rebuildLock.readLock());
+        return horizon != null;
+    }
+
+    /**
+     * Take the lock and release it once the current transaction has committed or rolled back
+     */
+    private void holdUntilCompletion(Lock lock) {
+        lock.lock();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    lock.unlock();
+                }
+            });
+        } else {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Let reads use the table up to the new horizon once the rows behind it are visible to them;
+     * on rollback the previous horizon stays, so the next run extends from it again
+     */
+    private void publishHorizon(LocalDateTime target) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    horizon = target;
+                }
+            });
+        } else {
+            horizon = target;
+        }
+    }
+
+    /**
+     * Store the occurrences of a master starting in [from, to), and with includeOverlapping
+     * also those starting earlier that are still running at from
+     */
+    private void insert(Event master, LocalDateTime from, LocalDateTime to, boolean includeOverlapping) {
+        Duration duration = Duration.between(master.getStartDateTime(), master.getEndDateTime());
+        List<Occurrence> rows = new ArrayList<>();
+        for (LocalDateTime start : RecurrenceExpander.occurrenceStarts(master, from, to)) {
+            if (!includeOverlapping && start.isBefore(from)) {
+                // Overlaps the window but was stored by the previous extension
+                continue;
+            }
+            rows.add(Occurrence.builder()
+                    .occurrenceKey(OccurrenceId.of(master, start))
+                    .user(master.getUser())
+                    .masterEvent(master)
+                    .startDateTime(start)
+                    .endDateTime(start.plus(duration))
+                    .build());
+        }
+        occurrenceRepository.saveAll(rows);
+        // Bulk deletes bypass the persistence context; keep the rows out of it so they can be re-inserted
+        occurrenceRepository.flush();
+        rows.forEach(entityManager::detach);
+    }
+
+    private LocalDateTime targetHorizon() {
+        return LocalDate.now(clock).plusDays(horizonDays).atStartOfDay();
+    }
+}
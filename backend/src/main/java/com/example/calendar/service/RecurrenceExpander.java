@@ -0,0 +1,232 @@
+package com.example.calendar.service;
+
+import com.example.calendar.model.Event;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Occurrence arithmetic for recurrence rules, shared by on-the-fly expansion and the materialized
+ * occurrence table. Plain rules step by a fixed amount from the series start; rules with BY parts
+ * are generated by {@link RecurrenceSet}.
+ */
+final class RecurrenceExpander {
+
+    // How far ahead a COUNT-limited rule is searched for its last occurrence before it is treated as open-ended
+    private static final int SEARCH_LIMIT_YEARS = 1000;
+
+    private RecurrenceExpander() {
+    }
+
+    /**
+     * Start times of the non-excluded occurrences of a recurring master that end after
+     * overlapStart and start before rangeEnd. Empty for events without a recurrence rule.
+     */
+    static List<LocalDateTime> occurrenceStarts(Event event, LocalDateTime overlapStart, LocalDateTime rangeEnd) {
+        List<LocalDateTime> starts = new ArrayList<>();
+        occurrenceIterator(event, overlapStart, rangeEnd).forEachRemaining(starts::add);
+        return starts;
+    }
+
+    /**
+     * Same occurrences as {@link #occurrenceStarts}, generated one at a time in order
+     */
+    static Iterator<LocalDateTime> occurrenceIterator(Event event, LocalDateTime overlapStart,
+                                                      LocalDateTime rangeEnd) {
+        RecurrenceRule rule = RecurrenceRule.compile(event.getRecurrenceRule());
+        if (rule == null) {
+            return Collections.emptyIterator();
+        }
+        if (rule.expanded) {
+            return new RuleSetStarts(event, rule, overlapStart, rangeEnd);
+        }
+        return new SteppedStarts(event, rule, overlapStart, rangeEnd);
+    }
+
+    /**
+     * Iterator over occurrence starts; advance() returns null once the series or the range ends
+     */
+    private abstract static class StartIterator implements Iterator<LocalDateTime> {
+        private LocalDateTime next;
+        private boolean exhausted;
+
+        abstract LocalDateTime advance();
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !exhausted) {
+                next = advance();
+                exhausted = next == null;
+            }
+            return next != null;
+        }
+
+        @Override
+        public LocalDateTime next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            LocalDateTime current = next;
+            next = null;
+            return current;
+        }
+    }
+
+    /**
+     * Occurrences of plain rules, computed by index from the series start
+     */
+    private static final class SteppedStarts extends StartIterator {
+        private final LocalDateTime eventStart;
+        private final RecurrenceRule rule;
+        private final LocalDateTime rangeEnd;
+        private final Integer recurrenceCount;
+        private final LocalDateTime recurrenceEndDate;
+        private final Set<LocalDateTime> excludedDates;
+        private long index;
+
+        SteppedStarts(Event event, RecurrenceRule rule, LocalDateTime overlapStart, LocalDateTime rangeEnd) {
+            this.eventStart = event.getStartDateTime();
+            this.rule = rule;
+            this.rangeEnd = rangeEnd;
+            this.recurrenceCount = event.getRecurrenceCount();
+            this.recurrenceEndDate = event.getRecurrenceEndDate();
+            this.excludedDates = event.getExcludedDates();
+            long eventDuration = ChronoUnit.MINUTES.between(eventStart, event.getEndDateTime());
+            // Jump straight to the first occurrence that can overlap the range instead of
+            // walking the series from its start
+            this.index = firstOccurrenceIndexEndingAfter(eventStart, eventDuration, rule, overlapStart);
+        }
+
+        @Override
+        LocalDateTime advance() {
+            while (recurrenceCount == null || index < recurrenceCount) {
+                LocalDateTime currentOccurrence = occurrenceAt(eventStart, rule, index);
+
+                // Stop at the end of the range or the end of the series
+                if (!currentOccurrence.isBefore(rangeEnd)) {
+                    return null;
+                }
+                if (recurrenceEndDate != null && currentOccurrence.isAfter(recurrenceEndDate)) {
+                    return null;
+                }
+                index++;
+
+                if (!excludedDates.contains(currentOccurrence)) {
+                    return currentOccurrence;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Occurrences of rules with BY parts: the RecurrenceSet cursor skips to the window, and only
+     * COUNT-limited series count the occurrences before it
+     */
+    private static final class RuleSetStarts extends StartIterator {
+        private final LocalDateTime eventStart;
+        private final LocalDateTime rangeEnd;
+        private final Integer recurrenceCount;
+        private final LocalDateTime recurrenceEndDate;
+        private final Set<LocalDateTime> excludedDates;
+        private final LocalDateTime threshold;
+        private final RecurrenceSet occurrences;
+        private final LocalDate limit;
+        private long index;
+
+        RuleSetStarts(Event event, RecurrenceRule rule, LocalDateTime overlapStart, LocalDateTime rangeEnd) {
+            this.eventStart = event.getStartDateTime();
+            this.rangeEnd = rangeEnd;
+            this.recurrenceCount = event.getRecurrenceCount();
+            this.recurrenceEndDate = event.getRecurrenceEndDate();
+            this.excludedDates = event.getExcludedDates();
+            long eventDuration = ChronoUnit.MINUTES.between(eventStart, event.getEndDateTime());
+            this.threshold = overlapStart.minusMinutes(eventDuration);
+            this.occurrences = new RecurrenceSet(rule, eventStart.toLocalDate());
+            this.index = recurrenceCount == null ? 0 : occurrences.countBefore(threshold.toLocalDate());
+            occurrences.skipTo(threshold.toLocalDate());
+            this.limit = rangeEnd.toLocalDate().plusDays(1);
+        }
+
+        @Override
+        LocalDateTime advance() {
+            while (recurrenceCount == null || index < recurrenceCount) {
+                LocalDate date = occurrences.next(limit);
+                if (date == null) {
+                    return null;
+                }
+                LocalDateTime currentOccurrence = date.atTime(eventStart.toLocalTime());
+
+                if (!currentOccurrence.isBefore(rangeEnd)) {
+                    return null;
+                }
+                if (recurrenceEndDate != null && currentOccurrence.isAfter(recurrenceEndDate)) {
+                    return null;
+                }
+                index++;
+
+                // The first day of the window can still hold an occurrence that ends before the range
+                if (currentOccurrence.isAfter(threshold) && !excludedDates.contains(currentOccurrence)) {
+                    return currentOccurrence;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Start of the occurrence with the given zero-based index, computed from the series start
+     * rather than from the previous occurrence. Null if a rule with BY parts has no such occurrence
+     * within the search limit.
+     */
+    static LocalDateTime occurrenceAt(LocalDateTime seriesStart, RecurrenceRule rule, long index) {
+        if (rule.expanded) {
+            LocalDate date = new RecurrenceSet(rule, seriesStart.toLocalDate())
+                    .occurrence(index, seriesStart.toLocalDate().plusYears(SEARCH_LIMIT_YEARS));
+            return date == null ? null : date.atTime(seriesStart.toLocalTime());
+        }
+        if (rule.monthly) {
+            return seriesStart.plusMonths(index * rule.interval);
+        }
+        return seriesStart.plusDays(index * rule.stepInDays);
+    }
+
+    /**
+     * Index of the first occurrence whose end is after the given instant.
+     * The estimate is computed arithmetically and then corrected by at most a couple of steps.
+     */
+    static long firstOccurrenceIndexEndingAfter(LocalDateTime seriesStart, long durationMinutes,
+                                                RecurrenceRule rule, LocalDateTime instant) {
+        LocalDateTime threshold = instant.minusMinutes(durationMinutes);
+        if (seriesStart.isAfter(threshold)) {
+            return 0;
+        }
+        if (rule.expanded) {
+            // Occurrences share the series start's time of day, so count whole days up to the threshold
+            LocalDate thresholdDate = threshold.toLocalDate();
+            boolean thresholdDayIncluded = !seriesStart.toLocalTime().isAfter(threshold.toLocalTime());
+            return new RecurrenceSet(rule, seriesStart.toLocalDate())
+                    .countBefore(thresholdDayIncluded ? thresholdDate.plusDays(1) : thresholdDate);
+        }
+
+        long estimate;
+        if (rule.monthly) {
+            estimate = ChronoUnit.MONTHS.between(seriesStart, threshold) / rule.interval;
+        } else {
+            estimate = ChronoUnit.DAYS.between(seriesStart, threshold) / rule.stepInDays;
+        }
+
+        long index = Math.max(0, estimate - 1);
+        while (!occurrenceAt(seriesStart, rule, index).isAfter(threshold)) {
+            index++;
+        }
+        return index;
+    }
+}
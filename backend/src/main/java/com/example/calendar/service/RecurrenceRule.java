@@ -0,0 +1,274 @@
+package com.example.calendar.service;
+
+import java.time.DayOfWeek;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Immutable compiled form of an RRULE string.
+ *
+ * Understands FREQ (DAILY, WEEKLY, MONTHLY, YEARLY), INTERVAL, BYDAY (with ordinals such as 1FR or -1MO),
+ * BYMONTHDAY (negative values count from the end of the month), BYMONTH, BYSETPOS and WKST. Weekdays,
+ * month days and months are kept as bitmasks for {@link RecurrenceSet}. Plain DAILY/WEEKLY/MONTHLY rules
+ * without BY parts keep the original fixed-step expansion, so existing series and their occurrence IDs
+ * do not move. Unknown parts and values are ignored.
+ *
+ * Rules are compiled once per distinct string and kept in a bounded, least recently used cache,
+ * so expansion and ID resolution do not re-split the same rule on every request.
+ */
+final class RecurrenceRule {
+
+    static final int MAX_CACHED_RULES = 1024;
+
+    private static final Map<String, RecurrenceRule> CACHE = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, RecurrenceRule> eldest) {
+            return size() > MAX_CACHED_RULES;
+        }
+    };
+    private static final LongAdder HITS = new LongAdder();
+    private static final LongAdder MISSES = new LongAdder();
+
+    private static final int[] NONE = new int[0];
+
+    final String frequency; // DAILY, WEEKLY, MONTHLY, YEARLY
+    final int interval; // Every N days/weeks/months/years
+    final boolean monthly;
+    // Days between consecutive occurrences for day-based frequencies (unknown frequencies fall back to daily)
+    final long stepInDays;
+
+    // Whether the rule needs the RecurrenceSet engine instead of fixed steps
+    final boolean expanded;
+    // Bit 0 = Monday ... bit 6 = Sunday, for BYDAY entries without an ordinal
+    final int byDayMask;
+    // BYDAY entries with an ordinal, e.g. -1FR is ordinal -1 and weekday bit 4
+    private final int[] byDayOrdinals;
+    private final int[] byDayOrdinalWeekdays;
+    // Bit d-1 for BYMONTHDAY=d and for BYMONTHDAY=-d respectively
+    final long byMonthDayMask;
+    final long byMonthDayFromEndMask;
+    // Bit m-1 for BYMONTH=m
+    final int byMonthMask;
+    private final int[] bySetPos;
+    final DayOfWeek weekStart;
+
+    private RecurrenceRule(String rrule) {
+        String frequency = null;
+        int interval = 1;
+        int byDayMask = 0;
+        int[] ordinals = NONE;
+        int[] ordinalWeekdays = NONE;
+        long byMonthDayMask = 0;
+        long byMonthDayFromEndMask = 0;
+        int byMonthMask = 0;
+        int[] bySetPos = NONE;
+        DayOfWeek weekStart = DayOfWeek.MONDAY;
+
+        for (String part : rrule.split(";")) {
+            String[] keyValue = part.split("=");
+            if (keyValue.length == 2) {
+                String key = keyValue[0].trim();
+                String value = keyValue[1].trim();
+
+                switch (key) {
+                    case "FREQ":
+                        frequency = value;
+                        break;
+                    case "INTERVAL":
+                        try {
+                            interval = Math.max(1, Integer.parseInt(value));
+                        } catch (NumberFormatException e) {
+                            interval = 1;
+                        }
+                        break;
+                    case "BYDAY":
+                        for (String day : value.split(",")) {
+                            String entry = day.trim();
+                            int weekday = weekdayIndex(entry.length() < 2 ? "" : entry.substring(entry.length() - 2));
+                            Integer ordinal = entry.length() == 2 ? Integer.valueOf(0)
+                                    : parseInt(entry.substring(0, Math.max(0, entry.length() - 2)), -53, 53);
+                            if (weekday < 0 || ordinal == null) {
+                                continue;
+                            }
+                            if (ordinal == 0) {
+                                byDayMask |= 1 << weekday;
+                            } else {
+                                ordinals = Arrays.copyOf(ordinals, ordinals.length + 1);
+                                ordinalWeekdays = Arrays.copyOf(ordinalWeekdays, ordinalWeekdays.length + 1);
+                                ordinals[ordinals.length - 1] = ordinal;
+                                ordinalWeekdays[ordinalWeekdays.length - 1] = weekday;
+                            }
+                        }
+                        break;
+                    case "BYMONTHDAY":
+                        for (String day : value.split(",")) {
+                            Integer monthDay = parseInt(day.trim(), -31, 31);
+                            if (monthDay != null && monthDay > 0) {
+                                byMonthDayMask |= 1L << (monthDay - 1);
+                            } else if (monthDay != null && monthDay < 0) {
+                                byMonthDayFromEndMask |= 1L << (-monthDay - 1);
+                            }
+                        }
+                        break;
+                    case "BYMONTH":
+                        for (String month : value.split(",")) {
+                            Integer monthValue = parseInt(month.trim(), 1, 12);
+                            if (monthValue != null) {
+                                byMonthMask |= 1 << (monthValue - 1);
+                            }
+                        }
+                        break;
+                    case "BYSETPOS":
+                        for (String position : value.split(",")) {
+                            Integer setPos = parseInt(position.trim(), -366, 366);
+                            if (setPos != null && setPos != 0) {
+                                bySetPos = Arrays.copyOf(bySetPos, bySetPos.length + 1);
+                                bySetPos[bySetPos.length - 1] = setPos;
+                            }
+                        }
+                        break;
+                    case "WKST":
+                        int weekStartIndex = weekdayIndex(value);
+                        if (weekStartIndex >= 0) {
+                            weekStart = DayOfWeek.of(weekStartIndex + 1);
+                        }
+                        break;
+                }
+            }
+        }
+
+        this.frequency = frequency;
+        this.interval = interval;
+        this.monthly = "MONTHLY".equals(frequency);
+        if ("DAILY".equals(frequency)) {
+            this.stepInDays = interval;
+        } else if ("WEEKLY".equals(frequency)) {
+            this.stepInDays = 7L * interval;
+        } else {
+            this.stepInDays = 1;
+        }
+
+        this.byDayMask = byDayMask;
+        this.byDayOrdinals = ordinals;
+        this.byDayOrdinalWeekdays = ordinalWeekdays;
+        this.byMonthDayMask = byMonthDayMask;
+        this.byMonthDayFromEndMask = byMonthDayFromEndMask;
+        this.byMonthMask = byMonthMask;
+        this.bySetPos = bySetPos;
+        this.weekStart = weekStart;
+
+        boolean hasByParts = byDayMask != 0 || ordinals.length > 0 || hasByMonthDay()
+                || byMonthMask != 0 || bySetPos.length > 0;
+        this.expanded = "YEARLY".equals(frequency)
+                || (hasByParts && ("DAILY".equals(frequency) || "WEEKLY".equals(frequency) || monthly));
+    }
+
+    /**
+     * Compiled rule for the RRULE string, or null for events without one
+     */
+    static RecurrenceRule compile(String rrule) {
+        if (rrule == null || rrule.isEmpty()) {
+            return null;
+        }
+
+        RecurrenceRule rule;
+        synchronized (CACHE) {
+            rule = CACHE.get(rrule);
+        }
+        if (rule != null) {
+            HITS.increment();
+            return rule;
+        }
+
+        MISSES.increment();
+        rule = parse(rrule);
+        synchronized (CACHE) {
+            CACHE.putIfAbsent(rrule, rule);
+        }
+        return rule;
+    }
+
+    /**
+     * Parse an RRULE string without consulting the cache
+     */
+    static RecurrenceRule parse(String rrule) {
+        return new RecurrenceRule(rrule);
+    }
+
+    boolean hasByDay() {
+        return byDayMask != 0 || byDayOrdinals.length > 0;
+    }
+
+    boolean hasByMonthDay() {
+        return byMonthDayMask != 0 || byMonthDayFromEndMask != 0;
+    }
+
+    int byDayOrdinalCount() {
+        return byDayOrdinals.length;
+    }
+
+    int byDayOrdinal(int entry) {
+        return byDayOrdinals[entry];
+    }
+
+    int byDayOrdinalWeekday(int entry) {
+        return byDayOrdinalWeekdays[entry];
+    }
+
+    int bySetPosCount() {
+        return bySetPos.length;
+    }
+
+    int bySetPos(int entry) {
+        return bySetPos[entry];
+    }
+
+    static long cacheHits() {
+        return HITS.sum();
+    }
+
+    static long cacheMisses() {
+        return MISSES.sum();
+    }
+
+    static int cacheSize() {
+        synchronized (CACHE) {
+            return CACHE.size();
+        }
+    }
+
+    /**
+     * Zero-based weekday (Monday = 0) for a two-letter RFC 5545 day code, or -1
+     */
+    private static int weekdayIndex(String code) {
+        switch (code) {
+            case "MO":
+                return 0;
+            case "TU":
+                return 1;
+            case "WE":
+                return 2;
+            case "TH":
+                return 3;
+            case "FR":
+                return 4;
+            case "SA":
+                return 5;
+            case "SU":
+                return 6;
+            default:
+                return -1;
+        }
+    }
+
+    private static Integer parseInt(String value, int min, int max) {
+        try {
+            int parsed = Integer.parseInt(value.startsWith("+") ? value.substring(1) : value);
+            return parsed < min || parsed > max ? null : parsed;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.calendar.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the compiled recurrence rule cache statistics as calendar.rrule.cache.* meters
+ */
+@Component
+public class RecurrenceRuleCacheMetrics implements MeterBinder {
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("calendar.rrule.cache.requests", RecurrenceRule.class, c -> RecurrenceRule.cacheHits())
+                .tag("result", "hit")
+                .description("Recurrence rule lookups served from the compiled rule cache")
+                .register(registry);
+        FunctionCounter.builder("calendar.rrule.cache.requests", RecurrenceRule.class, c -> RecurrenceRule.cacheMisses())
+                .tag("result", "miss")
+                .description("Recurrence rule lookups that had to parse the rule")
+                .register(registry);
+        Gauge.builder("calendar.rrule.cache.size", RecurrenceRule::cacheSize)
+                .description("Distinct recurrence rules currently compiled")
+                .register(registry);
+    }
+}
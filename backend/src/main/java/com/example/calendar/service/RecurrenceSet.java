@@ -0,0 +1,613 @@
+package com.example.calendar.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Year;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Cursor over the occurrence dates of an expanded {@link RecurrenceRule} (RFC 5545 semantics).
+ *
+ * Dates are generated one block at a time: a week for WEEKLY, a month for DAILY and MONTHLY and
+ * a year for YEARLY. Each block is a few segments holding a base date and a bitmask of day offsets,
+ * built from the rule's weekday, month day and month masks with shifts and ANDs, so months or weeks
+ * without a match cost one mask computation instead of a walk over their days. Counting occurrences
+ * before a date only needs popcounts per block, which lets COUNT-limited series jump to a window.
+ *
+ * A full block's count only depends on its shape: the month, leap year and first weekday it covers
+ * (plus the interval phase for DAILY). Counts are kept per shape, so only the blocks at either end
+ * of a count are built, and when every block has the same count the blocks in between are
+ * multiplied rather than walked.
+ *
+ * As in RFC 5545 the series start is always the first occurrence, even if it does not match the rule.
+ * Not thread-safe; create one per expansion.
+ */
+final class RecurrenceSet {
+
+    private static final long WEEK_MASK = 0x7F;
+
+    private final RecurrenceRule rule;
+    private final LocalDate seriesStart;
+    private final boolean startOutsideRule;
+
+    // First block, from which block indexes are counted
+    private final LocalDate firstWeekStart;
+    private final YearMonth firstMonth;
+    private final int firstYear;
+
+    // Current block
+    private final LocalDate[] bases = new LocalDate[12];
+    private final long[] masks = new long[12];
+    private int segments;
+    private long block = -1;
+    private int segment;
+    private long remaining;
+
+    private LocalDate lowerBound;
+    private boolean startConsumed;
+
+    // Whether every full block holds the same number of occurrences
+    private final boolean uniformBlocks;
+    // Occurrences in a full block, by block shape
+    private final Map<Long, Long> countsByShape = new HashMap<>();
+
+    RecurrenceSet(RecurrenceRule rule, LocalDate seriesStart) {
+        this.rule = rule;
+        this.seriesStart = seriesStart;
+        this.firstWeekStart = seriesStart.with(TemporalAdjusters.previousOrSame(rule.weekStart));
+        this.firstMonth = YearMonth.from(seriesStart);
+        this.firstYear = seriesStart.getYear();
+        this.lowerBound = seriesStart;
+        this.uniformBlocks = "WEEKLY".equals(rule.frequency) && rule.byMonthMask == 0 && !rule.hasByMonthDay();
+
+        load(0);
+        this.startOutsideRule = countInBlock(seriesStart, seriesStart.plusDays(1)) == 0;
+        this.block = -1;
+        this.segments = 0;
+    }
+
+    /**
+     * Position the cursor so that {@link #next} returns the first occurrence on or after the date,
+     * skipping the blocks before it without looking at them
+     */
+    void skipTo(LocalDate date) {
+        if (!date.isAfter(lowerBound)) {
+            return;
+        }
+        lowerBound = date;
+        block = blockIndexOf(date) - 1;
+        segments = 0;
+        segment = 0;
+        remaining = 0;
+    }
+
+    /**
+     * Next occurrence date before the limit, or null once the limit is reached
+     */
+    LocalDate next(LocalDate limit) {
+        if (startOutsideRule && !startConsumed) {
+            startConsumed = true;
+            if (!seriesStart.isBefore(lowerBound)) {
+                return seriesStart.isBefore(limit) ? seriesStart : null;
+            }
+        }
+
+        while (true) {
+            while (remaining == 0 && segment + 1 < segments) {
+                segment++;
+                remaining = masks[segment];
+            }
+            if (remaining != 0) {
+                int offset = Long.numberOfTrailingZeros(remaining);
+                remaining &= remaining - 1;
+                LocalDate date = bases[segment].plusDays(offset);
+                if (date.isBefore(lowerBound)) {
+                    continue;
+                }
+                return date.isBefore(limit) ? date : null;
+            }
+
+            if (!blockStart(block + 1).isBefore(limit)) {
+                return null;
+            }
+            block++;
+            load(block);
+            segment = 0;
+            remaining = segments > 0 ? masks[0] : 0;
+        }
+    }
+
+    /**
+     * Number of occurrences before the date, from per-block popcounts
+     */
+    long countBefore(LocalDate date) {
+        if (!date.isAfter(seriesStart)) {
+            return 0;
+        }
+
+        long count = startOutsideRule ? 1 : 0;
+        long lastBlock = blockIndexOf(date);
+        load(0);
+        count += countInBlock(seriesStart, date);
+        if (lastBlock > 0) {
+            count += countInFullBlocks(1, lastBlock);
+            load(lastBlock);
+            count += countInBlock(seriesStart, date);
+        }
+        resetCursor();
+        return count;
+    }
+
+    /**
+     * Date of the occurrence with the given zero-based index, or null if it does not start before the limit
+     */
+    LocalDate occurrence(long index, LocalDate limit) {
+        if (startOutsideRule) {
+            if (index == 0) {
+                return seriesStart;
+            }
+            index--;
+        }
+
+        LocalDate result = null;
+        long lastBlock = blockIndexOf(limit);
+        long b = 0;
+        while (result == null && b <= lastBlock) {
+            if (b == 0 || b == lastBlock) {
+                // The blocks at either end are cut by the series start and the limit
+                load(b);
+                long inBlock = countInBlock(seriesStart, limit);
+                if (index < inBlock) {
+                    result = nthInBlock(index);
+                }
+                index -= inBlock;
+                b++;
+            } else if (uniformBlocks) {
+                long perBlock = fullBlockCount(b);
+                long skipped = perBlock == 0 ? lastBlock - b : Math.min(index / perBlock, lastBlock - b);
+                index -= skipped * perBlock;
+                b += skipped;
+                if (b < lastBlock) {
+                    load(b);
+                    result = nthInBlock(index);
+                }
+            } else {
+                long inBlock = fullBlockCount(b);
+                if (index < inBlock) {
+                    load(b);
+                    result = nthInBlock(index);
+                }
+                index -= inBlock;
+                b++;
+            }
+        }
+        resetCursor();
+        return result != null && result.isBefore(limit) ? result : null;
+    }
+
+    /**
+     * Number of occurrences in the blocks [from, to), none of which is cut by the series start or a limit
+     */
+    private long countInFullBlocks(long from, long to) {
+        if (from >= to) {
+            return 0;
+        }
+        if (uniformBlocks) {
+            return (to - from) * fullBlockCount(from);
+        }
+        long count = 0;
+        for (long b = from; b < to; b++) {
+            count += fullBlockCount(b);
+        }
+        return count;
+    }
+
+    /**
+     * Occurrences in the whole block; only the first block of each shape is built
+     */
+    private long fullBlockCount(long index) {
+        long shape = shapeOf(index);
+        Long count = countsByShape.get(shape);
+        if (count == null) {
+            load(index);
+            count = 0L;
+            for (int i = 0; i < segments; i++) {
+                count += Long.bitCount(masks[i]);
+            }
+            countsByShape.put(shape, count);
+        }
+        return count;
+    }
+
+    /**
+     * Key of everything a block's masks depend on besides the rule: blocks with the same key hold
+     * the same number of occurrences
+     */
+    private long shapeOf(long index) {
+        switch (rule.frequency) {
+            case "DAILY": {
+                YearMonth month = firstMonth.plusMonths(index);
+                long phase = rule.interval == 1 ? 0
+                        : Math.floorMod(ChronoUnit.DAYS.between(seriesStart, month.atDay(1)), (long) rule.interval);
+                return phase * 168 + monthShape(month);
+            }
+            case "WEEKLY": {
+                if (uniformBlocks) {
+                    return 0;
+                }
+                // The week's days, months and month lengths follow from where it starts
+                LocalDate weekStart = blockStart(index);
+                return (weekStart.isLeapYear() ? 372 : 0)
+                        + (weekStart.getMonthValue() - 1) * 31 + weekStart.getDayOfMonth() - 1;
+            }
+            case "MONTHLY":
+                return monthShape(firstMonth.plusMonths(index * rule.interval));
+            default: {
+                LocalDate newYear = blockStart(index);
+                return (newYear.isLeapYear() ? 7 : 0) + newYear.getDayOfWeek().getValue() - 1;
+            }
+        }
+    }
+
+    /**
+     * Month of the year, leap year and first weekday, one of 168 values
+     */
+    private static long monthShape(YearMonth month) {
+        return ((month.isLeapYear() ? 12 : 0) + month.getMonthValue() - 1) * 7L
+                + month.atDay(1).getDayOfWeek().getValue() - 1;
+    }
+
+    private void resetCursor() {
+        block = -1;
+        segments = 0;
+        segment = 0;
+        remaining = 0;
+        startConsumed = false;
+        lowerBound = seriesStart;
+    }
+
+    private long blockIndexOf(LocalDate date) {
+        long index;
+        switch (rule.frequency) {
+            case "DAILY":
+                index = ChronoUnit.MONTHS.between(firstMonth, YearMonth.from(date));
+                break;
+            case "WEEKLY":
+                index = Math.floorDiv(ChronoUnit.DAYS.between(firstWeekStart, date), 7L * rule.interval);
+                break;
+            case "MONTHLY":
+                index = Math.floorDiv(ChronoUnit.MONTHS.between(firstMonth, YearMonth.from(date)), rule.interval);
+                break;
+            default:
+                index = Math.floorDiv(date.getYear() - firstYear, rule.interval);
+                break;
+        }
+        return Math.max(0, index);
+    }
+
+    private LocalDate blockStart(long index) {
+        switch (rule.frequency) {
+            case "DAILY":
+                return firstMonth.plusMonths(index).atDay(1);
+            case "WEEKLY":
+                return firstWeekStart.plusWeeks(index * rule.interval);
+            case "MONTHLY":
+                return firstMonth.plusMonths(index * rule.interval).atDay(1);
+            default:
+                return LocalDate.of(Math.toIntExact(firstYear + index * rule.interval), 1, 1);
+        }
+    }
+
+    /**
+     * Fill bases/masks with the candidate days of the block
+     */
+    private void load(long index) {
+        segments = 1;
+        switch (rule.frequency) {
+            case "DAILY": {
+                YearMonth month = firstMonth.plusMonths(index);
+                bases[0] = month.atDay(1);
+                masks[0] = dailyMask(month);
+                break;
+            }
+            case "WEEKLY": {
+                LocalDate weekStart = blockStart(index);
+                bases[0] = weekStart;
+                masks[0] = weeklyMask(weekStart);
+                break;
+            }
+            case "MONTHLY": {
+                YearMonth month = firstMonth.plusMonths(index * rule.interval);
+                bases[0] = month.atDay(1);
+                masks[0] = (rule.byMonthMask == 0 || inByMonth(month.getMonthValue()))
+                        ? monthMask(month, ordinalDaysInMonth(month))
+                        : 0;
+                break;
+            }
+            default:
+                loadYear(Math.toIntExact(firstYear + index * rule.interval));
+                break;
+        }
+        applySetPos();
+    }
+
+    private long dailyMask(YearMonth month) {
+        if (rule.byMonthMask != 0 && !inByMonth(month.getMonthValue())) {
+            return 0;
+        }
+        if (rule.bySetPosCount() > 0 && !setPosSelectsOnly()) {
+            return 0;
+        }
+
+        int length = month.lengthOfMonth();
+        LocalDate firstDay = month.atDay(1);
+        // Days whose distance from the series start is a multiple of the interval
+        long lattice;
+        if (rule.interval == 1) {
+            lattice = lengthMask(length);
+        } else {
+            long phase = Math.floorMod(ChronoUnit.DAYS.between(seriesStart, firstDay), (long) rule.interval);
+            lattice = 0;
+            for (long day = (rule.interval - phase) % rule.interval; day < length; day += rule.interval) {
+                lattice |= 1L << day;
+            }
+        }
+
+        long mask = lattice;
+        if (rule.hasByDay()) {
+            mask &= weekdayPattern(firstDay.getDayOfWeek(), allByDayWeekdays()) & lengthMask(length);
+        }
+        if (rule.hasByMonthDay()) {
+            mask &= monthDays(length);
+        }
+        return mask;
+    }
+
+    private long weeklyMask(LocalDate weekStart) {
+        int weekdays = rule.hasByDay() ? allByDayWeekdays() : 1 << (seriesStart.getDayOfWeek().getValue() - 1);
+        long mask = weekdayPattern(weekStart.getDayOfWeek(), weekdays) & WEEK_MASK;
+
+        if (rule.byMonthMask != 0 || rule.hasByMonthDay()) {
+            for (long bits = mask; bits != 0; bits &= bits - 1) {
+                int offset = Long.numberOfTrailingZeros(bits);
+                LocalDate day = weekStart.plusDays(offset);
+                boolean monthOk = rule.byMonthMask == 0 || inByMonth(day.getMonthValue());
+                boolean dayOk = !rule.hasByMonthDay()
+                        || (monthDays(day.lengthOfMonth()) & (1L << (day.getDayOfMonth() - 1))) != 0;
+                if (!monthOk || !dayOk) {
+                    mask &= ~(1L << offset);
+                }
+            }
+        }
+        return mask;
+    }
+
+    private void loadYear(int year) {
+        segments = 12;
+        boolean yearScopeOrdinals = rule.byMonthMask == 0 && rule.byDayOrdinalCount() > 0;
+        long[] yearOrdinals = yearScopeOrdinals ? ordinalDaysInYear(year) : null;
+
+        for (int m = 1; m <= 12; m++) {
+            YearMonth month = YearMonth.of(year, m);
+            bases[m - 1] = month.atDay(1);
+
+            boolean monthSelected;
+            if (rule.byMonthMask != 0) {
+                monthSelected = inByMonth(m);
+            } else if (rule.hasByMonthDay() || rule.hasByDay()) {
+                monthSelected = true;
+            } else {
+                monthSelected = m == seriesStart.getMonthValue();
+            }
+
+            if (!monthSelected) {
+                masks[m - 1] = 0;
+            } else {
+                long ordinalDays = yearScopeOrdinals ? yearOrdinals[m - 1] : ordinalDaysInMonth(month);
+                masks[m - 1] = monthMask(month, ordinalDays);
+            }
+        }
+    }
+
+    /**
+     * Candidate days of a month for MONTHLY and YEARLY rules: BYMONTHDAY and BYDAY intersect when both are
+     * present, and the series start's day of month is used when neither is
+     */
+    private long monthMask(YearMonth month, long ordinalDays) {
+        int length = month.lengthOfMonth();
+        long byDay = 0;
+        if (rule.hasByDay()) {
+            byDay = ordinalDays;
+            if (rule.byDayMask != 0) {
+                byDay |= weekdayPattern(month.atDay(1).getDayOfWeek(), rule.byDayMask) & lengthMask(length);
+            }
+        }
+
+        if (rule.hasByMonthDay()) {
+            long monthDays = monthDays(length);
+            return rule.hasByDay() ? monthDays & byDay : monthDays;
+        }
+        if (rule.hasByDay()) {
+            return byDay;
+        }
+        int startDay = seriesStart.getDayOfMonth();
+        return startDay <= length ? 1L << (startDay - 1) : 0;
+    }
+
+    /**
+     * Days of the month picked by ordinal BYDAY entries, e.g. 2TU or -1FR
+     */
+    private long ordinalDaysInMonth(YearMonth month) {
+        long mask = 0;
+        int firstWeekday = month.atDay(1).getDayOfWeek().getValue() - 1;
+        for (int i = 0; i < rule.byDayOrdinalCount(); i++) {
+            int day = nthWeekday(firstWeekday, month.lengthOfMonth(), rule.byDayOrdinalWeekday(i), rule.byDayOrdinal(i));
+            if (day >= 0) {
+                mask |= 1L << day;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Ordinal BYDAY entries of a YEARLY rule without BYMONTH count within the whole year (20MO is the
+     * 20th Monday of the year); returns the picked days as one mask per month
+     */
+    private long[] ordinalDaysInYear(int year) {
+        long[] perMonth = new long[12];
+        int firstWeekday = Year.of(year).atDay(1).getDayOfWeek().getValue() - 1;
+        int length = Year.of(year).length();
+        for (int i = 0; i < rule.byDayOrdinalCount(); i++) {
+            int dayOfYear = nthWeekday(firstWeekday, length, rule.byDayOrdinalWeekday(i), rule.byDayOrdinal(i));
+            if (dayOfYear >= 0) {
+                LocalDate date = LocalDate.ofYearDay(year, dayOfYear + 1);
+                perMonth[date.getMonthValue() - 1] |= 1L << (date.getDayOfMonth() - 1);
+            }
+        }
+        return perMonth;
+    }
+
+    /**
+     * Zero-based index of the nth (negative: from the end) given weekday in a period of the given length
+     * starting on firstWeekday, or -1 if there is none
+     */
+    private static int nthWeekday(int firstWeekday, int length, int weekday, int ordinal) {
+        int first = Math.floorMod(weekday - firstWeekday, 7);
+        int day;
+        if (ordinal > 0) {
+            day = first + 7 * (ordinal - 1);
+        } else {
+            int last = first + 7 * ((length - 1 - first) / 7);
+            day = last + 7 * (ordinal + 1);
+        }
+        return day >= 0 && day < length ? day : -1;
+    }
+
+    /**
+     * BYMONTHDAY resolved against a month length; bit k-1 of the from-end mask lands on day length-k+1
+     */
+    private long monthDays(int length) {
+        long fromEnd = Long.reverse(rule.byMonthDayFromEndMask) >>> (64 - length);
+        return (rule.byMonthDayMask | fromEnd) & lengthMask(length);
+    }
+
+    /**
+     * Weekday bitmask (bit 0 = Monday) repeated so that bit i is day i of a period starting on the given weekday
+     */
+    private static long weekdayPattern(DayOfWeek periodStart, int weekdays) {
+        int shift = periodStart.getValue() - 1;
+        long week = ((weekdays >>> shift) | (weekdays << (7 - shift))) & WEEK_MASK;
+        week |= week << 7;
+        week |= week << 14;
+        week |= week << 28;
+        return week;
+    }
+
+    private int allByDayWeekdays() {
+        int weekdays = rule.byDayMask;
+        for (int i = 0; i < rule.byDayOrdinalCount(); i++) {
+            weekdays |= 1 << rule.byDayOrdinalWeekday(i);
+        }
+        return weekdays;
+    }
+
+    private boolean inByMonth(int month) {
+        return (rule.byMonthMask & (1 << (month - 1))) != 0;
+    }
+
+    // A DAILY block holds many one-day periods, so BYSETPOS can only keep or drop the single candidate
+    private boolean setPosSelectsOnly() {
+        for (int i = 0; i < rule.bySetPosCount(); i++) {
+            int position = rule.bySetPos(i);
+            if (position == 1 || position == -1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void applySetPos() {
+        if (rule.bySetPosCount() == 0 || "DAILY".equals(rule.frequency)) {
+            return;
+        }
+
+        int total = 0;
+        for (int i = 0; i < segments; i++) {
+            total += Long.bitCount(masks[i]);
+        }
+
+        long[] selected = new long[segments];
+        for (int p = 0; p < rule.bySetPosCount(); p++) {
+            int position = rule.bySetPos(p);
+            int index = position > 0 ? position - 1 : total + position;
+            if (index < 0 || index >= total) {
+                continue;
+            }
+            for (int i = 0; i < segments; i++) {
+                int inSegment = Long.bitCount(masks[i]);
+                if (index < inSegment) {
+                    selected[i] |= Long.lowestOneBit(dropLowestBits(masks[i], index));
+                    break;
+                }
+                index -= inSegment;
+            }
+        }
+        System.arraycopy(selected, 0, masks, 0, segments);
+    }
+
+    private long countInBlock(LocalDate from, LocalDate until) {
+        long count = 0;
+        for (int i = 0; i < segments; i++) {
+            count += Long.bitCount(clip(masks[i], bases[i], from, until));
+        }
+        return count;
+    }
+
+    private LocalDate nthInBlock(long index) {
+        for (int i = 0; i < segments; i++) {
+            long mask = clip(masks[i], bases[i], seriesStart, LocalDate.MAX);
+            int inSegment = Long.bitCount(mask);
+            if (index < inSegment) {
+                return bases[i].plusDays(Long.numberOfTrailingZeros(dropLowestBits(mask, (int) index)));
+            }
+            index -= inSegment;
+        }
+        return null;
+    }
+
+    /**
+     * Keep only the offsets whose dates fall in [from, until)
+     */
+    private static long clip(long mask, LocalDate base, LocalDate from, LocalDate until) {
+        long fromOffset = ChronoUnit.DAYS.between(base, from);
+        if (fromOffset >= 64) {
+            return 0;
+        }
+        if (fromOffset > 0) {
+            mask &= -1L << fromOffset;
+        }
+        long untilOffset = until.equals(LocalDate.MAX) ? 64 : ChronoUnit.DAYS.between(base, until);
+        if (untilOffset <= 0) {
+            return 0;
+        }
+        if (untilOffset < 64) {
+            mask &= (1L << untilOffset) - 1;
+        }
+        return mask;
+    }
+
+    private static long dropLowestBits(long mask, int count) {
+        for (int i = 0; i < count; i++) {
+            mask &= mask - 1;
+        }
+        return mask;
+    }
+
+    private static long lengthMask(int length) {
+        return (1L << length) - 1;
+    }
+}
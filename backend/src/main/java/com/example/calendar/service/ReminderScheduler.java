@@ -0,0 +1,437 @@
+package com.example.calendar.service;
+
+import com.example.calendar.dto.ReminderNotice;
+import com.example.calendar.model.Event;
+import com.example.calendar.model.EventReminder;
+import com.example.calendar.repository.EventReminderRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fires event reminders and pushes them to the user's {@link CalendarChangeFeed} connections.
+ * Each reminder row stores its next trigger time, indexed. Only the reminders firing within the
+ * next horizon are held in memory, in a hierarchical {@link TimingWheel}; the wheel is refilled
+ * from the index once half of the horizon has passed, and on startup it is loaded the same way,
+ * so nothing scans the whole table. Writes do not cancel timers: a timer is checked against its
+ * row when it fires and ignored if the row moved on, and the occurrence it is for is checked
+ * against the event, so reminders of deleted occurrences never fire. Reminders that should have
+ * fired more than missed-grace ago, for example while no node was running, are skipped.
+ *
+ * Each reminder fires in its own transaction, so one that fails does not hold back the others;
+ * it is retried after a short delay for as long as it is within missed-grace.
+ */
+@Component
+public class ReminderScheduler implements MeterBinder {
+
+    static final int MAX_MINUTES_BEFORE = 4 * 7 * 24 * 60;
+    static final int MAX_REMINDERS_PER_EVENT = 5;
+
+    private static final int WHEEL_SLOTS = 64;
+    // How far ahead a series is searched for its next occurrence
+    private static final int SEARCH_LIMIT_YEARS = 1000;
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(30);
+
+    /** A timer in the wheel: the reminder and the trigger time it had when filed */
+    record Due(Long reminderId, LocalDateTime at) {
+    }
+
+    private final EventReminderRepository reminders;
+    private final CalendarChangeFeed feed;
+    private final TransactionOperations transactions;
+    private final boolean enabled;
+    private final long tickMillis;
+    private final Duration horizon;
+    private final Duration missedGrace;
+    private final Clock clock;
+
+    private final Object lock = new Object();
+    // Guarded by lock. The wheel is null until recover() ran; every reminder firing before
+    // loadedUntil is filed in it, or in overdue if it was due already when filed.
+    private TimingWheel<Due> wheel;
+    private LocalDateTime loadedUntil;
+    private final Set<Due> filed = new HashSet<>();
+    private final Deque<Due> overdue = new ArrayDeque<>();
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder missed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    @Autowired
+    public ReminderScheduler(EventReminderRepository reminders,
+                             CalendarChangeFeed feed,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${calendar.reminders.enabled:true}") boolean enabled,
+                             @Value("${calendar.reminders.tick:PT1S}") Duration tick,
+                             @Value("${calendar.reminders.horizon:PT1H}") Duration horizon,
+                             @Value("${calendar.reminders.missed-grace:PT15M}") Duration missedGrace) {
+        this(reminders, feed, new TransactionTemplate(transactionManager), enabled, tick, horizon, missedGrace,
+                Clock.systemDefaultZone());
+    }
+
+    ReminderScheduler(EventReminderRepository reminders, CalendarChangeFeed feed, TransactionOperations transactions,
+                      boolean enabled, Duration tick, Duration horizon, Duration missedGrace, Clock clock) {
+        this.reminders = reminders;
+        this.feed = feed;
+        this.transactions = transactions;
+        this.enabled = enabled;
+        this.tickMillis = tick.toMillis();
+        this.horizon = horizon;
+        this.missedGrace = missedGrace;
+        this.clock = clock;
+    }
+
+    /**
+     * The event's reminders, in minutes before its start, ascending
+     */
+    @Transactional(readOnly = true)
+    public List<Integer> getReminderMinutes(Long eventId) {
+        return reminders.findByEventId(eventId).stream()
+                .map(EventReminder::getMinutesBefore)
+                .toList();
+    }
+
+    /**
+     * Replace the event's reminders. With null the reminders are kept, and only when they fire
+     * next is recomputed, as after the event's time or recurrence changed.
+     */
+    public void setReminders(Event event, List<Integer> minutesBefore) {
+        if (minutesBefore == null) {
+            reschedule(event);
+            return;
+        }
+        Set<Integer> distinct = validate(minutesBefore);
+        reminders.deleteByEventId(event.getId());
+        LocalDateTime now = LocalDateTime.now(clock);
+        List<EventReminder> rows = new ArrayList<>(distinct.size());
+        for (int minutes : distinct) {
+            rows.add(EventReminder.builder()
+                    .event(event)
+                    .minutesBefore(minutes)
+                    .nextFireAt(nextTrigger(event, minutes, now))
+                    .build());
+        }
+        reminders.saveAll(rows);
+        fileAfterCommit(rows);
+    }
+
+    /**
+     * Recompute when the event's reminders fire next, after its time or recurrence changed
+     */
+    public void reschedule(Event event) {
+        List<EventReminder> rows = reminders.findByEventId(event.getId());
+        LocalDateTime now = LocalDateTime.now(clock);
+        for (EventReminder reminder : rows) {
+            reminder.setNextFireAt(nextTrigger(event, reminder.getMinutesBefore(), now));
+        }
+        fileAfterCommit(rows);
+    }
+
+    /**
+     * Give an instance override the reminders of its series
+     */
+    public void copyReminders(Event master, Event instanceOverride) {
+        List<Integer> minutesBefore = getReminderMinutes(master.getId());
+        if (!minutesBefore.isEmpty()) {
+            setReminders(instanceOverride, minutesBefore);
+        }
+    }
+
+    /**
+     * Load the reminders firing within the horizon on startup, including ones missed while
+     * no node was running
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void recover() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDateTime until = now.plus(horizon);
+        synchronized (lock) {
+            wheel = new TimingWheel<>(tickMillis, WHEEL_SLOTS, wheelLevels(), toMillis(now));
+            loadedUntil = until;
+            filed.clear();
+            overdue.clear();
+        }
+        // Reminders written from here on are filed by their writers, and duplicates are dropped
+        for (EventReminder reminder : reminders.findFiringBefore(until)) {
+            file(new Due(reminder.getId(), reminder.getNextFireAt()));
+        }
+    }
+
+    /**
+     * Fire the reminders that came due since the last tick, and refill the wheel once half of
+     * the horizon has passed. Idle ticks do not touch the database.
+     */
+    @Scheduled(fixedDelayString = "${calendar.reminders.tick:PT1S}")
+    public void tick() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        List<Due> due = new ArrayList<>();
+        LocalDateTime refillFrom = null;
+        LocalDateTime refillUntil = null;
+        synchronized (lock) {
+            if (wheel == null) {
+                return;
+            }
+            wheel.advance(toMillis(now), due::add);
+            due.addAll(overdue);
+            overdue.clear();
+            due.forEach(filed::remove);
+            if (loadedUntil.isBefore(now.plus(horizon.dividedBy(2)))) {
+                // Moved before reading, so a reminder committed after the read is filed by its writer
+                refillFrom = loadedUntil;
+                refillUntil = now.plus(horizon);
+                loadedUntil = refillUntil;
+            }
+        }
+        for (Due timer : due) {
+            try {
+                transactions.executeWithoutResult(status -> fire(timer, now));
+            } catch (RuntimeException e) {
+                // The row still has its old trigger time; without a timer it would only be
+                // found again, as missed, after a restart
+                failed.increment();
+                retry(timer, now);
+            }
+        }
+        if (refillFrom != null) {
+            refill(refillFrom, refillUntil);
+        }
+    }
+
+    private void refill(LocalDateTime from, LocalDateTime until) {
+        try {
+            for (EventReminder reminder : reminders.findFiringBetween(from, until)) {
+                file(new Due(reminder.getId(), reminder.getNextFireAt()));
+            }
+        } catch (RuntimeException e) {
+            // Read the same window again on the next tick; duplicates are dropped when filed
+            synchronized (lock) {
+                if (until.equals(loadedUntil)) {
+                    loadedUntil = from;
+                }
+            }
+            throw e;
+        }
+    }
+
+    /** Timers held in memory */
+    int scheduledCount() {
+        synchronized (lock) {
+            return (wheel != null ? wheel.size() : 0) + overdue.size();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("calendar.reminders.scheduled", this, ReminderScheduler::scheduledCount)
+                .description("Reminders due within the horizon, held in the timing wheel")
+                .register(registry);
+        FunctionCounter.builder("calendar.reminders.fired", sent, LongAdder::sum)
+                .tag("result", "sent")
+                .description("Reminders that fired and were published to the change feed")
+                .register(registry);
+        FunctionCounter.builder("calendar.reminders.fired", missed, LongAdder::sum)
+                .tag("result", "missed")
+                .description("Reminders skipped because they came due more than missed-grace ago")
+                .register(registry);
+        FunctionCounter.builder("calendar.reminders.fired", failed, LongAdder::sum)
+                .tag("result", "failed")
+                .description("Attempts to fire a reminder that failed and were retried or given up")
+                .register(registry);
+    }
+
+    /**
+     * Trigger time of the first reminder after now: minutesBefore before the first occurrence
+     * starting after now plus minutesBefore, or null if there is none
+     */
+    public static LocalDateTime nextTrigger(Event event, int minutesBefore, LocalDateTime now) {
+        LocalDateTime start = firstStartAfter(event, now.plusMinutes(minutesBefore));
+        return start != null ? start.minusMinutes(minutesBefore) : null;
+    }
+
+    /**
+     * Start of the event's first non-excluded occurrence starting after the given time, or null
+     */
+    static LocalDateTime firstStartAfter(Event event, LocalDateTime after) {
+        if (!isRecurring(event)) {
+            return event.getStartDateTime().isAfter(after) ? event.getStartDateTime() : null;
+        }
+        Iterator<LocalDateTime> starts = RecurrenceExpander.occurrenceIterator(event, after,
+                after.plusYears(SEARCH_LIMIT_YEARS));
+        while (starts.hasNext()) {
+            LocalDateTime start = starts.next();
+            // The iterator also yields occurrences that started earlier and are still running
+            if (start.isAfter(after)) {
+                return start;
+            }
+        }
+        return null;
+    }
+
+    private void fire(Due due, LocalDateTime now) {
+        Optional<EventReminder> found = reminders.findWithEventById(due.reminderId());
+        if (found.isEmpty() || !due.at().equals(found.get().getNextFireAt())) {
+            // Deleted, or rescheduled after it was filed; its new trigger time was filed separately
+            return;
+        }
+        EventReminder reminder = found.get();
+        Event event = reminder.getEvent();
+        int minutesBefore = reminder.getMinutesBefore();
+        LocalDateTime occurrenceStart = due.at().plusMinutes(minutesBefore);
+        boolean late = due.at().isBefore(now.minus(missedGrace));
+        LocalDateTime next = late
+                ? nextTrigger(event, minutesBefore, now)
+                : nextTrigger(event, minutesBefore, due.at());
+        boolean publish = !late && occursAt(event, occurrenceStart);
+        Long userId = event.getUser().getId();
+        ReminderNotice notice = new ReminderNotice(event.getId(), event.getTitle(), occurrenceStart, minutesBefore);
+
+        if (reminders.advance(reminder.getId(), due.at(), next) == 0) {
+            // Fired or rescheduled by another transaction in the meantime
+            return;
+        }
+        if (late) {
+            missed.increment();
+        } else if (publish) {
+            sent.increment();
+            afterCommit(() -> feed.publishReminder(userId, notice));
+        }
+        if (next != null) {
+            afterCommit(() -> file(new Due(reminder.getId(), next)));
+        }
+    }
+
+    /** Whether the event still has an occurrence starting at the given time */
+    private static boolean occursAt(Event event, LocalDateTime start) {
+        if (!isRecurring(event)) {
+            return event.getStartDateTime().equals(start);
+        }
+        return RecurrenceExpander.occurrenceStarts(event, start, start.plusNanos(1)).contains(start);
+    }
+
+    private static boolean isRecurring(Event event) {
+        return event.getRecurrenceRule() != null && !event.getRecurrenceRule().isEmpty();
+    }
+
+    private void fileAfterCommit(Collection<EventReminder> rows) {
+        List<Due> timers = new ArrayList<>(rows.size());
+        for (EventReminder reminder : rows) {
+            if (reminder.getNextFireAt() != null) {
+                timers.add(new Due(reminder.getId(), reminder.getNextFireAt()));
+            }
+        }
+        if (!timers.isEmpty()) {
+            afterCommit(() -> timers.forEach(this::file));
+        }
+    }
+
+    /**
+     * Put a timer in the wheel if it fires before the wheel was loaded up to; later ones are
+     * read by a refill. Already filed timers are ignored.
+     */
+    private void file(Due due) {
+        synchronized (lock) {
+            if (wheel == null || !due.at().isBefore(loadedUntil) || !filed.add(due)) {
+                return;
+            }
+            if (!wheel.add(toMillis(due.at()), due)) {
+                overdue.addLast(due);
+            }
+        }
+    }
+
+    /**
+     * File a timer whose firing failed again, RETRY_DELAY from now, unless it is past
+     * missed-grace; the row is then skipped ahead by the startup recovery
+     */
+    private void retry(Due due, LocalDateTime now) {
+        if (due.at().isBefore(now.minus(missedGrace))) {
+            return;
+        }
+        synchronized (lock) {
+            if (wheel == null || !filed.add(due)) {
+                return;
+            }
+            if (!wheel.add(toMillis(now.plus(RETRY_DELAY)), due)) {
+                overdue.addLast(due);
+            }
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /** Enough levels that the wheel holds any timer within the horizon */
+    private int wheelLevels() {
+        long horizonTicks = horizon.toMillis() / tickMillis + 1;
+        int levels = 1;
+        long topSpan = 1;
+        while ((WHEEL_SLOTS - 1) * topSpan <= horizonTicks) {
+            topSpan *= WHEEL_SLOTS;
+            levels++;
+        }
+        return levels;
+    }
+
+    private static Set<Integer> validate(List<Integer> minutesBefore) {
+        Set<Integer> distinct = new TreeSet<>();
+        for (Integer minutes : minutesBefore) {
+            if (minutes == null || minutes < 0 || minutes > MAX_MINUTES_BEFORE) {
+                throw new IllegalArgumentException(
+                        "Reminders must be between 0 and " + MAX_MINUTES_BEFORE + " minutes before the event");
+            }
+            distinct.add(minutes);
+        }
+        if (distinct.size() > MAX_REMINDERS_PER_EVENT) {
+            throw new IllegalArgumentException("An event can have at most " + MAX_REMINDERS_PER_EVENT + " reminders");
+        }
+        return distinct;
+    }
+
+    // Event times are wall-clock times; the wheel only needs them on a monotonic scale
+    private static long toMillis(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
@@ -2,6 +2,7 @@ package com.example.calendar.service;
 
 import com.example.calendar.dto.CreateTagDTO;
 import com.example.calendar.dto.TagDTO;
+import com.example.calendar.model.Event;
 import com.example.calendar.model.Tag;
 import com.example.calendar.model.User;
 import com.example.calendar.repository.TagRepository;
@@ -12,6 +13,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -21,6 +23,8 @@ public class TagService {
 
     private final TagRepository tagRepository;
     private final UserRepository userRepository;
+    private final EventRangeCache eventRangeCache;
+    private final EventChangeLog eventChangeLog;
 
     /**
      * Get all tags for a user
@@ -32,6 +36,16 @@ public class TagService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Get all tags for a user known by ID, without reading the users table
+     */
+    @Transactional(readOnly = true)
+    public List<TagDTO> getAllTags(Long userId) {
+        return tagRepository.findByUserId(userId).stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+    }
+
     /**
      * Create a new tag
      */
@@ -54,6 +68,7 @@ public class TagService {
                 .build();
 
         Tag savedTag = tagRepository.save(tag);
+        userRepository.bumpCalendarVersion(userEmail);
         return convertToDTO(savedTag);
     }
 
@@ -78,6 +93,10 @@ public class TagService {
 
         tag.setName(newName);
         Tag savedTag = tagRepository.save(tag);
+        // Cached event ranges and synced events carry tag names
+        eventRangeCache.invalidate(userEmail);
+        userRepository.bumpCalendarVersion(userEmail);
+        eventChangeLog.record(tag.getUser().getId(), tagRepository.findEventsByTagId(id), List.of());
         return convertToDTO(savedTag);
     }
 
@@ -93,7 +112,17 @@ public class TagService {
             throw new IllegalArgumentException("Access denied: You can only delete your own tags");
         }
 
+        List<Event> taggedEvents = tagRepository.findEventsByTagId(id);
+        // Events own the association; drop it there so the loaded events do not reference a removed tag
+        for (Event event : taggedEvents) {
+            Set<Tag> tags = event.getTags();
+            tags.remove(tag);
+            event.setTags(tags);
+        }
         tagRepository.delete(tag);
+        eventRangeCache.invalidate(userEmail);
+        userRepository.bumpCalendarVersion(userEmail);
+        eventChangeLog.record(tag.getUser().getId(), taggedEvents, List.of());
     }
 
     /**
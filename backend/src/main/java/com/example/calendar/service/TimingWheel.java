@@ -0,0 +1,117 @@
+package com.example.calendar.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel. Level 0 has one bucket per tick; each higher level has buckets as
+ * wide as a whole revolution of the level below. A timer is filed on the lowest level whose
+ * revolution still reaches it, and when time enters one of a higher level's buckets its timers
+ * cascade down a level. Adding and expiring are O(1) per timer and level, however far apart the
+ * due times are. Not thread-safe.
+ */
+final class TimingWheel<T> {
+
+    private static final class Timer<T> {
+        final long dueTick;
+        final T item;
+
+        Timer(long dueTick, T item) {
+            this.dueTick = dueTick;
+            this.item = item;
+        }
+    }
+
+    private final long tickMillis;
+    private final int slots;
+    // spans[level] = ticks covered by one bucket of that level
+    private final long[] spans;
+    private final List<Timer<T>>[][] buckets;
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    TimingWheel(long tickMillis, int slots, int levels, long nowMillis) {
+        this.tickMillis = tickMillis;
+        this.slots = slots;
+        this.spans = new long[levels];
+        this.buckets = (List<Timer<T>>[][]) new List<?>[levels][slots];
+        long span = 1;
+        for (int level = 0; level < levels; level++) {
+            spans[level] = span;
+            span = Math.multiplyExact(span, slots);
+            for (int slot = 0; slot < slots; slot++) {
+                buckets[level][slot] = new ArrayList<>();
+            }
+        }
+        this.currentTick = nowMillis / tickMillis;
+    }
+
+    /** Whether a timer due at this time can be held */
+    boolean covers(long dueMillis) {
+        int top = spans.length - 1;
+        return dueMillis / tickMillis / spans[top] - currentTick / spans[top] < slots;
+    }
+
+    /**
+     * File a timer. Returns false, without filing it, if it is already due; the caller expires it.
+     */
+    boolean add(long dueMillis, T item) {
+        if (!covers(dueMillis)) {
+            throw new IllegalArgumentException("Timer is beyond the wheel's horizon");
+        }
+        return place(new Timer<>(dueMillis / tickMillis, item));
+    }
+
+    /** Move time forward to now, handing each timer that became due to expired */
+    void advance(long nowMillis, Consumer<T> expired) {
+        long target = nowMillis / tickMillis;
+        while (currentTick < target) {
+            currentTick++;
+            for (int level = spans.length - 1; level > 0; level--) {
+                if (currentTick % spans[level] == 0) {
+                    List<Timer<T>> bucket = take(level, currentTick / spans[level]);
+                    for (Timer<T> timer : bucket) {
+                        if (!place(timer)) {
+                            expired.accept(timer.item);
+                        }
+                    }
+                }
+            }
+            for (Timer<T> timer : take(0, currentTick)) {
+                expired.accept(timer.item);
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private boolean place(Timer<T> timer) {
+        if (timer.dueTick <= currentTick) {
+            return false;
+        }
+        for (int level = 0; level < spans.length; level++) {
+            long bucketIndex = timer.dueTick / spans[level];
+            if (bucketIndex - currentTick / spans[level] < slots) {
+                buckets[level][(int) (bucketIndex % slots)].add(timer);
+                size++;
+                return true;
+            }
+        }
+        throw new IllegalArgumentException("Timer is beyond the wheel's horizon");
+    }
+
+    private List<Timer<T>> take(int level, long bucketIndex) {
+        int slot = (int) (bucketIndex % slots);
+        List<Timer<T>> bucket = buckets[level][slot];
+        if (bucket.isEmpty()) {
+            return bucket;
+        }
+        buckets[level][slot] = new ArrayList<>();
+        size -= bucket.size();
+        return bucket;
+    }
+}
@@ -0,0 +1,77 @@
+package db.migration;
+
+import com.example.calendar.model.Event;
+import com.example.calendar.service.ReminderScheduler;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Gives every event without reminders the 10-minute reminder the web client used to schedule
+ * itself before reminders moved to the server (V9), so existing events do not go silent.
+ * next_fire_at is computed the way the reminder scheduler computes it.
+ */
+public class V11__backfill_event_reminders extends BaseJavaMigration {
+
+    static final int LEGACY_REMINDER_MINUTES = 10;
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+        LocalDateTime now = LocalDateTime.now();
+
+        try (Statement select = connection.createStatement();
+             ResultSet rs = select.executeQuery(
+                     "SELECT e.id, e.start_date_time, e.end_date_time, e.recurrence_rule, "
+                             + "e.recurrence_end_date, e.recurrence_count, e.parent_event_id FROM events e "
+                             + "WHERE NOT EXISTS (SELECT 1 FROM event_reminders r WHERE r.event_id = e.id)");
+             PreparedStatement exclusions = connection.prepareStatement(
+                     "SELECT excluded_start_date_time FROM event_exclusions WHERE event_id = ?");
+             PreparedStatement insert = connection.prepareStatement(
+                     "INSERT INTO event_reminders (event_id, minutes_before, next_fire_at) VALUES (?, ?, ?)")) {
+            while (rs.next()) {
+                Event event = Event.builder()
+                        .id(rs.getLong(1))
+                        .startDateTime(rs.getTimestamp(2).toLocalDateTime())
+                        .endDateTime(rs.getTimestamp(3).toLocalDateTime())
+                        // Instance overrides are single events even if a rule was left on the row
+                        .recurrenceRule(rs.getObject(7) == null ? rs.getString(4) : null)
+                        .recurrenceEndDate(toLocalDateTime(rs.getTimestamp(5)))
+                        .recurrenceCount((Integer) rs.getObject(6))
+                        .build();
+                if (event.getRecurrenceRule() != null && !event.getRecurrenceRule().isEmpty()) {
+                    exclusions.setLong(1, event.getId());
+                    try (ResultSet excluded = exclusions.executeQuery()) {
+                        while (excluded.next()) {
+                            event.addExcludedDate(excluded.getTimestamp(1).toLocalDateTime());
+                        }
+                    }
+                }
+
+                LocalDateTime next;
+                try {
+                    next = ReminderScheduler.nextTrigger(event, LEGACY_REMINDER_MINUTES, now);
+                } catch (IllegalArgumentException e) {
+                    // A rule the server cannot expand never produced occurrences to remind of
+                    next = null;
+                }
+                insert.setLong(1, event.getId());
+                insert.setInt(2, LEGACY_REMINDER_MINUTES);
+                insert.setTimestamp(3, next != null ? Timestamp.valueOf(next) : null);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
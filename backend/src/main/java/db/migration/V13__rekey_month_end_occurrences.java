@@ -0,0 +1,172 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Monthly series used to step from one occurrence to the next, so a series starting on the 29th to
+ * 31st drifted to an earlier day after the first short month (Jan 31, Feb 29, Mar 29, ...). Occurrences
+ * are now computed from the series start (Jan 31, Feb 29, Mar 31, ...), so exclusions and instance
+ * overrides recorded under a drifted start time are moved to the start time of the same occurrence,
+ * and the series is logged as changed so delta-sync clients fetch it again.
+ *
+ * Rules with BY parts are left alone: they are expanded by day sets rather than steps, so their
+ * occurrences did not just shift. Rows already keyed by the new start times are left as they are.
+ */
+public class V13__rekey_month_end_occurrences extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+        long now = System.currentTimeMillis();
+
+        try (Statement select = connection.createStatement();
+             ResultSet rs = select.executeQuery(
+                     "SELECT id, user_id, start_date_time, recurrence_rule FROM events "
+                             + "WHERE parent_event_id IS NULL AND EXTRACT(DAY FROM start_date_time) >= 29");
+             PreparedStatement exclusions = connection.prepareStatement(
+                     "SELECT excluded_start_date_time FROM event_exclusions WHERE event_id = ?");
+             PreparedStatement moveExclusion = connection.prepareStatement(
+                     "UPDATE event_exclusions SET excluded_start_date_time = ? "
+                             + "WHERE event_id = ? AND excluded_start_date_time = ?");
+             PreparedStatement dropExclusion = connection.prepareStatement(
+                     "DELETE FROM event_exclusions WHERE event_id = ? AND excluded_start_date_time = ?");
+             PreparedStatement overrides = connection.prepareStatement(
+                     "SELECT id, original_start_date_time FROM events "
+                             + "WHERE parent_event_id = ? AND original_start_date_time IS NOT NULL");
+             PreparedStatement moveOverride = connection.prepareStatement(
+                     "UPDATE events SET original_start_date_time = ? WHERE id = ?");
+             PreparedStatement bumpVersion = connection.prepareStatement(
+                     "UPDATE users SET calendar_version = calendar_version + 1 WHERE id = ?");
+             PreparedStatement readVersion = connection.prepareStatement(
+                     "SELECT calendar_version FROM users WHERE id = ?");
+             PreparedStatement logChange = connection.prepareStatement(
+                     "INSERT INTO event_changes (user_id, version, event_id, deleted, changed_at) "
+                             + "VALUES (?, ?, ?, FALSE, ?)")) {
+            while (rs.next()) {
+                long masterId = rs.getLong(1);
+                long userId = rs.getLong(2);
+                LocalDateTime seriesStart = rs.getTimestamp(3).toLocalDateTime();
+                int interval = monthlyInterval(rs.getString(4));
+                if (interval == 0) {
+                    continue;
+                }
+
+                boolean changed = false;
+                Set<LocalDateTime> excluded = new HashSet<>();
+                exclusions.setLong(1, masterId);
+                try (ResultSet excludedRows = exclusions.executeQuery()) {
+                    while (excludedRows.next()) {
+                        excluded.add(excludedRows.getTimestamp(1).toLocalDateTime());
+                    }
+                }
+                for (LocalDateTime drifted : excluded) {
+                    LocalDateTime rekeyed = rekey(seriesStart, interval, drifted);
+                    if (rekeyed == null) {
+                        continue;
+                    }
+                    if (excluded.contains(rekeyed)) {
+                        // Excluded again under its new start time after the change
+                        dropExclusion.setLong(1, masterId);
+                        dropExclusion.setTimestamp(2, Timestamp.valueOf(drifted));
+                        dropExclusion.executeUpdate();
+                    } else {
+                        moveExclusion.setTimestamp(1, Timestamp.valueOf(rekeyed));
+                        moveExclusion.setLong(2, masterId);
+                        moveExclusion.setTimestamp(3, Timestamp.valueOf(drifted));
+                        moveExclusion.executeUpdate();
+                    }
+                    changed = true;
+                }
+
+                overrides.setLong(1, masterId);
+                try (ResultSet overrideRows = overrides.executeQuery()) {
+                    while (overrideRows.next()) {
+                        LocalDateTime rekeyed = rekey(seriesStart, interval,
+                                overrideRows.getTimestamp(2).toLocalDateTime());
+                        if (rekeyed != null) {
+                            moveOverride.setTimestamp(1, Timestamp.valueOf(rekeyed));
+                            moveOverride.setLong(2, overrideRows.getLong(1));
+                            moveOverride.executeUpdate();
+                            changed = true;
+                        }
+                    }
+                }
+
+                if (changed) {
+                    bumpVersion.setLong(1, userId);
+                    bumpVersion.executeUpdate();
+                    readVersion.setLong(1, userId);
+                    try (ResultSet version = readVersion.executeQuery()) {
+                        version.next();
+                        logChange.setLong(1, userId);
+                        logChange.setLong(2, version.getLong(1));
+                        logChange.setLong(3, masterId);
+                        logChange.setLong(4, now);
+                        logChange.executeUpdate();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * INTERVAL of a plain FREQ=MONTHLY rule, or 0 for any other rule
+     */
+    static int monthlyInterval(String rrule) {
+        if (rrule == null) {
+            return 0;
+        }
+        boolean monthly = false;
+        int interval = 1;
+        for (String part : rrule.split(";")) {
+            String[] keyValue = part.split("=");
+            if (keyValue.length != 2) {
+                continue;
+            }
+            String key = keyValue[0].trim();
+            String value = keyValue[1].trim();
+            if (key.equals("FREQ")) {
+                monthly = value.equals("MONTHLY");
+            } else if (key.equals("INTERVAL")) {
+                try {
+                    interval = Math.max(1, Integer.parseInt(value));
+                } catch (NumberFormatException e) {
+                    interval = 1;
+                }
+            } else if (key.startsWith("BY")) {
+                return 0;
+            }
+        }
+        return monthly ? interval : 0;
+    }
+
+    /**
+     * Start time the series start now gives the occurrence that stepping had put at the given
+     * time, or null if stepping never produced it or both agree
+     */
+    static LocalDateTime rekey(LocalDateTime seriesStart, int interval, LocalDateTime drifted) {
+        long months = ChronoUnit.MONTHS.between(YearMonth.from(seriesStart), YearMonth.from(drifted));
+        if (months <= 0 || months % interval != 0) {
+            return null;
+        }
+        LocalDateTime stepped = seriesStart;
+        for (long step = 0; step < months / interval; step++) {
+            stepped = stepped.plusMonths(interval);
+        }
+        LocalDateTime rekeyed = seriesStart.plusMonths(months);
+        return drifted.equals(stepped) && !drifted.equals(rekeyed) ? rekeyed : null;
+    }
+}
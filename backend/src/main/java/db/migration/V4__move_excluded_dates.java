@@ -0,0 +1,59 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Moves the comma-separated events.excluded_dates values into event_exclusions and drops the column.
+ * Entries that are not ISO date-times could never match an occurrence and are dropped.
+ */
+public class V4__move_excluded_dates extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+
+        try (Statement select = connection.createStatement();
+             ResultSet rs = select.executeQuery(
+                     "SELECT id, excluded_dates FROM events WHERE excluded_dates IS NOT NULL");
+             PreparedStatement insert = connection.prepareStatement(
+                     "INSERT INTO event_exclusions (event_id, excluded_start_date_time) VALUES (?, ?)")) {
+            while (rs.next()) {
+                long eventId = rs.getLong(1);
+                for (LocalDateTime excluded : parse(rs.getString(2))) {
+                    insert.setLong(1, eventId);
+                    insert.setTimestamp(2, Timestamp.valueOf(excluded));
+                    insert.addBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+
+        try (Statement drop = connection.createStatement()) {
+            drop.execute("ALTER TABLE events DROP COLUMN excluded_dates");
+        }
+    }
+
+    private static Set<LocalDateTime> parse(String excludedDates) {
+        Set<LocalDateTime> result = new LinkedHashSet<>();
+        for (String value : excludedDates.split(",")) {
+            try {
+                result.add(LocalDateTime.parse(value.trim()));
+            } catch (DateTimeParseException e) {
+                // Not an occurrence start (e.g. a bare date); it never excluded anything
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,9 @@
+-- Logouts of signed tokens (calendar.auth.token-mode=signed), shared by all nodes.
+-- A row is kept until the token would have expired anyway; expiry is epoch milliseconds.
+CREATE TABLE signed_token_revocations (
+  seq BIGINT AUTO_INCREMENT PRIMARY KEY,
+  token_id VARCHAR(64) NOT NULL,
+  expires_at BIGINT NOT NULL
+);
+
+CREATE INDEX idx_signed_token_revocations_expires ON signed_token_revocations (expires_at);
@@ -0,0 +1,5 @@
+-- When each logout was recorded, epoch milliseconds. Nodes re-read recent rows on every poll,
+-- because a row can commit after one with a higher sequence was already read.
+ALTER TABLE signed_token_revocations ADD COLUMN revoked_at BIGINT NOT NULL DEFAULT 0;
+
+CREATE INDEX idx_signed_token_revocations_revoked ON signed_token_revocations (revoked_at);
@@ -0,0 +1,22 @@
+-- Latest end of any occurrence of an event: the event's own end for one-off events and
+-- instance overrides, the last occurrence's end for bounded series, NULL for open-ended series.
+-- Maintained by EventService; lets range queries prune recurring masters through an index.
+ALTER TABLE events ADD COLUMN series_end_date_time TIMESTAMP;
+
+UPDATE events
+SET series_end_date_time = end_date_time
+WHERE recurrence_rule IS NULL OR recurrence_rule = '' OR parent_event_id IS NOT NULL;
+
+-- Upper bound for series with an end date; count-limited series stay open-ended
+-- until they are next saved, at which point the exact value is computed
+UPDATE events
+SET series_end_date_time = DATEADD(SECOND, DATEDIFF(SECOND, start_date_time, end_date_time), recurrence_end_date)
+WHERE parent_event_id IS NULL
+  AND recurrence_rule <> ''
+  AND recurrence_end_date IS NOT NULL;
+
+CREATE INDEX idx_events_user_start ON events (user_id, start_date_time);
+CREATE INDEX idx_events_user_end ON events (user_id, end_date_time);
+CREATE INDEX idx_events_user_series_end ON events (user_id, series_end_date_time);
+CREATE INDEX idx_events_parent ON events (parent_event_id);
+CREATE INDEX idx_event_tags_tag ON event_tags (tag_id, event_id);
@@ -0,0 +1,8 @@
+-- Start times of occurrences removed from a recurring series, one row per exclusion.
+-- Replaces the comma-separated events.excluded_dates column (data moved and column dropped in V4).
+CREATE TABLE event_exclusions (
+  event_id BIGINT NOT NULL,
+  excluded_start_date_time TIMESTAMP NOT NULL,
+  PRIMARY KEY (event_id, excluded_start_date_time),
+  FOREIGN KEY (event_id) REFERENCES events(id)
+);
@@ -0,0 +1,16 @@
+-- Materialized occurrences of recurring masters up to a rolling horizon.
+-- Only populated when calendar.occurrences.materialized is enabled; rebuilt on startup.
+CREATE TABLE occurrences (
+  occurrence_key BIGINT PRIMARY KEY,
+  user_id BIGINT NOT NULL,
+  master_event_id BIGINT NOT NULL,
+  start_date_time TIMESTAMP NOT NULL,
+  end_date_time TIMESTAMP NOT NULL,
+  FOREIGN KEY (user_id) REFERENCES users(id),
+  FOREIGN KEY (master_event_id) REFERENCES events(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_occurrences_user_start ON occurrences (user_id, start_date_time);
+CREATE INDEX idx_occurrences_user_end ON occurrences (user_id, end_date_time);
+CREATE INDEX idx_occurrences_master ON occurrences (master_event_id);
+CREATE INDEX idx_occurrences_start ON occurrences (start_date_time);
@@ -0,0 +1,20 @@
+-- Server-side bearer tokens shared by all nodes (calendar.auth.token-mode=persistent).
+-- Tokens are stored as SHA-256 hashes; expiry times are epoch milliseconds.
+CREATE TABLE auth_tokens (
+  token_hash VARCHAR(64) PRIMARY KEY,
+  user_id BIGINT,
+  email VARCHAR(255) NOT NULL,
+  expires_at BIGINT NOT NULL,
+  FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_auth_tokens_expires ON auth_tokens (expires_at);
+
+-- Logouts in sequence order; nodes poll past the last sequence they saw to drop cached tokens
+CREATE TABLE auth_token_revocations (
+  seq BIGINT AUTO_INCREMENT PRIMARY KEY,
+  token_hash VARCHAR(64) NOT NULL,
+  revoked_at BIGINT NOT NULL
+);
+
+CREATE INDEX idx_auth_token_revocations_revoked ON auth_token_revocations (revoked_at);
@@ -0,0 +1,3 @@
+-- Bumped in the same transaction as every change to a user's events or tags, so a read that saw
+-- version n can be revalidated by comparing versions alone.
+ALTER TABLE users ADD COLUMN calendar_version BIGINT DEFAULT 0 NOT NULL;
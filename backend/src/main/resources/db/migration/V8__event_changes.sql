@@ -0,0 +1,18 @@
+-- Change log behind delta sync: one row per event created, updated or deleted, at the calendar
+-- version of the transaction that changed it. Old rows are compacted away; change_log_floor is
+-- the highest version whose rows may be gone, and sync tokens older than it get a full resync.
+CREATE TABLE event_changes (
+  id BIGINT AUTO_INCREMENT PRIMARY KEY,
+  user_id BIGINT NOT NULL,
+  version BIGINT NOT NULL,
+  event_id BIGINT NOT NULL,
+  deleted BOOLEAN NOT NULL,
+  changed_at BIGINT NOT NULL,
+  FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_event_changes_user_version ON event_changes (user_id, version);
+CREATE INDEX idx_event_changes_user_event ON event_changes (user_id, event_id, version);
+CREATE INDEX idx_event_changes_changed ON event_changes (changed_at);
+
+ALTER TABLE users ADD COLUMN change_log_floor BIGINT DEFAULT 0 NOT NULL;
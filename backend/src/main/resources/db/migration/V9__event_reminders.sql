@@ -0,0 +1,13 @@
+-- Reminders of an event, each a number of minutes before its start (before every occurrence of a
+-- recurring series). next_fire_at is the next trigger time not yet fired, null once there is none;
+-- the reminder scheduler reads the next horizon of due rows by range scans of its index.
+CREATE TABLE event_reminders (
+  id BIGINT AUTO_INCREMENT PRIMARY KEY,
+  event_id BIGINT NOT NULL,
+  minutes_before INT NOT NULL,
+  next_fire_at TIMESTAMP,
+  FOREIGN KEY (event_id) REFERENCES events(id) ON DELETE CASCADE,
+  UNIQUE (event_id, minutes_before)
+);
+
+CREATE INDEX idx_event_reminders_next_fire ON event_reminders (next_fire_at);
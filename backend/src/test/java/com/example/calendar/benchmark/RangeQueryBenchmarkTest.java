@@ -0,0 +1,265 @@
+package com.example.calendar.benchmark;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationVersion;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Query plans and latencies of the hot event queries on the initial schema (V1) and on the
+ * latest migration. Both databases get the same seeded data; the latest one is upgraded from V1
+ * so the migration's backfill runs too.
+ *
+ * Not part of the regular test run: ./gradlew benchmark
+ */
+@Tag("benchmark")
+class RangeQueryBenchmarkTest {
+
+    private static final int USERS = 20;
+    private static final int EVENTS_PER_USER = 5000;
+    private static final int TAGS_PER_USER = 5;
+    private static final long SEED = 42L;
+    private static final int WARMUP_ITERATIONS = 200;
+    private static final int MEASURED_ITERATIONS = 200;
+
+    private static final LocalDateTime HISTORY_START = LocalDateTime.of(2019, 1, 1, 0, 0);
+    private static final LocalDateTime RANGE_START = LocalDateTime.of(2024, 3, 1, 0, 0);
+    private static final LocalDateTime RANGE_END = LocalDateTime.of(2024, 4, 1, 0, 0);
+
+    private static final String LIST_SQL =
+            "SELECT * FROM events WHERE user_id = ? ORDER BY start_date_time";
+
+    private static final String RANGE_SQL_V1 =
+            "SELECT * FROM events WHERE user_id = ? AND start_date_time < ? AND ("
+                    + "((recurrence_rule IS NULL OR recurrence_rule = '' OR parent_event_id IS NOT NULL) "
+                    + "AND end_date_time > ?) "
+                    + "OR (parent_event_id IS NULL AND recurrence_rule <> '' AND (recurrence_end_date IS NULL "
+                    + "OR DATEADD(SECOND, DATEDIFF(SECOND, start_date_time, end_date_time), recurrence_end_date) > ?))"
+                    + ") ORDER BY start_date_time";
+
+    private static final String RANGE_SQL =
+            "SELECT * FROM events WHERE user_id = ? AND start_date_time < ? "
+                    + "AND (series_end_date_time IS NULL OR series_end_date_time > ?) ORDER BY start_date_time";
+
+    private static final String TAG_SQL =
+            "SELECT DISTINCT e.* FROM events e JOIN event_tags t ON t.event_id = e.id "
+                    + "WHERE e.user_id = ? AND e.start_date_time BETWEEN ? AND ? AND t.tag_id = ? "
+                    + "ORDER BY e.start_date_time";
+
+    private static final String CHILDREN_SQL =
+            "SELECT * FROM events WHERE parent_event_id = ?";
+
+    @Test
+    void compareQueryPlansAndLatencies() throws SQLException {
+        Map<String, Result> before = run("bench_v1", false);
+        Map<String, Result> after = run("bench_latest", true);
+
+        System.out.println("=== Event query benchmark: " + USERS + " users x " + EVENTS_PER_USER + " events ===");
+        for (String query : after.keySet()) {
+            Result b = before.get(query);
+            Result a = after.get(query);
+            System.out.printf("%n[%s] rows=%d%n", query, a.rows);
+            System.out.printf("  V1     %8.1f us  %s%n", b.micros, b.plan);
+            System.out.printf("  latest %8.1f us  %s%n", a.micros, a.plan);
+        }
+
+        // The range and tag queries seek on (user_id, start_date_time) instead of filtering all of the user's rows
+        assertThat(after.get("range").plan).contains("USER_ID = ?1 AND START_DATE_TIME < ?2 */");
+        assertThat(after.get("tag").plan).contains("USER_ID = ?1 AND START_DATE_TIME >= ?2");
+        assertThat(before.get("range").plan).doesNotContain("START_DATE_TIME < ?2 */");
+        assertThat(after.get("range").rows).isEqualTo(before.get("range").rows);
+        assertThat(after.get("range").rows).isLessThan(after.get("list").rows);
+    }
+
+    private Map<String, Result> run(String database, boolean upgrade) throws SQLException {
+        String url = "jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1";
+        migrate(url, MigrationVersion.fromVersion("1"));
+
+        try (Connection connection = DriverManager.getConnection(url, "sa", "")) {
+            long[] ids = seed(connection);
+            if (upgrade) {
+                migrate(url, MigrationVersion.LATEST);
+            }
+
+            long userId = ids[0];
+            long tagId = ids[1];
+            long parentId = ids[2];
+            Timestamp start = Timestamp.valueOf(RANGE_START);
+            Timestamp end = Timestamp.valueOf(RANGE_END);
+
+            Map<String, Result> results = new LinkedHashMap<>();
+            results.put("list", measure(connection, LIST_SQL, List.of(userId)));
+            results.put("range", upgrade
+                    ? measure(connection, RANGE_SQL, List.of(userId, end, start))
+                    : measure(connection, RANGE_SQL_V1, List.of(userId, end, start, start)));
+            results.put("tag", measure(connection, TAG_SQL, List.of(userId, start, end, tagId)));
+            results.put("children", measure(connection, CHILDREN_SQL, List.of(parentId)));
+
+            try (PreparedStatement drop = connection.prepareStatement("DROP ALL OBJECTS")) {
+                drop.execute();
+            }
+            return results;
+        }
+    }
+
+    private void migrate(String url, MigrationVersion target) {
+        Flyway.configure()
+                .dataSource(url, "sa", "")
+                .locations("classpath:db/migration")
+                .target(target)
+                .load()
+                .migrate();
+    }
+
+    /**
+     * Seeds users, tags and a mix of one-off events, recurring series and overrides spread over
+     * six years. Returns the IDs of a user, one of its tags and one of its series with overrides.
+     */
+    private long[] seed(Connection connection) throws SQLException {
+        Random random = new Random(SEED);
+        long firstUserId = 0;
+        long firstTagId = 0;
+        long firstParentId = 0;
+
+        try (PreparedStatement user = connection.prepareStatement(
+                "INSERT INTO users (email, password_hash) VALUES (?, 'x')", new String[] {"id"});
+             PreparedStatement tag = connection.prepareStatement(
+                "INSERT INTO tags (user_id, name) VALUES (?, ?)", new String[] {"id"});
+             PreparedStatement event = connection.prepareStatement(
+                "INSERT INTO events (user_id, title, start_date_time, end_date_time, recurrence_rule, "
+                        + "recurrence_end_date, recurrence_count, parent_event_id, original_start_date_time) "
+                        + "VALUES (?, 'Event', ?, ?, ?, ?, ?, ?, ?)", new String[] {"id"});
+             PreparedStatement eventTag = connection.prepareStatement(
+                "INSERT INTO event_tags (event_id, tag_id) VALUES (?, ?)")) {
+
+            for (int u = 0; u < USERS; u++) {
+                user.setString(1, "user" + u + "@example.com");
+                user.executeUpdate();
+                long userId = generatedId(user);
+
+                long[] tagIds = new long[TAGS_PER_USER];
+                for (int t = 0; t < TAGS_PER_USER; t++) {
+                    tag.setLong(1, userId);
+                    tag.setString(2, "tag" + t);
+                    tag.executeUpdate();
+                    tagIds[t] = generatedId(tag);
+                }
+
+                long lastSeriesId = 0;
+                for (int e = 0; e < EVENTS_PER_USER; e++) {
+                    LocalDateTime start = HISTORY_START
+                            .plusDays(random.nextInt(6 * 365))
+                            .plusHours(random.nextInt(24));
+                    LocalDateTime end = start.plusMinutes(30 + random.nextInt(120));
+                    int kind = random.nextInt(100);
+
+                    event.setLong(1, userId);
+                    event.setTimestamp(2, Timestamp.valueOf(start));
+                    event.setTimestamp(3, Timestamp.valueOf(end));
+                    event.setObject(4, null);
+                    event.setObject(5, null);
+                    event.setObject(6, null);
+                    event.setObject(7, null);
+                    event.setObject(8, null);
+                    if (kind < 10) {
+                        event.setString(4, random.nextBoolean() ? "FREQ=WEEKLY" : "FREQ=DAILY");
+                        if (kind < 5) {
+                            event.setTimestamp(5, Timestamp.valueOf(start.plusMonths(1 + random.nextInt(12))));
+                        }
+                    } else if (kind < 13 && lastSeriesId != 0) {
+                        event.setLong(7, lastSeriesId);
+                        event.setTimestamp(8, Timestamp.valueOf(start));
+                    }
+                    event.executeUpdate();
+                    long eventId = generatedId(event);
+
+                    if (kind < 10) {
+                        lastSeriesId = eventId;
+                    } else if (kind < 13 && lastSeriesId != 0 && firstParentId == 0) {
+                        firstParentId = lastSeriesId;
+                    }
+                    if (random.nextInt(3) == 0) {
+                        eventTag.setLong(1, eventId);
+                        eventTag.setLong(2, tagIds[random.nextInt(TAGS_PER_USER)]);
+                        eventTag.executeUpdate();
+                    }
+                }
+
+                if (u == 0) {
+                    firstUserId = userId;
+                    firstTagId = tagIds[0];
+                }
+            }
+        }
+        return new long[] {firstUserId, firstTagId, firstParentId};
+    }
+
+    private long generatedId(PreparedStatement statement) throws SQLException {
+        try (ResultSet keys = statement.getGeneratedKeys()) {
+            keys.next();
+            return keys.getLong(1);
+        }
+    }
+
+    private Result measure(Connection connection, String sql, List<Object> params) throws SQLException {
+        String plan;
+        try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + sql)) {
+            bind(explain, params);
+            try (ResultSet rs = explain.executeQuery()) {
+                rs.next();
+                plan = rs.getString(1).replaceAll("\\s+", " ");
+            }
+        }
+
+        int rows = 0;
+        long elapsed = 0;
+        try (PreparedStatement query = connection.prepareStatement(sql)) {
+            bind(query, params);
+            for (int i = 0; i < WARMUP_ITERATIONS + MEASURED_ITERATIONS; i++) {
+                long startNanos = System.nanoTime();
+                rows = 0;
+                try (ResultSet rs = query.executeQuery()) {
+                    while (rs.next()) {
+                        rows++;
+                    }
+                }
+                if (i >= WARMUP_ITERATIONS) {
+                    elapsed += System.nanoTime() - startNanos;
+                }
+            }
+        }
+        return new Result(plan, rows, elapsed / 1000.0 / MEASURED_ITERATIONS);
+    }
+
+    private void bind(PreparedStatement statement, List<Object> params) throws SQLException {
+        for (int i = 0; i < params.size(); i++) {
+            statement.setObject(i + 1, params.get(i));
+        }
+    }
+
+    private static final class Result {
+        private final String plan;
+        private final int rows;
+        private final double micros;
+
+        Result(String plan, int rows, double micros) {
+            this.plan = plan;
+            this.rows = rows;
+            this.micros = micros;
+        }
+    }
+}
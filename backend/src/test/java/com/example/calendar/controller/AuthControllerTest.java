@@ -6,23 +6,32 @@ import com.example.calendar.dto.LoginResponse;
 import com.example.calendar.dto.RegisterDTO;
 import com.example.calendar.model.User;
 import com.example.calendar.repository.UserRepository;
+import com.example.calendar.security.PasswordHasher;
 import com.example.calendar.security.TokenStore;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.http.MediaType;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.security.Principal;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
@@ -41,7 +50,6 @@ class AuthControllerTest {
     @Mock
     private TokenStore tokenStore;
 
-    @InjectMocks
     private AuthController authController;
 
     private MockMvc mockMvc;
@@ -49,6 +57,9 @@ class AuthControllerTest {
 
     @BeforeEach
     void setUp() {
+        // Hash and continue on the test thread
+        authController = new AuthController(userRepository, tokenStore, new PasswordHasher(passwordEncoder, Runnable::run),
+                Runnable::run);
         mockMvc = MockMvcBuilders.standaloneSetup(authController).build();
         objectMapper = new ObjectMapper();
     }
@@ -65,7 +76,7 @@ class AuthControllerTest {
         when(userRepository.save(any(User.class))).thenReturn(new User());
 
         // When & Then
-        mockMvc.perform(post("/api/auth/register")
+        performAsync(post("/api/auth/register")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(registerDTO)))
                 .andExpect(status().isOk())
@@ -86,7 +97,7 @@ class AuthControllerTest {
         when(userRepository.existsByEmail("test@example.com")).thenReturn(true);
 
         // When & Then
-        mockMvc.perform(post("/api/auth/register")
+        performAsync(post("/api/auth/register")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(registerDTO)))
                 .andExpect(status().isConflict())
@@ -105,16 +116,17 @@ class AuthControllerTest {
         loginDTO.setPassword("Password123");
 
         User user = User.builder()
+                .id(7L)
                 .email("test@example.com")
                 .passwordHash("encodedPassword")
                 .build();
 
         when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
         when(passwordEncoder.matches("Password123", "encodedPassword")).thenReturn(true);
-        when(tokenStore.create("test@example.com")).thenReturn("jwt-token");
+        when(tokenStore.create(7L, "test@example.com")).thenReturn("jwt-token");
 
         // When & Then
-        mockMvc.perform(post("/api/auth/login")
+        performAsync(post("/api/auth/login")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(loginDTO)))
                 .andExpect(status().isOk())
@@ -122,7 +134,84 @@ class AuthControllerTest {
 
         verify(userRepository).findByEmail("test@example.com");
         verify(passwordEncoder).matches("Password123", "encodedPassword");
-        verify(tokenStore).create("test@example.com");
+        verify(tokenStore).create(7L, "test@example.com");
+    }
+
+    @Test
+    void login_WeakerStoredHash_IsUpgraded() throws Exception {
+        // Given
+        LoginDTO loginDTO = new LoginDTO();
+        loginDTO.setEmail("test@example.com");
+        loginDTO.setPassword("Password123");
+
+        User user = User.builder()
+                .id(7L)
+                .email("test@example.com")
+                .passwordHash("oldHash")
+                .build();
+
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches("Password123", "oldHash")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("oldHash")).thenReturn(true);
+        when(passwordEncoder.encode("Password123")).thenReturn("newHash");
+        when(tokenStore.create(7L, "test@example.com")).thenReturn("jwt-token");
+
+        // When & Then
+        performAsync(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginDTO)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").value("jwt-token"));
+
+        verify(userRepository).replacePasswordHash(7L, "oldHash", "newHash");
+    }
+
+    @Test
+    void register_SavesOffTheHashingThread() {
+        // Given a completion executor that holds its tasks
+        List<Runnable> completions = new ArrayList<>();
+        AuthController controller = new AuthController(userRepository, tokenStore,
+                new PasswordHasher(passwordEncoder, Runnable::run), completions::add);
+        RegisterDTO registerDTO = new RegisterDTO();
+        registerDTO.setEmail("test@example.com");
+        registerDTO.setPassword("Password123");
+        when(userRepository.existsByEmail("test@example.com")).thenReturn(false);
+        when(passwordEncoder.encode("Password123")).thenReturn("encodedPassword");
+
+        // When
+        CompletableFuture<ResponseEntity<?>> response = controller.register(registerDTO);
+
+        // Then the hash is done, but the user is only saved once the completion executor runs
+        verify(passwordEncoder).encode("Password123");
+        verify(userRepository, never()).save(any(User.class));
+        completions.forEach(Runnable::run);
+        assertThat(response.join().getStatusCode()).isEqualTo(HttpStatus.OK);
+        verify(userRepository).save(any(User.class));
+    }
+
+    @Test
+    void login_HashingQueueFull_Returns503() throws Exception {
+        // Given
+        PasswordHasher saturated = new PasswordHasher(passwordEncoder, task -> {
+            throw new RejectedExecutionException("queue full");
+        });
+        mockMvc = MockMvcBuilders.standaloneSetup(new AuthController(userRepository, tokenStore, saturated, Runnable::run)).build();
+
+        LoginDTO loginDTO = new LoginDTO();
+        loginDTO.setEmail("test@example.com");
+        loginDTO.setPassword("Password123");
+        when(userRepository.findByEmail("test@example.com"))
+                .thenReturn(Optional.of(User.builder().id(7L).email("test@example.com").passwordHash("hash").build()));
+
+        // When & Then
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginDTO)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+
+        verify(passwordEncoder, never()).matches(anyString(), anyString());
+        verify(tokenStore, never()).create(any(), anyString());
     }
 
     @Test
@@ -135,7 +224,7 @@ class AuthControllerTest {
         when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.empty());
 
         // When & Then
-        mockMvc.perform(post("/api/auth/login")
+        performAsync(post("/api/auth/login")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(loginDTO)))
                 .andExpect(status().isUnauthorized())
@@ -143,7 +232,7 @@ class AuthControllerTest {
 
         verify(userRepository).findByEmail("test@example.com");
         verify(passwordEncoder, never()).matches(anyString(), anyString());
-        verify(tokenStore, never()).create(anyString());
+        verify(tokenStore, never()).create(any(), anyString());
     }
 
     @Test
@@ -162,7 +251,7 @@ class AuthControllerTest {
         when(passwordEncoder.matches("WrongPassword", "encodedPassword")).thenReturn(false);
 
         // When & Then
-        mockMvc.perform(post("/api/auth/login")
+        performAsync(post("/api/auth/login")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(loginDTO)))
                 .andExpect(status().isUnauthorized())
@@ -170,7 +259,7 @@ class AuthControllerTest {
 
         verify(userRepository).findByEmail("test@example.com");
         verify(passwordEncoder).matches("WrongPassword", "encodedPassword");
-        verify(tokenStore, never()).create(anyString());
+        verify(tokenStore, never()).create(any(), anyString());
     }
 
     @Test
@@ -238,7 +327,7 @@ class AuthControllerTest {
         changePasswordDTO.setNewPassword("NewPassword123");
 
         // When & Then
-        mockMvc.perform(put("/api/auth/password")
+        performAsync(put("/api/auth/password")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(changePasswordDTO)))
                 .andExpect(status().isUnauthorized())
@@ -270,7 +359,7 @@ class AuthControllerTest {
         when(userRepository.save(any(User.class))).thenReturn(user);
 
         // When & Then
-        mockMvc.perform(put("/api/auth/password")
+        performAsync(put("/api/auth/password")
                         .principal(principal)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(changePasswordDTO)))
@@ -295,7 +384,7 @@ class AuthControllerTest {
         when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.empty());
 
         // When & Then
-        mockMvc.perform(put("/api/auth/password")
+        performAsync(put("/api/auth/password")
                         .principal(principal)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(changePasswordDTO)))
@@ -326,7 +415,7 @@ class AuthControllerTest {
         when(passwordEncoder.matches("WrongOldPassword", "oldEncodedPassword")).thenReturn(false);
 
         // When & Then
-        mockMvc.perform(put("/api/auth/password")
+        performAsync(put("/api/auth/password")
                         .principal(principal)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(changePasswordDTO)))
@@ -338,4 +427,14 @@ class AuthControllerTest {
         verify(passwordEncoder, never()).encode(anyString());
         verify(userRepository, never()).save(any(User.class));
     }
+
+    /**
+     * Perform a request to an endpoint that completes asynchronously and dispatch its result
+     */
+    private ResultActions performAsync(MockHttpServletRequestBuilder builder) throws Exception {
+        MvcResult result = mockMvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result));
+    }
 }
@@ -1,15 +1,21 @@
 package com.example.calendar.controller;
 
 import com.example.calendar.dto.CreateEventDTO;
+import com.example.calendar.dto.EventChanges;
 import com.example.calendar.dto.EventDTO;
+import com.example.calendar.dto.EventPage;
+import com.example.calendar.security.AuthenticatedUser;
 import com.example.calendar.service.EventService;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.security.Principal;
@@ -17,10 +23,17 @@ import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.doAnswer;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
@@ -129,8 +142,9 @@ class EventControllerTest {
         LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
         LocalDateTime end = LocalDateTime.of(2024, 1, 31, 23, 59);
 
-        when(eventService.getEventsForUserInRange(eq("test@example.com"), any(LocalDateTime.class), any(LocalDateTime.class), any()))
-                .thenReturn(Collections.emptyList());
+        when(eventService.getEventPage(isNull(), eq("test@example.com"), any(LocalDateTime.class), any(LocalDateTime.class),
+                any(), any(), any()))
+                .thenReturn(new EventPage(Collections.emptyList(), null));
 
         // When & Then
         mockMvc.perform(get("/api/events")
@@ -142,6 +156,72 @@ class EventControllerTest {
                 .andExpect(jsonPath("$.length()").value(0));
     }
 
+    @Test
+    void getEventsInRange_SeriesLayout_ReturnsColumnarPage() throws Exception {
+        // Given
+        Principal mockPrincipal = mock(Principal.class);
+        when(mockPrincipal.getName()).thenReturn("test@example.com");
+        when(eventService.getEventPage(isNull(), eq("test@example.com"), any(LocalDateTime.class), any(LocalDateTime.class),
+                any(), any(), any()))
+                .thenReturn(new EventPage(Collections.singletonList(eventDTO), "next"));
+
+        // When & Then
+        mockMvc.perform(get("/api/events")
+                        .principal(mockPrincipal)
+                        .param("start", "2024-01-01T00:00:00")
+                        .param("end", "2024-01-31T23:59:59")
+                        .param("layout", "series"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Vary", containsString("Accept")))
+                .andExpect(jsonPath("$.userEmail").value("test@example.com"))
+                .andExpect(jsonPath("$.origin").value("2024-01-15T10:00:00"))
+                .andExpect(jsonPath("$.series[0].id").value(1))
+                .andExpect(jsonPath("$.series[0].durationSeconds").value(7200))
+                .andExpect(jsonPath("$.series[0].startOffsets[0]").value(0))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
+
+    @Test
+    void getEventsInRange_AcceptCbor_ReturnsCborBody() throws Exception {
+        // Given
+        Principal mockPrincipal = mock(Principal.class);
+        when(mockPrincipal.getName()).thenReturn("test@example.com");
+        when(eventService.getEventPage(isNull(), eq("test@example.com"), any(LocalDateTime.class), any(LocalDateTime.class),
+                any(), any(), any()))
+                .thenReturn(new EventPage(Collections.singletonList(eventDTO), null));
+
+        // When
+        byte[] body = mockMvc.perform(get("/api/events")
+                        .principal(mockPrincipal)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .param("start", "2024-01-01T00:00:00")
+                        .param("end", "2024-01-31T23:59:59"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Then
+        JsonNode events = new CBORMapper().readTree(body);
+        assertThat(events.get(0).get("title").asText()).isEqualTo("Test Event");
+        assertThat(events.get(0).get("startDateTime").asText()).isEqualTo("2024-01-15T10:00:00");
+    }
+
+    @Test
+    void getEventsInRange_UnknownLayout_Returns400() throws Exception {
+        // Given
+        Principal mockPrincipal = mock(Principal.class);
+        when(mockPrincipal.getName()).thenReturn("test@example.com");
+
+        // When & Then
+        mockMvc.perform(get("/api/events")
+                        .principal(mockPrincipal)
+                        .param("start", "2024-01-01T00:00:00")
+                        .param("end", "2024-01-31T23:59:59")
+                        .param("layout", "grid"))
+                .andExpect(status().isBadRequest());
+        verify(eventService, never()).getEventPage(any(), anyString(), any(), any(), any(), any(), any());
+    }
+
     @Test
     void getEventsInRange_Success_OneEvent_ReturnsOneEvent() throws Exception {
         // Given
@@ -149,8 +229,9 @@ class EventControllerTest {
         when(mockPrincipal.getName()).thenReturn("test@example.com");
         List<EventDTO> events = Collections.singletonList(eventDTO);
 
-        when(eventService.getEventsForUserInRange(eq("test@example.com"), any(LocalDateTime.class), any(LocalDateTime.class), any()))
-                .thenReturn(events);
+        when(eventService.getEventPage(isNull(), eq("test@example.com"), any(LocalDateTime.class), any(LocalDateTime.class),
+                any(), any(), any()))
+                .thenReturn(new EventPage(events, null));
 
         // When & Then
         mockMvc.perform(get("/api/events")
@@ -189,8 +270,9 @@ class EventControllerTest {
 
         List<EventDTO> events = Arrays.asList(eventDTO, event2, event3);
 
-        when(eventService.getEventsForUserInRange(eq("test@example.com"), any(LocalDateTime.class), any(LocalDateTime.class), any()))
-                .thenReturn(events);
+        when(eventService.getEventPage(isNull(), eq("test@example.com"), any(LocalDateTime.class), any(LocalDateTime.class),
+                any(), any(), any()))
+                .thenReturn(new EventPage(events, null));
 
         // When & Then
         mockMvc.perform(get("/api/events")
@@ -205,6 +287,282 @@ class EventControllerTest {
                 .andExpect(jsonPath("$[2].title").value("Third Event"));
     }
 
+    @Test
+    void getEventsInRange_AuthenticatedUser_PassesUserId() throws Exception {
+        // Given
+        AuthenticatedUser user = new AuthenticatedUser(1L, "test@example.com");
+        when(eventService.getEventPage(eq(1L), eq("test@example.com"),
+                any(LocalDateTime.class), any(LocalDateTime.class), any(), any(), any()))
+                .thenReturn(new EventPage(Collections.singletonList(eventDTO), null));
+
+        // When & Then
+        mockMvc.perform(get("/api/events")
+                        .principal(user)
+                        .param("start", "2024-01-01T00:00:00")
+                        .param("end", "2024-01-31T23:59:59"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+        verify(eventService, never()).getEventPage(isNull(), anyString(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void getEventsInRange_MoreEventsFollow_ReturnsNextCursorHeader() throws Exception {
+        // Given
+        Principal mockPrincipal = mock(Principal.class);
+        when(mockPrincipal.getName()).thenReturn("test@example.com");
+        when(eventService.getEventPage(isNull(), eq("test@example.com"), any(LocalDateTime.class),
+                any(LocalDateTime.class), isNull(), eq("previous-cursor"), eq(1)))
+                .thenReturn(new EventPage(Collections.singletonList(eventDTO), "next-cursor"));
+
+        // When & Then
+        mockMvc.perform(get("/api/events")
+                        .principal(mockPrincipal)
+                        .param("start", "2024-01-01T00:00:00")
+                        .param("end", "2024-01-31T23:59:59")
+                        .param("cursor", "previous-cursor")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "next-cursor"))
+                .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    void getEventsInRange_LastPage_OmitsNextCursorHeader() throws Exception {
+        // Given
+        Principal mockPrincipal = mock(Principal.class);
+        when(mockPrincipal.getName()).thenReturn("test@example.com");
+        when(eventService.getEventPage(isNull(), eq("test@example.com"), any(LocalDateTime.class),
+                any(LocalDateTime.class), any(), any(), any()))
+                .thenReturn(new EventPage(Collections.singletonList(eventDTO), null));
+
+        // When & Then
+        mockMvc.perform(get("/api/events")
+                        .principal(mockPrincipal)
+                        .param("start", "2024-01-01T00:00:00")
+                        .param("end", "2024-01-31T23:59:59"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @Test
+    void streamEventsInRange_NdjsonAccepted_WritesOneEventPerLine() throws Exception {
+        // Given
+        Principal mockPrincipal = mock(Principal.class);
+        when(mockPrincipal.getName()).thenReturn("test@example.com");
+        EventDTO second = EventDTO.builder().id(2L).title("Second Event").build();
+        doAnswer(invocation -> {
+            Consumer<EventDTO> sink = invocation.getArgument(5);
+            sink.accept(eventDTO);
+            sink.accept(second);
+            return null;
+        }).when(eventService).streamEventsInRange(isNull(), eq("test@example.com"), any(LocalDateTime.class),
+                any(LocalDateTime.class), any(), any());
+
+        // When
+        String body = mockMvc.perform(get("/api/events")
+                        .principal(mockPrincipal)
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .param("start", "2024-01-01T00:00:00")
+                        .param("end", "2024-12-31T23:59:59"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        // Then
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readValue(lines[0], EventDTO.class).getTitle()).isEqualTo("Test Event");
+        assertThat(objectMapper.readValue(lines[1], EventDTO.class).getTitle()).isEqualTo("Second Event");
+        verify(eventService, never()).getEventPage(any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void streamEventsInRange_InvalidRange_Returns400() throws Exception {
+        // Given
+        Principal mockPrincipal = mock(Principal.class);
+        when(mockPrincipal.getName()).thenReturn("test@example.com");
+        doThrow(new IllegalArgumentException("Date range must not exceed 3660 days"))
+                .when(eventService).streamEventsInRange(isNull(), eq("test@example.com"), any(LocalDateTime.class),
+                        any(LocalDateTime.class), any(), any());
+
+        // When & Then
+        mockMvc.perform(get("/api/events")
+                        .principal(mockPrincipal)
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .param("start", "2000-01-01T00:00:00")
+                        .param("end", "2050-01-01T00:00:00"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Date range must not exceed 3660 days"));
+    }
+
+    @Test
+    void getUpcomingEvents_Success_ReturnsNextEvents() throws Exception {
+        // Given
+        AuthenticatedUser user = new AuthenticatedUser(1L, "test@example.com");
+        LocalDateTime from = LocalDateTime.of(2024, 1, 15, 8, 0);
+        when(eventService.getUpcomingEvents(1L, "test@example.com", from, 5))
+                .thenReturn(Collections.singletonList(eventDTO));
+
+        // When & Then
+        mockMvc.perform(get("/api/events/upcoming")
+                        .principal(user)
+                        .param("from", "2024-01-15T08:00:00")
+                        .param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].title").value("Test Event"));
+    }
+
+    @Test
+    void getUpcomingEvents_DefaultsToTenFromNow() throws Exception {
+        // Given
+        Principal mockPrincipal = mock(Principal.class);
+        when(mockPrincipal.getName()).thenReturn("test@example.com");
+        when(eventService.getUpcomingEvents(isNull(), eq("test@example.com"), any(LocalDateTime.class), eq(10)))
+                .thenReturn(Collections.emptyList());
+
+        // When & Then
+        mockMvc.perform(get("/api/events/upcoming").principal(mockPrincipal))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    void getUpcomingEvents_Unauthorized_NoPrincipal_Returns401() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/events/upcoming"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(content().string("User not authenticated"));
+    }
+
+    @Test
+    void getChanges_Success_ReturnsChangesAndNextToken() throws Exception {
+        // Given
+        AuthenticatedUser user = new AuthenticatedUser(1L, "test@example.com");
+        when(eventService.getChangesSince(1L, "test@example.com", "djM"))
+                .thenReturn(new EventChanges(false, Collections.singletonList(eventDTO), List.of(9L), "djU"));
+
+        // When & Then
+        mockMvc.perform(get("/api/events/changes")
+                        .principal(user)
+                        .param("since", "djM"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.fullResync").value(false))
+                .andExpect(jsonPath("$.events[0].title").value("Test Event"))
+                .andExpect(jsonPath("$.deletedEventIds[0]").value(9))
+                .andExpect(jsonPath("$.syncToken").value("djU"));
+    }
+
+    @Test
+    void getReminders_ReturnsMinutesBeforeStart() throws Exception {
+        // Given
+        AuthenticatedUser user = new AuthenticatedUser(1L, "test@example.com");
+        when(eventService.getReminderMinutes(5L, "test@example.com")).thenReturn(List.of(10, 60));
+
+        // When & Then
+        mockMvc.perform(get("/api/events/5/reminders").principal(user))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0]").value(10))
+                .andExpect(jsonPath("$[1]").value(60));
+    }
+
+    @Test
+    void getReminders_EventNotFound_Returns404() throws Exception {
+        // Given
+        AuthenticatedUser user = new AuthenticatedUser(1L, "test@example.com");
+        when(eventService.getReminderMinutes(5L, "test@example.com"))
+                .thenThrow(new IllegalArgumentException("Event not found"));
+
+        // When & Then
+        mockMvc.perform(get("/api/events/5/reminders").principal(user))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void streamChanges_OpensEventStream() throws Exception {
+        // Given
+        AuthenticatedUser user = new AuthenticatedUser(1L, "test@example.com");
+        when(eventService.subscribeToChanges(1L, "test@example.com")).thenReturn(new SseEmitter());
+
+        // When & Then
+        mockMvc.perform(get("/api/events/stream")
+                        .principal(user)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+        verify(eventService).subscribeToChanges(1L, "test@example.com");
+    }
+
+    @Test
+    void getChanges_InvalidToken_Returns400() throws Exception {
+        // Given
+        AuthenticatedUser user = new AuthenticatedUser(1L, "test@example.com");
+        when(eventService.getChangesSince(1L, "test@example.com", "bogus"))
+                .thenThrow(new IllegalArgumentException("Invalid sync token"));
+
+        // When & Then
+        mockMvc.perform(get("/api/events/changes")
+                        .principal(user)
+                        .param("since", "bogus"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("Invalid sync token"));
+    }
+
+    @Test
+    void getEventsInRange_MatchingETag_Returns304WithoutReadingEvents() throws Exception {
+        // Given
+        AuthenticatedUser user = new AuthenticatedUser(1L, "test@example.com");
+        when(eventService.getCalendarVersion(1L, "test@example.com")).thenReturn(7L);
+        when(eventService.getEventPage(eq(1L), eq("test@example.com"),
+                any(LocalDateTime.class), any(LocalDateTime.class), any(), any(), any()))
+                .thenReturn(new EventPage(Collections.singletonList(eventDTO), null));
+        String eTag = mockMvc.perform(get("/api/events")
+                        .principal(user)
+                        .param("start", "2024-01-01T00:00:00")
+                        .param("end", "2024-01-31T23:59:59"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-cache, private"))
+                .andReturn().getResponse().getHeader("ETag");
+        assertThat(eTag).startsWith("W/\"7-");
+
+        // When & Then
+        mockMvc.perform(get("/api/events")
+                        .principal(user)
+                        .header("If-None-Match", eTag)
+                        .param("start", "2024-01-01T00:00:00")
+                        .param("end", "2024-01-31T23:59:59"))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", eTag));
+        verify(eventService, times(1)).getEventPage(any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void getEventsInRange_VersionOrRangeChanged_ReturnsNewETag() throws Exception {
+        // Given
+        AuthenticatedUser user = new AuthenticatedUser(1L, "test@example.com");
+        when(eventService.getCalendarVersion(1L, "test@example.com")).thenReturn(7L, 8L, 8L);
+        when(eventService.getEventPage(eq(1L), eq("test@example.com"),
+                any(LocalDateTime.class), any(LocalDateTime.class), any(), any(), any()))
+                .thenReturn(new EventPage(Collections.emptyList(), null));
+
+        // When
+        String first = rangeETag(user, "2024-01-01T00:00:00");
+        String afterChange = rangeETag(user, "2024-01-01T00:00:00");
+        String otherRange = rangeETag(user, "2024-01-02T00:00:00");
+
+        // Then
+        assertThat(afterChange).isNotEqualTo(first).startsWith("W/\"8-");
+        assertThat(otherRange).isNotEqualTo(afterChange);
+    }
+
+    private String rangeETag(Principal principal, String start) throws Exception {
+        return mockMvc.perform(get("/api/events")
+                        .principal(principal)
+                        .param("start", start)
+                        .param("end", "2024-01-31T23:59:59"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+    }
+
     @Test
     void getEventsInRange_Unauthorized_NoPrincipal_Returns401() throws Exception {
         // When & Then
@@ -237,7 +595,8 @@ class EventControllerTest {
         // Given
         Principal mockPrincipal = mock(Principal.class);
         when(mockPrincipal.getName()).thenReturn("test@example.com");
-        when(eventService.getEventsForUserInRange(eq("test@example.com"), any(LocalDateTime.class), any(LocalDateTime.class), any()))
+        when(eventService.getEventPage(isNull(), eq("test@example.com"), any(LocalDateTime.class), any(LocalDateTime.class),
+                any(), any(), any()))
                 .thenThrow(new IllegalArgumentException("Invalid date range"));
 
         // When & Then
@@ -254,7 +613,8 @@ class EventControllerTest {
         // Given
         Principal mockPrincipal = mock(Principal.class);
         when(mockPrincipal.getName()).thenReturn("test@example.com");
-        when(eventService.getEventsForUserInRange(eq("test@example.com"), any(LocalDateTime.class), any(LocalDateTime.class), any()))
+        when(eventService.getEventPage(isNull(), eq("test@example.com"), any(LocalDateTime.class), any(LocalDateTime.class),
+                any(), any(), any()))
                 .thenThrow(new RuntimeException("Database connection failed"));
 
         // When & Then
@@ -17,6 +17,8 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -56,7 +58,7 @@ class AuthIntegrationTest {
         registerDTO.setEmail("integration@example.com");
         registerDTO.setPassword("Password123");
 
-        mockMvc.perform(post("/api/auth/register")
+        performAsync(post("/api/auth/register")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(registerDTO)))
                 .andExpect(status().isOk())
@@ -70,7 +72,7 @@ class AuthIntegrationTest {
         loginDTO.setEmail("integration@example.com");
         loginDTO.setPassword("Password123");
 
-        MvcResult loginResult = mockMvc.perform(post("/api/auth/login")
+        MvcResult loginResult = performAsync(post("/api/auth/login")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(loginDTO)))
                 .andExpect(status().isOk())
@@ -92,7 +94,7 @@ class AuthIntegrationTest {
         changePasswordDTO.setOldPassword("Password123");
         changePasswordDTO.setNewPassword("NewPassword456");
 
-        mockMvc.perform(put("/api/auth/password")
+        performAsync(put("/api/auth/password")
                         .header("Authorization", "Bearer " + token)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(changePasswordDTO)))
@@ -104,7 +106,7 @@ class AuthIntegrationTest {
         oldPasswordLogin.setEmail("integration@example.com");
         oldPasswordLogin.setPassword("Password123");
 
-        mockMvc.perform(post("/api/auth/login")
+        performAsync(post("/api/auth/login")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(oldPasswordLogin)))
                 .andExpect(status().isUnauthorized())
@@ -115,7 +117,7 @@ class AuthIntegrationTest {
         newPasswordLogin.setEmail("integration@example.com");
         newPasswordLogin.setPassword("NewPassword456");
 
-        mockMvc.perform(post("/api/auth/login")
+        performAsync(post("/api/auth/login")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(newPasswordLogin)))
                 .andExpect(status().isOk())
@@ -143,7 +145,7 @@ class AuthIntegrationTest {
         registerDTO.setPassword("DifferentPassword456");
 
         // Then
-        mockMvc.perform(post("/api/auth/register")
+        performAsync(post("/api/auth/register")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(registerDTO)))
                 .andExpect(status().isConflict())
@@ -165,7 +167,7 @@ class AuthIntegrationTest {
         loginDTO.setPassword("WrongPassword");
 
         // Then
-        mockMvc.perform(post("/api/auth/login")
+        performAsync(post("/api/auth/login")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(loginDTO)))
                 .andExpect(status().isUnauthorized())
@@ -198,7 +200,7 @@ class AuthIntegrationTest {
         loginDTO.setEmail("test@example.com");
         loginDTO.setPassword("CorrectPassword");
 
-        MvcResult loginResult = mockMvc.perform(post("/api/auth/login")
+        MvcResult loginResult = performAsync(post("/api/auth/login")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(loginDTO)))
                 .andExpect(status().isOk())
@@ -213,7 +215,7 @@ class AuthIntegrationTest {
         changePasswordDTO.setNewPassword("NewPassword456");
 
         // Then
-        mockMvc.perform(put("/api/auth/password")
+        performAsync(put("/api/auth/password")
                         .header("Authorization", "Bearer " + token)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(changePasswordDTO)))
@@ -228,7 +230,7 @@ class AuthIntegrationTest {
         registerDTO1.setEmail("unique@example.com");
         registerDTO1.setPassword("Password123");
 
-        mockMvc.perform(post("/api/auth/register")
+        performAsync(post("/api/auth/register")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(registerDTO1)))
                 .andExpect(status().isOk());
@@ -239,7 +241,7 @@ class AuthIntegrationTest {
         registerDTO2.setPassword("DifferentPassword456");
 
         // Then
-        mockMvc.perform(post("/api/auth/register")
+        performAsync(post("/api/auth/register")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(registerDTO2)))
                 .andExpect(status().isConflict())
@@ -262,7 +264,7 @@ class AuthIntegrationTest {
         loginDTO.setEmail("test@example.com");
         loginDTO.setPassword("Password123");
 
-        MvcResult loginResult = mockMvc.perform(post("/api/auth/login")
+        MvcResult loginResult = performAsync(post("/api/auth/login")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(loginDTO)))
                 .andExpect(status().isOk())
@@ -290,10 +292,45 @@ class AuthIntegrationTest {
         loginDTO.setPassword("Password123");
 
         // When & Then
-        mockMvc.perform(post("/api/auth/login")
+        performAsync(post("/api/auth/login")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(loginDTO)))
                 .andExpect(status().isUnauthorized())
                 .andExpect(content().string("Invalid credentials"));
     }
+
+    @Test
+    void tokenMetrics_AreNotServedToUsersOnTheApplicationPort() throws Exception {
+        // Given
+        userRepository.save(User.builder()
+                .email("test@example.com")
+                .passwordHash(passwordEncoder.encode("Password123"))
+                .build());
+        LoginDTO loginDTO = new LoginDTO();
+        loginDTO.setEmail("test@example.com");
+        loginDTO.setPassword("Password123");
+        MvcResult loginResult = performAsync(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginDTO)))
+                .andExpect(status().isOk())
+                .andReturn();
+        String token = objectMapper.readTree(loginResult.getResponse().getContentAsString()).get("token").asText();
+
+        // When & Then actuator lives on the management port, so a user's token reaches nothing here
+        mockMvc.perform(get("/actuator/metrics/calendar.auth.tokens.live")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/actuator/metrics/calendar.auth.tokens.live"))
+                .andExpect(status().isForbidden());
+    }
+
+    /**
+     * Perform a request to an endpoint that completes asynchronously and dispatch its result
+     */
+    private ResultActions performAsync(MockHttpServletRequestBuilder builder) throws Exception {
+        MvcResult result = mockMvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result));
+    }
 }
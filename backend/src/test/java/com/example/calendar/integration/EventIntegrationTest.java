@@ -2,8 +2,14 @@ package com.example.calendar.integration;
 
 import com.example.calendar.dto.CreateEventDTO;
 import com.example.calendar.dto.EventDTO;
+import com.example.calendar.model.EventChange;
+import com.example.calendar.model.EventReminder;
 import com.example.calendar.model.User;
+import com.example.calendar.repository.EventChangeRepository;
+import com.example.calendar.repository.EventReminderRepository;
 import com.example.calendar.repository.UserRepository;
+import com.example.calendar.service.EventChangeLog;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -19,6 +25,8 @@ import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -43,6 +51,15 @@ class EventIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private EventChangeLog eventChangeLog;
+
+    @Autowired
+    private EventChangeRepository eventChangeRepository;
+
+    @Autowired
+    private EventReminderRepository eventReminderRepository;
+
     private User testUser;
 
     @BeforeEach
@@ -337,6 +354,246 @@ class EventIntegrationTest {
                 .andExpect(content().string("Event not found"));
     }
 
+    @Test
+    @WithMockUser(username = "integration@example.com")
+    void getEventsAsNdjson_MergesOneOffEventsAndOccurrencesInOrder() throws Exception {
+        // Given a daily series and a one-off event between two of its occurrences
+        CreateEventDTO daily = new CreateEventDTO();
+        daily.setTitle("Daily");
+        daily.setDescription("Stand-up");
+        daily.setStartDateTime(LocalDateTime.of(2024, 7, 1, 9, 0));
+        daily.setEndDateTime(LocalDateTime.of(2024, 7, 1, 10, 0));
+        daily.setRecurrenceRule("FREQ=DAILY");
+        daily.setRecurrenceCount(3);
+        CreateEventDTO single = new CreateEventDTO();
+        single.setTitle("Single");
+        single.setDescription("Review");
+        single.setStartDateTime(LocalDateTime.of(2024, 7, 2, 12, 0));
+        single.setEndDateTime(LocalDateTime.of(2024, 7, 2, 13, 0));
+        for (CreateEventDTO dto : new CreateEventDTO[] {daily, single}) {
+            mockMvc.perform(post("/api/events")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(dto)))
+                    .andExpect(status().isCreated());
+        }
+
+        // When
+        MvcResult result = mockMvc.perform(get("/api/events")
+                        .accept(MediaType.APPLICATION_NDJSON)
+                        .param("start", "2024-07-01T00:00:00")
+                        .param("end", "2024-07-31T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn();
+
+        // Then one event per line, in start time order
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertThat(lines).hasSize(4);
+        List<String> titles = new ArrayList<>();
+        for (String line : lines) {
+            EventDTO event = objectMapper.readValue(line, EventDTO.class);
+            titles.add(event.getTitle() + "@" + event.getStartDateTime().toLocalDate());
+        }
+        assertThat(titles).containsExactly("Daily@2024-07-01", "Daily@2024-07-02", "Single@2024-07-02",
+                "Daily@2024-07-03");
+    }
+
+    @Test
+    @WithMockUser(username = "integration@example.com")
+    void getUpcomingEvents_ReturnsNextEventsAcrossOneOffsAndSeries() throws Exception {
+        // Given a weekly series and two one-off events, one of them in the past
+        CreateEventDTO weekly = new CreateEventDTO();
+        weekly.setTitle("Weekly");
+        weekly.setDescription("Planning");
+        weekly.setStartDateTime(LocalDateTime.of(2024, 8, 5, 9, 0));
+        weekly.setEndDateTime(LocalDateTime.of(2024, 8, 5, 10, 0));
+        weekly.setRecurrenceRule("FREQ=WEEKLY");
+        CreateEventDTO past = new CreateEventDTO();
+        past.setTitle("Past");
+        past.setDescription("Done");
+        past.setStartDateTime(LocalDateTime.of(2024, 8, 1, 9, 0));
+        past.setEndDateTime(LocalDateTime.of(2024, 8, 1, 10, 0));
+        CreateEventDTO next = new CreateEventDTO();
+        next.setTitle("Next");
+        next.setDescription("Soon");
+        next.setStartDateTime(LocalDateTime.of(2024, 8, 13, 15, 0));
+        next.setEndDateTime(LocalDateTime.of(2024, 8, 13, 16, 0));
+        for (CreateEventDTO dto : new CreateEventDTO[] {weekly, past, next}) {
+            mockMvc.perform(post("/api/events")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(dto)))
+                    .andExpect(status().isCreated());
+        }
+
+        // When & Then
+        mockMvc.perform(get("/api/events/upcoming")
+                        .param("from", "2024-08-10T00:00:00")
+                        .param("limit", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].startDateTime").value("2024-08-12T09:00:00"))
+                .andExpect(jsonPath("$[1].title").value("Next"))
+                .andExpect(jsonPath("$[2].startDateTime").value("2024-08-19T09:00:00"));
+    }
+
+    @Test
+    @WithMockUser(username = "integration@example.com")
+    void getEvents_UnchangedCalendar_Returns304UntilAnEventIsCreated() throws Exception {
+        // Given
+        String eTag = mockMvc.perform(get("/api/events")
+                        .param("start", "2024-09-01T00:00:00")
+                        .param("end", "2024-09-30T23:59:59"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        // When & Then the same read is not modified
+        mockMvc.perform(get("/api/events")
+                        .header("If-None-Match", eTag)
+                        .param("start", "2024-09-01T00:00:00")
+                        .param("end", "2024-09-30T23:59:59"))
+                .andExpect(status().isNotModified());
+
+        // When an event is created
+        CreateEventDTO created = new CreateEventDTO();
+        created.setTitle("New");
+        created.setDescription("Changes the calendar");
+        created.setStartDateTime(LocalDateTime.of(2024, 9, 10, 9, 0));
+        created.setEndDateTime(LocalDateTime.of(2024, 9, 10, 10, 0));
+        mockMvc.perform(post("/api/events")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(created)))
+                .andExpect(status().isCreated());
+
+        // Then the old tag no longer matches
+        mockMvc.perform(get("/api/events")
+                        .header("If-None-Match", eTag)
+                        .param("start", "2024-09-01T00:00:00")
+                        .param("end", "2024-09-30T23:59:59"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(header().string("ETag", org.hamcrest.Matchers.not(eTag)));
+    }
+
+    @Test
+    @WithMockUser(username = "integration@example.com")
+    void getChanges_ReturnsDeltaSinceTokenAndFullResyncOnceCompactedAway() throws Exception {
+        // Given a first sync and two events created after it
+        JsonNode initial = changes(null);
+        assertThat(initial.get("fullResync").asBoolean()).isTrue();
+        assertThat(initial.get("events")).isEmpty();
+        EventDTO kept = createEvent("Kept", LocalDateTime.of(2024, 10, 1, 9, 0));
+        EventDTO removed = createEvent("Removed", LocalDateTime.of(2024, 10, 2, 9, 0));
+        JsonNode afterCreate = changes(initial.get("syncToken").asText());
+        assertThat(afterCreate.get("fullResync").asBoolean()).isFalse();
+        assertThat(afterCreate.get("events")).extracting(event -> event.get("title").asText())
+                .containsExactly("Kept", "Removed");
+
+        // When one is updated and the other deleted
+        CreateEventDTO update = new CreateEventDTO();
+        update.setTitle("Kept, renamed");
+        update.setDescription("Updated");
+        update.setStartDateTime(kept.getStartDateTime());
+        update.setEndDateTime(kept.getEndDateTime());
+        mockMvc.perform(put("/api/events/" + kept.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(update)))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/events/" + removed.getId()))
+                .andExpect(status().isNoContent());
+        eventChangeLog.compact();
+
+        // Then only those changes are returned
+        String token = afterCreate.get("syncToken").asText();
+        JsonNode delta = changes(token);
+        assertThat(delta.get("events")).extracting(event -> event.get("title").asText())
+                .containsExactly("Kept, renamed");
+        assertThat(delta.get("deletedEventIds")).extracting(JsonNode::asLong).containsExactly(removed.getId());
+        assertThat(changes(delta.get("syncToken").asText()).get("events")).isEmpty();
+
+        // When the entries the token needs are past retention and compacted away
+        List<EventChange> entries = eventChangeRepository.findAll();
+        entries.forEach(entry -> entry.setChangedAt(0));
+        eventChangeRepository.saveAll(entries);
+        eventChangeLog.compact();
+
+        // Then the client is told to resync everything
+        JsonNode resync = changes(token);
+        assertThat(resync.get("fullResync").asBoolean()).isTrue();
+        assertThat(resync.get("events")).extracting(event -> event.get("title").asText())
+                .containsExactly("Kept, renamed");
+    }
+
+    @Test
+    @WithMockUser(username = "integration@example.com")
+    void reminders_AreStoredWithTheirTriggerTimeAndFollowTheEvent() throws Exception {
+        // Given an event two days ahead with two reminders
+        LocalDateTime start = LocalDateTime.now().plusDays(2).withNano(0);
+        CreateEventDTO dto = new CreateEventDTO();
+        dto.setTitle("Dentist");
+        dto.setDescription("Checkup");
+        dto.setStartDateTime(start);
+        dto.setEndDateTime(start.plusHours(1));
+        dto.setReminderMinutes(List.of(60, 10));
+        MvcResult created = mockMvc.perform(post("/api/events")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        long id = objectMapper.readTree(created.getResponse().getContentAsString()).get("id").asLong();
+
+        // Then
+        mockMvc.perform(get("/api/events/" + id + "/reminders"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[10, 60]"));
+        assertThat(eventReminderRepository.findByEventId(id))
+                .extracting(EventReminder::getNextFireAt)
+                .containsExactly(start.minusMinutes(10), start.minusMinutes(60));
+
+        // When the event moves a day later without touching its reminders
+        dto.setStartDateTime(start.plusDays(1));
+        dto.setEndDateTime(start.plusDays(1).plusHours(1));
+        dto.setReminderMinutes(null);
+        mockMvc.perform(put("/api/events/" + id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isOk());
+
+        // Then they fire before the new start
+        assertThat(eventReminderRepository.findByEventId(id))
+                .extracting(EventReminder::getNextFireAt)
+                .containsExactly(start.plusDays(1).minusMinutes(10), start.plusDays(1).minusMinutes(60));
+
+        // When an invalid reminder is sent
+        dto.setReminderMinutes(List.of(-1));
+        mockMvc.perform(put("/api/events/" + id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isBadRequest());
+    }
+
+    private JsonNode changes(String since) throws Exception {
+        MvcResult result = mockMvc.perform(since != null
+                        ? get("/api/events/changes").param("since", since)
+                        : get("/api/events/changes"))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString());
+    }
+
+    private EventDTO createEvent(String title, LocalDateTime start) throws Exception {
+        CreateEventDTO dto = new CreateEventDTO();
+        dto.setTitle(title);
+        dto.setDescription(title);
+        dto.setStartDateTime(start);
+        dto.setEndDateTime(start.plusHours(1));
+        MvcResult result = mockMvc.perform(post("/api/events")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        return objectMapper.readValue(result.getResponse().getContentAsString(), EventDTO.class);
+    }
+
     @Test
     void updateEvent_Unauthorized_Returns403() throws Exception {
         // Given - Update DTO
@@ -0,0 +1,165 @@
+package com.example.calendar.integration;
+
+import com.example.calendar.dto.EventDTO;
+import com.example.calendar.model.Event;
+import com.example.calendar.model.Tag;
+import com.example.calendar.model.User;
+import com.example.calendar.repository.EventRepository;
+import com.example.calendar.repository.TagRepository;
+import com.example.calendar.repository.UserRepository;
+import com.example.calendar.service.EventService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Transactional
+class EventQueryCountIntegrationTest {
+
+    private static final LocalDateTime RANGE_START = LocalDateTime.of(2024, 3, 1, 0, 0);
+    private static final LocalDateTime RANGE_END = LocalDateTime.of(2024, 4, 1, 0, 0);
+
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User user;
+    private Tag work;
+    private Tag home;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(User.builder()
+                .email("query-count@example.com")
+                .passwordHash("hashedPassword")
+                .build());
+        work = tagRepository.save(Tag.builder().name("Work").user(user).build());
+        home = tagRepository.save(Tag.builder().name("Home").user(user).build());
+    }
+
+    @Test
+    void getEventsForUserInRange_StatementCountDoesNotGrowWithEvents() {
+        long fewEvents = statementsForRangeQueryWith(2);
+        long manyEvents = statementsForRangeQueryWith(20);
+
+        // One lookup for the user, one range query that also fetches the tags and one
+        // query for the exclusions of all returned events
+        assertThat(fewEvents).isEqualTo(3);
+        assertThat(manyEvents).isEqualTo(fewEvents);
+    }
+
+    @Test
+    void getEventsForUserInRange_KnownUserId_SkipsUserLookup() {
+        saveEvents(5);
+        flushAndClear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        List<EventDTO> events = eventService.getEventsForUserInRange(
+                user.getId(), "query-count@example.com", RANGE_START, RANGE_END, null);
+
+        // The range query and the exclusions query; the users table is not read
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(events).isNotEmpty();
+        assertThat(events).allSatisfy(e -> assertThat(e.getUserEmail()).isEqualTo("query-count@example.com"));
+    }
+
+    @Test
+    void getEventsForUserInRange_OccurrencesShareMasterTags() {
+        saveEvents(1);
+        flushAndClear();
+
+        List<EventDTO> events = eventService.getEventsForUserInRange(
+                "query-count@example.com", RANGE_START, RANGE_END);
+
+        List<EventDTO> occurrences = events.stream()
+                .filter(e -> e.getParentEventId() != null)
+                .toList();
+        // March has 31 days, one of which is excluded
+        assertThat(occurrences).hasSize(30);
+        assertThat(occurrences).noneMatch(e -> e.getStartDateTime().equals(LocalDateTime.of(2024, 3, 10, 8, 0)));
+        assertThat(occurrences).allSatisfy(e ->
+                assertThat(e.getTags()).extracting("name").containsExactlyInAnyOrder("Work", "Home"));
+    }
+
+    private long statementsForRangeQueryWith(int pairs) {
+        eventRepository.deleteAll(eventRepository.findByUserOrderByStartDateTimeAsc(user));
+        saveEvents(pairs);
+        flushAndClear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        List<EventDTO> events = eventService.getEventsForUserInRange(
+                "query-count@example.com", RANGE_START, RANGE_END);
+        long statements = statistics.getPrepareStatementCount();
+
+        assertThat(events).isNotEmpty();
+        assertThat(events).allSatisfy(e -> assertThat(e.getTags()).hasSize(2));
+        flushAndClear();
+        return statements;
+    }
+
+    /**
+     * Saves the given number of tagged one-off events and daily series inside the test range
+     */
+    private void saveEvents(int pairs) {
+        List<Tag> tags = tagRepository.findAllById(List.of(work.getId(), home.getId()));
+        for (int i = 0; i < pairs; i++) {
+            LocalDateTime start = RANGE_START.plusDays(i % 28).plusHours(9);
+            eventRepository.save(Event.builder()
+                    .title("One-off " + i)
+                    .description("Description")
+                    .startDateTime(start)
+                    .endDateTime(start.plusHours(1))
+                    .seriesEndDateTime(start.plusHours(1))
+                    .user(user)
+                    .tags(new HashSet<>(tags))
+                    .build());
+            eventRepository.save(Event.builder()
+                    .title("Series " + i)
+                    .description("Description")
+                    .startDateTime(LocalDateTime.of(2024, 1, 1, 8, 0))
+                    .endDateTime(LocalDateTime.of(2024, 1, 1, 8, 30))
+                    .recurrenceRule("FREQ=DAILY")
+                    .excludedDates(new HashSet<>(List.of(LocalDateTime.of(2024, 3, 10, 8, 0))))
+                    .user(user)
+                    .tags(new HashSet<>(tags))
+                    .build());
+        }
+    }
+
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
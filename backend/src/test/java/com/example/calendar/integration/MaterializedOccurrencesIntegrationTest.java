@@ -0,0 +1,124 @@
+package com.example.calendar.integration;
+
+import com.example.calendar.dto.CreateEventDTO;
+import com.example.calendar.dto.EventDTO;
+import com.example.calendar.model.User;
+import com.example.calendar.repository.OccurrenceRepository;
+import com.example.calendar.repository.UserRepository;
+import com.example.calendar.service.EventService;
+import com.example.calendar.service.OccurrenceId;
+import com.example.calendar.service.OccurrenceMaterializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+    "calendar.occurrences.materialized=true",
+    "calendar.occurrences.horizon-days=60"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Transactional
+class MaterializedOccurrencesIntegrationTest {
+
+    private static final String EMAIL = "materialized@example.com";
+
+    @Autowired
+    private EventService eventService;
+
+    @Autowired
+    private OccurrenceMaterializer occurrenceMaterializer;
+
+    @Autowired
+    private OccurrenceRepository occurrenceRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private LocalDateTime today;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.save(User.builder()
+                .email(EMAIL)
+                .passwordHash("hashedPassword")
+                .build());
+        today = LocalDate.now().atStartOfDay();
+    }
+
+    @Test
+    void materializedRead_MatchesExpansionAfterWrites() {
+        // Given - a daily series with a deleted and an overridden occurrence, a weekly series and a one-off event
+        EventDTO daily = eventService.createEvent(
+                event("Daily", today.minusDays(10).plusHours(9), "FREQ=DAILY"), EMAIL);
+        eventService.createEvent(event("Weekly", today.minusDays(3).plusHours(14), "FREQ=WEEKLY"), EMAIL);
+        eventService.createEvent(event("One-off", today.plusDays(2).plusHours(12), null), EMAIL);
+
+        eventService.deleteEvent(occurrenceIdOn(daily, 1), EMAIL, "instance");
+        CreateEventDTO moved = event("Moved", today.plusDays(3).plusHours(17), null);
+        eventService.updateEvent(occurrenceIdOn(daily, 3), moved, EMAIL, "instance");
+
+        LocalDateTime rangeStart = today.minusDays(5);
+        LocalDateTime rangeEnd = today.plusDays(20);
+
+        // When
+        List<EventDTO> materialized = eventService.getEventsForUserInRange(EMAIL, rangeStart, rangeEnd);
+        // A range past the horizon falls back to expanding the series
+        List<EventDTO> expanded = eventService.getEventsForUserInRange(EMAIL, rangeStart, today.plusDays(90))
+                .stream()
+                .filter(e -> e.getStartDateTime().isBefore(rangeEnd))
+                .toList();
+
+        // Then
+        assertThat(occurrenceMaterializer.covers(rangeStart, rangeEnd)).isTrue();
+        assertThat(occurrenceMaterializer.covers(rangeStart, today.plusDays(90))).isFalse();
+        assertThat(occurrenceRepository.count()).isPositive();
+        assertThat(materialized).hasSize(25 - 2 + 4 + 1 + 1);
+        assertThat(materialized).isEqualTo(expanded);
+        assertThat(materialized).extracting(EventDTO::getStartDateTime)
+                .doesNotContain(today.plusDays(1).plusHours(9), today.plusDays(3).plusHours(9));
+    }
+
+    @Test
+    void seriesUpdate_ReplacesMaterializedOccurrences() {
+        // Given
+        EventDTO daily = eventService.createEvent(event("Daily", today.plusHours(9), "FREQ=DAILY"), EMAIL);
+
+        // When - the series becomes weekly
+        CreateEventDTO weekly = event("Weekly", today.plusHours(9), "FREQ=WEEKLY");
+        eventService.updateEvent(daily.getId(), weekly, EMAIL, "series");
+
+        // Then
+        List<EventDTO> result = eventService.getEventsForUserInRange(EMAIL, today, today.plusDays(14));
+        assertThat(result).extracting(EventDTO::getStartDateTime)
+                .containsExactly(today.plusHours(9), today.plusDays(7).plusHours(9));
+        assertThat(result).extracting(EventDTO::getTitle).containsOnly("Weekly");
+    }
+
+    private Long occurrenceIdOn(EventDTO master, int daysFromToday) {
+        long offset = ChronoUnit.DAYS.between(master.getStartDateTime().toLocalDate(),
+                today.toLocalDate().plusDays(daysFromToday));
+        return OccurrenceId.encode(master.getId(), offset);
+    }
+
+    private CreateEventDTO event(String title, LocalDateTime start, String recurrenceRule) {
+        CreateEventDTO dto = new CreateEventDTO();
+        dto.setTitle(title);
+        dto.setDescription(title);
+        dto.setStartDateTime(start);
+        dto.setEndDateTime(start.plusHours(1));
+        dto.setRecurrenceRule(recurrenceRule);
+        return dto;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.calendar.integration;
+
+import com.example.calendar.CalendarApplication;
+import com.example.calendar.model.User;
+import com.example.calendar.repository.UserRepository;
+import com.example.calendar.security.AuthenticatedUser;
+import com.example.calendar.security.PersistentTokenStore;
+import com.example.calendar.security.TokenStore;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two application contexts sharing one file-based H2 database stand in for two nodes
+ */
+class PersistentTokenMultiNodeIntegrationTest {
+
+    private static final String EMAIL = "multi-node@example.com";
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() {
+        nodeA = startNode();
+        nodeB = startNode();
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        if (nodeB != null) {
+            nodeB.close();
+        }
+        if (nodeA != null) {
+            nodeA.close();
+        }
+    }
+
+    @Test
+    void tokenIssuedOnOneNode_IsAcceptedAndRevokedOnTheOther() {
+        // Given
+        UserRepository users = nodeA.getBean(UserRepository.class);
+        users.findByEmail(EMAIL).ifPresent(users::delete);
+        User user = users.save(User.builder().email(EMAIL).passwordHash("hashedPassword").build());
+        TokenStore storeA = nodeA.getBean(TokenStore.class);
+        TokenStore storeB = nodeB.getBean(TokenStore.class);
+        nodeB.getBean(PersistentTokenStore.class).pollRevocations();
+
+        // When
+        String token = storeA.create(user.getId(), EMAIL);
+
+        // Then
+        assertThat(storeB.resolve(token)).isEqualTo(new AuthenticatedUser(user.getId(), EMAIL));
+
+        // When logging out on node A
+        storeA.invalidate(token);
+        nodeB.getBean(PersistentTokenStore.class).pollRevocations();
+
+        // Then
+        assertThat(storeA.resolve(token)).isNull();
+        assertThat(storeB.resolve(token)).isNull();
+    }
+
+    private static ConfigurableApplicationContext startNode() {
+        return new SpringApplicationBuilder(CalendarApplication.class)
+                .profiles("test")
+                .run("--spring.datasource.url=jdbc:h2:file:./target/multi-node-tokens;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                        "--server.port=0",
+                        "--calendar.auth.token-mode=persistent",
+                        "--calendar.auth.persistent.cache-ttl=PT1H",
+                        "--calendar.auth.persistent.revocation-poll=PT1H");
+    }
+}
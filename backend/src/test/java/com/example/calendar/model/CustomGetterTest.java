@@ -49,6 +49,26 @@ class CustomGetterTest {
         assertThat(event.getTags()).hasSize(1);
     }
 
+    @Test
+    void event_getExcludedDates_WithNullExcludedDates_ReturnsEmptySet() {
+        Event event = new Event();
+
+        assertThat(event.getExcludedDates()).isNotNull();
+        assertThat(event.getExcludedDates()).isEmpty();
+    }
+
+    @Test
+    void event_addExcludedDate_WithNullExcludedDates_CreatesSetAndReturnsDefensiveCopy() {
+        Event event = new Event();
+        LocalDateTime excluded = LocalDateTime.of(2024, 1, 16, 9, 0);
+
+        event.addExcludedDate(excluded);
+        Set<LocalDateTime> result = event.getExcludedDates();
+        result.clear();
+
+        assertThat(event.getExcludedDates()).containsExactly(excluded);
+    }
+
     @Test
     void tag_getEvents_WithNullEvents_ReturnsEmptySet() {
         Tag tag = new Tag();
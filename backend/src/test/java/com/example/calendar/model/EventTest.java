@@ -3,6 +3,8 @@ package com.example.calendar.model;
 import org.junit.jupiter.api.Test;
 
 import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -224,7 +226,7 @@ public class EventTest {
                 .recurrenceCount(10)
                 .parentEvent(parentEvent)
                 .originalStartDateTime(originalStartDateTime)
-                .excludedDates("2024-01-15,2024-01-20")
+                .excludedDates(Set.of(LocalDateTime.of(2024, 1, 15, 9, 0), LocalDateTime.of(2024, 1, 20, 9, 0)))
                 .build();
 
         // Then
@@ -233,7 +235,8 @@ public class EventTest {
         assertThat(event.getRecurrenceCount()).isEqualTo(10);
         assertThat(event.getParentEvent()).isEqualTo(parentEvent);
         assertThat(event.getOriginalStartDateTime()).isEqualTo(originalStartDateTime);
-        assertThat(event.getExcludedDates()).isEqualTo("2024-01-15,2024-01-20");
+        assertThat(event.getExcludedDates()).containsExactlyInAnyOrder(
+                LocalDateTime.of(2024, 1, 15, 9, 0), LocalDateTime.of(2024, 1, 20, 9, 0));
     }
 
     @Test
@@ -254,7 +257,8 @@ public class EventTest {
         event.setRecurrenceCount(5);
         event.setParentEvent(parentEvent);
         event.setOriginalStartDateTime(originalStartDateTime);
-        event.setExcludedDates("2024-02-10,2024-02-15");
+        event.setExcludedDates(new HashSet<>(Set.of(LocalDateTime.of(2024, 2, 10, 9, 0))));
+        event.addExcludedDate(LocalDateTime.of(2024, 2, 15, 9, 0));
 
         // Then
         assertThat(event.getRecurrenceRule()).isEqualTo("FREQ=WEEKLY;INTERVAL=2");
@@ -262,6 +266,7 @@ public class EventTest {
         assertThat(event.getRecurrenceCount()).isEqualTo(5);
         assertThat(event.getParentEvent()).isEqualTo(parentEvent);
         assertThat(event.getOriginalStartDateTime()).isEqualTo(originalStartDateTime);
-        assertThat(event.getExcludedDates()).isEqualTo("2024-02-10,2024-02-15");
+        assertThat(event.getExcludedDates()).containsExactlyInAnyOrder(
+                LocalDateTime.of(2024, 2, 10, 9, 0), LocalDateTime.of(2024, 2, 15, 9, 0));
     }
 }
@@ -361,4 +361,78 @@ public class EventRepositoryTest {
         assertThat(workEvents.get(0).getTitle()).isEqualTo("Work Event");
         assertThat(workEvents.get(0).getTags()).contains(workTag);
     }
+
+    @Test
+    void findByUserIdOverlappingRangeOrderByStartDateTimeAsc_PrunesBySeriesEnd() {
+        // Given
+        LocalDateTime rangeStart = LocalDateTime.of(2024, 3, 1, 0, 0);
+        LocalDateTime rangeEnd = LocalDateTime.of(2024, 4, 1, 0, 0);
+
+        Event oldOneOff = entityManager.persistAndFlush(Event.builder()
+                .title("Old One-off").description("Description")
+                .startDateTime(LocalDateTime.of(2023, 5, 1, 9, 0))
+                .endDateTime(LocalDateTime.of(2023, 5, 1, 10, 0))
+                .seriesEndDateTime(LocalDateTime.of(2023, 5, 1, 10, 0))
+                .user(testUser).build());
+        Event overlappingOneOff = entityManager.persistAndFlush(Event.builder()
+                .title("Overlapping One-off").description("Description")
+                .startDateTime(LocalDateTime.of(2024, 2, 29, 22, 0))
+                .endDateTime(LocalDateTime.of(2024, 3, 1, 2, 0))
+                .seriesEndDateTime(LocalDateTime.of(2024, 3, 1, 2, 0))
+                .user(testUser).build());
+        Event futureOneOff = entityManager.persistAndFlush(Event.builder()
+                .title("Future One-off").description("Description")
+                .startDateTime(LocalDateTime.of(2024, 4, 1, 0, 0))
+                .endDateTime(LocalDateTime.of(2024, 4, 1, 1, 0))
+                .seriesEndDateTime(LocalDateTime.of(2024, 4, 1, 1, 0))
+                .user(testUser).build());
+        Event openSeries = entityManager.persistAndFlush(Event.builder()
+                .title("Open Series").description("Description")
+                .startDateTime(LocalDateTime.of(2020, 1, 1, 9, 0))
+                .endDateTime(LocalDateTime.of(2020, 1, 1, 10, 0))
+                .recurrenceRule("FREQ=DAILY")
+                .user(testUser).build());
+        Event endedSeries = entityManager.persistAndFlush(Event.builder()
+                .title("Ended Series").description("Description")
+                .startDateTime(LocalDateTime.of(2023, 1, 1, 9, 0))
+                .endDateTime(LocalDateTime.of(2023, 1, 1, 10, 0))
+                .recurrenceRule("FREQ=WEEKLY")
+                .recurrenceEndDate(LocalDateTime.of(2024, 1, 1, 0, 0))
+                .seriesEndDateTime(LocalDateTime.of(2023, 12, 25, 10, 0))
+                .user(testUser).build());
+        Event seriesEndingInsideLastOccurrence = entityManager.persistAndFlush(Event.builder()
+                .title("Overnight Series").description("Description")
+                .startDateTime(LocalDateTime.of(2024, 2, 1, 22, 0))
+                .endDateTime(LocalDateTime.of(2024, 2, 2, 6, 0))
+                .recurrenceRule("FREQ=DAILY")
+                .recurrenceEndDate(LocalDateTime.of(2024, 2, 29, 22, 0))
+                .seriesEndDateTime(LocalDateTime.of(2024, 3, 1, 6, 0))
+                .user(testUser).build());
+        Event override = entityManager.persistAndFlush(Event.builder()
+                .title("Override").description("Description")
+                .startDateTime(LocalDateTime.of(2024, 3, 5, 11, 0))
+                .endDateTime(LocalDateTime.of(2024, 3, 5, 12, 0))
+                .seriesEndDateTime(LocalDateTime.of(2024, 3, 5, 12, 0))
+                .parentEvent(openSeries)
+                .originalStartDateTime(LocalDateTime.of(2024, 3, 5, 9, 0))
+                .user(testUser).build());
+        entityManager.persistAndFlush(Event.builder()
+                .title("Other User's Event").description("Description")
+                .startDateTime(LocalDateTime.of(2024, 3, 10, 9, 0))
+                .endDateTime(LocalDateTime.of(2024, 3, 10, 10, 0))
+                .user(otherUser).build());
+
+        // When
+        List<Event> events = eventRepository.findByUserIdOverlappingRangeOrderByStartDateTimeAsc(
+                testUser.getId(), rangeStart, rangeEnd);
+
+        // Then
+        assertThat(events).extracting(Event::getId).containsExactly(
+                openSeries.getId(),
+                seriesEndingInsideLastOccurrence.getId(),
+                overlappingOneOff.getId(),
+                override.getId());
+        assertThat(events).extracting(Event::getId)
+                .doesNotContain(oldOneOff.getId(), futureOneOff.getId(), endedSeries.getId());
+    }
 }
@@ -0,0 +1,106 @@
+package com.example.calendar.repository;
+
+import com.example.calendar.model.Event;
+import com.example.calendar.model.Occurrence;
+import com.example.calendar.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+public class OccurrenceRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private OccurrenceRepository occurrenceRepository;
+
+    private User testUser;
+    private User otherUser;
+    private Event series;
+
+    @BeforeEach
+    void setUp() {
+        testUser = entityManager.persistAndFlush(User.builder()
+                .email("test@example.com")
+                .passwordHash("hashedpassword")
+                .build());
+        otherUser = entityManager.persistAndFlush(User.builder()
+                .email("other@example.com")
+                .passwordHash("hashedpassword")
+                .build());
+        series = entityManager.persistAndFlush(Event.builder()
+                .title("Daily")
+                .startDateTime(LocalDateTime.of(2024, 1, 1, 9, 0))
+                .endDateTime(LocalDateTime.of(2024, 1, 1, 10, 0))
+                .recurrenceRule("FREQ=DAILY")
+                .user(testUser)
+                .build());
+    }
+
+    @Test
+    void findByUserIdOverlappingRange_ReturnsOverlappingOccurrencesInOrder() {
+        // Given
+        occurrenceRepository.saveAll(List.of(
+                occurrence(series, testUser, 1L, LocalDateTime.of(2024, 1, 3, 9, 0)),
+                occurrence(series, testUser, 2L, LocalDateTime.of(2024, 1, 1, 9, 0)),
+                occurrence(series, testUser, 3L, LocalDateTime.of(2024, 1, 2, 9, 0)),
+                occurrence(series, otherUser, 4L, LocalDateTime.of(2024, 1, 2, 9, 0))));
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        List<Occurrence> result = occurrenceRepository.findByUserIdOverlappingRangeOrderByStartDateTimeAsc(
+                testUser.getId(), LocalDateTime.of(2024, 1, 1, 9, 30), LocalDateTime.of(2024, 1, 3, 9, 0));
+
+        // Then
+        assertThat(result).extracting(Occurrence::getOccurrenceKey).containsExactly(2L, 3L);
+        assertThat(result.get(0).getMasterEvent().getTitle()).isEqualTo("Daily");
+    }
+
+    @Test
+    void deleteQueries_RemoveMatchingRowsOnly() {
+        // Given
+        Event otherSeries = entityManager.persistAndFlush(Event.builder()
+                .title("Weekly")
+                .startDateTime(LocalDateTime.of(2024, 1, 1, 9, 0))
+                .endDateTime(LocalDateTime.of(2024, 1, 1, 10, 0))
+                .recurrenceRule("FREQ=WEEKLY")
+                .user(testUser)
+                .build());
+        occurrenceRepository.saveAll(List.of(
+                occurrence(series, testUser, 1L, LocalDateTime.of(2024, 1, 1, 9, 0)),
+                occurrence(series, testUser, 2L, LocalDateTime.of(2024, 1, 2, 9, 0)),
+                occurrence(otherSeries, testUser, 3L, LocalDateTime.of(2024, 1, 1, 9, 0)),
+                occurrence(otherSeries, testUser, 4L, LocalDateTime.of(2024, 1, 8, 9, 0)),
+                occurrence(otherSeries, testUser, 5L, LocalDateTime.of(2024, 1, 15, 9, 0))));
+        entityManager.flush();
+
+        // When
+        occurrenceRepository.deleteByMasterEvent(series);
+        occurrenceRepository.deleteByOccurrenceKey(3L);
+        occurrenceRepository.deleteStartingFrom(LocalDateTime.of(2024, 1, 15, 9, 0));
+        entityManager.clear();
+
+        // Then
+        assertThat(occurrenceRepository.findAll()).extracting(Occurrence::getOccurrenceKey).containsExactly(4L);
+    }
+
+    private Occurrence occurrence(Event master, User user, Long key, LocalDateTime start) {
+        return Occurrence.builder()
+                .occurrenceKey(key)
+                .masterEvent(master)
+                .user(user)
+                .startDateTime(start)
+                .endDateTime(start.plusHours(1))
+                .build();
+    }
+}
@@ -46,7 +46,7 @@ class FakeJwtAuthenticationFilterTest {
         String token = "valid-token";
         String email = "test@example.com";
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(tokenStore.getEmail(token)).thenReturn(email);
+        when(tokenStore.resolve(token)).thenReturn(new AuthenticatedUser(1L, email));
 
         // When
         filter.doFilterInternal(request, response, filterChain);
@@ -55,10 +55,11 @@ class FakeJwtAuthenticationFilterTest {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         assertThat(auth).isNotNull();
         assertThat(auth.getName()).isEqualTo(email);
+        assertThat(AuthenticatedUser.from(auth).getId()).isEqualTo(1L);
         assertThat(auth.getAuthorities()).hasSize(1);
         assertThat(auth.getAuthorities().iterator().next().getAuthority()).isEqualTo("ROLE_USER");
 
-        verify(tokenStore).getEmail(token);
+        verify(tokenStore).resolve(token);
         verify(filterChain).doFilter(request, response);
     }
 
@@ -67,7 +68,7 @@ class FakeJwtAuthenticationFilterTest {
         // Given
         String token = "invalid-token";
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(tokenStore.getEmail(token)).thenReturn(null);
+        when(tokenStore.resolve(token)).thenReturn(null);
 
         // When
         filter.doFilterInternal(request, response, filterChain);
@@ -76,7 +77,7 @@ class FakeJwtAuthenticationFilterTest {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         assertThat(auth).isNull();
 
-        verify(tokenStore).getEmail(token);
+        verify(tokenStore).resolve(token);
         verify(filterChain).doFilter(request, response);
     }
 
@@ -92,7 +93,7 @@ class FakeJwtAuthenticationFilterTest {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         assertThat(auth).isNull();
 
-        verify(tokenStore, never()).getEmail(anyString());
+        verify(tokenStore, never()).resolve(anyString());
         verify(filterChain).doFilter(request, response);
     }
 
@@ -108,7 +109,7 @@ class FakeJwtAuthenticationFilterTest {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         assertThat(auth).isNull();
 
-        verify(tokenStore, never()).getEmail(anyString());
+        verify(tokenStore, never()).resolve(anyString());
         verify(filterChain).doFilter(request, response);
     }
 
@@ -124,7 +125,7 @@ class FakeJwtAuthenticationFilterTest {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         assertThat(auth).isNull();
 
-        verify(tokenStore, never()).getEmail(anyString());
+        verify(tokenStore, never()).resolve(anyString());
         verify(filterChain).doFilter(request, response);
     }
 
@@ -140,7 +141,7 @@ class FakeJwtAuthenticationFilterTest {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         assertThat(auth).isNull();
 
-        verify(tokenStore, never()).getEmail(anyString());
+        verify(tokenStore, never()).resolve(anyString());
         verify(filterChain).doFilter(request, response);
     }
 
@@ -148,7 +149,7 @@ class FakeJwtAuthenticationFilterTest {
     void doFilterInternal_BearerWithEmptyToken_ChecksEmptyToken() throws ServletException, IOException {
         // Given
         when(request.getHeader("Authorization")).thenReturn("Bearer ");
-        when(tokenStore.getEmail("")).thenReturn(null);
+        when(tokenStore.resolve("")).thenReturn(null);
 
         // When
         filter.doFilterInternal(request, response, filterChain);
@@ -157,7 +158,7 @@ class FakeJwtAuthenticationFilterTest {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         assertThat(auth).isNull();
 
-        verify(tokenStore).getEmail("");
+        verify(tokenStore).resolve("");
         verify(filterChain).doFilter(request, response);
     }
 
@@ -168,7 +169,7 @@ class FakeJwtAuthenticationFilterTest {
         String token = "valid-token";
         String email = "test@example.com";
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(tokenStore.getEmail(token)).thenReturn(email);
+        when(tokenStore.resolve(token)).thenReturn(new AuthenticatedUser(1L, email));
 
         // Set existing authentication
         Authentication existingAuth = mock(Authentication.class);
@@ -181,7 +182,7 @@ class FakeJwtAuthenticationFilterTest {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         assertThat(auth).isNotEqualTo(existingAuth); // Filter overrides existing authentication
 
-        verify(tokenStore).getEmail(token);
+        verify(tokenStore).resolve(token);
         verify(filterChain).doFilter(request, response);
     }
 }
@@ -0,0 +1,66 @@
+package com.example.calendar.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PasswordHasherTest {
+
+    @Test
+    void encodeThenMatches_RunOnPool() throws Exception {
+        PasswordHasher hasher = new PasswordHasher(new BCryptPasswordEncoder(4), 2, 10);
+        try {
+            String hash = hasher.encode("Password123").get(10, TimeUnit.SECONDS);
+
+            assertThat(hasher.matches("Password123", hash).get(10, TimeUnit.SECONDS)).isTrue();
+            assertThat(hasher.matches("WrongPassword", hash).get(10, TimeUnit.SECONDS)).isFalse();
+        } finally {
+            hasher.shutdown();
+        }
+    }
+
+    @Test
+    void submit_QueueFull_RejectsImmediately() throws Exception {
+        // Given one thread, busy, and a queue of one that is already taken
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blocking = mock(PasswordEncoder.class);
+        when(blocking.encode(anyString())).thenAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            return "hash";
+        });
+        PasswordHasher hasher = new PasswordHasher(blocking, 1, 1);
+        try {
+            CompletableFuture<String> running = hasher.encode("first");
+            CompletableFuture<String> queued = hasher.encode("second");
+
+            // When & Then
+            assertThatThrownBy(() -> hasher.encode("third")).isInstanceOf(RejectedExecutionException.class);
+
+            release.countDown();
+            assertThat(running.get(10, TimeUnit.SECONDS)).isEqualTo("hash");
+            assertThat(queued.get(10, TimeUnit.SECONDS)).isEqualTo("hash");
+        } finally {
+            release.countDown();
+            hasher.shutdown();
+        }
+    }
+
+    @Test
+    void needsUpgrade_HashWithLowerCost_ReturnsTrue() {
+        PasswordHasher hasher = new PasswordHasher(new BCryptPasswordEncoder(5), Runnable::run);
+
+        assertThat(hasher.needsUpgrade(new BCryptPasswordEncoder(4).encode("Password123"))).isTrue();
+        assertThat(hasher.needsUpgrade(new BCryptPasswordEncoder(5).encode("Password123"))).isFalse();
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.calendar.security;
+
+import com.example.calendar.model.AuthToken;
+import com.example.calendar.model.TokenRevocation;
+import com.example.calendar.repository.AuthTokenRepository;
+import com.example.calendar.repository.TokenRevocationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PersistentTokenStoreTest {
+
+    @Mock
+    private AuthTokenRepository tokens;
+
+    @Mock
+    private TokenRevocationRepository revocations;
+
+    private static final long NOW = Instant.parse("2024-06-01T10:00:00Z").toEpochMilli();
+
+    private Clock clock;
+    private PersistentTokenStore store;
+
+    @BeforeEach
+    void setUp() {
+        clock = mock(Clock.class);
+        when(clock.millis()).thenReturn(NOW);
+        store = new PersistentTokenStore(tokens, revocations, true, Duration.ofHours(1), Duration.ofSeconds(30),
+                Duration.ofSeconds(5), Duration.ofMinutes(10), 100, clock);
+    }
+
+    @Test
+    void resolve_CachedToken_DoesNotQueryDatabase() {
+        // Given
+        String token = store.create(1L, "test@example.com");
+
+        // When
+        AuthenticatedUser user = store.resolve(token);
+
+        // Then
+        assertThat(user).isEqualTo(new AuthenticatedUser(1L, "test@example.com"));
+        verify(tokens).save(any(AuthToken.class));
+        verify(tokens, never()).findById(anyString());
+    }
+
+    @Test
+    void resolve_OtherNodesToken_LoadsOnceThenCaches() {
+        // Given a token created elsewhere
+        AuthToken row = AuthToken.builder().tokenHash("h").userId(1L).email("test@example.com")
+                .expiresAt(NOW + Duration.ofHours(1).toMillis()).build();
+        when(tokens.findById(anyString())).thenReturn(Optional.of(row));
+
+        // When
+        store.resolve("foreign-token");
+        AuthenticatedUser user = store.resolve("foreign-token");
+
+        // Then
+        assertThat(user.getEmail()).isEqualTo("test@example.com");
+        verify(tokens, times(1)).findById(anyString());
+
+        // After the cache TTL the row is read again
+        when(clock.millis()).thenReturn(NOW + Duration.ofSeconds(31).toMillis());
+        store.resolve("foreign-token");
+        verify(tokens, times(2)).findById(anyString());
+    }
+
+    @Test
+    void resolve_UnknownToken_IsNegativelyCached() {
+        // Given
+        when(tokens.findById(anyString())).thenReturn(Optional.empty());
+
+        // When
+        assertThat(store.resolve("unknown")).isNull();
+        assertThat(store.resolve("unknown")).isNull();
+        when(clock.millis()).thenReturn(NOW + Duration.ofSeconds(6).toMillis());
+        assertThat(store.resolve("unknown")).isNull();
+
+        // Then
+        verify(tokens, times(2)).findById(anyString());
+    }
+
+    @Test
+    void resolve_ExpiredToken_ReturnsNull() {
+        // Given
+        String token = store.create(1L, "test@example.com");
+
+        // When
+        when(clock.millis()).thenReturn(NOW + Duration.ofHours(2).toMillis());
+
+        // Then
+        assertThat(store.resolve(token)).isNull();
+    }
+
+    @Test
+    void invalidate_DeletesRowAndRecordsRevocation() {
+        // Given
+        String token = store.create(1L, "test@example.com");
+        when(tokens.existsById(anyString())).thenReturn(true);
+
+        // When
+        store.invalidate(token);
+
+        // Then
+        assertThat(store.resolve(token)).isNull();
+        ArgumentCaptor<TokenRevocation> revocation = ArgumentCaptor.forClass(TokenRevocation.class);
+        verify(revocations).save(revocation.capture());
+        verify(tokens).deleteById(revocation.getValue().getTokenHash());
+        verify(tokens, never()).findById(anyString());
+    }
+
+    @Test
+    void pollRevocations_DropsTokensRevokedElsewhere() {
+        // Given a cached token and a first poll that fixes the starting sequence
+        store.create(1L, "test@example.com");
+        when(revocations.findLatestSeq()).thenReturn(5L);
+        store.pollRevocations();
+        assertThat(store.cachedTokens()).isZero();
+        String cachedAfterPoll = store.create(1L, "test@example.com");
+        String hash = captureLastSavedHash();
+        when(revocations.findBySeqGreaterThanOrRevokedAtGreaterThanEqualOrderBySeqAsc(
+                5L, NOW - PersistentTokenStore.REREAD_WINDOW.toMillis())).thenReturn(List.of(
+                TokenRevocation.builder().seq(6L).tokenHash(hash).revokedAt(NOW).build()));
+        when(tokens.findById(hash)).thenReturn(Optional.empty());
+
+        // When
+        store.pollRevocations();
+
+        // Then the revoked token is read again, and the database no longer knows it
+        assertThat(store.resolve(cachedAfterPoll)).isNull();
+        verify(tokens).findById(hash);
+    }
+
+    @Test
+    void purgeExpired_DeletesExpiredRowsAndOldRevocations() {
+        // When
+        store.purgeExpired();
+
+        // Then
+        verify(tokens).deleteExpired(NOW);
+        verify(revocations).deleteRevokedBefore(NOW - Duration.ofMinutes(10).toMillis());
+    }
+
+    private String captureLastSavedHash() {
+        ArgumentCaptor<AuthToken> saved = ArgumentCaptor.forClass(AuthToken.class);
+        verify(tokens, atLeastOnce()).save(saved.capture());
+        return saved.getValue().getTokenHash();
+    }
+}
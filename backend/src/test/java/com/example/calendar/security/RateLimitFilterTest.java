@@ -0,0 +1,145 @@
+package com.example.calendar.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RateLimitFilterTest {
+
+    @Mock
+    private RateLimiter rateLimiter;
+
+    @Mock
+    private HttpServletRequest request;
+
+    @Mock
+    private HttpServletResponse response;
+
+    @Mock
+    private FilterChain filterChain;
+
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new RateLimitFilter(rateLimiter);
+        when(rateLimiter.isEnabled()).thenReturn(true);
+        SecurityContextHolder.clearContext();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void doFilterInternal_RangeRead_ChargesByRangeWidth() throws ServletException, IOException {
+        // Given
+        authenticate("test@example.com");
+        when(request.getMethod()).thenReturn("GET");
+        when(request.getRequestURI()).thenReturn("/api/events");
+        when(request.getParameter("start")).thenReturn("2024-01-01T00:00:00");
+        when(request.getParameter("end")).thenReturn("2024-12-31T00:00:00");
+        when(rateLimiter.rangeCost(Duration.ofDays(365))).thenReturn(12);
+        when(rateLimiter.tryAcquireForUser("test@example.com", 12)).thenReturn(Duration.ZERO);
+
+        // When
+        filter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        verify(filterChain).doFilter(request, response);
+        verify(response, never()).setStatus(anyInt());
+    }
+
+    @Test
+    void doFilterInternal_UserThrottled_Returns429WithRetryAfter() throws ServletException, IOException {
+        // Given
+        authenticate("test@example.com");
+        when(request.getMethod()).thenReturn("POST");
+        when(rateLimiter.tryAcquireForUser("test@example.com", 1)).thenReturn(Duration.ofMillis(1500));
+        StringWriter body = new StringWriter();
+        when(response.getWriter()).thenReturn(new PrintWriter(body));
+
+        // When
+        filter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        verify(response).setStatus(429);
+        verify(response).setHeader("Retry-After", "2");
+        assertThat(body.toString()).isEqualTo("Too many requests");
+        verify(filterChain, never()).doFilter(any(), any());
+    }
+
+    @Test
+    void doFilterInternal_UnauthenticatedAuthRequest_KeyedByIp() throws ServletException, IOException {
+        // Given
+        when(request.getRequestURI()).thenReturn("/api/auth/login");
+        when(request.getRemoteAddr()).thenReturn("10.0.0.1");
+        when(rateLimiter.tryAcquireForIp("10.0.0.1", 1)).thenReturn(Duration.ZERO);
+
+        // When
+        filter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        verify(filterChain).doFilter(request, response);
+        verify(rateLimiter, never()).tryAcquireForUser(anyString(), anyInt());
+    }
+
+    @Test
+    void doFilterInternal_ExpandedOccurrences_ChargedAfterResponse() throws ServletException, IOException {
+        // Given
+        authenticate("test@example.com");
+        when(request.getMethod()).thenReturn("GET");
+        when(request.getRequestURI()).thenReturn("/api/events/1");
+        when(rateLimiter.tryAcquireForUser("test@example.com", 1)).thenReturn(Duration.ZERO);
+        when(request.getAttribute(RateLimitFilter.class.getName() + ".occurrences")).thenReturn(1000);
+        when(rateLimiter.expansionCost(1000)).thenReturn(2);
+
+        // When
+        filter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        verify(rateLimiter).chargeUser("test@example.com", 2);
+    }
+
+    @Test
+    void doFilterInternal_Disabled_PassesThrough() throws ServletException, IOException {
+        // Given
+        when(rateLimiter.isEnabled()).thenReturn(false);
+
+        // When
+        filter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        verify(filterChain).doFilter(request, response);
+        verify(rateLimiter, never()).tryAcquireForIp(anyString(), anyInt());
+    }
+
+    private void authenticate(String email) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                new AuthenticatedUser(1L, email), null, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.calendar.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RateLimiterTest {
+
+    private static final long NOW = Instant.parse("2024-06-01T10:00:00Z").toEpochMilli();
+
+    private Clock clock;
+    private RateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        clock = mock(Clock.class);
+        when(clock.millis()).thenReturn(NOW);
+        // 10 tokens, one more every 100ms
+        rateLimiter = new RateLimiter(true, new RateLimiter.Limit(10, 10), new RateLimiter.Limit(2, 1),
+                31, 500, 100, Duration.ofMinutes(1), clock);
+    }
+
+    @Test
+    void tryAcquireForUser_WithinBurst_Admits() {
+        // When / Then
+        for (int i = 0; i < 10; i++) {
+            assertThat(rateLimiter.tryAcquireForUser("test@example.com", 1)).isZero();
+        }
+    }
+
+    @Test
+    void tryAcquireForUser_BurstExhausted_ReturnsWait() {
+        // Given
+        for (int i = 0; i < 10; i++) {
+            rateLimiter.tryAcquireForUser("test@example.com", 1);
+        }
+
+        // When
+        Duration wait = rateLimiter.tryAcquireForUser("test@example.com", 1);
+
+        // Then
+        assertThat(wait).isEqualTo(Duration.ofMillis(100));
+        assertThat(rateLimiter.tryAcquireForUser("other@example.com", 1)).isZero();
+    }
+
+    @Test
+    void tryAcquireForUser_AfterRefill_AdmitsAgain() {
+        // Given
+        rateLimiter.tryAcquireForUser("test@example.com", 10);
+        assertThat(rateLimiter.tryAcquireForUser("test@example.com", 3)).isEqualTo(Duration.ofMillis(300));
+
+        // When
+        when(clock.millis()).thenReturn(NOW + 300);
+
+        // Then
+        assertThat(rateLimiter.tryAcquireForUser("test@example.com", 3)).isZero();
+        assertThat(rateLimiter.tryAcquireForUser("test@example.com", 1)).isPositive();
+    }
+
+    @Test
+    void tryAcquireForUser_CostAboveCapacity_IsCappedAtCapacity() {
+        // When / Then
+        assertThat(rateLimiter.tryAcquireForUser("test@example.com", 1000)).isZero();
+        assertThat(rateLimiter.tryAcquireForUser("test@example.com", 1)).isPositive();
+    }
+
+    @Test
+    void tryAcquireForIp_UsesAuthLimit() {
+        // When / Then
+        assertThat(rateLimiter.tryAcquireForIp("10.0.0.1", 1)).isZero();
+        assertThat(rateLimiter.tryAcquireForIp("10.0.0.1", 1)).isZero();
+        assertThat(rateLimiter.tryAcquireForIp("10.0.0.1", 1)).isEqualTo(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void chargeUser_PutsBucketIntoDebt() {
+        // Given
+        rateLimiter.tryAcquireForUser("test@example.com", 10);
+
+        // When
+        rateLimiter.chargeUser("test@example.com", 5);
+
+        // Then the debt is waited out before the next request
+        assertThat(rateLimiter.tryAcquireForUser("test@example.com", 1)).isEqualTo(Duration.ofMillis(600));
+    }
+
+    @Test
+    void rangeCost_GrowsWithRangeWidth() {
+        // When / Then
+        assertThat(rateLimiter.rangeCost(Duration.ofDays(7))).isEqualTo(1);
+        assertThat(rateLimiter.rangeCost(Duration.ofDays(31))).isEqualTo(2);
+        assertThat(rateLimiter.rangeCost(Duration.ofDays(365))).isEqualTo(12);
+        assertThat(rateLimiter.rangeCost(Duration.ofDays(-5))).isEqualTo(1);
+    }
+
+    @Test
+    void expansionCost_OnePerExpansionUnit() {
+        // When / Then
+        assertThat(rateLimiter.expansionCost(499)).isZero();
+        assertThat(rateLimiter.expansionCost(1200)).isEqualTo(2);
+    }
+
+    @Test
+    void sweep_DropsRefilledBuckets() {
+        // Given
+        rateLimiter.tryAcquireForUser("idle@example.com", 1);
+        rateLimiter.tryAcquireForUser("busy@example.com", 10);
+        when(clock.millis()).thenReturn(NOW + 500);
+
+        // When
+        rateLimiter.sweep();
+
+        // Then
+        assertThat(rateLimiter.bucketCount()).isEqualTo(1);
+    }
+
+    @Test
+    void tryAcquireForIp_MapFull_NewClientsShareOverflowBucket() {
+        // Given - a map of two buckets, both still refilling
+        RateLimiter small = new RateLimiter(true, new RateLimiter.Limit(10, 10), new RateLimiter.Limit(2, 1),
+                31, 500, 2, Duration.ofMinutes(1), clock);
+        small.tryAcquireForIp("10.0.0.1", 1);
+        small.tryAcquireForIp("10.0.0.2", 1);
+
+        // When - a sweep frees nothing, so further new clients draw from one shared bucket
+        assertThat(small.tryAcquireForIp("10.0.0.3", 1)).isZero();
+        assertThat(small.tryAcquireForIp("10.0.0.4", 1)).isZero();
+        Duration wait = small.tryAcquireForIp("10.0.0.5", 1);
+
+        // Then
+        assertThat(wait).isPositive();
+        assertThat(small.bucketCount()).isEqualTo(2);
+    }
+
+    @Test
+    void tryAcquireForIp_MapFull_SweepsAtMostOncePerInterval() {
+        // Given - a full map whose first sweep ran just now
+        RateLimiter small = new RateLimiter(true, new RateLimiter.Limit(10, 10), new RateLimiter.Limit(2, 1),
+                31, 500, 1, Duration.ofMinutes(1), clock);
+        small.tryAcquireForIp("10.0.0.1", 2);
+        small.tryAcquireForIp("10.0.0.2", 1);
+
+        // When - the first bucket refilled, but the interval has not passed
+        when(clock.millis()).thenReturn(NOW + 5_000);
+        small.tryAcquireForIp("10.0.0.3", 1);
+
+        // Then it is only dropped once the next sweep is allowed
+        assertThat(small.bucketCount()).isEqualTo(1);
+        when(clock.millis()).thenReturn(NOW + 60_000);
+        small.tryAcquireForIp("10.0.0.3", 1);
+        assertThat(small.bucketCount()).isEqualTo(1);
+        assertThat(small.tryAcquireForIp("10.0.0.3", 2)).isPositive();
+    }
+
+    @Test
+    void tryAcquireForUser_Disabled_AlwaysAdmits() {
+        // Given
+        RateLimiter disabled = new RateLimiter(false, new RateLimiter.Limit(1, 1), new RateLimiter.Limit(1, 1),
+                31, 500, 100, Duration.ofMinutes(1), clock);
+
+        // When / Then
+        assertThat(disabled.tryAcquireForUser("test@example.com", 1)).isZero();
+        assertThat(disabled.tryAcquireForUser("test@example.com", 1)).isZero();
+        assertThat(disabled.bucketCount()).isZero();
+    }
+}
@@ -22,11 +22,14 @@ class SecurityConfigTest {
     @Mock
     private TokenStore tokenStore;
 
+    @Mock
+    private RateLimiter rateLimiter;
+
     private SecurityConfig securityConfig;
 
     @BeforeEach
     void setUp() {
-        securityConfig = new SecurityConfig(tokenStore);
+        securityConfig = new SecurityConfig(tokenStore, rateLimiter);
     }
 
     @Test
@@ -0,0 +1,88 @@
+package com.example.calendar.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SignedTokenCodecTest {
+
+    private static final String KEY = Base64.getEncoder().encodeToString(new byte[32]);
+    private static final Instant NOW = Instant.parse("2024-06-01T10:00:00Z");
+
+    private SignedTokenCodec codec;
+
+    @BeforeEach
+    void setUp() {
+        codec = new SignedTokenCodec(true, KEY, Duration.ofHours(1), Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void issue_ThenVerify_ReturnsClaims() {
+        // When
+        String token = codec.issue("test@example.com");
+        SignedTokenCodec.VerifiedToken verified = codec.verify(token);
+
+        // Then
+        assertThat(SignedTokenCodec.isSignedToken(token)).isTrue();
+        assertThat(verified).isNotNull();
+        assertThat(verified.getEmail()).isEqualTo("test@example.com");
+        assertThat(verified.getTokenId()).isNotBlank();
+        assertThat(verified.getExpiresAt()).isEqualTo(NOW.plus(Duration.ofHours(1)));
+    }
+
+    @Test
+    void issue_WithUserId_CarriesIdInClaims() {
+        assertThat(codec.verify(codec.issue(42L, "test@example.com")).getUserId()).isEqualTo(42L);
+        assertThat(codec.verify(codec.issue("test@example.com")).getUserId()).isNull();
+    }
+
+    @Test
+    void verify_OtherNodeWithSameKey_AcceptsToken() {
+        SignedTokenCodec otherNode = new SignedTokenCodec(true, KEY, Duration.ofHours(1), Clock.fixed(NOW, ZoneOffset.UTC));
+
+        assertThat(otherNode.verify(codec.issue("test@example.com")).getEmail()).isEqualTo("test@example.com");
+    }
+
+    @Test
+    void verify_TamperedOrForeignToken_ReturnsNull() {
+        String token = codec.issue("test@example.com");
+        String[] parts = token.split("\\.");
+        String forgedPayload = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("{\"sub\":\"admin@example.com\",\"jti\":\"x\",\"exp\":9999999999}".getBytes());
+        SignedTokenCodec otherKey = new SignedTokenCodec(true, "", Duration.ofHours(1), Clock.fixed(NOW, ZoneOffset.UTC));
+
+        assertThat(codec.verify(parts[0] + "." + forgedPayload + "." + parts[2])).isNull();
+        assertThat(codec.verify(otherKey.issue("test@example.com"))).isNull();
+        assertThat(codec.verify("not-a-token")).isNull();
+    }
+
+    @Test
+    void verify_ExpiredToken_ReturnsNull() {
+        String token = codec.issue("test@example.com");
+        SignedTokenCodec later = new SignedTokenCodec(true, KEY, Duration.ofHours(1),
+                Clock.fixed(NOW.plus(Duration.ofHours(2)), ZoneOffset.UTC));
+
+        assertThat(later.verify(token)).isNull();
+    }
+
+    @Test
+    void constructor_ShortKey_Throws() {
+        String shortKey = Base64.getEncoder().encodeToString(new byte[16]);
+
+        assertThatThrownBy(() -> new SignedTokenCodec(true, shortKey, Duration.ofHours(1), Clock.systemUTC()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void isSignedToken_OpaqueUuid_ReturnsFalse() {
+        assertThat(SignedTokenCodec.isSignedToken("1b4e28ba-2fa1-11d2-883f-0016d3cca427")).isFalse();
+    }
+}
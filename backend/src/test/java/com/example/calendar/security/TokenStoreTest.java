@@ -1,9 +1,26 @@
 package com.example.calendar.security;
 
+import com.example.calendar.model.SignedTokenRevocation;
+import com.example.calendar.repository.SignedTokenRevocationRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 class TokenStoreTest {
 
@@ -141,4 +158,233 @@ class TokenStoreTest {
         assertThat(tokenStore.getEmail(token1)).isNull();
         assertThat(tokenStore.getEmail(token2)).isEqualTo(email2);
     }
-}
\ No newline at end of file
+
+    @Test
+    void signedMode_IssuesStatelessTokensAndRevokesOnLogout() {
+        // Given
+        Clock clock = Clock.fixed(Instant.parse("2024-06-01T10:00:00Z"), ZoneOffset.UTC);
+        String key = Base64.getEncoder().encodeToString(new byte[32]);
+        TokenRevocationList revocationList = new TokenRevocationList(mock(SignedTokenRevocationRepository.class), false, clock);
+        TokenStore signedStore = new TokenStore(new SignedTokenCodec(true, key, Duration.ofHours(1), clock),
+                revocationList, Duration.ofHours(1), 10, 100, Duration.ofMinutes(1), clock);
+        // A second node sharing only the key
+        TokenStore otherNode = new TokenStore(new SignedTokenCodec(true, key, Duration.ofHours(1), clock),
+                new TokenRevocationList(mock(SignedTokenRevocationRepository.class), false, clock), Duration.ofHours(1), 10, 100, Duration.ofMinutes(1), clock);
+
+        // When
+        String token = signedStore.create("test@example.com");
+        String other = signedStore.create("test@example.com");
+
+        // Then
+        assertThat(SignedTokenCodec.isSignedToken(token)).isTrue();
+        assertThat(otherNode.getEmail(token)).isEqualTo("test@example.com");
+
+        signedStore.invalidate(token);
+        assertThat(signedStore.getEmail(token)).isNull();
+        assertThat(signedStore.getEmail(other)).isEqualTo("test@example.com");
+        assertThat(revocationList.size()).isEqualTo(1);
+    }
+
+    @Test
+    void signedMode_LogoutOnOneNode_IsHonoredByOthersAfterTheirPoll() {
+        // Given two nodes sharing the key and the revocations table
+        Clock clock = Clock.fixed(Instant.parse("2024-06-01T10:00:00Z"), ZoneOffset.UTC);
+        String key = Base64.getEncoder().encodeToString(new byte[32]);
+        SignedTokenRevocationRepository revocations = mock(SignedTokenRevocationRepository.class);
+        TokenStore node = new TokenStore(new SignedTokenCodec(true, key, Duration.ofHours(1), clock),
+                new TokenRevocationList(revocations, true, clock), Duration.ofHours(1), 10, 100,
+                Duration.ofMinutes(1), clock);
+        TokenRevocationList otherList = new TokenRevocationList(revocations, true, clock);
+        TokenStore otherNode = new TokenStore(new SignedTokenCodec(true, key, Duration.ofHours(1), clock),
+                otherList, Duration.ofHours(1), 10, 100, Duration.ofMinutes(1), clock);
+        String token = node.create("test@example.com");
+
+        // When
+        node.invalidate(token);
+
+        // Then the logout was written, and the other node rejects the token once it has polled
+        ArgumentCaptor<SignedTokenRevocation> saved = ArgumentCaptor.forClass(SignedTokenRevocation.class);
+        verify(revocations).save(saved.capture());
+        assertThat(saved.getValue().getExpiresAt()).isEqualTo(clock.millis() + Duration.ofHours(1).toMillis());
+        assertThat(otherNode.getEmail(token)).isEqualTo("test@example.com");
+
+        saved.getValue().setSeq(1L);
+        when(revocations.findUnexpiredAfter(anyLong(), anyLong(), anyLong())).thenReturn(List.of(saved.getValue()));
+        otherList.pollRevocations();
+        assertThat(otherNode.getEmail(token)).isNull();
+    }
+
+    @Test
+    void signedMode_PollRereadsRecentRevocationsBelowTheLastSequence() {
+        // Given a list that has already read a logout with sequence 7
+        Clock clock = Clock.fixed(Instant.parse("2024-06-01T10:00:00Z"), ZoneOffset.UTC);
+        long now = clock.millis();
+        long since = now - TokenRevocationList.REREAD_WINDOW.toMillis();
+        SignedTokenRevocationRepository revocations = mock(SignedTokenRevocationRepository.class);
+        TokenRevocationList list = new TokenRevocationList(revocations, true, clock);
+        SignedTokenRevocation later = SignedTokenRevocation.builder()
+                .seq(7L).tokenId("later").expiresAt(now + 60_000).revokedAt(now).build();
+        when(revocations.findUnexpiredAfter(0L, since, now)).thenReturn(List.of(later));
+        list.pollRevocations();
+
+        // When sequence 6 commits after it
+        SignedTokenRevocation committedLate = SignedTokenRevocation.builder()
+                .seq(6L).tokenId("committed-late").expiresAt(now + 60_000).revokedAt(now).build();
+        when(revocations.findUnexpiredAfter(7L, since, now)).thenReturn(List.of(committedLate, later));
+        list.pollRevocations();
+
+        // Then it is applied, and the next poll still starts after sequence 7
+        assertThat(list.isRevoked("committed-late")).isTrue();
+        assertThat(list.isRevoked("later")).isTrue();
+        list.pollRevocations();
+        verify(revocations, times(2)).findUnexpiredAfter(7L, since, now);
+    }
+
+    @Test
+    void resolve_CarriesUserIdInBothModes() {
+        // Given
+        String key = Base64.getEncoder().encodeToString(new byte[32]);
+        Clock clock = Clock.systemUTC();
+        TokenStore signedStore = new TokenStore(new SignedTokenCodec(true, key, Duration.ofHours(1), clock),
+                new TokenRevocationList(mock(SignedTokenRevocationRepository.class), false, clock), Duration.ofHours(1), 10, 100, Duration.ofMinutes(1), clock);
+
+        // When
+        AuthenticatedUser opaque = tokenStore.resolve(tokenStore.create(42L, "test@example.com"));
+        AuthenticatedUser signed = signedStore.resolve(signedStore.create(42L, "test@example.com"));
+
+        // Then
+        assertThat(opaque).isEqualTo(new AuthenticatedUser(42L, "test@example.com"));
+        assertThat(signed).isEqualTo(new AuthenticatedUser(42L, "test@example.com"));
+        assertThat(tokenStore.resolve(tokenStore.create("test@example.com")).getId()).isNull();
+    }
+
+    @Test
+    void revocationList_PurgeExpired_DropsEntriesOfExpiredTokens() {
+        // Given
+        Clock clock = mock(Clock.class);
+        Instant now = Instant.parse("2024-06-01T10:00:00Z");
+        when(clock.instant()).thenReturn(now);
+        when(clock.millis()).thenReturn(now.toEpochMilli());
+        TokenRevocationList revocationList = new TokenRevocationList(mock(SignedTokenRevocationRepository.class), false, clock);
+        revocationList.revoke("short", now.plusSeconds(60));
+        revocationList.revoke("long", now.plusSeconds(3600));
+        revocationList.revoke("already-expired", now.minusSeconds(1));
+
+        // When
+        when(clock.millis()).thenReturn(now.plusSeconds(120).toEpochMilli());
+        revocationList.purgeExpired();
+
+        // Then
+        assertThat(revocationList.isRevoked("short")).isFalse();
+        assertThat(revocationList.isRevoked("long")).isTrue();
+        assertThat(revocationList.size()).isEqualTo(1);
+    }
+
+    @Test
+    void getEmail_AfterTtlWithoutUse_ReturnsNullAndSweepReclaims() {
+        // Given
+        Clock clock = mock(Clock.class);
+        when(clock.millis()).thenReturn(0L);
+        TokenStore expiring = opaqueStore(clock, 10, 100);
+        String token = expiring.create("test@example.com");
+
+        // When
+        when(clock.millis()).thenReturn(Duration.ofMinutes(61).toMillis());
+
+        // Then
+        assertThat(expiring.getEmail(token)).isNull();
+        assertThat(expiring.liveTokens()).isEqualTo(1);
+        expiring.sweep();
+        assertThat(expiring.liveTokens()).isZero();
+    }
+
+    @Test
+    void getEmail_UsedInSecondHalfOfLifetime_SlidesExpiry() {
+        // Given
+        Clock clock = mock(Clock.class);
+        when(clock.millis()).thenReturn(0L);
+        TokenStore expiring = opaqueStore(clock, 10, 100);
+        String token = expiring.create("test@example.com");
+
+        // When - used at 40 minutes, renewed until 100 minutes
+        when(clock.millis()).thenReturn(Duration.ofMinutes(40).toMillis());
+        assertThat(expiring.getEmail(token)).isEqualTo("test@example.com");
+        when(clock.millis()).thenReturn(Duration.ofMinutes(61).toMillis());
+        expiring.sweep();
+
+        // Then
+        assertThat(expiring.getEmail(token)).isEqualTo("test@example.com");
+        when(clock.millis()).thenReturn(Duration.ofMinutes(101).toMillis());
+        expiring.sweep();
+        assertThat(expiring.getEmail(token)).isNull();
+        assertThat(expiring.liveTokens()).isZero();
+    }
+
+    @Test
+    void create_OverPerUserLimit_DropsOldestTokenOfThatUser() {
+        // Given
+        Clock clock = mock(Clock.class);
+        when(clock.millis()).thenReturn(0L);
+        TokenStore limited = opaqueStore(clock, 2, 100);
+        String first = limited.create("test@example.com");
+        String second = limited.create("test@example.com");
+        String otherUser = limited.create("other@example.com");
+
+        // When
+        String third = limited.create("test@example.com");
+
+        // Then
+        assertThat(limited.getEmail(first)).isNull();
+        assertThat(limited.getEmail(second)).isEqualTo("test@example.com");
+        assertThat(limited.getEmail(third)).isEqualTo("test@example.com");
+        assertThat(limited.getEmail(otherUser)).isEqualTo("other@example.com");
+    }
+
+    @Test
+    void create_OverGlobalCap_DropsSoonestExpiringToken() {
+        // Given
+        Clock clock = mock(Clock.class);
+        when(clock.millis()).thenReturn(0L);
+        TokenStore capped = opaqueStore(clock, 10, 2);
+        String first = capped.create("a@example.com");
+        when(clock.millis()).thenReturn(Duration.ofMinutes(5).toMillis());
+        String second = capped.create("b@example.com");
+
+        // When
+        String third = capped.create("c@example.com");
+
+        // Then
+        assertThat(capped.liveTokens()).isEqualTo(2);
+        assertThat(capped.getEmail(first)).isNull();
+        assertThat(capped.getEmail(second)).isEqualTo("b@example.com");
+        assertThat(capped.getEmail(third)).isEqualTo("c@example.com");
+    }
+
+    @Test
+    void bindTo_ExposesLiveTokensAndEvictions() {
+        // Given
+        Clock clock = mock(Clock.class);
+        when(clock.millis()).thenReturn(0L);
+        TokenStore limited = opaqueStore(clock, 1, 100);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        limited.bindTo(registry);
+
+        // When
+        limited.create("test@example.com");
+        limited.create("test@example.com");
+        limited.create("other@example.com");
+        when(clock.millis()).thenReturn(Duration.ofHours(2).toMillis());
+        limited.sweep();
+
+        // Then
+        assertThat(registry.get("calendar.auth.tokens.live").gauge().value()).isZero();
+        assertThat(registry.get("calendar.auth.tokens.evictions").tag("reason", "user-limit")
+                .functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("calendar.auth.tokens.evictions").tag("reason", "expired")
+                .functionCounter().count()).isEqualTo(2);
+    }
+
+    private TokenStore opaqueStore(Clock clock, int maxPerUser, int maxTokens) {
+        return new TokenStore(null, null, Duration.ofHours(1), maxPerUser, maxTokens, Duration.ofMinutes(1), clock);
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.calendar.service;
+
+import com.example.calendar.dto.EventChangeNotice;
+import com.example.calendar.dto.ReminderNotice;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CalendarChangeFeedTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 6, 3, 9, 0);
+
+    /** Keeps what would have been written to the client */
+    static class RecordingEmitter extends SseEmitter {
+        final List<List<Object>> frames = new ArrayList<>();
+        boolean completed;
+        boolean broken;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (broken) {
+                throw new IOException("Broken pipe");
+            }
+            frames.add(builder.build().stream().map(DataWithMediaType::getData).collect(Collectors.toList()));
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        String text() {
+            return frames.stream().flatMap(List::stream).map(String::valueOf).collect(Collectors.joining());
+        }
+    }
+
+    private final List<RecordingEmitter> emitters = new ArrayList<>();
+    private CalendarChangeFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        feed = new CalendarChangeFeed(Duration.ofMinutes(30), 3, 2) {
+            @Override
+            SseEmitter newEmitter(long timeoutMillis) {
+                RecordingEmitter emitter = new RecordingEmitter();
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+    }
+
+    @Test
+    void publish_BurstOfChanges_IsCoalescedIntoOneFramePerConnection() {
+        // Given
+        RecordingEmitter emitter = (RecordingEmitter) feed.subscribe(1L);
+        feed.subscribe(2L);
+
+        // When event 5 changes twice and event 6 once before a flush
+        feed.publish(1L, List.of(notice(5L, 1L)));
+        feed.publish(1L, List.of(notice(6L, 2L)));
+        feed.publish(1L, List.of(notice(5L, 3L)));
+        feed.flush();
+        feed.flush();
+
+        // Then
+        assertThat(emitter.text()).contains("connected");
+        assertThat(emitter.frames.get(1)).anySatisfy(data -> assertThat(data)
+                .isEqualTo(List.of(notice(6L, 2L), notice(5L, 3L))));
+        assertThat(emitter.frames).hasSize(2);
+        // The other user's connection got nothing
+        assertThat(emitters.get(1).frames).hasSize(1);
+    }
+
+    @Test
+    void publish_BufferOverflow_SendsResyncInstead() {
+        // Given
+        RecordingEmitter emitter = (RecordingEmitter) feed.subscribe(1L);
+
+        // When more distinct events change than the buffer holds
+        feed.publish(1L, List.of(notice(1L, 1L), notice(2L, 1L), notice(3L, 1L), notice(4L, 1L)));
+        feed.flush();
+
+        // Then
+        assertThat(emitter.text()).contains("event:resync").doesNotContain("event:changes");
+    }
+
+    @Test
+    void publishReminder_IsSentAsItsOwnFrameAfterPendingChanges() {
+        // Given
+        RecordingEmitter emitter = (RecordingEmitter) feed.subscribe(1L);
+        ReminderNotice reminder = new ReminderNotice(5L, "Standup", START, 10);
+
+        // When
+        feed.publishReminder(1L, reminder);
+        feed.publish(1L, List.of(notice(6L, 2L)));
+        feed.publishReminder(2L, reminder);
+        feed.flush();
+
+        // Then
+        assertThat(emitter.frames).hasSize(3);
+        assertThat(String.valueOf(emitter.frames.get(1))).contains("event:changes");
+        assertThat(String.valueOf(emitter.frames.get(2))).contains("event:reminder");
+        assertThat(emitter.frames.get(2)).contains(reminder);
+    }
+
+    @Test
+    void publishReminder_BeyondCapacity_DropsOldest() {
+        // Given
+        RecordingEmitter emitter = (RecordingEmitter) feed.subscribe(1L);
+
+        // When more reminders fire than the buffer holds
+        for (int minutes = 1; minutes <= 4; minutes++) {
+            feed.publishReminder(1L, new ReminderNotice(5L, "Standup", START, minutes));
+        }
+        feed.flush();
+
+        // Then
+        assertThat(emitter.frames).hasSize(4);
+        assertThat(emitter.frames.get(1)).contains(new ReminderNotice(5L, "Standup", START, 2));
+    }
+
+    @Test
+    void subscribe_BeyondLimit_ClosesOldestConnection() {
+        // When
+        feed.subscribe(1L);
+        feed.subscribe(1L);
+        feed.subscribe(1L);
+
+        // Then
+        assertThat(emitters.get(0).completed).isTrue();
+        assertThat(emitters.get(2).completed).isFalse();
+        assertThat(feed.connectionCount()).isEqualTo(2);
+    }
+
+    @Test
+    void heartbeat_DeadConnection_IsDropped() {
+        // Given
+        RecordingEmitter alive = (RecordingEmitter) feed.subscribe(1L);
+        RecordingEmitter dead = (RecordingEmitter) feed.subscribe(1L);
+        dead.broken = true;
+
+        // When
+        feed.heartbeat();
+
+        // Then
+        assertThat(alive.text()).contains("heartbeat");
+        assertThat(feed.connectionCount()).isEqualTo(1);
+    }
+
+    private static EventChangeNotice notice(Long eventId, long version) {
+        return new EventChangeNotice(eventId, EventChangeNotice.Kind.CHANGED, START, START.plusHours(1), version);
+    }
+}
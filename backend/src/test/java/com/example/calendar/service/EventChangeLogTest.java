@@ -0,0 +1,115 @@
+package com.example.calendar.service;
+
+import com.example.calendar.dto.EventChangeNotice;
+import com.example.calendar.model.Event;
+import com.example.calendar.model.EventChange;
+import com.example.calendar.repository.EventChangeRepository;
+import com.example.calendar.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EventChangeLogTest {
+
+    @Mock
+    private EventChangeRepository changes;
+
+    @Mock
+    private UserRepository users;
+
+    @Mock
+    private CalendarChangeFeed feed;
+
+    private static final long NOW = Instant.parse("2024-06-01T10:00:00Z").toEpochMilli();
+
+    private Clock clock;
+    private EventChangeLog changeLog;
+
+    @BeforeEach
+    void setUp() {
+        clock = mock(Clock.class);
+        changeLog = new EventChangeLog(changes, users, feed, Duration.ofDays(30), clock);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void record_WritesEntriesAtCurrentVersionAndPublishesNotices() {
+        // Given a one-off event changed and an open-ended series deleted
+        when(clock.millis()).thenReturn(NOW);
+        when(users.findCalendarVersionById(1L)).thenReturn(Optional.of(12L));
+        LocalDateTime start = LocalDateTime.of(2024, 6, 3, 9, 0);
+        Event oneOff = Event.builder().id(3L).startDateTime(start).endDateTime(start.plusHours(1)).build();
+        Event series = Event.builder().id(4L).startDateTime(start).endDateTime(start.plusHours(1))
+                .recurrenceRule("FREQ=WEEKLY").build();
+
+        // When
+        changeLog.record(1L, List.of(oneOff), List.of(series));
+
+        // Then
+        ArgumentCaptor<List<EventChange>> saved = ArgumentCaptor.forClass(List.class);
+        verify(changes).saveAll(saved.capture());
+        assertThat(saved.getValue())
+                .extracting(EventChange::getEventId, EventChange::isDeleted, EventChange::getVersion,
+                        EventChange::getChangedAt)
+                .containsExactly(tuple(3L, false, 12L, NOW), tuple(4L, true, 12L, NOW));
+        verify(feed).publish(1L, List.of(
+                new EventChangeNotice(3L, EventChangeNotice.Kind.CHANGED, start, start.plusHours(1), 12L),
+                new EventChangeNotice(4L, EventChangeNotice.Kind.DELETED, start, null, 12L)));
+    }
+
+    @Test
+    void record_NothingChanged_WritesNothing() {
+        // When
+        changeLog.record(1L, List.of(), List.of());
+
+        // Then
+        verifyNoInteractions(changes, users, feed);
+    }
+
+    @Test
+    void compact_RaisesFloorsBeforeDeletingOldEntries() {
+        // Given
+        when(clock.millis()).thenReturn(NOW);
+        long before = NOW - Duration.ofDays(30).toMillis();
+
+        // When
+        changeLog.compact();
+
+        // Then
+        InOrder order = inOrder(changes, users);
+        order.verify(changes).deleteSuperseded();
+        order.verify(users).raiseChangeLogFloors(before);
+        order.verify(changes).deleteChangedBefore(before);
+    }
+
+    @Test
+    void syncToken_RoundTrips() {
+        assertThat(EventChangeLog.parseSyncToken(EventChangeLog.syncToken(42L))).isEqualTo(42L);
+    }
+
+    @Test
+    void parseSyncToken_Malformed_ThrowsIllegalArgumentException() {
+        assertThatThrownBy(() -> EventChangeLog.parseSyncToken("%%%"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid sync token");
+        assertThatThrownBy(() -> EventChangeLog.parseSyncToken(java.util.Base64.getUrlEncoder().encodeToString("v-1".getBytes())))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.calendar.service;
+
+import com.example.calendar.dto.EventDTO;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventIntervalIndexTest {
+
+    private static final LocalDateTime WINDOW_START = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final LocalDateTime WINDOW_END = LocalDateTime.of(2024, 2, 1, 0, 0);
+
+    @Test
+    void find_ReturnsOverlappingEventsInStartOrder() {
+        EventIntervalIndex index = new EventIntervalIndex(List.of(
+                event(1L, LocalDateTime.of(2024, 1, 2, 9, 0), 1),
+                event(2L, LocalDateTime.of(2024, 1, 3, 9, 0), 1),
+                event(3L, LocalDateTime.of(2024, 1, 3, 11, 0), 2),
+                event(4L, LocalDateTime.of(2024, 1, 5, 9, 0), 1)), WINDOW_START, WINDOW_END);
+
+        List<EventDTO> result = index.find(LocalDateTime.of(2024, 1, 3, 10, 0), LocalDateTime.of(2024, 1, 5, 9, 0));
+
+        // Event 2 ends exactly at the range start and event 4 starts exactly at the range end
+        assertThat(result).extracting(EventDTO::getId).containsExactly(3L);
+    }
+
+    @Test
+    void find_IncludesLongEventStartingBeforeTheRange() {
+        EventIntervalIndex index = new EventIntervalIndex(List.of(
+                event(1L, LocalDateTime.of(2024, 1, 1, 9, 0), 24 * 10),
+                event(2L, LocalDateTime.of(2024, 1, 2, 9, 0), 1),
+                event(3L, LocalDateTime.of(2024, 1, 6, 9, 0), 1)), WINDOW_START, WINDOW_END);
+
+        List<EventDTO> result = index.find(LocalDateTime.of(2024, 1, 6, 0, 0), LocalDateTime.of(2024, 1, 7, 0, 0));
+
+        assertThat(result).extracting(EventDTO::getId).containsExactly(1L, 3L);
+    }
+
+    @Test
+    void find_EmptyIndexOrRangeWithoutEvents_ReturnsEmptyList() {
+        EventIntervalIndex empty = new EventIntervalIndex(List.of(), WINDOW_START, WINDOW_END);
+        EventIntervalIndex index = new EventIntervalIndex(List.of(
+                event(1L, LocalDateTime.of(2024, 1, 2, 9, 0), 1)), WINDOW_START, WINDOW_END);
+
+        assertThat(empty.find(WINDOW_START, WINDOW_END)).isEmpty();
+        assertThat(index.find(LocalDateTime.of(2024, 1, 10, 0, 0), LocalDateTime.of(2024, 1, 11, 0, 0))).isEmpty();
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void covers_OnlyRangesInsideTheWindow() {
+        EventIntervalIndex index = new EventIntervalIndex(List.of(), WINDOW_START, WINDOW_END);
+
+        assertThat(index.covers(WINDOW_START, WINDOW_END)).isTrue();
+        assertThat(index.covers(WINDOW_START.minusSeconds(1), WINDOW_END)).isFalse();
+        assertThat(index.covers(WINDOW_START, WINDOW_END.plusSeconds(1))).isFalse();
+    }
+
+    private EventDTO event(Long id, LocalDateTime start, int hours) {
+        return EventDTO.builder()
+                .id(id)
+                .title("Event " + id)
+                .startDateTime(start)
+                .endDateTime(start.plusHours(hours))
+                .build();
+    }
+}
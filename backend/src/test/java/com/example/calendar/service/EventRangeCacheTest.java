@@ -0,0 +1,143 @@
+package com.example.calendar.service;
+
+import com.example.calendar.dto.EventDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventRangeCacheTest {
+
+    private static final LocalDateTime TODAY = LocalDateTime.of(2024, 6, 1, 0, 0);
+
+    private final Clock clock = Clock.fixed(Instant.parse("2024-06-01T10:00:00Z"), ZoneOffset.UTC);
+    private final List<String> loads = new ArrayList<>();
+    private EventRangeCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new EventRangeCache(true, 7, 30, 10, clock);
+    }
+
+    @Test
+    void find_BuildsIndexForWindowOnceAndServesLaterRangesFromIt() {
+        List<EventDTO> first = cache.find("a@example.com", TODAY, TODAY.plusDays(1), this::load).orElseThrow();
+        List<EventDTO> second = cache.find("a@example.com", TODAY.plusDays(1), TODAY.plusDays(2), this::load)
+                .orElseThrow();
+
+        assertThat(loads).containsExactly("a@example.com " + TODAY.minusDays(7) + " " + TODAY.plusDays(31));
+        assertThat(first).extracting(EventDTO::getStartDateTime).containsExactly(TODAY.plusHours(9));
+        assertThat(second).extracting(EventDTO::getStartDateTime).containsExactly(TODAY.plusDays(1).plusHours(9));
+    }
+
+    @Test
+    void find_RangeOutsideWindowOrDisabled_ReturnsEmpty() {
+        EventRangeCache disabled = new EventRangeCache(false, 7, 30, 10, clock);
+
+        assertThat(cache.find("a@example.com", TODAY.minusDays(8), TODAY, this::load)).isEmpty();
+        assertThat(cache.find("a@example.com", TODAY, TODAY.plusDays(32), this::load)).isEmpty();
+        assertThat(disabled.find("a@example.com", TODAY, TODAY.plusDays(1), this::load)).isEmpty();
+        assertThat(loads).isEmpty();
+    }
+
+    @Test
+    void invalidate_ForcesRebuildForThatUserOnly() {
+        cache.find("a@example.com", TODAY, TODAY.plusDays(1), this::load);
+        cache.find("b@example.com", TODAY, TODAY.plusDays(1), this::load);
+
+        cache.invalidate("a@example.com");
+        cache.find("a@example.com", TODAY, TODAY.plusDays(1), this::load);
+        cache.find("b@example.com", TODAY, TODAY.plusDays(1), this::load);
+
+        assertThat(loads).extracting(load -> load.split(" ")[0])
+                .containsExactly("a@example.com", "b@example.com", "a@example.com");
+    }
+
+    @Test
+    void invalidate_InTransaction_DropsIndexAgainAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.invalidate("a@example.com");
+            // A read before the commit rebuilds from the old state
+            cache.find("a@example.com", TODAY, TODAY.plusDays(1), this::load);
+
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCommit();
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        cache.find("a@example.com", TODAY, TODAY.plusDays(1), this::load);
+
+        assertThat(loads).hasSize(2);
+    }
+
+    @Test
+    void find_InvalidatedWhileLoading_DoesNotStoreIndex() {
+        List<EventDTO> result = cache.find("a@example.com", TODAY, TODAY.plusDays(1), (email, start, end) -> {
+            List<EventDTO> events = load(email, start, end);
+            cache.invalidate(email);
+            return events;
+        }).orElseThrow();
+        cache.find("a@example.com", TODAY, TODAY.plusDays(1), this::load);
+
+        assertThat(result).hasSize(1);
+        assertThat(loads).hasSize(2);
+    }
+
+    @Test
+    void find_EvictsLeastRecentlyReadUsersBeyondMaxEntries() {
+        // Each user's window holds 4 events; the cache holds at most 10
+        cache.find("a@example.com", TODAY, TODAY.plusDays(1), this::loadFour);
+        cache.find("b@example.com", TODAY, TODAY.plusDays(1), this::loadFour);
+        cache.find("a@example.com", TODAY, TODAY.plusDays(1), this::loadFour);
+        cache.find("c@example.com", TODAY, TODAY.plusDays(1), this::loadFour);
+
+        assertThat(cache.totalEntries()).isEqualTo(8);
+        cache.find("a@example.com", TODAY, TODAY.plusDays(1), this::loadFour);
+        cache.find("b@example.com", TODAY, TODAY.plusDays(1), this::loadFour);
+        assertThat(loads).extracting(load -> load.split(" ")[0]).containsExactly(
+                "a@example.com", "b@example.com", "c@example.com", "b@example.com");
+    }
+
+    @Test
+    void find_WindowLargerThanMaxEntries_IsServedButNotStored() {
+        EventRangeCache tiny = new EventRangeCache(true, 7, 30, 3, clock);
+
+        List<EventDTO> result = tiny.find("a@example.com", TODAY, TODAY.plusDays(1), this::loadFour).orElseThrow();
+
+        assertThat(result).hasSize(1);
+        assertThat(tiny.totalEntries()).isZero();
+    }
+
+    /**
+     * One event at 09:00 on each of the first two days of the window's future part
+     */
+    private List<EventDTO> load(String email, LocalDateTime start, LocalDateTime end) {
+        loads.add(email + " " + start + " " + end);
+        return List.of(event(TODAY.plusHours(9)), event(TODAY.plusDays(1).plusHours(9)));
+    }
+
+    private List<EventDTO> loadFour(String email, LocalDateTime start, LocalDateTime end) {
+        loads.add(email + " " + start + " " + end);
+        return List.of(event(TODAY.minusDays(1)), event(TODAY.plusHours(9)),
+                event(TODAY.plusDays(2)), event(TODAY.plusDays(3)));
+    }
+
+    private EventDTO event(LocalDateTime start) {
+        return EventDTO.builder()
+                .title("Event")
+                .startDateTime(start)
+                .endDateTime(start.plusHours(1))
+                .build();
+    }
+}
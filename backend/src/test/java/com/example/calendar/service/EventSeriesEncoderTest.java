@@ -0,0 +1,115 @@
+package com.example.calendar.service;
+
+import com.example.calendar.dto.EventDTO;
+import com.example.calendar.dto.EventPage;
+import com.example.calendar.dto.EventSeriesPage;
+import com.example.calendar.dto.TagDTO;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventSeriesEncoderTest {
+
+    private static final LocalDateTime SERIES_START = LocalDateTime.of(2024, 1, 1, 9, 0);
+    private static final TagDTO WORK = new TagDTO(7L, "Work");
+
+    @Test
+    void encode_OccurrencesOfASeries_ShareOneBlockOfStartOffsets() {
+        // Given three daily occurrences, an instance override and a one-off event
+        List<EventDTO> events = List.of(
+                occurrence(SERIES_START.plusDays(14)),
+                EventDTO.builder().id(20L).title("Moved standup").description("Later today")
+                        .startDateTime(SERIES_START.plusDays(15).plusHours(2))
+                        .endDateTime(SERIES_START.plusDays(15).plusHours(3))
+                        .userEmail("user@example.com").parentEventId(5L)
+                        .originalStartDateTime(SERIES_START.plusDays(15)).tags(List.of()).build(),
+                occurrence(SERIES_START.plusDays(16)),
+                EventDTO.builder().id(21L).title("Lunch").description("Out")
+                        .startDateTime(SERIES_START.plusDays(16).plusHours(3))
+                        .endDateTime(SERIES_START.plusDays(16).plusHours(4))
+                        .userEmail("user@example.com").tags(List.of(WORK)).build(),
+                occurrence(SERIES_START.plusDays(17)));
+
+        // When
+        EventSeriesPage page = EventSeriesEncoder.encode(new EventPage(events, "cursor"));
+
+        // Then
+        assertThat(page.getSeries()).hasSize(3);
+        EventSeriesPage.Series series = page.getSeries().get(0);
+        assertThat(series.getId()).isEqualTo(5L);
+        assertThat(series.isOccurrences()).isTrue();
+        assertThat(series.getSeriesStartDate()).isEqualTo(SERIES_START.toLocalDate());
+        assertThat(series.getDurationSeconds()).isEqualTo(1800);
+        assertThat(series.getStartOffsets()).containsExactly(0, 2 * 86400, 86400);
+        assertThat(page.getTags()).extracting(TagDTO::getId).containsExactly(7L);
+        assertThat(page.getNextCursor()).isEqualTo("cursor");
+        // Decoding gives back every event
+        assertThat(decode(page)).usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyInAnyOrderElementsOf(events);
+    }
+
+    @Test
+    void encode_EmptyPage_HasNoSeries() {
+        // When
+        EventSeriesPage page = EventSeriesEncoder.encode(new EventPage(List.of(), null));
+
+        // Then
+        assertThat(page.getSeries()).isEmpty();
+        assertThat(page.getOrigin()).isNull();
+    }
+
+    private static EventDTO occurrence(LocalDateTime start) {
+        return EventDTO.builder()
+                .id(OccurrenceId.encode(5L, ChronoUnit.DAYS.between(SERIES_START, start)))
+                .title("Standup").description("Daily")
+                .startDateTime(start).endDateTime(start.plusMinutes(30))
+                .userEmail("user@example.com")
+                .recurrenceRule("FREQ=DAILY").parentEventId(5L).originalStartDateTime(start)
+                .excludedDates("2024-01-03T09:00").tags(List.of(WORK))
+                .build();
+    }
+
+    /** What a client does with the columnar page */
+    private static List<EventDTO> decode(EventSeriesPage page) {
+        Map<Long, TagDTO> tags = page.getTags().stream()
+                .collect(Collectors.toMap(TagDTO::getId, Function.identity()));
+        List<EventDTO> events = new ArrayList<>();
+        for (EventSeriesPage.Series series : page.getSeries()) {
+            LocalDateTime start = page.getOrigin();
+            for (long offset : series.getStartOffsets()) {
+                start = start.plusSeconds(offset);
+                EventDTO.EventDTOBuilder event = EventDTO.builder()
+                        .title(series.getTitle()).description(series.getDescription())
+                        .startDateTime(start).endDateTime(start.plusSeconds(series.getDurationSeconds()))
+                        .userEmail(page.getUserEmail())
+                        .recurrenceRule(series.getRecurrenceRule())
+                        .recurrenceEndDate(series.getRecurrenceEndDate())
+                        .recurrenceCount(series.getRecurrenceCount())
+                        .excludedDates(series.getExcludedDates())
+                        .tags(series.getTagIds().stream().map(tags::get).collect(Collectors.toList()));
+                if (series.isOccurrences()) {
+                    long days = ChronoUnit.DAYS.between(series.getSeriesStartDate(), start.toLocalDate());
+                    event.id(OccurrenceId.encode(series.getId(), days))
+                            .parentEventId(series.getId())
+                            .originalStartDateTime(start);
+                } else {
+                    event.id(series.getId())
+                            .parentEventId(series.getParentEventId())
+                            .originalStartDateTime(series.getOriginalStartDateTime());
+                }
+                events.add(event.build());
+            }
+        }
+        events.sort(Comparator.comparing(EventDTO::getStartDateTime));
+        return events;
+    }
+}
@@ -1,24 +1,35 @@
 package com.example.calendar.service;
 
 import com.example.calendar.dto.CreateEventDTO;
+import com.example.calendar.dto.EventChanges;
 import com.example.calendar.dto.EventDTO;
+import com.example.calendar.dto.EventPage;
 import com.example.calendar.model.Event;
+import com.example.calendar.model.EventChange;
+import com.example.calendar.model.Occurrence;
 import com.example.calendar.model.Tag;
 import com.example.calendar.model.User;
+import com.example.calendar.repository.EventChangeRepository;
 import com.example.calendar.repository.EventRepository;
 import com.example.calendar.repository.TagRepository;
 import com.example.calendar.repository.UserRepository;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -38,6 +49,27 @@ class EventServiceTest {
     @Mock
     private TagRepository tagRepository;
 
+    @Mock
+    private OccurrenceMaterializer occurrenceMaterializer;
+
+    @Mock
+    private EventRangeCache eventRangeCache;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private EventChangeLog eventChangeLog;
+
+    @Mock
+    private EventChangeRepository eventChangeRepository;
+
+    @Mock
+    private CalendarChangeFeed calendarChangeFeed;
+
+    @Mock
+    private ReminderScheduler reminderScheduler;
+
     @InjectMocks
     private EventService eventService;
 
@@ -101,6 +133,93 @@ class EventServiceTest {
         // Verify repository interactions
         verify(userRepository).findByEmail("test@example.com");
         verify(eventRepository).save(any(Event.class));
+        verify(userRepository).bumpCalendarVersion("test@example.com");
+        verify(eventChangeLog).record(1L, List.of(savedEvent), List.of());
+    }
+
+    @Test
+    void getChangesSince_NoToken_ReturnsFullResync() {
+        // Given
+        when(userRepository.findCalendarVersionById(1L)).thenReturn(Optional.of(4L));
+        when(eventRepository.findAllByUserId(1L)).thenReturn(List.of(savedEvent));
+
+        // When
+        EventChanges changes = eventService.getChangesSince(1L, "test@example.com", null);
+
+        // Then
+        assertThat(changes.isFullResync()).isTrue();
+        assertThat(changes.getEvents()).extracting(EventDTO::getId).containsExactly(1L);
+        assertThat(changes.getSyncToken()).isEqualTo(EventChangeLog.syncToken(4L));
+        verifyNoInteractions(eventChangeRepository);
+    }
+
+    @Test
+    void getChangesSince_Token_ReturnsLastChangeOfEachEvent() {
+        // Given event 1 updated, event 2 created and then deleted
+        when(userRepository.findCalendarVersionById(1L)).thenReturn(Optional.of(6L));
+        when(eventChangeRepository.findChanges(1L, 3L, 6L)).thenReturn(List.of(
+                change(4L, 2L, false), change(5L, 1L, false), change(6L, 2L, true)));
+        when(userRepository.findChangeLogFloorById(1L)).thenReturn(Optional.of(2L));
+        when(eventRepository.findByIdInOrderByStartDateTimeAsc(List.of(1L))).thenReturn(List.of(savedEvent));
+
+        // When
+        EventChanges changes = eventService.getChangesSince(1L, "test@example.com", EventChangeLog.syncToken(3L));
+
+        // Then
+        assertThat(changes.isFullResync()).isFalse();
+        assertThat(changes.getEvents()).extracting(EventDTO::getId).containsExactly(1L);
+        assertThat(changes.getDeletedEventIds()).containsExactly(2L);
+        assertThat(changes.getSyncToken()).isEqualTo(EventChangeLog.syncToken(6L));
+        verify(eventRepository, never()).findAllByUserId(any());
+    }
+
+    @Test
+    void getChangesSince_TokenOlderThanRetainedLog_ReturnsFullResync() {
+        // Given
+        when(userRepository.findCalendarVersionById(1L)).thenReturn(Optional.of(9L));
+        when(eventChangeRepository.findChanges(1L, 3L, 9L)).thenReturn(List.of(change(8L, 1L, false)));
+        when(userRepository.findChangeLogFloorById(1L)).thenReturn(Optional.of(7L));
+        when(eventRepository.findAllByUserId(1L)).thenReturn(List.of(savedEvent));
+
+        // When
+        EventChanges changes = eventService.getChangesSince(1L, "test@example.com", EventChangeLog.syncToken(3L));
+
+        // Then
+        assertThat(changes.isFullResync()).isTrue();
+        assertThat(changes.getDeletedEventIds()).isEmpty();
+    }
+
+    @Test
+    void getChangesSince_InvalidToken_ThrowsIllegalArgumentException() {
+        // When & Then
+        assertThatThrownBy(() -> eventService.getChangesSince(1L, "test@example.com", "not-a-token"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid sync token");
+    }
+
+    private static EventChange change(long version, Long eventId, boolean deleted) {
+        return EventChange.builder().userId(1L).version(version).eventId(eventId).deleted(deleted).build();
+    }
+
+    @Test
+    void getCalendarVersion_ById_ReturnsStoredVersion() {
+        // Given
+        when(userRepository.findCalendarVersionById(1L)).thenReturn(Optional.of(3L));
+
+        // When & Then
+        assertThat(eventService.getCalendarVersion(1L, "test@example.com")).isEqualTo(3L);
+        verify(userRepository, never()).findCalendarVersionByEmail(any());
+    }
+
+    @Test
+    void getCalendarVersion_UnknownUser_ThrowsIllegalArgumentException() {
+        // Given
+        when(userRepository.findCalendarVersionByEmail("missing@example.com")).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThatThrownBy(() -> eventService.getCalendarVersion(null, "missing@example.com"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("User not found");
     }
 
     @Test
@@ -247,7 +366,7 @@ class EventServiceTest {
         List<Event> allEvents = Arrays.asList(event1);
 
         when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
-        when(eventRepository.findByUserOrderByStartDateTimeAsc(testUser))
+        when(eventRepository.findByUserIdOverlappingRangeOrderByStartDateTimeAsc(eq(testUser.getId()), any(), any()))
                 .thenReturn(allEvents);
 
         // When
@@ -261,7 +380,31 @@ class EventServiceTest {
 
         // Verify repository interactions
         verify(userRepository).findByEmail("test@example.com");
-        verify(eventRepository).findByUserOrderByStartDateTimeAsc(testUser);
+        verify(eventRepository).findByUserIdOverlappingRangeOrderByStartDateTimeAsc(testUser.getId(), rangeStart, rangeEnd);
+    }
+
+    @Test
+    void getEventsForUserInRange_KnownUserId_DoesNotLookUpUser() {
+        // Given
+        LocalDateTime rangeStart = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime rangeEnd = LocalDateTime.of(2024, 1, 31, 23, 59);
+        Event event = Event.builder()
+                .id(1L)
+                .title("Event in Range")
+                .startDateTime(LocalDateTime.of(2024, 1, 15, 10, 0))
+                .endDateTime(LocalDateTime.of(2024, 1, 15, 12, 0))
+                .user(testUser)
+                .build();
+        when(eventRepository.findByUserIdOverlappingRangeOrderByStartDateTimeAsc(1L, rangeStart, rangeEnd))
+                .thenReturn(List.of(event));
+
+        // When
+        List<EventDTO> result = eventService.getEventsForUserInRange(1L, "test@example.com", rangeStart, rangeEnd, null);
+
+        // Then
+        assertThat(result).extracting(EventDTO::getTitle).containsExactly("Event in Range");
+        assertThat(result.get(0).getUserEmail()).isEqualTo("test@example.com");
+        verify(userRepository, never()).findByEmail(any());
     }
 
     @Test
@@ -284,14 +427,10 @@ class EventServiceTest {
         updateDTO.setEndDateTime(LocalDateTime.of(2024, 1, 16, 11, 0));
 
         // Generate a proper occurrence ID for the second occurrence (Jan 16)
-        LocalDateTime occurrenceDateTime = LocalDateTime.of(2024, 1, 16, 9, 0);
-        String combined = "1_" + occurrenceDateTime.toString();
-        int hashCode = combined.hashCode();
-        Long occurrenceId = (long) (hashCode & 0x7FFFFFFF);
+        Long occurrenceId = OccurrenceId.encode(1L, 1);
 
         when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
         when(eventRepository.findById(1L)).thenReturn(Optional.of(masterEvent));
-        when(eventRepository.findAll()).thenReturn(Arrays.asList(masterEvent));
         when(eventRepository.save(any(Event.class))).thenAnswer(invocation -> {
             Event event = invocation.getArgument(0);
             if (event.getId() == null) {
@@ -311,6 +450,10 @@ class EventServiceTest {
 
         // Verify that master event was updated with exclusion and instance override was created
         verify(eventRepository, times(2)).save(any(Event.class));
+        verify(occurrenceMaterializer).exclude(masterEvent, LocalDateTime.of(2024, 1, 16, 9, 0));
+        verify(eventRangeCache).invalidate("test@example.com");
+        // The override keeps the series' reminders
+        verify(reminderScheduler).copyReminders(eq(masterEvent), argThat(event -> event.getId() == 2L));
     }
 
     @Test
@@ -335,7 +478,6 @@ class EventServiceTest {
 
         when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
         when(eventRepository.findById(1L)).thenReturn(Optional.of(masterEvent));
-        when(eventRepository.findAll()).thenReturn(Arrays.asList(masterEvent));
         when(eventRepository.save(any(Event.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         // When
@@ -349,6 +491,8 @@ class EventServiceTest {
 
         // Verify that only the master event was updated
         verify(eventRepository, times(1)).save(masterEvent);
+        // Reminders are kept and rescheduled for the new times
+        verify(reminderScheduler).setReminders(masterEvent, null);
     }
 
     @Test
@@ -365,13 +509,10 @@ class EventServiceTest {
                 .build();
 
         // Generate a proper occurrence ID for the second occurrence (Jan 16)
-        LocalDateTime occurrenceDateTime = LocalDateTime.of(2024, 1, 16, 9, 0);
-        String combined = "1_" + occurrenceDateTime.toString();
-        Long occurrenceId = (long) Math.abs(combined.hashCode());
+        Long occurrenceId = OccurrenceId.encode(1L, 1);
 
         when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
-        when(eventRepository.findById(occurrenceId)).thenReturn(Optional.of(masterEvent));
-        when(eventRepository.findAll()).thenReturn(Arrays.asList(masterEvent));
+        when(eventRepository.findById(1L)).thenReturn(Optional.of(masterEvent));
         when(eventRepository.save(any(Event.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         // When
@@ -381,7 +522,9 @@ class EventServiceTest {
         // Verify that the master event was updated with exclusion date
         verify(eventRepository, times(1)).save(masterEvent);
         // The excluded dates should contain the occurrence date
-        assertThat(masterEvent.getExcludedDates()).isNotNull();
+        assertThat(masterEvent.getExcludedDates()).containsExactly(LocalDateTime.of(2024, 1, 16, 9, 0));
+        verify(occurrenceMaterializer).exclude(masterEvent, LocalDateTime.of(2024, 1, 16, 9, 0));
+        verify(eventRangeCache).invalidate("test@example.com");
     }
 
     @Test
@@ -399,7 +542,9 @@ class EventServiceTest {
 
         when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
         when(eventRepository.findById(1L)).thenReturn(Optional.of(masterEvent));
-        when(eventRepository.findAll()).thenReturn(Arrays.asList(masterEvent));
+
+        Event override = Event.builder().id(7L).parentEvent(masterEvent).build();
+        when(eventRepository.findByParentEvent(masterEvent)).thenReturn(List.of(override));
 
         // When
         eventService.deleteEvent(1L, "test@example.com", "series");
@@ -409,6 +554,8 @@ class EventServiceTest {
         verify(eventRepository, times(1)).delete(masterEvent);
         // Verify that instance overrides were also deleted
         verify(eventRepository, times(1)).deleteByParentEvent(masterEvent);
+        // Both leave tombstones for delta sync
+        verify(eventChangeLog).record(1L, List.of(), List.of(masterEvent, override));
     }
 
     @Test
@@ -432,7 +579,7 @@ class EventServiceTest {
         when(eventRepository.findById(1L)).thenReturn(Optional.of(masterEvent));
 
         // First, verify that the series has 4 occurrences before deletion
-        when(eventRepository.findByUserOrderByStartDateTimeAsc(testUser)).thenReturn(Arrays.asList(masterEvent));
+        when(eventRepository.findByUserIdOverlappingRangeOrderByStartDateTimeAsc(eq(testUser.getId()), any(), any())).thenReturn(Arrays.asList(masterEvent));
         List<EventDTO> eventsBefore = eventService.getEventsForUserInRange("test@example.com", rangeStart, rangeEnd);
         assertThat(eventsBefore).hasSize(4);
 
@@ -444,7 +591,7 @@ class EventServiceTest {
         verify(eventRepository, times(1)).deleteByParentEvent(masterEvent);
 
         // Simulate the master event being deleted from repository
-        when(eventRepository.findByUserOrderByStartDateTimeAsc(testUser)).thenReturn(Arrays.asList());
+        when(eventRepository.findByUserIdOverlappingRangeOrderByStartDateTimeAsc(eq(testUser.getId()), any(), any())).thenReturn(Arrays.asList());
 
         // Verify that no occurrences remain for any of those dates
         List<EventDTO> eventsAfter = eventService.getEventsForUserInRange("test@example.com", rangeStart, rangeEnd);
@@ -469,7 +616,7 @@ class EventServiceTest {
         LocalDateTime rangeEnd = LocalDateTime.of(2024, 1, 20, 23, 59);
 
         when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
-        when(eventRepository.findByUserOrderByStartDateTimeAsc(testUser)).thenReturn(Arrays.asList(recurringEvent));
+        when(eventRepository.findByUserIdOverlappingRangeOrderByStartDateTimeAsc(eq(testUser.getId()), any(), any())).thenReturn(Arrays.asList(recurringEvent));
 
         // When
         List<EventDTO> result = eventService.getEventsForUserInRange("test@example.com", rangeStart, rangeEnd);
@@ -563,7 +710,7 @@ class EventServiceTest {
         LocalDateTime rangeEnd = LocalDateTime.of(2024, 2, 15, 23, 59);
 
         when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
-        when(eventRepository.findByUserOrderByStartDateTimeAsc(testUser)).thenReturn(Arrays.asList(weeklyEvent));
+        when(eventRepository.findByUserIdOverlappingRangeOrderByStartDateTimeAsc(eq(testUser.getId()), any(), any())).thenReturn(Arrays.asList(weeklyEvent));
 
         // When
         List<EventDTO> result = eventService.getEventsForUserInRange("test@example.com", rangeStart, rangeEnd);
@@ -593,7 +740,7 @@ class EventServiceTest {
         LocalDateTime rangeEnd = LocalDateTime.of(2024, 4, 30, 23, 59);
 
         when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
-        when(eventRepository.findByUserOrderByStartDateTimeAsc(testUser)).thenReturn(Arrays.asList(monthlyEvent));
+        when(eventRepository.findByUserIdOverlappingRangeOrderByStartDateTimeAsc(eq(testUser.getId()), any(), any())).thenReturn(Arrays.asList(monthlyEvent));
 
         // When
         List<EventDTO> result = eventService.getEventsForUserInRange("test@example.com", rangeStart, rangeEnd);
@@ -605,6 +752,40 @@ class EventServiceTest {
         assertThat(result.get(2).getStartDateTime()).isEqualTo("2024-03-15T14:00:00");
     }
 
+    @Test
+    void getEventsForUserInRange_ByDayRuleWithCount_JumpsToRangeAndHonoursCount() {
+        // Given - Mon/Wed/Fri standup, 10 occurrences from Monday 2024-01-01
+        Event standup = Event.builder()
+                .id(1L)
+                .title("Standup")
+                .description("Mon/Wed/Fri")
+                .startDateTime(LocalDateTime.of(2024, 1, 1, 9, 0))
+                .endDateTime(LocalDateTime.of(2024, 1, 1, 9, 15))
+                .user(testUser)
+                .recurrenceRule("FREQ=WEEKLY;BYDAY=MO,WE,FR")
+                .recurrenceCount(10)
+                .build();
+
+        LocalDateTime rangeStart = LocalDateTime.of(2024, 1, 10, 9, 10);
+        LocalDateTime rangeEnd = LocalDateTime.of(2024, 2, 1, 0, 0);
+
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(eventRepository.findByUserIdOverlappingRangeOrderByStartDateTimeAsc(eq(testUser.getId()), any(), any())).thenReturn(Arrays.asList(standup));
+
+        // When
+        List<EventDTO> result = eventService.getEventsForUserInRange("test@example.com", rangeStart, rangeEnd);
+
+        // Then - occurrences 5 to 10 (Jan 10 still overlaps the range)
+        assertThat(result).extracting(EventDTO::getStartDateTime).containsExactly(
+                LocalDateTime.of(2024, 1, 10, 9, 0),
+                LocalDateTime.of(2024, 1, 12, 9, 0),
+                LocalDateTime.of(2024, 1, 15, 9, 0),
+                LocalDateTime.of(2024, 1, 17, 9, 0),
+                LocalDateTime.of(2024, 1, 19, 9, 0),
+                LocalDateTime.of(2024, 1, 22, 9, 0));
+        assertThat(result.get(0).getId()).isEqualTo(OccurrenceId.encode(1L, 9));
+    }
+
     @Test
     void getEventsForUserInRange_NullRecurrenceRule_ReturnsOriginalEvent() {
         // Given
@@ -622,7 +803,7 @@ class EventServiceTest {
         LocalDateTime rangeEnd = LocalDateTime.of(2024, 1, 20, 23, 59);
 
         when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
-        when(eventRepository.findByUserOrderByStartDateTimeAsc(testUser)).thenReturn(Arrays.asList(nullRecurrenceEvent));
+        when(eventRepository.findByUserIdOverlappingRangeOrderByStartDateTimeAsc(eq(testUser.getId()), any(), any())).thenReturn(Arrays.asList(nullRecurrenceEvent));
 
         // When
         List<EventDTO> result = eventService.getEventsForUserInRange("test@example.com", rangeStart, rangeEnd);
@@ -649,7 +830,7 @@ class EventServiceTest {
         LocalDateTime rangeEnd = LocalDateTime.of(2024, 1, 20, 23, 59);
 
         when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
-        when(eventRepository.findByUserOrderByStartDateTimeAsc(testUser)).thenReturn(Arrays.asList(emptyRecurrenceEvent));
+        when(eventRepository.findByUserIdOverlappingRangeOrderByStartDateTimeAsc(eq(testUser.getId()), any(), any())).thenReturn(Arrays.asList(emptyRecurrenceEvent));
 
         // When
         List<EventDTO> result = eventService.getEventsForUserInRange("test@example.com", rangeStart, rangeEnd);
@@ -671,25 +852,24 @@ class EventServiceTest {
                 .user(testUser)
                 .recurrenceRule("FREQ=DAILY")
                 .recurrenceCount(5)
-                .excludedDates("2024-01-16T09:00:00,2024-01-18T09:00:00")
+                .excludedDates(new HashSet<>(List.of(LocalDateTime.of(2024, 1, 16, 9, 0), LocalDateTime.of(2024, 1, 18, 9, 0))))
                 .build();
 
         LocalDateTime rangeStart = LocalDateTime.of(2024, 1, 14, 0, 0);
         LocalDateTime rangeEnd = LocalDateTime.of(2024, 1, 20, 23, 59);
 
         when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
-        when(eventRepository.findByUserOrderByStartDateTimeAsc(testUser)).thenReturn(Arrays.asList(recurringEventWithExclusions));
+        when(eventRepository.findByUserIdOverlappingRangeOrderByStartDateTimeAsc(eq(testUser.getId()), any(), any())).thenReturn(Arrays.asList(recurringEventWithExclusions));
 
         // When
         List<EventDTO> result = eventService.getEventsForUserInRange("test@example.com", rangeStart, rangeEnd);
 
-        // Then - Should have 5 occurrences (the exclusion logic may not be working as expected in this test scenario)
-        assertThat(result).hasSize(5);
+        // Then - the 16th and 18th are skipped
+        assertThat(result).hasSize(3);
         assertThat(result.get(0).getStartDateTime()).isEqualTo("2024-01-15T09:00:00");
-        assertThat(result.get(1).getStartDateTime()).isEqualTo("2024-01-16T09:00:00");
-        assertThat(result.get(2).getStartDateTime()).isEqualTo("2024-01-17T09:00:00");
-        assertThat(result.get(3).getStartDateTime()).isEqualTo("2024-01-18T09:00:00");
-        assertThat(result.get(4).getStartDateTime()).isEqualTo("2024-01-19T09:00:00");
+        assertThat(result.get(1).getStartDateTime()).isEqualTo("2024-01-17T09:00:00");
+        assertThat(result.get(2).getStartDateTime()).isEqualTo("2024-01-19T09:00:00");
+        assertThat(result).allSatisfy(e -> assertThat(e.getExcludedDates()).isEqualTo("2024-01-16T09:00,2024-01-18T09:00"));
     }
 
     @Test
@@ -769,7 +949,7 @@ class EventServiceTest {
                 .recurrenceRule("FREQ=DAILY")
                 .recurrenceEndDate(LocalDateTime.of(2024, 1, 20, 0, 0))
                 .recurrenceCount(5)
-                .excludedDates("2024-01-16T10:00:00")
+                .excludedDates(new HashSet<>(List.of(LocalDateTime.of(2024, 1, 16, 10, 0))))
                 .parentEvent(parentEvent)
                 .originalStartDateTime(LocalDateTime.of(2024, 1, 16, 10, 0))
                 .build();
@@ -959,7 +1139,7 @@ class EventServiceTest {
         LocalDateTime rangeEnd = LocalDateTime.of(2024, 1, 31, 23, 59);
 
         when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
-        when(eventRepository.findByUserOrderByStartDateTimeAsc(testUser)).thenReturn(Arrays.asList(recurringEvent));
+        when(eventRepository.findByUserIdOverlappingRangeOrderByStartDateTimeAsc(eq(testUser.getId()), any(), any())).thenReturn(Arrays.asList(recurringEvent));
 
         // When
         List<EventDTO> result = eventService.getEventsForUserInRange("test@example.com", rangeStart, rangeEnd);
@@ -986,7 +1166,7 @@ class EventServiceTest {
         LocalDateTime rangeEnd = LocalDateTime.of(2024, 1, 31, 23, 59);
 
         when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
-        when(eventRepository.findByUserOrderByStartDateTimeAsc(testUser)).thenReturn(Arrays.asList(recurringEvent));
+        when(eventRepository.findByUserIdOverlappingRangeOrderByStartDateTimeAsc(eq(testUser.getId()), any(), any())).thenReturn(Arrays.asList(recurringEvent));
 
         // When
         List<EventDTO> result = eventService.getEventsForUserInRange("test@example.com", rangeStart, rangeEnd);
@@ -1073,7 +1253,7 @@ class EventServiceTest {
         LocalDateTime rangeEnd = LocalDateTime.of(2024, 1, 20, 23, 59);
 
         when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
-        when(eventRepository.findByUserOrderByStartDateTimeAsc(testUser)).thenReturn(Arrays.asList(recurringEvent));
+        when(eventRepository.findByUserIdOverlappingRangeOrderByStartDateTimeAsc(eq(testUser.getId()), any(), any())).thenReturn(Arrays.asList(recurringEvent));
 
         // When
         List<EventDTO> result = eventService.getEventsForUserInRange("test@example.com", rangeStart, rangeEnd);
@@ -1149,7 +1329,7 @@ class EventServiceTest {
 
         // Then
         verify(eventRepository, times(1)).save(masterEvent);
-        assertThat(masterEvent.getExcludedDates()).isEqualTo("2024-01-15T09:00");
+        assertThat(masterEvent.getExcludedDates()).containsExactly(LocalDateTime.of(2024, 1, 15, 9, 0));
     }
 
     @Test
@@ -1163,7 +1343,7 @@ class EventServiceTest {
                 .endDateTime(LocalDateTime.of(2024, 1, 15, 10, 0))
                 .user(testUser)
                 .recurrenceRule("FREQ=DAILY")
-                .excludedDates("2024-01-14T09:00:00")
+                .excludedDates(new HashSet<>(List.of(LocalDateTime.of(2024, 1, 14, 9, 0))))
                 .build();
 
         when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
@@ -1175,7 +1355,8 @@ class EventServiceTest {
 
         // Then
         verify(eventRepository, times(1)).save(masterEvent);
-        assertThat(masterEvent.getExcludedDates()).isEqualTo("2024-01-14T09:00:00,2024-01-15T09:00");
+        assertThat(masterEvent.getExcludedDates()).containsExactlyInAnyOrder(
+                LocalDateTime.of(2024, 1, 14, 9, 0), LocalDateTime.of(2024, 1, 15, 9, 0));
     }
 
     @Test
@@ -1196,7 +1377,7 @@ class EventServiceTest {
         LocalDateTime rangeEnd = LocalDateTime.of(2024, 1, 20, 23, 59);
 
         when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
-        when(eventRepository.findByUserOrderByStartDateTimeAsc(testUser)).thenReturn(Arrays.asList(recurringEvent));
+        when(eventRepository.findByUserIdOverlappingRangeOrderByStartDateTimeAsc(eq(testUser.getId()), any(), any())).thenReturn(Arrays.asList(recurringEvent));
 
         // When
         List<EventDTO> result = eventService.getEventsForUserInRange("test@example.com", rangeStart, rangeEnd);
@@ -1223,7 +1404,7 @@ class EventServiceTest {
         LocalDateTime rangeEnd = LocalDateTime.of(2024, 1, 20, 23, 59);
 
         when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
-        when(eventRepository.findByUserOrderByStartDateTimeAsc(testUser)).thenReturn(Arrays.asList(recurringEvent));
+        when(eventRepository.findByUserIdOverlappingRangeOrderByStartDateTimeAsc(eq(testUser.getId()), any(), any())).thenReturn(Arrays.asList(recurringEvent));
 
         // When
         List<EventDTO> result = eventService.getEventsForUserInRange("test@example.com", rangeStart, rangeEnd);
@@ -1283,4 +1464,718 @@ class EventServiceTest {
         assertThat(result.getRecurrenceRule()).isEqualTo("FREQ=DAILY;INVALID_RULE_WITHOUT_EQUALS;INTERVAL=2");
         verify(eventRepository).save(any(Event.class));
     }
+
+    @Test
+    void expandRecurringEvent_OccurrenceIdsDecodeToMasterAndOccurrence() {
+        // Given
+        Event recurringEvent = Event.builder()
+                .id(7L)
+                .title("Weekly Review")
+                .description("Review")
+                .startDateTime(LocalDateTime.of(2024, 1, 1, 9, 0))
+                .endDateTime(LocalDateTime.of(2024, 1, 1, 10, 0))
+                .user(testUser)
+                .recurrenceRule("FREQ=WEEKLY")
+                .build();
+
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(eventRepository.findByUserIdOverlappingRangeOrderByStartDateTimeAsc(eq(testUser.getId()), any(), any())).thenReturn(Arrays.asList(recurringEvent));
+
+        // When
+        List<EventDTO> result = eventService.getEventsForUserInRange("test@example.com",
+                LocalDateTime.of(2024, 1, 14, 0, 0), LocalDateTime.of(2024, 1, 16, 0, 0));
+
+        // Then
+        assertThat(result).hasSize(1);
+        long id = result.get(0).getId();
+        assertThat(OccurrenceId.isOccurrenceId(id)).isTrue();
+        assertThat(OccurrenceId.masterEventId(id)).isEqualTo(7L);
+        assertThat(OccurrenceId.dayOffset(id)).isEqualTo(14L);
+    }
+
+    @Test
+    void deleteEvent_OccurrenceId_DoesNotScanOtherEvents() {
+        // Given
+        Event masterEvent = Event.builder()
+                .id(1L)
+                .title("Daily Meeting")
+                .description("Team standup")
+                .startDateTime(LocalDateTime.of(2024, 1, 15, 9, 0))
+                .endDateTime(LocalDateTime.of(2024, 1, 15, 10, 0))
+                .user(testUser)
+                .recurrenceRule("FREQ=DAILY")
+                .excludedDates(new HashSet<>(List.of(LocalDateTime.of(2024, 1, 16, 9, 0))))
+                .build();
+
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(eventRepository.findById(1L)).thenReturn(Optional.of(masterEvent));
+
+        // When
+        eventService.deleteEvent(OccurrenceId.encode(1L, 3), "test@example.com", "instance");
+
+        // Then
+        assertThat(masterEvent.getExcludedDates()).containsExactlyInAnyOrder(
+                LocalDateTime.of(2024, 1, 16, 9, 0), LocalDateTime.of(2024, 1, 18, 9, 0));
+        verify(eventRepository, never()).findAll();
+        verify(eventRepository, never()).findByUserAndRecurrenceRuleIsNotNull(any(User.class));
+    }
+
+    @Test
+    void deleteEvent_LegacyHashedOccurrenceId_ResolvesAgainstUsersSeries() {
+        // Given
+        Event masterEvent = Event.builder()
+                .id(1L)
+                .title("Daily Meeting")
+                .description("Team standup")
+                .startDateTime(LocalDateTime.of(2024, 1, 15, 9, 0))
+                .endDateTime(LocalDateTime.of(2024, 1, 15, 10, 0))
+                .user(testUser)
+                .recurrenceRule("FREQ=DAILY")
+                .build();
+
+        LocalDateTime occurrenceDateTime = LocalDateTime.of(2024, 1, 17, 9, 0);
+        Long legacyId = (long) (("1_" + occurrenceDateTime).hashCode() & 0x7FFFFFFF);
+
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(eventRepository.findById(legacyId)).thenReturn(Optional.empty());
+        when(eventRepository.findByUserAndRecurrenceRuleIsNotNull(testUser)).thenReturn(Arrays.asList(masterEvent));
+        when(eventRepository.save(any(Event.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        eventService.deleteEvent(legacyId, "test@example.com", "instance");
+
+        // Then
+        assertThat(masterEvent.getExcludedDates()).containsExactly(LocalDateTime.of(2024, 1, 17, 9, 0));
+        verify(eventRepository).save(masterEvent);
+    }
+
+    @Test
+    void updateEvent_UnknownOccurrenceMaster_ThrowsException() {
+        // Given
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(eventRepository.findById(42L)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThatThrownBy(() -> eventService.updateEvent(OccurrenceId.encode(42L, 0),
+                validCreateEventDTO, "test@example.com", "instance"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Master event not found");
+    }
+
+    @Test
+    void updateEvent_OccurrenceIdOfOneOffEvent_ThrowsEventNotFound() {
+        // Given - a fabricated occurrence ID pointing at a single event
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(eventRepository.findById(1L)).thenReturn(Optional.of(savedEvent));
+
+        // When & Then
+        assertThatThrownBy(() -> eventService.updateEvent(OccurrenceId.encode(1L, 2),
+                validCreateEventDTO, "test@example.com", "instance"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Event not found");
+        verify(eventRepository, never()).save(any(Event.class));
+    }
+
+    @Test
+    void deleteEvent_OccurrenceIdOffTheSeriesOrExcluded_ThrowsEventNotFound() {
+        // Given - a weekly series whose second occurrence was deleted
+        Event masterEvent = Event.builder()
+                .id(1L)
+                .title("Weekly Sync")
+                .startDateTime(LocalDateTime.of(2024, 1, 15, 9, 0))
+                .endDateTime(LocalDateTime.of(2024, 1, 15, 10, 0))
+                .user(testUser)
+                .recurrenceRule("FREQ=WEEKLY")
+                .excludedDates(new HashSet<>(List.of(LocalDateTime.of(2024, 1, 22, 9, 0))))
+                .build();
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(eventRepository.findById(1L)).thenReturn(Optional.of(masterEvent));
+
+        // When & Then - a day between occurrences, and the deleted occurrence
+        assertThatThrownBy(() -> eventService.deleteEvent(OccurrenceId.encode(1L, 3), "test@example.com", "instance"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Event not found");
+        assertThatThrownBy(() -> eventService.deleteEvent(OccurrenceId.encode(1L, 7), "test@example.com", "instance"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Event not found");
+        assertThat(masterEvent.getExcludedDates()).containsExactly(LocalDateTime.of(2024, 1, 22, 9, 0));
+    }
+
+    @Test
+    void expandRecurringEvent_LongRunningSeries_ReturnsOccurrencesBeyondOldIterationCap() {
+        // Given - a daily series that started more than 1000 days before the range
+        Event recurringEvent = Event.builder()
+                .id(1L)
+                .title("Daily Standup")
+                .description("Team standup")
+                .startDateTime(LocalDateTime.of(2020, 1, 1, 9, 0))
+                .endDateTime(LocalDateTime.of(2020, 1, 1, 9, 15))
+                .user(testUser)
+                .recurrenceRule("FREQ=DAILY")
+                .build();
+
+        LocalDateTime rangeStart = LocalDateTime.of(2024, 3, 4, 0, 0);
+        LocalDateTime rangeEnd = LocalDateTime.of(2024, 3, 11, 0, 0);
+
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(eventRepository.findByUserIdOverlappingRangeOrderByStartDateTimeAsc(eq(testUser.getId()), any(), any())).thenReturn(Arrays.asList(recurringEvent));
+
+        // When
+        List<EventDTO> result = eventService.getEventsForUserInRange("test@example.com", rangeStart, rangeEnd);
+
+        // Then
+        assertThat(result).hasSize(7);
+        assertThat(result.get(0).getStartDateTime()).isEqualTo("2024-03-04T09:00:00");
+        assertThat(result.get(6).getStartDateTime()).isEqualTo("2024-03-10T09:00:00");
+    }
+
+    @Test
+    void expandRecurringEvent_WindowAfterSeriesStart_RespectsRecurrenceCount() {
+        // Given - 10 weekly occurrences every 2 weeks, starting Jan 1st
+        Event recurringEvent = Event.builder()
+                .id(1L)
+                .title("Biweekly Sync")
+                .description("Sync")
+                .startDateTime(LocalDateTime.of(2024, 1, 1, 10, 0))
+                .endDateTime(LocalDateTime.of(2024, 1, 1, 11, 0))
+                .user(testUser)
+                .recurrenceRule("FREQ=WEEKLY;INTERVAL=2")
+                .recurrenceCount(10)
+                .build();
+
+        // Window covering occurrences 9, 10 (and where 11 would have been)
+        LocalDateTime rangeStart = LocalDateTime.of(2024, 4, 22, 0, 0);
+        LocalDateTime rangeEnd = LocalDateTime.of(2024, 6, 1, 0, 0);
+
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(eventRepository.findByUserIdOverlappingRangeOrderByStartDateTimeAsc(eq(testUser.getId()), any(), any())).thenReturn(Arrays.asList(recurringEvent));
+
+        // When
+        List<EventDTO> result = eventService.getEventsForUserInRange("test@example.com", rangeStart, rangeEnd);
+
+        // Then
+        assertThat(result).hasSize(2);
+        assertThat(result.get(0).getStartDateTime()).isEqualTo("2024-04-22T10:00:00");
+        assertThat(result.get(1).getStartDateTime()).isEqualTo("2024-05-06T10:00:00");
+    }
+
+    @Test
+    void expandRecurringEvent_OccurrenceOverlappingRangeStart_IsIncluded() {
+        // Given - an overnight daily event that is still running when the range starts
+        Event recurringEvent = Event.builder()
+                .id(1L)
+                .title("Night Shift")
+                .description("Shift")
+                .startDateTime(LocalDateTime.of(2024, 1, 1, 22, 0))
+                .endDateTime(LocalDateTime.of(2024, 1, 2, 6, 0))
+                .user(testUser)
+                .recurrenceRule("FREQ=DAILY")
+                .recurrenceEndDate(LocalDateTime.of(2024, 1, 31, 23, 59))
+                .build();
+
+        LocalDateTime rangeStart = LocalDateTime.of(2024, 1, 10, 0, 0);
+        LocalDateTime rangeEnd = LocalDateTime.of(2024, 1, 11, 0, 0);
+
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(eventRepository.findByUserIdOverlappingRangeOrderByStartDateTimeAsc(eq(testUser.getId()), any(), any())).thenReturn(Arrays.asList(recurringEvent));
+
+        // When
+        List<EventDTO> result = eventService.getEventsForUserInRange("test@example.com", rangeStart, rangeEnd);
+
+        // Then
+        assertThat(result).hasSize(2);
+        assertThat(result.get(0).getStartDateTime()).isEqualTo("2024-01-09T22:00:00");
+        assertThat(result.get(1).getStartDateTime()).isEqualTo("2024-01-10T22:00:00");
+    }
+
+    @Test
+    void expandRecurringEvent_MonthlyJump_KeepsDayOfMonthFromSeriesStart() {
+        // Given
+        Event recurringEvent = Event.builder()
+                .id(1L)
+                .title("Month End Close")
+                .description("Close")
+                .startDateTime(LocalDateTime.of(2023, 1, 31, 9, 0))
+                .endDateTime(LocalDateTime.of(2023, 1, 31, 10, 0))
+                .user(testUser)
+                .recurrenceRule("FREQ=MONTHLY")
+                .recurrenceEndDate(LocalDateTime.of(2024, 12, 31, 0, 0))
+                .build();
+
+        LocalDateTime rangeStart = LocalDateTime.of(2024, 2, 1, 0, 0);
+        LocalDateTime rangeEnd = LocalDateTime.of(2024, 4, 1, 0, 0);
+
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(eventRepository.findByUserIdOverlappingRangeOrderByStartDateTimeAsc(eq(testUser.getId()), any(), any())).thenReturn(Arrays.asList(recurringEvent));
+
+        // When
+        List<EventDTO> result = eventService.getEventsForUserInRange("test@example.com", rangeStart, rangeEnd);
+
+        // Then
+        assertThat(result).hasSize(2);
+        assertThat(result.get(0).getStartDateTime()).isEqualTo("2024-02-29T09:00:00");
+        assertThat(result.get(1).getStartDateTime()).isEqualTo("2024-03-31T09:00:00");
+    }
+
+    @Test
+    void createEvent_ComputesSeriesEndForRangePruning() {
+        // Given
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(eventRepository.save(any(Event.class))).thenAnswer(invocation -> {
+            Event event = invocation.getArgument(0);
+            event.setId(1L);
+            return event;
+        });
+
+        CreateEventDTO countLimited = new CreateEventDTO();
+        countLimited.setTitle("Weekly");
+        countLimited.setDescription("Weekly");
+        countLimited.setStartDateTime(LocalDateTime.of(2024, 1, 1, 10, 0));
+        countLimited.setEndDateTime(LocalDateTime.of(2024, 1, 1, 11, 30));
+        countLimited.setRecurrenceRule("FREQ=WEEKLY");
+        countLimited.setRecurrenceCount(4);
+
+        CreateEventDTO dateLimited = new CreateEventDTO();
+        dateLimited.setTitle("Daily");
+        dateLimited.setDescription("Daily");
+        dateLimited.setStartDateTime(LocalDateTime.of(2024, 1, 1, 9, 0));
+        dateLimited.setEndDateTime(LocalDateTime.of(2024, 1, 1, 10, 0));
+        dateLimited.setRecurrenceRule("FREQ=DAILY;INTERVAL=2");
+        dateLimited.setRecurrenceEndDate(LocalDateTime.of(2024, 1, 10, 8, 0));
+
+        CreateEventDTO openEnded = new CreateEventDTO();
+        openEnded.setTitle("Monthly");
+        openEnded.setDescription("Monthly");
+        openEnded.setStartDateTime(LocalDateTime.of(2024, 1, 1, 9, 0));
+        openEnded.setEndDateTime(LocalDateTime.of(2024, 1, 1, 10, 0));
+        openEnded.setRecurrenceRule("FREQ=MONTHLY");
+
+        // When
+        eventService.createEvent(validCreateEventDTO, "test@example.com");
+        eventService.createEvent(countLimited, "test@example.com");
+        eventService.createEvent(dateLimited, "test@example.com");
+        eventService.createEvent(openEnded, "test@example.com");
+
+        // Then
+        ArgumentCaptor<Event> captor = ArgumentCaptor.forClass(Event.class);
+        verify(eventRepository, times(4)).save(captor.capture());
+        List<Event> saved = captor.getAllValues();
+        assertThat(saved.get(0).getSeriesEndDateTime()).isEqualTo(LocalDateTime.of(2024, 1, 15, 12, 0));
+        assertThat(saved.get(1).getSeriesEndDateTime()).isEqualTo(LocalDateTime.of(2024, 1, 22, 11, 30));
+        assertThat(saved.get(2).getSeriesEndDateTime()).isEqualTo(LocalDateTime.of(2024, 1, 9, 10, 0));
+        assertThat(saved.get(3).getSeriesEndDateTime()).isNull();
+    }
+
+    @Test
+    void createEvent_ByDayRules_ComputeSeriesEndFromRuleSet() {
+        // Given
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(eventRepository.save(any(Event.class))).thenAnswer(invocation -> {
+            Event event = invocation.getArgument(0);
+            event.setId(1L);
+            return event;
+        });
+
+        CreateEventDTO lastBusinessDay = new CreateEventDTO();
+        lastBusinessDay.setTitle("Payroll");
+        lastBusinessDay.setDescription("Last business day");
+        lastBusinessDay.setStartDateTime(LocalDateTime.of(2024, 1, 31, 16, 0));
+        lastBusinessDay.setEndDateTime(LocalDateTime.of(2024, 1, 31, 17, 0));
+        lastBusinessDay.setRecurrenceRule("FREQ=MONTHLY;BYDAY=MO,TU,WE,TH,FR;BYSETPOS=-1");
+        lastBusinessDay.setRecurrenceCount(6);
+
+        CreateEventDTO tuesdaysUntil = new CreateEventDTO();
+        tuesdaysUntil.setTitle("Tuesdays");
+        tuesdaysUntil.setDescription("Tuesdays");
+        tuesdaysUntil.setStartDateTime(LocalDateTime.of(2024, 1, 2, 10, 0));
+        tuesdaysUntil.setEndDateTime(LocalDateTime.of(2024, 1, 2, 11, 0));
+        tuesdaysUntil.setRecurrenceRule("FREQ=WEEKLY;BYDAY=TU");
+        tuesdaysUntil.setRecurrenceEndDate(LocalDateTime.of(2024, 1, 23, 9, 0));
+
+        // When
+        eventService.createEvent(lastBusinessDay, "test@example.com");
+        eventService.createEvent(tuesdaysUntil, "test@example.com");
+
+        // Then
+        ArgumentCaptor<Event> captor = ArgumentCaptor.forClass(Event.class);
+        verify(eventRepository, times(2)).save(captor.capture());
+        assertThat(captor.getAllValues().get(0).getSeriesEndDateTime()).isEqualTo(LocalDateTime.of(2024, 6, 28, 17, 0));
+        // The Jan 23 occurrence starts after the end date
+        assertThat(captor.getAllValues().get(1).getSeriesEndDateTime()).isEqualTo(LocalDateTime.of(2024, 1, 16, 11, 0));
+    }
+
+    @Test
+    void createEvent_RematerializesOccurrencesAndInvalidatesRangeCache() {
+        // Given
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(eventRepository.save(any(Event.class))).thenReturn(savedEvent);
+
+        // When
+        eventService.createEvent(validCreateEventDTO, "test@example.com");
+
+        // Then
+        verify(occurrenceMaterializer).rematerialize(savedEvent);
+        verify(eventRangeCache).invalidate("test@example.com");
+        verifyNoInteractions(reminderScheduler);
+    }
+
+    @Test
+    void createEvent_WithReminders_StoresThem() {
+        // Given
+        validCreateEventDTO.setReminderMinutes(List.of(10, 60));
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(eventRepository.save(any(Event.class))).thenReturn(savedEvent);
+
+        // When
+        eventService.createEvent(validCreateEventDTO, "test@example.com");
+
+        // Then
+        verify(reminderScheduler).setReminders(savedEvent, List.of(10, 60));
+    }
+
+    @Test
+    void getReminderMinutes_OtherUsersEvent_ThrowsAccessDenied() {
+        // Given
+        User otherUser = User.builder().id(2L).email("other@example.com").passwordHash("hash").build();
+        savedEvent.setUser(otherUser);
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(eventRepository.findById(1L)).thenReturn(Optional.of(savedEvent));
+
+        // When / Then
+        assertThatThrownBy(() -> eventService.getReminderMinutes(1L, "test@example.com"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Access denied");
+        verifyNoInteractions(reminderScheduler);
+    }
+
+    @Test
+    void getEventsForUserInRange_MaterializedHorizonCoversRange_ReadsOccurrenceTable() {
+        // Given
+        Tag tag = Tag.builder().id(7L).name("Work").user(testUser).build();
+        Event master = Event.builder()
+                .id(1L)
+                .title("Daily Meeting")
+                .description("Team standup")
+                .startDateTime(LocalDateTime.of(2024, 1, 15, 9, 0))
+                .endDateTime(LocalDateTime.of(2024, 1, 15, 10, 0))
+                .user(testUser)
+                .recurrenceRule("FREQ=DAILY")
+                .excludedDates(new HashSet<>(List.of(LocalDateTime.of(2024, 1, 16, 9, 0))))
+                .tags(new HashSet<>(List.of(tag)))
+                .build();
+        Event oneOff = Event.builder()
+                .id(2L)
+                .title("Lunch")
+                .startDateTime(LocalDateTime.of(2024, 1, 17, 12, 0))
+                .endDateTime(LocalDateTime.of(2024, 1, 17, 13, 0))
+                .user(testUser)
+                .build();
+        Occurrence first = Occurrence.builder()
+                .occurrenceKey(OccurrenceId.of(master, LocalDateTime.of(2024, 1, 17, 9, 0)))
+                .user(testUser)
+                .masterEvent(master)
+                .startDateTime(LocalDateTime.of(2024, 1, 17, 9, 0))
+                .endDateTime(LocalDateTime.of(2024, 1, 17, 10, 0))
+                .build();
+        Occurrence second = Occurrence.builder()
+                .occurrenceKey(OccurrenceId.of(master, LocalDateTime.of(2024, 1, 18, 9, 0)))
+                .user(testUser)
+                .masterEvent(master)
+                .startDateTime(LocalDateTime.of(2024, 1, 18, 9, 0))
+                .endDateTime(LocalDateTime.of(2024, 1, 18, 10, 0))
+                .build();
+
+        LocalDateTime rangeStart = LocalDateTime.of(2024, 1, 17, 0, 0);
+        LocalDateTime rangeEnd = LocalDateTime.of(2024, 1, 19, 0, 0);
+
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(occurrenceMaterializer.covers(rangeStart, rangeEnd)).thenReturn(true);
+        when(eventRepository.findSingleEventsByUserIdOverlappingRangeOrderByStartDateTimeAsc(testUser.getId(), rangeStart, rangeEnd))
+                .thenReturn(List.of(oneOff));
+        when(occurrenceMaterializer.findInRange(testUser.getId(), rangeStart, rangeEnd)).thenReturn(List.of(first, second));
+
+        // When
+        List<EventDTO> result = eventService.getEventsForUserInRange("test@example.com", rangeStart, rangeEnd);
+
+        // Then
+        assertThat(result).extracting(EventDTO::getTitle).containsExactly("Daily Meeting", "Lunch", "Daily Meeting");
+        EventDTO occurrence = result.get(0);
+        assertThat(occurrence.getId()).isEqualTo(OccurrenceId.encode(1L, 2));
+        assertThat(occurrence.getParentEventId()).isEqualTo(1L);
+        assertThat(occurrence.getOriginalStartDateTime()).isEqualTo(LocalDateTime.of(2024, 1, 17, 9, 0));
+        assertThat(occurrence.getExcludedDates()).isEqualTo("2024-01-16T09:00");
+        assertThat(occurrence.getTags()).extracting("name").containsExactly("Work");
+        assertThat(result.get(2).getTags()).isEqualTo(occurrence.getTags());
+        verify(eventRepository, never()).findByUserIdOverlappingRangeOrderByStartDateTimeAsc(any(), any(), any());
+    }
+
+    @Test
+    void getEventsForUserInRange_RangeCacheHit_SkipsDatabase() {
+        // Given
+        LocalDateTime rangeStart = LocalDateTime.of(2024, 1, 15, 0, 0);
+        LocalDateTime rangeEnd = LocalDateTime.of(2024, 1, 22, 0, 0);
+        List<EventDTO> cached = List.of(EventDTO.builder().id(1L).title("Cached").build());
+        when(eventRangeCache.find(eq("test@example.com"), eq(rangeStart), eq(rangeEnd), any()))
+                .thenReturn(Optional.of(cached));
+
+        // When
+        List<EventDTO> result = eventService.getEventsForUserInRange("test@example.com", rangeStart, rangeEnd);
+
+        // Then
+        assertThat(result).isSameAs(cached);
+        verifyNoInteractions(userRepository, eventRepository);
+    }
+
+    @Test
+    void getEventsForUserInRange_RangeCacheMiss_LoadsWindowThroughService() {
+        // Given
+        LocalDateTime rangeStart = LocalDateTime.of(2024, 1, 15, 0, 0);
+        LocalDateTime rangeEnd = LocalDateTime.of(2024, 1, 22, 0, 0);
+        LocalDateTime windowStart = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime windowEnd = LocalDateTime.of(2024, 3, 1, 0, 0);
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(eventRepository.findByUserIdOverlappingRangeOrderByStartDateTimeAsc(testUser.getId(), windowStart, windowEnd))
+                .thenReturn(List.of(savedEvent));
+        when(eventRangeCache.find(eq("test@example.com"), eq(rangeStart), eq(rangeEnd), any()))
+                .thenAnswer(invocation -> {
+                    EventRangeCache.Loader loader = invocation.getArgument(3);
+                    return Optional.of(loader.load("test@example.com", windowStart, windowEnd));
+                });
+
+        // When
+        List<EventDTO> result = eventService.getEventsForUserInRange("test@example.com", rangeStart, rangeEnd);
+
+        // Then
+        assertThat(result).extracting(EventDTO::getTitle).containsExactly("Test Event");
+    }
+
+    @Test
+    void getEventPage_FollowsCursorAcrossPages() {
+        // Given a daily series and a one-off event starting together with its third occurrence
+        LocalDateTime rangeStart = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime rangeEnd = LocalDateTime.of(2024, 1, 31, 0, 0);
+        Event daily = Event.builder()
+                .id(1L)
+                .title("Daily")
+                .startDateTime(LocalDateTime.of(2024, 1, 1, 9, 0))
+                .endDateTime(LocalDateTime.of(2024, 1, 1, 10, 0))
+                .user(testUser)
+                .recurrenceRule("FREQ=DAILY")
+                .recurrenceCount(5)
+                .build();
+        Event single = Event.builder()
+                .id(2L)
+                .title("Single")
+                .startDateTime(LocalDateTime.of(2024, 1, 3, 9, 0))
+                .endDateTime(LocalDateTime.of(2024, 1, 3, 10, 0))
+                .user(testUser)
+                .build();
+        when(eventRepository.findByUserIdOverlappingRangeOrderByStartDateTimeAsc(eq(1L), any(), eq(rangeEnd)))
+                .thenReturn(List.of(daily, single));
+
+        // When
+        EventPage first = eventService.getEventPage(1L, "test@example.com", rangeStart, rangeEnd, null, null, 2);
+        EventPage second = eventService.getEventPage(1L, "test@example.com", rangeStart, rangeEnd, null,
+                first.getNextCursor(), 2);
+        EventPage third = eventService.getEventPage(1L, "test@example.com", rangeStart, rangeEnd, null,
+                second.getNextCursor(), 2);
+
+        // Then
+        assertThat(first.getEvents()).extracting(EventDTO::getStartDateTime)
+                .containsExactly(LocalDateTime.of(2024, 1, 1, 9, 0), LocalDateTime.of(2024, 1, 2, 9, 0));
+        assertThat(second.getEvents()).extracting(EventDTO::getTitle).containsExactly("Single", "Daily");
+        assertThat(second.getEvents()).extracting(EventDTO::getStartDateTime)
+                .containsOnly(LocalDateTime.of(2024, 1, 3, 9, 0));
+        assertThat(third.getEvents()).extracting(EventDTO::getStartDateTime)
+                .containsExactly(LocalDateTime.of(2024, 1, 4, 9, 0), LocalDateTime.of(2024, 1, 5, 9, 0));
+        assertThat(third.getNextCursor()).isNull();
+        // Later pages only load from the cursor on
+        verify(eventRepository).findByUserIdOverlappingRangeOrderByStartDateTimeAsc(
+                1L, LocalDateTime.of(2024, 1, 2, 9, 0), rangeEnd);
+    }
+
+    @Test
+    void getEventPage_NoLimit_UsesMaxPageSize() {
+        // Given
+        LocalDateTime rangeStart = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime rangeEnd = LocalDateTime.of(2024, 1, 31, 0, 0);
+        when(eventRepository.findByUserIdOverlappingRangeOrderByStartDateTimeAsc(1L, rangeStart, rangeEnd))
+                .thenReturn(List.of(savedEvent));
+
+        // When
+        EventPage page = eventService.getEventPage(1L, "test@example.com", rangeStart, rangeEnd, null, null, null);
+
+        // Then
+        assertThat(page.getEvents()).extracting(EventDTO::getTitle).containsExactly("Test Event");
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void getEventPage_RangeWiderThanMaxWindow_ThrowsException() {
+        // When & Then
+        assertThatThrownBy(() -> eventService.getEventPage(1L, "test@example.com",
+                LocalDateTime.of(2000, 1, 1, 0, 0), LocalDateTime.of(2050, 1, 1, 0, 0), null, null, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Date range must not exceed 366 days");
+        verifyNoInteractions(eventRepository);
+    }
+
+    @Test
+    void getEventPage_InvalidCursor_ThrowsException() {
+        // When & Then
+        assertThatThrownBy(() -> eventService.getEventPage(1L, "test@example.com",
+                LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2024, 2, 1, 0, 0), null, "not a cursor", null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+    }
+
+    @Test
+    void getEventPage_NonPositiveLimit_ThrowsException() {
+        // When & Then
+        assertThatThrownBy(() -> eventService.getEventPage(1L, "test@example.com",
+                LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2024, 2, 1, 0, 0), null, null, 0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Limit must be positive");
+    }
+
+    @Test
+    void streamEventsInRange_MergesOneOffEventsWithLazilyExpandedSeries() {
+        // Given
+        LocalDateTime rangeStart = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime rangeEnd = LocalDateTime.of(2024, 1, 31, 0, 0);
+        Event daily = Event.builder()
+                .id(1L)
+                .title("Daily")
+                .startDateTime(LocalDateTime.of(2024, 1, 1, 9, 0))
+                .endDateTime(LocalDateTime.of(2024, 1, 1, 10, 0))
+                .user(testUser)
+                .recurrenceRule("FREQ=DAILY")
+                .recurrenceCount(3)
+                .build();
+        Event single = spy(Event.builder()
+                .id(2L)
+                .title("Single")
+                .startDateTime(LocalDateTime.of(2024, 1, 2, 12, 0))
+                .endDateTime(LocalDateTime.of(2024, 1, 2, 13, 0))
+                .user(testUser)
+                .build());
+        when(eventRepository.findRecurringMastersByUserIdOverlappingRange(1L, rangeStart, rangeEnd))
+                .thenReturn(List.of(daily));
+        when(eventRepository.streamSingleEventsByUserIdOverlappingRange(1L, rangeStart, rangeEnd))
+                .thenReturn(Stream.of(single));
+        List<EventDTO> streamed = new ArrayList<>();
+
+        // When
+        eventService.streamEventsInRange(1L, "test@example.com", rangeStart, rangeEnd, null, streamed::add);
+
+        // Then
+        assertThat(streamed).extracting(EventDTO::getStartDateTime).containsExactly(
+                LocalDateTime.of(2024, 1, 1, 9, 0),
+                LocalDateTime.of(2024, 1, 2, 9, 0),
+                LocalDateTime.of(2024, 1, 2, 12, 0),
+                LocalDateTime.of(2024, 1, 3, 9, 0));
+        assertThat(streamed.get(2).getTitle()).isEqualTo("Single");
+        assertThat(streamed).allMatch(event -> "test@example.com".equals(event.getUserEmail()));
+        verify(userRepository, never()).findByEmail(any());
+        // The lazy exclusions of streamed rows are never loaded
+        verify(single, never()).getExcludedDates();
+    }
+
+    @Test
+    void streamEventsInRange_RangeWiderThanMaxStreamWindow_ThrowsException() {
+        // When & Then
+        assertThatThrownBy(() -> eventService.streamEventsInRange(1L, "test@example.com",
+                LocalDateTime.of(2000, 1, 1, 0, 0), LocalDateTime.of(2050, 1, 1, 0, 0), null, event -> { }))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Date range must not exceed 3660 days");
+        verifyNoInteractions(eventRepository);
+    }
+
+    @Test
+    void getUpcomingEvents_OpenEndedSeries_StopsExpandingAtLimit() {
+        // Given an endless daily series, which has an occurrence on every day of the horizon
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+        Event daily = spy(Event.builder()
+                .id(1L)
+                .title("Daily")
+                .startDateTime(LocalDateTime.of(2024, 1, 1, 9, 0))
+                .endDateTime(LocalDateTime.of(2024, 1, 1, 10, 0))
+                .user(testUser)
+                .recurrenceRule("FREQ=DAILY")
+                .build());
+        when(eventRepository.findUpcomingSingleEventIds(eq(1L), eq(from), any(), eq(Limit.of(3))))
+                .thenReturn(List.of());
+        when(eventRepository.findRecurringMastersByUserIdOverlappingRange(eq(1L), eq(from), any()))
+                .thenReturn(List.of(daily));
+
+        // When
+        List<EventDTO> result = eventService.getUpcomingEvents(1L, "test@example.com", from, 3);
+
+        // Then only the occurrences the merge pulled were converted, at most one past the limit
+        assertThat(result).extracting(EventDTO::getStartDateTime).containsExactly(
+                LocalDateTime.of(2024, 1, 1, 9, 0),
+                LocalDateTime.of(2024, 1, 2, 9, 0),
+                LocalDateTime.of(2024, 1, 3, 9, 0));
+        verify(daily, atMost(4)).getTitle();
+    }
+
+    @Test
+    void getUpcomingEvents_MergesSeekedEventsWithNextOccurrences() {
+        // Given a daily series whose occurrence is under way at from, and two one-off events
+        LocalDateTime from = LocalDateTime.of(2024, 3, 10, 9, 30);
+        Event daily = Event.builder()
+                .id(1L)
+                .title("Daily")
+                .startDateTime(LocalDateTime.of(2024, 1, 1, 9, 0))
+                .endDateTime(LocalDateTime.of(2024, 1, 1, 10, 0))
+                .user(testUser)
+                .recurrenceRule("FREQ=DAILY")
+                .build();
+        Event single = Event.builder()
+                .id(2L)
+                .title("Single")
+                .startDateTime(LocalDateTime.of(2024, 3, 10, 12, 0))
+                .endDateTime(LocalDateTime.of(2024, 3, 10, 13, 0))
+                .user(testUser)
+                .build();
+        when(eventRepository.findUpcomingSingleEventIds(eq(1L), eq(from), any(), eq(Limit.of(3))))
+                .thenReturn(List.of(2L));
+        when(eventRepository.findByIdInOrderByStartDateTimeAsc(List.of(2L))).thenReturn(List.of(single));
+        when(eventRepository.findRecurringMastersByUserIdOverlappingRange(eq(1L), eq(from), any()))
+                .thenReturn(List.of(daily));
+
+        // When
+        List<EventDTO> result = eventService.getUpcomingEvents(1L, "test@example.com", from, 3);
+
+        // Then
+        assertThat(result).extracting(EventDTO::getStartDateTime).containsExactly(
+                LocalDateTime.of(2024, 3, 10, 12, 0),
+                LocalDateTime.of(2024, 3, 11, 9, 0),
+                LocalDateTime.of(2024, 3, 12, 9, 0));
+        verify(userRepository, never()).findByEmail(any());
+    }
+
+    @Test
+    void getUpcomingEvents_NoOneOffEvents_SkipsSecondQuery() {
+        // Given
+        LocalDateTime from = LocalDateTime.of(2024, 3, 10, 0, 0);
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        when(eventRepository.findUpcomingSingleEventIds(eq(1L), eq(from), any(), any())).thenReturn(List.of());
+
+        // When
+        List<EventDTO> result = eventService.getUpcomingEvents(null, "test@example.com", from, 5);
+
+        // Then
+        assertThat(result).isEmpty();
+        verify(eventRepository, never()).findByIdInOrderByStartDateTimeAsc(any());
+    }
+
+    @Test
+    void getUpcomingEvents_NonPositiveLimit_ThrowsException() {
+        // When & Then
+        assertThatThrownBy(() -> eventService.getUpcomingEvents(1L, "test@example.com",
+                LocalDateTime.of(2024, 3, 10, 0, 0), 0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Limit must be positive");
+    }
 }
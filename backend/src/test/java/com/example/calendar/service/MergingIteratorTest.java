@@ -0,0 +1,80 @@
+package com.example.calendar.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MergingIteratorTest {
+
+    @Test
+    void next_InterleavesSortedSourcesInOrder() {
+        // Given
+        List<Iterator<Integer>> sources = List.of(
+                List.of(1, 4, 7).iterator(),
+                List.of(2, 5, 8, 9).iterator(),
+                List.of(3, 6).iterator());
+
+        // When
+        List<Integer> merged = drain(new MergingIterator<>(sources, Comparator.naturalOrder()));
+
+        // Then
+        assertThat(merged).containsExactly(1, 2, 3, 4, 5, 6, 7, 8, 9);
+    }
+
+    @Test
+    void next_EmptySourcesAreSkipped() {
+        // Given
+        List<Iterator<Integer>> sources = List.of(
+                Collections.emptyIterator(),
+                List.of(2, 3).iterator(),
+                Collections.emptyIterator());
+
+        // When
+        List<Integer> merged = drain(new MergingIterator<>(sources, Comparator.naturalOrder()));
+
+        // Then
+        assertThat(merged).containsExactly(2, 3);
+    }
+
+    @Test
+    void next_NoSources_ThrowsNoSuchElement() {
+        // Given
+        MergingIterator<Integer> merged = new MergingIterator<>(List.of(), Comparator.naturalOrder());
+
+        // When & Then
+        assertThat(merged.hasNext()).isFalse();
+        assertThatThrownBy(merged::next).isInstanceOf(NoSuchElementException.class);
+    }
+
+    private static List<Integer> drain(Iterator<Integer> iterator) {
+        List<Integer> values = new ArrayList<>();
+        iterator.forEachRemaining(values::add);
+        return values;
+    }
+
+    @Test
+    void stream_WithLimit_DoesNotDrainSources() {
+        // Given
+        Iterator<Integer> first = List.of(1, 3, 5, 7).iterator();
+        Iterator<Integer> second = List.of(2, 4, 6, 8).iterator();
+
+        // When
+        List<Integer> merged = new MergingIterator<>(List.of(first, second), Comparator.<Integer>naturalOrder())
+                .stream()
+                .limit(3)
+                .toList();
+
+        // Then only the three results and the two heads after them were pulled
+        assertThat(merged).containsExactly(1, 2, 3);
+        assertThat(drain(first)).containsExactly(7);
+        assertThat(drain(second)).containsExactly(6, 8);
+    }
+}
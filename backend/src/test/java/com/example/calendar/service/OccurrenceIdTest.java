@@ -0,0 +1,64 @@
+package com.example.calendar.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OccurrenceIdTest {
+
+    @Test
+    void encode_RoundTripsMasterIdAndOffset() {
+        long id = OccurrenceId.encode(123456L, 730L);
+
+        assertThat(OccurrenceId.isOccurrenceId(id)).isTrue();
+        assertThat(OccurrenceId.masterEventId(id)).isEqualTo(123456L);
+        assertThat(OccurrenceId.dayOffset(id)).isEqualTo(730L);
+    }
+
+    @Test
+    void encode_LargestValuesStayWithinJavaScriptSafeIntegers() {
+        long id = OccurrenceId.encode(Integer.MAX_VALUE, (1L << 21) - 1);
+
+        assertThat(id).isLessThanOrEqualTo(9007199254740991L);
+        assertThat(OccurrenceId.masterEventId(id)).isEqualTo(Integer.MAX_VALUE);
+        assertThat(OccurrenceId.dayOffset(id)).isEqualTo((1L << 21) - 1);
+    }
+
+    @Test
+    void encode_DistinctOccurrencesGetDistinctIds() {
+        assertThat(OccurrenceId.encode(1L, 1L)).isNotEqualTo(OccurrenceId.encode(1L, 2L));
+        assertThat(OccurrenceId.encode(1L, 1L)).isNotEqualTo(OccurrenceId.encode(2L, 1L));
+    }
+
+    @Test
+    void encode_OutOfRangeValues_ThrowIllegalArgumentException() {
+        assertThatThrownBy(() -> OccurrenceId.encode(0L, 0L))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> OccurrenceId.encode(1L << 31, 0L))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> OccurrenceId.encode(1L, -1L))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> OccurrenceId.encode(1L, 1L << 21))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void isOccurrenceId_RegularAndLegacyIds_ReturnFalse() {
+        assertThat(OccurrenceId.isOccurrenceId(null)).isFalse();
+        assertThat(OccurrenceId.isOccurrenceId(1L)).isFalse();
+        assertThat(OccurrenceId.isOccurrenceId((long) Integer.MAX_VALUE)).isFalse();
+        assertThat(OccurrenceId.isLegacyCandidate(1L)).isTrue();
+        assertThat(OccurrenceId.isLegacyCandidate(OccurrenceId.encode(1L, 0L))).isFalse();
+    }
+
+    @Test
+    void legacyId_MatchesOldHashedScheme() {
+        LocalDateTime occurrence = LocalDateTime.of(2024, 1, 16, 9, 0);
+        long expected = ("1_" + occurrence).hashCode() & 0x7FFFFFFF;
+
+        assertThat(OccurrenceId.legacyId(1L, occurrence)).isEqualTo(expected);
+    }
+}
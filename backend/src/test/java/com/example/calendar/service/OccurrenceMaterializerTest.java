@@ -0,0 +1,267 @@
+package com.example.calendar.service;
+
+import com.example.calendar.model.Event;
+import com.example.calendar.model.Occurrence;
+import com.example.calendar.model.User;
+import com.example.calendar.repository.EventRepository;
+import com.example.calendar.repository.OccurrenceRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OccurrenceMaterializerTest {
+
+    private static final int HORIZON_DAYS = 30;
+    private static final int PAST_DAYS = 7;
+
+    @Mock
+    private OccurrenceRepository occurrenceRepository;
+
+    @Mock
+    private EventRepository eventRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private Clock clock;
+
+    private OccurrenceMaterializer materializer;
+    private User user;
+    private LocalDateTime today;
+
+    @BeforeEach
+    void setUp() {
+        today = LocalDateTime.of(2024, 6, 1, 0, 0);
+        lenient().when(clock.getZone()).thenReturn(ZoneOffset.UTC);
+        lenient().when(clock.instant()).thenReturn(today.plusHours(3).toInstant(ZoneOffset.UTC));
+        materializer = new OccurrenceMaterializer(occurrenceRepository, eventRepository, entityManager, true, HORIZON_DAYS, PAST_DAYS, clock);
+        user = User.builder().id(1L).email("test@example.com").passwordHash("hash").build();
+    }
+
+    @Test
+    void disabled_NeverTouchesTheTable() {
+        OccurrenceMaterializer disabled =
+                new OccurrenceMaterializer(occurrenceRepository, eventRepository, entityManager, false, HORIZON_DAYS, PAST_DAYS, clock);
+
+        disabled.extendHorizon();
+        disabled.rematerialize(dailySeries(1L, today));
+        disabled.exclude(dailySeries(1L, today), today.plusHours(9));
+
+        assertThat(disabled.covers(today, today)).isFalse();
+        verifyNoInteractions(occurrenceRepository, eventRepository);
+    }
+
+    @Test
+    void extendHorizon_FirstRun_RebuildsAllSeriesInsideTheWindow() {
+        Event series = dailySeries(1L, today.minusDays(10).plusHours(9));
+        series.addExcludedDate(today.minusDays(5).plusHours(9));
+        LocalDateTime floor = today.minusDays(PAST_DAYS);
+        when(eventRepository.findRecurringMastersActiveAfter(floor)).thenReturn(List.of(series));
+
+        materializer.extendHorizon();
+
+        verify(occurrenceRepository).deleteAllInBatch();
+        List<Occurrence> rows = savedRows();
+        // The past days plus the horizon, minus one exclusion; older occurrences are not stored
+        assertThat(rows).hasSize(PAST_DAYS + HORIZON_DAYS - 1);
+        assertThat(rows.get(0).getStartDateTime()).isEqualTo(floor.plusHours(9));
+        assertThat(rows.get(0).getEndDateTime()).isEqualTo(floor.plusHours(10));
+        assertThat(rows.get(0).getOccurrenceKey()).isEqualTo(OccurrenceId.encode(1L, 10 - PAST_DAYS));
+        assertThat(rows).extracting(Occurrence::getStartDateTime)
+                .doesNotContain(today.minusDays(5).plusHours(9));
+        assertThat(materializer.covers(floor, today.plusDays(HORIZON_DAYS))).isTrue();
+        assertThat(materializer.covers(floor, today.plusDays(HORIZON_DAYS).plusMinutes(1))).isFalse();
+        assertThat(materializer.covers(floor.minusMinutes(1), today)).isFalse();
+    }
+
+    @Test
+    void extendHorizon_InTransaction_PublishesHorizonOnlyAfterCommit() {
+        when(eventRepository.findRecurringMastersActiveAfter(any())).thenReturn(List.of());
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            materializer.extendHorizon();
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+
+            // Not visible before commit, and a rollback leaves the table unusable
+            assertThat(materializer.covers(today, today.plusDays(1))).isFalse();
+            synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+            assertThat(materializer.covers(today, today.plusDays(1))).isFalse();
+
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+            assertThat(materializer.covers(today, today.plusDays(1))).isTrue();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void extendHorizon_AlreadyAtHorizon_DoesNothing() {
+        when(eventRepository.findRecurringMastersActiveAfter(any())).thenReturn(List.of());
+        materializer.extendHorizon();
+        clearInvocations(occurrenceRepository, eventRepository);
+
+        materializer.extendHorizon();
+
+        verifyNoInteractions(occurrenceRepository, eventRepository);
+    }
+
+    @Test
+    void rematerialize_BeforeFirstRun_IsSkipped() {
+        materializer.rematerialize(dailySeries(1L, today));
+        materializer.exclude(dailySeries(1L, today), today);
+
+        verifyNoInteractions(occurrenceRepository);
+    }
+
+    @Test
+    void extendHorizon_FirstRun_WaitsForWritersThatStartedBeforeIt() throws Exception {
+        when(eventRepository.findRecurringMastersActiveAfter(any())).thenReturn(List.of());
+        CompletableFuture<Void> rebuild;
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            materializer.rematerialize(dailySeries(1L, today));
+            rebuild = CompletableFuture.runAsync(materializer::extendHorizon);
+
+            // The rebuild must read the series back, so it does not start before the write commits
+            assertThatThrownBy(() -> rebuild.get(200, TimeUnit.MILLISECONDS)).isInstanceOf(TimeoutException.class);
+            verifyNoInteractions(occurrenceRepository);
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        rebuild.get(5, TimeUnit.SECONDS);
+        verify(occurrenceRepository).deleteAllInBatch();
+    }
+
+    @Test
+    void rematerialize_DuringFirstRun_WritesOnceTheRebuildCommits() throws Exception {
+        when(eventRepository.findRecurringMastersActiveAfter(any())).thenReturn(List.of());
+        Event series = dailySeries(1L, today.plusHours(9));
+        CompletableFuture<Void> write;
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            materializer.extendHorizon();
+            write = CompletableFuture.runAsync(() -> materializer.rematerialize(series));
+
+            // Skipping the write now would leave the series missing from the rebuilt table
+            assertThatThrownBy(() -> write.get(200, TimeUnit.MILLISECONDS)).isInstanceOf(TimeoutException.class);
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+            synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        write.get(5, TimeUnit.SECONDS);
+        verify(occurrenceRepository).deleteByMasterEvent(series);
+        assertThat(savedRows()).hasSize(HORIZON_DAYS);
+    }
+
+    @Test
+    void rematerialize_ReplacesRowsOfTheSeries() {
+        when(eventRepository.findRecurringMastersActiveAfter(any())).thenReturn(List.of());
+        materializer.extendHorizon();
+        clearInvocations(occurrenceRepository);
+
+        Event series = dailySeries(3L, today.plusDays(1).plusHours(8));
+        series.setRecurrenceCount(3);
+        materializer.rematerialize(series);
+
+        verify(occurrenceRepository).deleteByMasterEvent(series);
+        assertThat(savedRows()).extracting(Occurrence::getStartDateTime).containsExactly(
+                today.plusDays(1).plusHours(8), today.plusDays(2).plusHours(8), today.plusDays(3).plusHours(8));
+    }
+
+    @Test
+    void rematerialize_InstanceOverride_OnlyDeletes() {
+        when(eventRepository.findRecurringMastersActiveAfter(any())).thenReturn(List.of());
+        materializer.extendHorizon();
+        clearInvocations(occurrenceRepository);
+
+        Event override = dailySeries(4L, today);
+        override.setRecurrenceRule(null);
+        override.setParentEvent(dailySeries(1L, today));
+        materializer.rematerialize(override);
+
+        verify(occurrenceRepository).deleteByMasterEvent(override);
+        verify(occurrenceRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void exclude_DeletesSingleOccurrence() {
+        when(eventRepository.findRecurringMastersActiveAfter(any())).thenReturn(List.of());
+        materializer.extendHorizon();
+
+        Event series = dailySeries(5L, today.plusHours(9));
+        materializer.exclude(series, today.plusDays(2).plusHours(9));
+
+        verify(occurrenceRepository).deleteByOccurrenceKey(OccurrenceId.encode(5L, 2));
+    }
+
+    @Test
+    void extendHorizon_NextDay_OnlyAddsOccurrencesPastTheOldHorizon() {
+        when(eventRepository.findRecurringMastersActiveAfter(any())).thenReturn(List.of());
+        materializer.extendHorizon();
+        clearInvocations(occurrenceRepository);
+
+        LocalDateTime oldHorizon = today.plusDays(HORIZON_DAYS);
+        // Long occurrences overlapping the old horizon were already stored by the previous run
+        Event series = dailySeries(6L, today.plusHours(22));
+        series.setEndDateTime(today.plusHours(26));
+        when(eventRepository.findRecurringMastersActiveAfter(oldHorizon)).thenReturn(List.of(series));
+        when(clock.instant()).thenReturn(today.plusDays(2).plusHours(3).toInstant(ZoneOffset.UTC));
+
+        materializer.extendHorizon();
+
+        verify(occurrenceRepository).deleteEndingBefore(today.plusDays(2 - PAST_DAYS));
+        verify(occurrenceRepository).deleteStartingFrom(oldHorizon);
+        assertThat(savedRows()).extracting(Occurrence::getStartDateTime).containsExactly(
+                oldHorizon.plusHours(22), oldHorizon.plusDays(1).plusHours(22));
+        assertThat(materializer.covers(today.plusDays(2 - PAST_DAYS), oldHorizon.plusDays(2))).isTrue();
+        assertThat(materializer.covers(today, oldHorizon.plusDays(2).plusMinutes(1))).isFalse();
+        assertThat(materializer.covers(today.plusDays(1 - PAST_DAYS), today)).isFalse();
+    }
+
+    private List<Occurrence> savedRows() {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Occurrence>> captor = ArgumentCaptor.forClass(List.class);
+        verify(occurrenceRepository).saveAll(captor.capture());
+        return captor.getValue();
+    }
+
+    private Event dailySeries(Long id, LocalDateTime start) {
+        return Event.builder()
+                .id(id)
+                .title("Daily")
+                .startDateTime(start)
+                .endDateTime(start.plusHours(1))
+                .user(user)
+                .recurrenceRule("FREQ=DAILY")
+                .excludedDates(new HashSet<>())
+                .build();
+    }
+}
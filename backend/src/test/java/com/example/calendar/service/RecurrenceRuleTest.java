@@ -0,0 +1,76 @@
+package com.example.calendar.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecurrenceRuleTest {
+
+    @Test
+    void compile_SameRuleTwice_ReturnsCachedInstance() {
+        // Given
+        String rrule = "FREQ=WEEKLY;INTERVAL=2;X-TEST=" + System.nanoTime();
+        long hits = RecurrenceRule.cacheHits();
+        long misses = RecurrenceRule.cacheMisses();
+
+        // When
+        RecurrenceRule first = RecurrenceRule.compile(rrule);
+        RecurrenceRule second = RecurrenceRule.compile(rrule);
+
+        // Then
+        assertThat(second).isSameAs(first);
+        assertThat(first.frequency).isEqualTo("WEEKLY");
+        assertThat(first.interval).isEqualTo(2);
+        assertThat(first.stepInDays).isEqualTo(14);
+        assertThat(RecurrenceRule.cacheMisses()).isGreaterThan(misses);
+        assertThat(RecurrenceRule.cacheHits()).isGreaterThan(hits);
+    }
+
+    @Test
+    void compile_NullOrEmpty_ReturnsNull() {
+        assertThat(RecurrenceRule.compile(null)).isNull();
+        assertThat(RecurrenceRule.compile("")).isNull();
+    }
+
+    @Test
+    void parse_MalformedParts_FallsBackToDefaults() {
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=MONTHLY;INTERVAL=abc;BROKEN;=");
+
+        assertThat(rule.frequency).isEqualTo("MONTHLY");
+        assertThat(rule.interval).isEqualTo(1);
+        assertThat(rule.monthly).isTrue();
+    }
+
+    @Test
+    void parse_UnknownFrequency_StepsDaily() {
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=HOURLY;INTERVAL=3");
+
+        assertThat(rule.monthly).isFalse();
+        assertThat(rule.stepInDays).isEqualTo(1);
+    }
+
+    @Test
+    void compile_ManyDistinctRules_StaysBounded() {
+        for (int i = 0; i < RecurrenceRule.MAX_CACHED_RULES + 10; i++) {
+            RecurrenceRule.compile("FREQ=DAILY;INTERVAL=" + (i + 1) + ";X-BOUND=" + i);
+        }
+
+        assertThat(RecurrenceRule.cacheSize()).isEqualTo(RecurrenceRule.MAX_CACHED_RULES);
+    }
+
+    @Test
+    void metrics_ExposeHitsMissesAndSize() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new RecurrenceRuleCacheMetrics().bindTo(registry);
+        String rrule = "FREQ=DAILY;X-METRICS=" + System.nanoTime();
+        RecurrenceRule.compile(rrule);
+        RecurrenceRule.compile(rrule);
+
+        assertThat(registry.get("calendar.rrule.cache.requests").tag("result", "hit").functionCounter().count())
+                .isEqualTo(RecurrenceRule.cacheHits());
+        assertThat(registry.get("calendar.rrule.cache.requests").tag("result", "miss").functionCounter().count())
+                .isEqualTo(RecurrenceRule.cacheMisses());
+        assertThat(registry.get("calendar.rrule.cache.size").gauge().value()).isPositive();
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.calendar.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecurrenceSetTest {
+
+    @Test
+    void weeklyByDay_GeneratesSelectedWeekdays() {
+        assertThat(first(6, "FREQ=WEEKLY;BYDAY=MO,WE,FR", date(2024, 1, 1))).containsExactly(
+                date(2024, 1, 1), date(2024, 1, 3), date(2024, 1, 5),
+                date(2024, 1, 8), date(2024, 1, 10), date(2024, 1, 12));
+    }
+
+    @Test
+    void weeklyInterval_SkipsWeeksRelativeToWeekStart() {
+        assertThat(first(4, "FREQ=WEEKLY;INTERVAL=2;BYDAY=TU,SU", date(1997, 8, 5))).containsExactly(
+                date(1997, 8, 5), date(1997, 8, 10), date(1997, 8, 19), date(1997, 8, 24));
+        assertThat(first(4, "FREQ=WEEKLY;INTERVAL=2;WKST=SU;BYDAY=TU,SU", date(1997, 8, 5))).containsExactly(
+                date(1997, 8, 5), date(1997, 8, 17), date(1997, 8, 19), date(1997, 8, 31));
+    }
+
+    @Test
+    void monthlySetPos_LastBusinessDayOfMonth() {
+        assertThat(first(6, "FREQ=MONTHLY;BYDAY=MO,TU,WE,TH,FR;BYSETPOS=-1", date(2024, 1, 31))).containsExactly(
+                date(2024, 1, 31), date(2024, 2, 29), date(2024, 3, 29),
+                date(2024, 4, 30), date(2024, 5, 31), date(2024, 6, 28));
+    }
+
+    @Test
+    void monthlyOrdinalByDay_FirstFriday() {
+        assertThat(first(4, "FREQ=MONTHLY;BYDAY=1FR", date(2024, 1, 5))).containsExactly(
+                date(2024, 1, 5), date(2024, 2, 2), date(2024, 3, 1), date(2024, 4, 5));
+    }
+
+    @Test
+    void monthlyNegativeMonthDay_LastDayOfMonth() {
+        assertThat(first(4, "FREQ=MONTHLY;BYMONTHDAY=-1", date(2024, 1, 31))).containsExactly(
+                date(2024, 1, 31), date(2024, 2, 29), date(2024, 3, 31), date(2024, 4, 30));
+    }
+
+    @Test
+    void yearly_LeapDayOnlyInLeapYears() {
+        assertThat(first(3, "FREQ=YEARLY", date(2024, 2, 29))).containsExactly(
+                date(2024, 2, 29), date(2028, 2, 29), date(2032, 2, 29));
+    }
+
+    @Test
+    void yearlyOrdinalByDay_CountsWithinTheYear() {
+        assertThat(first(3, "FREQ=YEARLY;BYDAY=20MO", date(1997, 5, 19))).containsExactly(
+                date(1997, 5, 19), date(1998, 5, 18), date(1999, 5, 17));
+    }
+
+    @Test
+    void yearlyByMonthAndDay_EveryThursdayInMarch() {
+        assertThat(first(5, "FREQ=YEARLY;BYMONTH=3;BYDAY=TH", date(2024, 3, 7))).containsExactly(
+                date(2024, 3, 7), date(2024, 3, 14), date(2024, 3, 21), date(2024, 3, 28), date(2025, 3, 6));
+    }
+
+    @Test
+    void dailyIntervalWithByDay_KeepsIntervalLattice() {
+        assertThat(first(3, "FREQ=DAILY;INTERVAL=2;BYDAY=SA", date(2024, 1, 6))).containsExactly(
+                date(2024, 1, 6), date(2024, 1, 20), date(2024, 2, 3));
+    }
+
+    @Test
+    void startNotMatchingRule_IsFirstOccurrence() {
+        RecurrenceSet set = set("FREQ=WEEKLY;BYDAY=MO", date(2024, 1, 3));
+
+        assertThat(first(3, "FREQ=WEEKLY;BYDAY=MO", date(2024, 1, 3))).containsExactly(
+                date(2024, 1, 3), date(2024, 1, 8), date(2024, 1, 15));
+        assertThat(set.countBefore(date(2024, 1, 9))).isEqualTo(2);
+        assertThat(set.occurrence(0, date(2025, 1, 1))).isEqualTo(date(2024, 1, 3));
+    }
+
+    @Test
+    void skipTo_JumpsToWindowWithoutWalkingTheSeries() {
+        RecurrenceSet set = set("FREQ=DAILY;BYMONTH=1", date(2024, 1, 1));
+
+        set.skipTo(date(2026, 1, 30));
+
+        assertThat(set.next(date(2026, 3, 1))).isEqualTo(date(2026, 1, 30));
+        assertThat(set.next(date(2026, 3, 1))).isEqualTo(date(2026, 1, 31));
+        assertThat(set.next(date(2026, 3, 1))).isNull();
+        assertThat(set.countBefore(date(2026, 1, 30))).isEqualTo(31 + 31 + 29);
+    }
+
+    @Test
+    void ruleThatNeverMatches_StopsAtLimit() {
+        RecurrenceSet set = set("FREQ=MONTHLY;BYMONTH=2;BYMONTHDAY=30", date(2024, 2, 1));
+
+        assertThat(set.next(date(2100, 1, 1))).isEqualTo(date(2024, 2, 1));
+        assertThat(set.next(date(2100, 1, 1))).isNull();
+        assertThat(set.occurrence(1, date(2100, 1, 1))).isNull();
+    }
+
+    @Test
+    void countOccurrenceAndSkip_AgreeWithSequentialIteration() {
+        String[] rules = {
+                "FREQ=WEEKLY;INTERVAL=3;BYDAY=MO,SA;BYMONTH=1,2,3,10",
+                "FREQ=MONTHLY;INTERVAL=2;BYDAY=-2TU,1SU;BYMONTHDAY=1,2,3,4,5,6,7,-8,-9,-10,-11,-12,-13,-14",
+                "FREQ=YEARLY;BYMONTH=2,8;BYMONTHDAY=-1,1,15;BYSETPOS=1,-1",
+                "FREQ=DAILY;INTERVAL=5;BYDAY=WE,TH;BYMONTHDAY=-3,10,11,12"
+        };
+        for (String rule : rules) {
+            LocalDate start = date(2024, 1, 17);
+            List<LocalDate> dates = first(40, rule, start);
+            assertThat(dates).as(rule).hasSize(40).isSorted().doesNotHaveDuplicates();
+
+            for (int i = 0; i < dates.size(); i++) {
+                LocalDate date = dates.get(i);
+                RecurrenceSet set = set(rule, start);
+                assertThat(set.occurrence(i, date(2200, 1, 1))).as(rule).isEqualTo(date);
+                assertThat(set.countBefore(date)).as(rule).isEqualTo(i);
+                set.skipTo(date);
+                assertThat(set.next(date(2200, 1, 1))).as(rule).isEqualTo(date);
+            }
+        }
+    }
+
+    @Test
+    void countAndOccurrence_DecadesIntoTheSeries_AgreeWithSequentialIteration() {
+        // Blocks between the ends are counted by shape, or multiplied when all blocks are alike
+        String[] rules = {
+                "FREQ=WEEKLY;BYDAY=MO,TH",
+                "FREQ=WEEKLY;INTERVAL=3;BYDAY=SU;BYMONTHDAY=-1,1,2,3,4,5,6,7",
+                "FREQ=DAILY;INTERVAL=4;BYDAY=FR;BYMONTH=2,3",
+                "FREQ=MONTHLY;BYDAY=MO,TU,WE,TH,FR;BYSETPOS=-1",
+                "FREQ=MONTHLY;INTERVAL=5;BYMONTHDAY=29,30,31",
+                "FREQ=YEARLY;INTERVAL=3;BYMONTH=2;BYMONTHDAY=29"
+        };
+        LocalDate start = date(1990, 1, 30);
+        for (String rule : rules) {
+            List<LocalDate> dates = first(100_000, rule, start);
+            int total = (int) dates.stream().filter(date -> date.isBefore(date(2030, 1, 1))).count();
+            assertThat(total).as(rule).isGreaterThan(3);
+
+            for (int i : new int[] {1, total / 2, total - 1}) {
+                RecurrenceSet set = set(rule, start);
+                assertThat(set.occurrence(i, date(2030, 1, 1))).as(rule).isEqualTo(dates.get(i));
+                assertThat(set.countBefore(dates.get(i))).as(rule).isEqualTo(i);
+                assertThat(set.countBefore(dates.get(i).plusDays(1))).as(rule).isEqualTo(i + 1);
+            }
+            assertThat(set(rule, start).countBefore(date(2030, 1, 1))).as(rule).isEqualTo(total);
+            assertThat(set(rule, start).occurrence(total, date(2030, 1, 1))).as(rule).isNull();
+        }
+    }
+
+    private static List<LocalDate> first(int count, String rrule, LocalDate start) {
+        RecurrenceSet set = set(rrule, start);
+        List<LocalDate> dates = new ArrayList<>();
+        LocalDate date;
+        while (dates.size() < count && (date = set.next(date(2200, 1, 1))) != null) {
+            dates.add(date);
+        }
+        return dates;
+    }
+
+    private static RecurrenceSet set(String rrule, LocalDate start) {
+        RecurrenceRule rule = RecurrenceRule.parse(rrule);
+        assertThat(rule.expanded).isTrue();
+        return new RecurrenceSet(rule, start);
+    }
+
+    private static LocalDate date(int year, int month, int day) {
+        return LocalDate.of(year, month, day);
+    }
+}
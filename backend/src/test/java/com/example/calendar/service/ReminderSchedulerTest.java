@@ -0,0 +1,279 @@
+package com.example.calendar.service;
+
+import com.example.calendar.dto.ReminderNotice;
+import com.example.calendar.model.Event;
+import com.example.calendar.model.EventReminder;
+import com.example.calendar.model.User;
+import com.example.calendar.repository.EventReminderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReminderSchedulerTest {
+
+    @Mock
+    private EventReminderRepository reminders;
+
+    @Mock
+    private CalendarChangeFeed feed;
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 3, 8, 0);
+
+    private Clock clock;
+    private ReminderScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        clock = mock(Clock.class);
+        scheduler = new ReminderScheduler(reminders, feed, TransactionOperations.withoutTransaction(), true, Duration.ofSeconds(1), Duration.ofHours(1),
+                Duration.ofMinutes(15), clock);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void setReminders_StoresEachOffsetOnceWithItsTriggerTime() {
+        // Given
+        at(NOW);
+        Event event = oneOff(NOW.plusHours(2));
+
+        // When
+        scheduler.setReminders(event, List.of(30, 10, 30));
+
+        // Then
+        verify(reminders).deleteByEventId(3L);
+        ArgumentCaptor<List<EventReminder>> saved = ArgumentCaptor.forClass(List.class);
+        verify(reminders).saveAll(saved.capture());
+        assertThat(saved.getValue())
+                .extracting(EventReminder::getMinutesBefore, EventReminder::getNextFireAt)
+                .containsExactly(tuple(10, NOW.plusMinutes(110)), tuple(30, NOW.plusMinutes(90)));
+    }
+
+    @Test
+    void setReminders_OutOfRange_IsRejected() {
+        // Given
+        Event event = oneOff(NOW.plusHours(2));
+
+        // When / Then
+        assertThatThrownBy(() -> scheduler.setReminders(event, List.of(-5)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("minutes before the event");
+        assertThatThrownBy(() -> scheduler.setReminders(event, List.of(1, 2, 3, 4, 5, 6)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("at most");
+        verifyNoInteractions(reminders);
+    }
+
+    @Test
+    void nextTrigger_Series_SkipsPastAndExcludedOccurrences() {
+        // Given a daily series at 9:00 whose June 4 occurrence was deleted
+        Event series = daily(LocalDateTime.of(2024, 6, 1, 9, 0));
+        series.addExcludedDate(LocalDateTime.of(2024, 6, 4, 9, 0));
+
+        // When / Then
+        assertThat(ReminderScheduler.nextTrigger(series, 30, NOW))
+                .isEqualTo(LocalDateTime.of(2024, 6, 3, 8, 30));
+        assertThat(ReminderScheduler.nextTrigger(series, 30, LocalDateTime.of(2024, 6, 3, 8, 30)))
+                .isEqualTo(LocalDateTime.of(2024, 6, 5, 8, 30));
+        assertThat(ReminderScheduler.nextTrigger(oneOff(NOW.plusMinutes(5)), 10, NOW)).isNull();
+    }
+
+    @Test
+    void tick_DueReminder_IsPublishedAndMovedToTheNextOccurrence() {
+        // Given a reminder 30 minutes before a daily 9:00 series, loaded on startup
+        Event series = daily(LocalDateTime.of(2024, 6, 1, 9, 0));
+        LocalDateTime trigger = LocalDateTime.of(2024, 6, 3, 8, 30);
+        EventReminder reminder = reminder(7L, series, 30, trigger);
+        at(trigger.minusSeconds(5));
+        when(reminders.findFiringBefore(trigger.minusSeconds(5).plusHours(1))).thenReturn(List.of(reminder));
+        scheduler.recover();
+        assertThat(scheduler.scheduledCount()).isEqualTo(1);
+
+        // When time reaches the trigger
+        at(trigger.plusSeconds(1));
+        when(reminders.findWithEventById(7L)).thenReturn(Optional.of(reminder));
+        when(reminders.advance(7L, trigger, trigger.plusDays(1))).thenReturn(1);
+        scheduler.tick();
+
+        // Then
+        verify(feed).publishReminder(1L,
+                new ReminderNotice(3L, "Standup", LocalDateTime.of(2024, 6, 3, 9, 0), 30));
+        verify(reminders).advance(7L, trigger, trigger.plusDays(1));
+        assertThat(scheduler.scheduledCount()).isZero();
+    }
+
+    @Test
+    void tick_ReminderRescheduledSinceFiled_IsIgnored() {
+        // Given
+        Event event = oneOff(NOW.plusMinutes(40));
+        EventReminder reminder = reminder(7L, event, 30, NOW.plusMinutes(10));
+        at(NOW);
+        when(reminders.findFiringBefore(NOW.plusHours(1))).thenReturn(List.of(reminder));
+        scheduler.recover();
+        // The event was moved after the timer was filed
+        reminder.setNextFireAt(NOW.plusMinutes(50));
+
+        // When
+        at(NOW.plusMinutes(11));
+        when(reminders.findWithEventById(7L)).thenReturn(Optional.of(reminder));
+        scheduler.tick();
+
+        // Then
+        verify(reminders, never()).advance(any(), any(), any());
+        verifyNoInteractions(feed);
+    }
+
+    @Test
+    void tick_OccurrenceDeletedSinceFiled_IsSkippedWithoutPublishing() {
+        // Given
+        Event series = daily(LocalDateTime.of(2024, 6, 1, 9, 0));
+        LocalDateTime trigger = LocalDateTime.of(2024, 6, 3, 8, 30);
+        EventReminder reminder = reminder(7L, series, 30, trigger);
+        at(NOW);
+        when(reminders.findFiringBefore(NOW.plusHours(1))).thenReturn(List.of(reminder));
+        scheduler.recover();
+        series.addExcludedDate(LocalDateTime.of(2024, 6, 3, 9, 0));
+
+        // When
+        at(trigger);
+        when(reminders.findWithEventById(7L)).thenReturn(Optional.of(reminder));
+        when(reminders.advance(7L, trigger, trigger.plusDays(1))).thenReturn(1);
+        scheduler.tick();
+
+        // Then
+        verify(reminders).advance(7L, trigger, trigger.plusDays(1));
+        verifyNoInteractions(feed);
+    }
+
+    @Test
+    void tick_OneReminderFails_OthersStillFireAndItIsRetried() {
+        // Given two reminders due at the same time
+        Event first = oneOff(NOW.plusMinutes(40));
+        Event second = oneOff(NOW.plusMinutes(40));
+        EventReminder failing = reminder(7L, first, 30, NOW.plusMinutes(10));
+        EventReminder working = reminder(8L, second, 30, NOW.plusMinutes(10));
+        at(NOW);
+        when(reminders.findFiringBefore(NOW.plusHours(1))).thenReturn(List.of(failing, working));
+        scheduler.recover();
+
+        // When the first one cannot be read
+        at(NOW.plusMinutes(10));
+        when(reminders.findWithEventById(7L)).thenThrow(new IllegalStateException("connection reset"));
+        when(reminders.findWithEventById(8L)).thenReturn(Optional.of(working));
+        when(reminders.advance(8L, NOW.plusMinutes(10), null)).thenReturn(1);
+        scheduler.tick();
+
+        // Then the second one fired, and the first is filed again for a retry
+        verify(feed).publishReminder(1L, new ReminderNotice(3L, "Standup", NOW.plusMinutes(40), 30));
+        assertThat(scheduler.scheduledCount()).isEqualTo(1);
+
+        // When the retry succeeds
+        reset(reminders);
+        at(NOW.plusMinutes(11));
+        when(reminders.findWithEventById(7L)).thenReturn(Optional.of(failing));
+        when(reminders.advance(7L, NOW.plusMinutes(10), null)).thenReturn(1);
+        scheduler.tick();
+
+        // Then
+        verify(feed, times(2)).publishReminder(1L, new ReminderNotice(3L, "Standup", NOW.plusMinutes(40), 30));
+        assertThat(scheduler.scheduledCount()).isZero();
+    }
+
+    @Test
+    void tick_NothingDue_DoesNotTouchTheDatabase() {
+        // Given
+        at(NOW);
+        when(reminders.findFiringBefore(NOW.plusHours(1))).thenReturn(List.of());
+        scheduler.recover();
+        clearInvocations(reminders);
+
+        // When
+        at(NOW.plusSeconds(5));
+        scheduler.tick();
+
+        // Then
+        verifyNoInteractions(reminders);
+    }
+
+    @Test
+    void recover_MissedReminders_FireWithinGraceAndSkipAheadBeyondIt() {
+        // Given two reminders that came due while no node was running
+        Event recent = oneOff(NOW.plusMinutes(5));
+        Event series = daily(LocalDateTime.of(2024, 6, 1, 9, 0));
+        EventReminder missedRecently = reminder(7L, recent, 10, NOW.minusMinutes(5));
+        EventReminder missedLongAgo = reminder(8L, series, 30, LocalDateTime.of(2024, 6, 2, 8, 30));
+        at(NOW);
+        when(reminders.findFiringBefore(NOW.plusHours(1))).thenReturn(List.of(missedRecently, missedLongAgo));
+
+        // When
+        scheduler.recover();
+        when(reminders.findWithEventById(7L)).thenReturn(Optional.of(missedRecently));
+        when(reminders.findWithEventById(8L)).thenReturn(Optional.of(missedLongAgo));
+        when(reminders.advance(7L, NOW.minusMinutes(5), null)).thenReturn(1);
+        when(reminders.advance(8L, LocalDateTime.of(2024, 6, 2, 8, 30), LocalDateTime.of(2024, 6, 3, 8, 30)))
+                .thenReturn(1);
+        scheduler.tick();
+
+        // Then only the recent one was published; the old one moved on to the next occurrence
+        verify(feed).publishReminder(1L, new ReminderNotice(3L, "Standup", NOW.plusMinutes(5), 10));
+        verifyNoMoreInteractions(feed);
+        verify(reminders).advance(8L, LocalDateTime.of(2024, 6, 2, 8, 30), LocalDateTime.of(2024, 6, 3, 8, 30));
+    }
+
+    @Test
+    void tick_AfterHalfTheHorizon_RefillsFromWhereTheWheelWasLoaded() {
+        // Given
+        at(NOW);
+        when(reminders.findFiringBefore(NOW.plusHours(1))).thenReturn(List.of());
+        scheduler.recover();
+
+        // When
+        at(NOW.plusMinutes(10));
+        scheduler.tick();
+        at(NOW.plusMinutes(31));
+        when(reminders.findFiringBetween(NOW.plusHours(1), NOW.plusMinutes(91)))
+                .thenReturn(List.of(reminder(7L, oneOff(NOW.plusHours(2)), 30, NOW.plusMinutes(90))));
+        scheduler.tick();
+
+        // Then
+        verify(reminders).findFiringBetween(NOW.plusHours(1), NOW.plusMinutes(91));
+        assertThat(scheduler.scheduledCount()).isEqualTo(1);
+    }
+
+    private void at(LocalDateTime time) {
+        when(clock.instant()).thenReturn(time.toInstant(ZoneOffset.UTC));
+        when(clock.getZone()).thenReturn(ZoneOffset.UTC);
+    }
+
+    private static Event oneOff(LocalDateTime start) {
+        return Event.builder().id(3L).title("Standup").user(new User(1L, "user@example.com", "hash"))
+                .startDateTime(start).endDateTime(start.plusMinutes(15)).build();
+    }
+
+    private static Event daily(LocalDateTime start) {
+        Event event = oneOff(start);
+        event.setRecurrenceRule("FREQ=DAILY");
+        return event;
+    }
+
+    private static EventReminder reminder(Long id, Event event, int minutesBefore, LocalDateTime nextFireAt) {
+        return EventReminder.builder().id(id).event(event).minutesBefore(minutesBefore).nextFireAt(nextFireAt).build();
+    }
+}
@@ -2,6 +2,7 @@ package com.example.calendar.service;
 
 import com.example.calendar.dto.CreateTagDTO;
 import com.example.calendar.dto.TagDTO;
+import com.example.calendar.model.Event;
 import com.example.calendar.model.Tag;
 import com.example.calendar.model.User;
 import com.example.calendar.repository.TagRepository;
@@ -14,8 +15,10 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -30,6 +33,12 @@ class TagServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private EventRangeCache eventRangeCache;
+
+    @Mock
+    private EventChangeLog eventChangeLog;
+
     @InjectMocks
     private TagService tagService;
 
@@ -84,6 +93,7 @@ class TagServiceTest {
         assertEquals("Work", result.getName());
         assertEquals(1L, result.getId());
         verify(tagRepository).save(any(Tag.class));
+        verify(userRepository).bumpCalendarVersion("test@example.com");
     }
 
     @Test
@@ -116,18 +126,25 @@ class TagServiceTest {
         // Then
         assertNotNull(result);
         verify(tagRepository).save(any(Tag.class));
+        verify(eventRangeCache).invalidate("test@example.com");
     }
 
     @Test
     void deleteTag_ShouldDeleteExistingTag() {
         // Given
         when(tagRepository.findById(1L)).thenReturn(Optional.of(testTag));
+        Event tagged = Event.builder().id(5L).tags(new HashSet<>(Set.of(testTag))).build();
+        when(tagRepository.findEventsByTagId(1L)).thenReturn(List.of(tagged));
 
         // When
         tagService.deleteTag(1L, "test@example.com");
 
         // Then
         verify(tagRepository).delete(testTag);
+        verify(eventRangeCache).invalidate("test@example.com");
+        // Events that carried the tag are synced again
+        verify(eventChangeLog).record(testUser.getId(), List.of(tagged), List.of());
+        assertTrue(tagged.getTags().isEmpty());
     }
 
     @Test
@@ -256,6 +273,20 @@ class TagServiceTest {
         verify(tagRepository).save(any(Tag.class));
     }
 
+    @Test
+    void getAllTags_ByUserId_DoesNotLookUpUser() {
+        // Given
+        when(tagRepository.findByUserId(1L)).thenReturn(Arrays.asList(testTag));
+
+        // When
+        List<TagDTO> result = tagService.getAllTags(1L);
+
+        // Then
+        assertEquals(1, result.size());
+        assertEquals("Work", result.get(0).getName());
+        verifyNoInteractions(userRepository);
+    }
+
     @Test
     void getAllTags_ShouldReturnEmptyList_WhenNoTags() {
         // Given
@@ -0,0 +1,79 @@
+package com.example.calendar.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TimingWheelTest {
+
+    @Test
+    void advance_FiresEachTimerInTheTickItIsDue_AcrossLevels() {
+        // Given 4 slots on 3 levels: level 0 covers 4 ticks, level 1 16, level 2 64
+        TimingWheel<Integer> wheel = new TimingWheel<>(1000, 4, 3, 2_500);
+        int[] dueTicks = {3, 5, 6, 17, 18, 31, 40, 48};
+        for (int dueTick : dueTicks) {
+            assertThat(wheel.add(dueTick * 1000L + 300, dueTick)).isTrue();
+        }
+        assertThat(wheel.size()).isEqualTo(dueTicks.length);
+
+        // When time moves one tick at a time
+        Map<Integer, Integer> firedAt = new HashMap<>();
+        for (int tick = 3; tick <= 50; tick++) {
+            int now = tick;
+            wheel.advance(tick * 1000L, item -> firedAt.put(item, now));
+        }
+
+        // Then every timer fired exactly in its own tick
+        for (int dueTick : dueTicks) {
+            assertThat(firedAt).containsEntry(dueTick, dueTick);
+        }
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void advance_JumpOverManyTicks_FiresEverythingDueInOrder() {
+        // Given
+        TimingWheel<Integer> wheel = new TimingWheel<>(1000, 4, 3, 0);
+        wheel.add(40_000, 40);
+        wheel.add(9_000, 9);
+        wheel.add(2_000, 2);
+        wheel.add(60_000, 60);
+
+        // When
+        List<Integer> fired = new ArrayList<>();
+        wheel.advance(45_000, fired::add);
+
+        // Then
+        assertThat(fired).containsExactly(2, 9, 40);
+        assertThat(wheel.size()).isEqualTo(1);
+    }
+
+    @Test
+    void add_AlreadyDue_IsRefused() {
+        // Given
+        TimingWheel<String> wheel = new TimingWheel<>(1000, 4, 2, 10_000);
+
+        // When / Then a timer in the current tick or before has already expired
+        assertThat(wheel.add(10_999, "now")).isFalse();
+        assertThat(wheel.add(3_000, "past")).isFalse();
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void add_BeyondHorizon_IsRejected() {
+        // Given 16 ticks from tick 0
+        TimingWheel<String> wheel = new TimingWheel<>(1000, 4, 2, 0);
+
+        // When / Then
+        assertThat(wheel.covers(15_000)).isTrue();
+        assertThat(wheel.covers(16_000)).isFalse();
+        assertThatThrownBy(() -> wheel.add(16_000, "late"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,91 @@
+package db.migration;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationVersion;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class V11__backfill_event_remindersTest {
+
+    private static final String URL = "jdbc:h2:mem:backfill_event_reminders;DB_CLOSE_DELAY=-1";
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+    }
+
+    @Test
+    void migrate_GivesEventsWithoutRemindersTheLegacyTenMinuteReminder() throws SQLException {
+        migrate(MigrationVersion.fromVersion("10"));
+        LocalDateTime tomorrow = LocalDate.now().plusDays(1).atTime(9, 0);
+
+        try (Connection connection = DriverManager.getConnection(URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO users (id, email, password_hash) VALUES (1, 'a@example.com', 'x')");
+            insertEvent(connection, 1, tomorrow, null);
+            insertEvent(connection, 2, LocalDateTime.of(2020, 1, 1, 9, 0), null);
+            // A weekly series whose occurrence tomorrow was deleted
+            insertEvent(connection, 3, tomorrow.minusWeeks(52), "FREQ=WEEKLY");
+            statement.execute("INSERT INTO event_exclusions (event_id, excluded_start_date_time) VALUES (3, '"
+                    + Timestamp.valueOf(tomorrow) + "')");
+            // Already has reminders of its own
+            insertEvent(connection, 4, tomorrow, null);
+            statement.execute("INSERT INTO event_reminders (event_id, minutes_before, next_fire_at) VALUES (4, 30, '"
+                    + Timestamp.valueOf(tomorrow.minusMinutes(30)) + "')");
+
+            migrate(MigrationVersion.LATEST);
+
+            Map<Long, String> rows = new HashMap<>();
+            try (ResultSet rs = statement.executeQuery(
+                    "SELECT event_id, minutes_before, next_fire_at FROM event_reminders")) {
+                while (rs.next()) {
+                    Timestamp next = rs.getTimestamp(3);
+                    rows.put(rs.getLong(1), rs.getInt(2) + " " + (next != null ? next.toLocalDateTime() : null));
+                }
+            }
+            assertThat(rows).containsOnly(
+                    Map.entry(1L, "10 " + tomorrow.minusMinutes(10)),
+                    Map.entry(2L, "10 null"),
+                    Map.entry(3L, "10 " + tomorrow.plusWeeks(1).minusMinutes(10)),
+                    Map.entry(4L, "30 " + tomorrow.minusMinutes(30)));
+        }
+    }
+
+    private static void insertEvent(Connection connection, long id, LocalDateTime start, String rule)
+            throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO events (id, user_id, title, "
+                + "start_date_time, end_date_time, recurrence_rule) VALUES (?, 1, 'Event', ?, ?, ?)")) {
+            insert.setLong(1, id);
+            insert.setTimestamp(2, Timestamp.valueOf(start));
+            insert.setTimestamp(3, Timestamp.valueOf(start.plusHours(1)));
+            insert.setString(4, rule);
+            insert.executeUpdate();
+        }
+    }
+
+    private void migrate(MigrationVersion target) {
+        Flyway.configure()
+                .dataSource(URL, "sa", "")
+                .locations("classpath:db/migration")
+                .target(target)
+                .load()
+                .migrate();
+    }
+}
@@ -0,0 +1,142 @@
+package db.migration;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationVersion;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class V13__rekey_month_end_occurrencesTest {
+
+    private static final String URL = "jdbc:h2:mem:rekey_month_end_occurrences;DB_CLOSE_DELAY=-1";
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+    }
+
+    @Test
+    void migrate_MovesDriftedMonthlyExclusionsAndOverrides() throws SQLException {
+        migrate(MigrationVersion.fromVersion("12"));
+        LocalDateTime start = LocalDateTime.of(2024, 1, 31, 9, 0);
+
+        try (Connection connection = DriverManager.getConnection(URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO users (id, email, password_hash) VALUES (1, 'a@example.com', 'x')");
+            // Stepping gave Jan 31, Feb 29, Mar 29, Apr 29, May 29
+            insertEvent(connection, 1, start, "FREQ=MONTHLY", null, null);
+            exclude(connection, 1, LocalDateTime.of(2024, 2, 29, 9, 0));
+            exclude(connection, 1, LocalDateTime.of(2024, 3, 29, 9, 0));
+            // Excluded under both start times
+            exclude(connection, 1, LocalDateTime.of(2024, 4, 29, 9, 0));
+            exclude(connection, 1, LocalDateTime.of(2024, 4, 30, 9, 0));
+            insertEvent(connection, 2, LocalDateTime.of(2024, 5, 29, 12, 0), null, 1L,
+                    LocalDateTime.of(2024, 5, 29, 9, 0));
+            // Expanded from day sets, and a series that never drifted
+            insertEvent(connection, 3, start, "FREQ=MONTHLY;BYMONTHDAY=31", null, null);
+            exclude(connection, 3, LocalDateTime.of(2024, 3, 29, 9, 0));
+            insertEvent(connection, 4, start, "FREQ=WEEKLY", null, null);
+            exclude(connection, 4, LocalDateTime.of(2024, 2, 28, 9, 0));
+
+            migrate(MigrationVersion.LATEST);
+
+            assertThat(exclusions(connection, 1)).containsExactly(
+                    LocalDateTime.of(2024, 2, 29, 9, 0),
+                    LocalDateTime.of(2024, 3, 31, 9, 0),
+                    LocalDateTime.of(2024, 4, 30, 9, 0));
+            try (ResultSet rs = statement.executeQuery("SELECT original_start_date_time FROM events WHERE id = 2")) {
+                rs.next();
+                assertThat(rs.getTimestamp(1).toLocalDateTime()).isEqualTo(LocalDateTime.of(2024, 5, 31, 9, 0));
+            }
+            assertThat(exclusions(connection, 3)).containsExactly(LocalDateTime.of(2024, 3, 29, 9, 0));
+            assertThat(exclusions(connection, 4)).containsExactly(LocalDateTime.of(2024, 2, 28, 9, 0));
+
+            // Delta-sync clients are told to fetch the series again
+            try (ResultSet rs = statement.executeQuery(
+                    "SELECT u.calendar_version, c.version, c.event_id FROM users u JOIN event_changes c ON c.user_id = u.id")) {
+                assertThat(rs.next()).isTrue();
+                assertThat(rs.getLong(1)).isEqualTo(1);
+                assertThat(rs.getLong(2)).isEqualTo(1);
+                assertThat(rs.getLong(3)).isEqualTo(1);
+                assertThat(rs.next()).isFalse();
+            }
+        }
+    }
+
+    @Test
+    void rekey_OnlyMovesStartTimesThatSteppingProduced() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 30, 9, 0);
+
+        // Every other month: Jan 30, Mar 30, May 30; a 31st never drifts after a short month
+        assertThat(V13__rekey_month_end_occurrences.rekey(start, 2, LocalDateTime.of(2024, 3, 30, 9, 0))).isNull();
+        assertThat(V13__rekey_month_end_occurrences.rekey(start, 1, LocalDateTime.of(2024, 3, 29, 9, 0)))
+                .isEqualTo(LocalDateTime.of(2024, 3, 30, 9, 0));
+        assertThat(V13__rekey_month_end_occurrences.rekey(start, 1, LocalDateTime.of(2024, 3, 28, 9, 0))).isNull();
+        assertThat(V13__rekey_month_end_occurrences.rekey(start, 2, LocalDateTime.of(2024, 2, 29, 9, 0))).isNull();
+        assertThat(V13__rekey_month_end_occurrences.monthlyInterval("FREQ=MONTHLY;INTERVAL=3")).isEqualTo(3);
+        assertThat(V13__rekey_month_end_occurrences.monthlyInterval("FREQ=MONTHLY;BYDAY=1FR")).isZero();
+        assertThat(V13__rekey_month_end_occurrences.monthlyInterval("FREQ=DAILY")).isZero();
+    }
+
+    private static void insertEvent(Connection connection, long id, LocalDateTime start, String rule,
+                                    Long parentId, LocalDateTime originalStart) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO events (id, user_id, title, "
+                + "start_date_time, end_date_time, recurrence_rule, parent_event_id, original_start_date_time) "
+                + "VALUES (?, 1, 'Event', ?, ?, ?, ?, ?)")) {
+            insert.setLong(1, id);
+            insert.setTimestamp(2, Timestamp.valueOf(start));
+            insert.setTimestamp(3, Timestamp.valueOf(start.plusHours(1)));
+            insert.setString(4, rule);
+            insert.setObject(5, parentId);
+            insert.setTimestamp(6, originalStart != null ? Timestamp.valueOf(originalStart) : null);
+            insert.executeUpdate();
+        }
+    }
+
+    private static void exclude(Connection connection, long eventId, LocalDateTime start) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO event_exclusions (event_id, excluded_start_date_time) VALUES (?, ?)")) {
+            insert.setLong(1, eventId);
+            insert.setTimestamp(2, Timestamp.valueOf(start));
+            insert.executeUpdate();
+        }
+    }
+
+    private static List<LocalDateTime> exclusions(Connection connection, long eventId) throws SQLException {
+        List<LocalDateTime> starts = new ArrayList<>();
+        try (PreparedStatement select = connection.prepareStatement("SELECT excluded_start_date_time "
+                + "FROM event_exclusions WHERE event_id = ? ORDER BY excluded_start_date_time")) {
+            select.setLong(1, eventId);
+            try (ResultSet rs = select.executeQuery()) {
+                while (rs.next()) {
+                    starts.add(rs.getTimestamp(1).toLocalDateTime());
+                }
+            }
+        }
+        return starts;
+    }
+
+    private static void migrate(MigrationVersion target) {
+        Flyway.configure()
+                .dataSource(URL, "sa", "")
+                .locations("classpath:db/migration")
+                .target(target)
+                .load()
+                .migrate();
+    }
+}
@@ -0,0 +1,72 @@
+package db.migration;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationVersion;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class V4__move_excluded_datesTest {
+
+    private static final String URL = "jdbc:h2:mem:move_excluded_dates;DB_CLOSE_DELAY=-1";
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+    }
+
+    @Test
+    void migrate_MovesParseableExclusionsAndDropsColumn() throws SQLException {
+        migrate(MigrationVersion.fromVersion("3"));
+
+        try (Connection connection = DriverManager.getConnection(URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO users (id, email, password_hash) VALUES (1, 'a@example.com', 'x')");
+            statement.execute("INSERT INTO events (id, user_id, title, start_date_time, end_date_time, "
+                    + "recurrence_rule, excluded_dates) VALUES (1, 1, 'Daily', '2024-01-15 09:00:00', "
+                    + "'2024-01-15 10:00:00', 'FREQ=DAILY', "
+                    + "'2024-01-16T09:00,2024-01-18T09:00:00, 2024-01-16T09:00,2024-01-20')");
+            statement.execute("INSERT INTO events (id, user_id, title, start_date_time, end_date_time, "
+                    + "recurrence_rule, excluded_dates) VALUES (2, 1, 'Weekly', '2024-01-15 09:00:00', "
+                    + "'2024-01-15 10:00:00', 'FREQ=WEEKLY', '')");
+
+            migrate(MigrationVersion.LATEST);
+
+            List<String> rows = new ArrayList<>();
+            try (ResultSet rs = statement.executeQuery("SELECT event_id, excluded_start_date_time "
+                    + "FROM event_exclusions ORDER BY event_id, excluded_start_date_time")) {
+                while (rs.next()) {
+                    rows.add(rs.getLong(1) + " " + rs.getTimestamp(2).toLocalDateTime());
+                }
+            }
+            assertThat(rows).containsExactly("1 2024-01-16T09:00", "1 2024-01-18T09:00");
+
+            try (ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM INFORMATION_SCHEMA.COLUMNS "
+                    + "WHERE TABLE_NAME = 'EVENTS' AND COLUMN_NAME = 'EXCLUDED_DATES'")) {
+                rs.next();
+                assertThat(rs.getInt(1)).isZero();
+            }
+        }
+    }
+
+    private void migrate(MigrationVersion target) {
+        Flyway.configure()
+                .dataSource(URL, "sa", "")
+                .locations("classpath:db/migration")
+                .target(target)
+                .load()
+                .migrate();
+    }
+}
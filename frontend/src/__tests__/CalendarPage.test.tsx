@@ -26,10 +26,12 @@ jest.mock('react-router-dom', () => ({
 
 // Mock useNotifications hook
 const mockRequestPermission = jest.fn();
-const mockScheduleReminders = jest.fn();
-const mockClearAllTimers = jest.fn();
+const mockNotify = jest.fn();
 const mockDispatchNotification = jest.fn();
 
+jest.mock('../hooks/useEventStream', () => ({
+  useEventStream: jest.fn(),
+}));
 jest.mock('../hooks/useNotifications', () => ({
   useNotifications: () => ({
     notificationState: {
@@ -37,8 +39,7 @@ jest.mock('../hooks/useNotifications', () => ({
       isSupported: true,
     },
     requestPermission: mockRequestPermission,
-    scheduleReminders: mockScheduleReminders,
-    clearAllTimers: mockClearAllTimers,
+    notify: mockNotify,
     dispatchNotification: mockDispatchNotification,
   }),
 }));
@@ -90,8 +91,7 @@ describe('CalendarPage', () => {
 
     // Clear notification mocks
     mockRequestPermission.mockClear();
-    mockScheduleReminders.mockClear();
-    mockClearAllTimers.mockClear();
+    mockNotify.mockClear();
     mockDispatchNotification.mockClear();
     // Mock the current date to be July 15, 2025
     const mockDate = new Date('2025-07-15T10:00:00Z');
@@ -254,6 +254,7 @@ describe('EventModal', () => {
         description: 'Test Description',
         startDateTime: '2024-01-15T10:00',
         endDateTime: '2024-01-15T12:00',
+        reminderMinutes: [10],
       });
 
       // Wait for success banner to appear
@@ -585,6 +586,7 @@ describe('EventModal', () => {
         startDateTime: '2024-01-15T10:00',
         endDateTime: '2024-01-15T12:00',
         tagIds: [1, 2],
+        reminderMinutes: [10],
       });
     });
 
@@ -626,6 +628,7 @@ describe('EventModal', () => {
         description: 'Test Description',
         startDateTime: '2024-01-15T10:00',
         endDateTime: '2024-01-15T12:00',
+        reminderMinutes: [10],
       });
     });
 
@@ -842,6 +845,7 @@ describe('EventModal', () => {
         recurrenceRule: 'FREQ=DAILY',
         recurrenceEndDate: undefined,
         recurrenceCount: undefined,
+        reminderMinutes: [10],
       });
     });
 
@@ -883,6 +887,7 @@ describe('EventModal', () => {
         recurrenceRule: 'FREQ=WEEKLY',
         recurrenceEndDate: undefined,
         recurrenceCount: undefined,
+        reminderMinutes: [10],
       });
     });
 
@@ -924,6 +929,7 @@ describe('EventModal', () => {
         recurrenceRule: 'FREQ=MONTHLY',
         recurrenceEndDate: undefined,
         recurrenceCount: undefined,
+        reminderMinutes: [10],
       });
     });
 
@@ -971,6 +977,7 @@ describe('EventModal', () => {
         recurrenceRule: 'FREQ=DAILY',
         recurrenceEndDate: '2024-01-30T23:59:59',
         recurrenceCount: undefined,
+        reminderMinutes: [10],
       });
     });
 
@@ -1019,6 +1026,7 @@ describe('EventModal', () => {
         recurrenceRule: 'FREQ=WEEKLY',
         recurrenceEndDate: undefined,
         recurrenceCount: 5,
+        reminderMinutes: [10],
       });
     });
   });
@@ -182,144 +182,45 @@ describe('useNotifications', () => {
     });
   });
 
-  describe('scheduleReminders', () => {
-    const mockEvents = [
-      {
-        id: 1,
-        title: 'Test Event 1',
-        description: 'Test Description 1',
-        startDateTime: new Date(Date.now() + 15 * 60 * 1000).toISOString(), // 15 minutes from now
-        endDateTime: new Date(Date.now() + 16 * 60 * 1000).toISOString(),
-      },
-      {
-        id: 2,
-        title: 'Test Event 2',
-        description: 'Test Description 2',
-        startDateTime: new Date(Date.now() + 30 * 60 * 1000).toISOString(), // 30 minutes from now
-        endDateTime: new Date(Date.now() + 31 * 60 * 1000).toISOString(),
-      },
-    ];
-
-    it('should schedule reminders for future events when permission is granted', () => {
+  describe('notify', () => {
+    it('should dispatch immediately when document is visible', () => {
       mockNotification.permission = 'granted';
 
       const { result } = renderHook(() => useNotifications());
 
       act(() => {
-        result.current.scheduleReminders(mockEvents);
-      });
-
-      // Fast-forward time to trigger the first reminder (5 minutes from now)
-      act(() => {
-        jest.advanceTimersByTime(5 * 60 * 1000);
+        result.current.notify(
+          'Upcoming Event: Test Event',
+          'Starting in 10 minutes',
+          1
+        );
       });
 
       expect(mockNotification).toHaveBeenCalledWith(
-        'Upcoming Event: Test Event 1',
+        'Upcoming Event: Test Event',
         {
-          body: 'Starting in 10 minutes: Test Description 1',
+          body: 'Starting in 10 minutes',
           tag: '1',
           icon: '/favicon.ico',
         }
       );
     });
 
-    it('should not schedule reminders when permission is denied', () => {
+    it('should not dispatch when permission is denied', () => {
       mockNotification.permission = 'denied';
 
       const { result } = renderHook(() => useNotifications());
 
       act(() => {
-        result.current.scheduleReminders(mockEvents);
-      });
-
-      act(() => {
-        jest.advanceTimersByTime(5 * 60 * 1000);
-      });
-
-      expect(mockNotification).not.toHaveBeenCalled();
-    });
-
-    it('should not schedule reminders when Notification is not supported', () => {
-      // Remove Notification from window
-      Object.defineProperty(window, 'Notification', {
-        writable: true,
-        configurable: true,
-        value: undefined,
-      });
-
-      const { result } = renderHook(() => useNotifications());
-
-      act(() => {
-        result.current.scheduleReminders(mockEvents);
-      });
-
-      act(() => {
-        jest.advanceTimersByTime(5 * 60 * 1000);
-      });
-
-      expect(mockNotification).not.toHaveBeenCalled();
-    });
-
-    it('should not schedule reminders for past events', () => {
-      mockNotification.permission = 'granted';
-
-      const pastEvents = [
-        {
-          id: 3,
-          title: 'Past Event',
-          description: 'Past Description',
-          startDateTime: new Date(Date.now() - 60 * 1000).toISOString(), // 1 minute ago
-          endDateTime: new Date(Date.now()).toISOString(),
-        },
-      ];
-
-      const { result } = renderHook(() => useNotifications());
-
-      act(() => {
-        result.current.scheduleReminders(pastEvents);
-      });
-
-      act(() => {
-        jest.advanceTimersByTime(60 * 1000);
+        result.current.notify(
+          'Upcoming Event: Test Event',
+          'Starting in 10 minutes',
+          1
+        );
       });
 
       expect(mockNotification).not.toHaveBeenCalled();
     });
-
-    it('should clear existing timers when scheduling new reminders', () => {
-      mockNotification.permission = 'granted';
-
-      const { result } = renderHook(() => useNotifications());
-
-      // Schedule first set of reminders
-      act(() => {
-        result.current.scheduleReminders(mockEvents);
-      });
-
-      // Schedule new set of reminders (should clear previous ones)
-      const newEvents = [
-        {
-          id: 4,
-          title: 'New Event',
-          description: 'New Description',
-          startDateTime: new Date(Date.now() + 20 * 60 * 1000).toISOString(),
-          endDateTime: new Date(Date.now() + 21 * 60 * 1000).toISOString(),
-        },
-      ];
-
-      act(() => {
-        result.current.scheduleReminders(newEvents);
-      });
-
-      // Fast-forward to when original events would have triggered
-      act(() => {
-        jest.advanceTimersByTime(5 * 60 * 1000);
-      });
-
-      // Original events should not trigger
-      expect(mockNotification).not.toHaveBeenCalled();
-    });
   });
 
   describe('page visibility handling', () => {
@@ -334,23 +235,12 @@ describe('useNotifications', () => {
 
       const { result } = renderHook(() => useNotifications());
 
-      const mockEvents = [
-        {
-          id: 1,
-          title: 'Test Event',
-          description: 'Test Description',
-          startDateTime: new Date(Date.now() + 15 * 60 * 1000).toISOString(),
-          endDateTime: new Date(Date.now() + 16 * 60 * 1000).toISOString(),
-        },
-      ];
-
       act(() => {
-        result.current.scheduleReminders(mockEvents);
-      });
-
-      // Fast-forward to trigger reminder
-      act(() => {
-        jest.advanceTimersByTime(5 * 60 * 1000);
+        result.current.notify(
+          'Upcoming Event: Test Event',
+          'Starting in 10 minutes',
+          1
+        );
       });
 
       // Notification should not be dispatched immediately when hidden
@@ -368,23 +258,12 @@ describe('useNotifications', () => {
 
       const { result } = renderHook(() => useNotifications());
 
-      const mockEvents = [
-        {
-          id: 1,
-          title: 'Test Event',
-          description: 'Test Description',
-          startDateTime: new Date(Date.now() + 15 * 60 * 1000).toISOString(),
-          endDateTime: new Date(Date.now() + 16 * 60 * 1000).toISOString(),
-        },
-      ];
-
-      act(() => {
-        result.current.scheduleReminders(mockEvents);
-      });
-
-      // Fast-forward to trigger reminder (should be queued)
       act(() => {
-        jest.advanceTimersByTime(5 * 60 * 1000);
+        result.current.notify(
+          'Upcoming Event: Test Event',
+          'Starting in 10 minutes',
+          1
+        );
       });
 
       expect(mockNotification).not.toHaveBeenCalled();
@@ -404,7 +283,7 @@ describe('useNotifications', () => {
       expect(mockNotification).toHaveBeenCalledWith(
         'Upcoming Event: Test Event',
         {
-          body: 'Starting in 10 minutes: Test Description',
+          body: 'Starting in 10 minutes',
           tag: '1',
           icon: '/favicon.ico',
         }
@@ -499,65 +378,34 @@ describe('useNotifications', () => {
   });
 
   describe('cleanup', () => {
-    it('should clear all timers when clearAllTimers is called', () => {
+    it('should drop queued notifications on unmount', () => {
       mockNotification.permission = 'granted';
-
-      const { result } = renderHook(() => useNotifications());
-
-      const mockEvents = [
-        {
-          id: 1,
-          title: 'Test Event',
-          description: 'Test Description',
-          startDateTime: new Date(Date.now() + 15 * 60 * 1000).toISOString(),
-          endDateTime: new Date(Date.now() + 16 * 60 * 1000).toISOString(),
-        },
-      ];
-
-      act(() => {
-        result.current.scheduleReminders(mockEvents);
-      });
-
-      act(() => {
-        result.current.clearAllTimers();
-      });
-
-      // Fast-forward to when reminder would have triggered
-      act(() => {
-        jest.advanceTimersByTime(5 * 60 * 1000);
+      Object.defineProperty(document, 'visibilityState', {
+        writable: true,
+        value: 'hidden',
       });
 
-      // Notification should not be dispatched after clearing timers
-      expect(mockNotification).not.toHaveBeenCalled();
-    });
-
-    it('should clear timers on unmount', () => {
-      mockNotification.permission = 'granted';
-
       const { result, unmount } = renderHook(() => useNotifications());
 
-      const mockEvents = [
-        {
-          id: 1,
-          title: 'Test Event',
-          description: 'Test Description',
-          startDateTime: new Date(Date.now() + 15 * 60 * 1000).toISOString(),
-          endDateTime: new Date(Date.now() + 16 * 60 * 1000).toISOString(),
-        },
-      ];
-
       act(() => {
-        result.current.scheduleReminders(mockEvents);
+        result.current.notify(
+          'Upcoming Event: Test Event',
+          'Starting in 10 minutes',
+          1
+        );
       });
 
       unmount();
 
-      // Fast-forward to when reminder would have triggered
+      Object.defineProperty(document, 'visibilityState', {
+        writable: true,
+        value: 'visible',
+      });
       act(() => {
-        jest.advanceTimersByTime(5 * 60 * 1000);
+        document.dispatchEvent(new Event('visibilitychange'));
       });
 
-      // Notification should not be dispatched after unmount
+      // The listener is gone and the queue was cleared
       expect(mockNotification).not.toHaveBeenCalled();
     });
   });
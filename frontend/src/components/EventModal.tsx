@@ -7,6 +7,9 @@ import {
   ExclamationTriangleIcon,
 } from '@heroicons/react/24/outline';
 
+// Reminder the server sends before new events, in minutes
+const DEFAULT_REMINDER_MINUTES = 10;
+
 interface EventModalProps {
   isOpen: boolean;
   onClose: () => void;
@@ -214,6 +217,8 @@ export default function EventModal({
         recurrenceCount:
           formData.repeatEndType === 'count' ? formData.repeatCount : undefined,
         tagIds: selectedTagIds.length > 0 ? selectedTagIds : undefined,
+        // New events get the default reminder; edits keep the event's reminders
+        reminderMinutes: isEditMode ? undefined : [DEFAULT_REMINDER_MINUTES],
       };
 
       if (isEditMode && editEvent) {
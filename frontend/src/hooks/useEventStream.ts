@@ -0,0 +1,116 @@
+import { useEffect, useRef } from 'react';
+import api from '../services/api';
+
+export interface EventChangeNotice {
+  eventId: number;
+  kind: 'CHANGED' | 'DELETED';
+  start: string; // ISO
+  end: string | null; // ISO, null for an open-ended series
+  version: number;
+}
+
+export interface ReminderNotice {
+  eventId: number;
+  title: string;
+  occurrenceStart: string; // ISO
+  minutesBefore: number;
+}
+
+const RECONNECT_DELAY_MS = 5000;
+
+/**
+ * Follows GET /api/events/stream and calls onChange with the notices of each "changes" frame,
+ * or with null after a "resync" frame, and onReminder with each reminder the server fired.
+ * EventSource cannot send the Authorization header, so the stream is read with fetch.
+ * Reconnects after the server closes it.
+ */
+export function useEventStream(
+  onChange: (notices: EventChangeNotice[] | null) => void,
+  onReminder?: (reminder: ReminderNotice) => void
+) {
+  const onChangeRef = useRef(onChange);
+  onChangeRef.current = onChange;
+  const onReminderRef = useRef(onReminder);
+  onReminderRef.current = onReminder;
+
+  useEffect(() => {
+    if (
+      typeof fetch !== 'function' ||
+      typeof TextDecoder === 'undefined' ||
+      typeof AbortController === 'undefined'
+    ) {
+      return;
+    }
+    const controller = new AbortController();
+    let reconnectTimer: ReturnType<typeof setTimeout> | undefined;
+
+    const dispatch = (frame: string) => {
+      let event = 'message';
+      const data: string[] = [];
+      for (const line of frame.split('\n')) {
+        if (line.startsWith('event:')) {
+          event = line.slice(6).trim();
+        } else if (line.startsWith('data:')) {
+          data.push(line.slice(5));
+        }
+      }
+      if (event === 'changes') {
+        onChangeRef.current(JSON.parse(data.join('\n')));
+      } else if (event === 'resync') {
+        onChangeRef.current(null);
+      } else if (event === 'reminder') {
+        onReminderRef.current?.(JSON.parse(data.join('\n')));
+      }
+    };
+
+    const connect = async () => {
+      try {
+        const token = localStorage.getItem('token');
+        const res = await fetch(
+          `${api.defaults.baseURL ?? '/api'}/events/stream`,
+          {
+            headers: {
+              Accept: 'text/event-stream',
+              ...(token ? { Authorization: `Bearer ${token}` } : {}),
+            },
+            signal: controller.signal,
+          }
+        );
+        if (!res.ok || !res.body) {
+          return;
+        }
+        const reader = res.body.getReader();
+        const decoder = new TextDecoder();
+        let buffered = '';
+        for (;;) {
+          const { done, value } = await reader.read();
+          if (done) {
+            break;
+          }
+          buffered += decoder.decode(value, { stream: true });
+          let end;
+          while ((end = buffered.indexOf('\n\n')) >= 0) {
+            dispatch(buffered.slice(0, end));
+            buffered = buffered.slice(end + 2);
+          }
+        }
+      } catch (err) {
+        if (controller.signal.aborted) {
+          return;
+        }
+        console.error('Event stream failed', err);
+      }
+      if (!controller.signal.aborted) {
+        reconnectTimer = setTimeout(connect, RECONNECT_DELAY_MS);
+      }
+    };
+
+    connect();
+    return () => {
+      controller.abort();
+      if (reconnectTimer) {
+        clearTimeout(reconnectTimer);
+      }
+    };
+  }, []);
+}
@@ -1,16 +1,5 @@
 import { useState, useEffect, useRef, useCallback } from 'react';
 
-export interface EventDTO {
-  id: number;
-  title: string;
-  description: string;
-  startDateTime: string; // ISO
-  endDateTime: string; // ISO
-}
-
-// Default reminder offset: 10 minutes before event
-const REMINDER_OFFSET_MS = 10 * 60 * 1000; // 10 minutes in milliseconds
-
 interface NotificationState {
   permission: NotificationPermission;
   isSupported: boolean;
@@ -30,7 +19,6 @@ export function useNotifications() {
     }
   );
 
-  const timersRef = useRef<Map<number, NodeJS.Timeout>>(new Map());
   const queuedNotificationsRef = useRef<QueuedNotification[]>([]);
   const isDocumentVisibleRef = useRef(true);
 
@@ -150,78 +138,30 @@ export function useNotifications() {
       }
     }, [notificationState.isSupported, notificationState.permission]);
 
-  // Schedule reminders for events
-  const scheduleReminders = useCallback(
-    (events: EventDTO[]) => {
-      // Clear existing timers
-      timersRef.current.forEach(timer => clearTimeout(timer));
-      timersRef.current.clear();
-
-      // Skip if notifications not supported or not granted
-      if (
-        !notificationState.isSupported ||
-        notificationState.permission !== 'granted'
-      ) {
-        return;
+  // Show a reminder pushed by the server; queued while the page is hidden
+  const notify = useCallback(
+    (title: string, body: string, eventId: number) => {
+      if (!isDocumentVisibleRef.current) {
+        queuedNotificationsRef.current.push({ eventId, title, body });
+      } else {
+        dispatchNotification(title, body, eventId);
       }
-
-      const now = new Date().getTime();
-
-      events.forEach(event => {
-        const eventStart = new Date(event.startDateTime).getTime();
-        const delay = eventStart - now - REMINDER_OFFSET_MS;
-
-        // Only schedule if the reminder time is in the future
-        if (delay > 0) {
-          const timer = setTimeout(() => {
-            const title = `Upcoming Event: ${event.title}`;
-            const body = `Starting in 10 minutes${event.description ? `: ${event.description}` : ''}`;
-
-            // If document is hidden, queue the notification
-            if (!isDocumentVisibleRef.current) {
-              queuedNotificationsRef.current.push({
-                eventId: event.id,
-                title,
-                body,
-              });
-            } else {
-              dispatchNotification(title, body, event.id);
-            }
-
-            // Remove timer from map after it fires
-            timersRef.current.delete(event.id);
-          }, delay);
-
-          timersRef.current.set(event.id, timer);
-        }
-      });
     },
-    [
-      notificationState.isSupported,
-      notificationState.permission,
-      dispatchNotification,
-    ]
+    [dispatchNotification]
   );
 
-  // Clear all timers (for cleanup)
-  const clearAllTimers = useCallback(() => {
-    timersRef.current.forEach(timer => clearTimeout(timer));
-    timersRef.current.clear();
-    queuedNotificationsRef.current = [];
-  }, []);
-
-  // Cleanup on unmount
+  // Drop queued notifications on unmount
   useEffect(() => {
+    const queued = queuedNotificationsRef;
     return () => {
-      clearAllTimers();
+      queued.current = [];
     };
-  }, [clearAllTimers]);
+  }, []);
 
   return {
     notificationState,
     requestPermission,
-    scheduleReminders,
-    clearAllTimers,
+    notify,
     dispatchNotification,
   };
 }
@@ -15,6 +15,7 @@ import 'react-calendar/dist/Calendar.css';
 import api from '../services/api';
 import { deleteEvent } from '../services/events';
 import { useNotifications } from '../hooks/useNotifications';
+import { useEventStream } from '../hooks/useEventStream';
 
 type ViewMode = 'day' | 'week' | 'month';
 const viewModes: ViewMode[] = ['day', 'week', 'month'];
@@ -48,8 +49,7 @@ const CalendarPage: FC = () => {
   const {
     notificationState,
     requestPermission,
-    scheduleReminders,
-    clearAllTimers,
+    notify,
   } = useNotifications();
 
   // --- STATE ---
@@ -105,13 +105,6 @@ const CalendarPage: FC = () => {
     requestPermission,
   ]);
 
-  // Cleanup timers on unmount
-  useEffect(() => {
-    return () => {
-      clearAllTimers();
-    };
-  }, [clearAllTimers]);
-
   // --- FETCH TAGS ---
   const fetchTags = useCallback(async () => {
     try {
@@ -166,23 +159,51 @@ const CalendarPage: FC = () => {
         params.tagId = selectedTagFilter;
       }
 
-      const res = await api.get<EventDTO[]>('/events', { params });
-      const fetchedEvents = Array.isArray(res.data) ? res.data : [];
+      // Large ranges come back in pages; follow the cursor until the last one
+      const fetchedEvents: EventDTO[] = [];
+      let cursor: string | undefined;
+      do {
+        const res = await api.get<EventDTO[]>('/events', {
+          params: cursor ? { ...params, cursor } : params,
+        });
+        if (Array.isArray(res.data)) {
+          fetchedEvents.push(...res.data);
+        }
+        const next = res.headers?.['x-next-cursor'];
+        cursor = typeof next === 'string' && next ? next : undefined;
+      } while (cursor);
       setEvents(fetchedEvents);
-
-      // Schedule reminders for the fetched events
-      scheduleReminders(fetchedEvents);
     } catch (err) {
       console.error('Failed to fetch events', err);
       setEvents([]);
     }
-  }, [view, value, scheduleReminders, selectedTagFilter]);
+  }, [view, value, selectedTagFilter]);
 
   // refetch on mount + whenever view/value changes
   useEffect(() => {
     fetchEvents();
   }, [fetchEvents]);
 
+  // refetch when events change on another device; reminders are fired by the server
+  useEventStream(
+    () => {
+      fetchEvents();
+    },
+    reminder => {
+      const startsAt = new Date(reminder.occurrenceStart).toLocaleTimeString(
+        [],
+        { hour: '2-digit', minute: '2-digit' }
+      );
+      notify(
+        `Upcoming Event: ${reminder.title}`,
+        reminder.minutesBefore > 0
+          ? `Starting in ${reminder.minutesBefore} minutes (${startsAt})`
+          : `Starting now (${startsAt})`,
+        reminder.eventId
+      );
+    }
+  );
+
   // called after you successfully create an event
   const handleEventCreated = () => {
     setIsEventModalOpen(false);
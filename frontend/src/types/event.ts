@@ -27,6 +27,8 @@ export interface CreateEventRequest {
   recurrenceCount?: number;
   // Tag IDs to associate with this event
   tagIds?: number[];
+  // Reminders in minutes before the start; omitted on update to keep the event's reminders
+  reminderMinutes?: number[];
 }
 
 export interface EventFormData {